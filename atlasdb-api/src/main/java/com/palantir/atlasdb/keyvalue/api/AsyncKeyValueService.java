@@ -0,0 +1,63 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.api;
+
+import java.util.Map;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * An extension of KeyValueService whose hot path reads and writes return futures instead of
+ * blocking the calling thread.
+ * <p>
+ * Each method has the same semantics as its synchronous counterpart in {@link KeyValueService}.
+ * Failures are reported through the returned future rather than thrown.  Cancelling a returned
+ * future makes a best effort attempt to cancel the outstanding requests; a cancelled write may
+ * still have been partially applied.
+ * <p>
+ * Use {@code KeyValueServices.asAsync} to get an instance of this interface for a key value
+ * service which does not implement it natively.
+ */
+public interface AsyncKeyValueService extends KeyValueService {
+
+    /**
+     * Asynchronous version of {@link #get(String, Map)}.
+     */
+    ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell);
+
+    /**
+     * Asynchronous version of {@link #getRows(String, Iterable, ColumnSelection, long)}.
+     */
+    ListenableFuture<Map<Cell, Value>> getRowsAsync(String tableName,
+                                                    Iterable<byte[]> rows,
+                                                    ColumnSelection columnSelection,
+                                                    long timestamp);
+
+    /**
+     * Asynchronous version of {@link #multiPut(Map, long)}.  The future completes once every
+     * value has been written.
+     */
+    ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp);
+
+    /**
+     * Asynchronously loads the first page of the given range, as
+     * {@link #getFirstBatchForRanges(String, Iterable, long)} would for a single range.
+     */
+    ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(String tableName,
+                                                                                            RangeRequest rangeRequest,
+                                                                                            long timestamp);
+}
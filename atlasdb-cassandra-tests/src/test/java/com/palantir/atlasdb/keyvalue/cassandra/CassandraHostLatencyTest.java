@@ -0,0 +1,67 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class CassandraHostLatencyTest {
+
+    @Test
+    public void testRecentPercentile() throws Exception {
+        CassandraHostLatency latency = new CassandraHostLatency(InetAddress.getByName("127.0.0.1"));
+        assertEquals(-1, latency.getRecentMedianMicros());
+        for (int i = 0; i < 99; i++) {
+            finishRequest(latency, TimeUnit.MICROSECONDS.toNanos(80));
+        }
+        finishRequest(latency, TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(128, latency.getRecentMedianMicros());
+        assertEquals(128, latency.getRecentP99Micros());
+        assertEquals(65536, TimeUnit.NANOSECONDS.toMicros(latency.getRecentLatencyPercentileNanos(1.0)));
+        assertEquals(100, latency.getRequestCount());
+        assertEquals(0, latency.getInFlightRequests());
+    }
+
+    @Test
+    public void testPrefersFasterReplica() throws Exception {
+        InetAddress slow = InetAddress.getByName("127.0.0.1");
+        InetAddress fast = InetAddress.getByName("127.0.0.2");
+        CassandraHostLatencyTracker tracker = new CassandraHostLatencyTracker();
+        for (int i = 0; i < 10; i++) {
+            finishRequest(tracker.getLatency(slow), TimeUnit.MILLISECONDS.toNanos(100));
+            finishRequest(tracker.getLatency(fast), TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        List<InetAddress> owners = ImmutableList.of(slow, fast);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fast, tracker.chooseHost(owners));
+        }
+        assertEquals(slow, tracker.chooseOtherHost(owners, fast));
+        assertNull(tracker.chooseOtherHost(ImmutableList.of(fast), fast));
+    }
+
+    private static void finishRequest(CassandraHostLatency latency, long nanos) {
+        latency.requestStarted();
+        latency.requestFinished(System.nanoTime() - nanos, true);
+    }
+}
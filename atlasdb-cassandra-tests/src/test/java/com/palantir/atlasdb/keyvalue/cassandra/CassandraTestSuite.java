@@ -31,7 +31,9 @@ import org.junit.runners.Suite.SuiteClasses;
         CQLKeyValueServiceTransactionTest.class,
         CassandraTimestampTest.class,
         CassandraKeyValueServiceSweeperTest.class,
-        CQLKeyValueServiceSweeperTest.class
+        CQLKeyValueServiceSweeperTest.class,
+        ParallelRangeIteratorTest.class,
+        CassandraHostLatencyTest.class
 })
 public class CassandraTestSuite {
 
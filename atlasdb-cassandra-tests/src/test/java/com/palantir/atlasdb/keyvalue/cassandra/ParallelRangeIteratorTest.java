@@ -0,0 +1,162 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
+
+public class ParallelRangeIteratorTest {
+    private static final List<byte[]> TOKEN_RANGE_ENDS = ImmutableList.of(
+            PtBytes.toBytes("b"), PtBytes.toBytes("d"), PtBytes.toBytes("f"));
+
+    private ExecutorService exec;
+
+    @Before
+    public void setUp() {
+        exec = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        exec.shutdownNow();
+    }
+
+    @Test
+    public void testSplitAllAtTokens() {
+        List<RangeRequest> ranges = CassandraKeyValueService.splitRangeAtTokens(RangeRequest.all(), TOKEN_RANGE_ENDS);
+        assertEquals(4, ranges.size());
+        assertArrayEquals(PtBytes.EMPTY_BYTE_ARRAY, ranges.get(0).getStartInclusive());
+        assertArrayEquals(new byte[] {'b', 0}, ranges.get(0).getEndExclusive());
+        assertArrayEquals(new byte[] {'f', 0}, ranges.get(3).getStartInclusive());
+        assertArrayEquals(PtBytes.EMPTY_BYTE_ARRAY, ranges.get(3).getEndExclusive());
+    }
+
+    @Test
+    public void testSplitKeepsBoundsAndBatchHint() {
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("c"))
+                .endRowExclusive(PtBytes.toBytes("e"))
+                .batchHint(7)
+                .build();
+        List<RangeRequest> ranges = CassandraKeyValueService.splitRangeAtTokens(request, TOKEN_RANGE_ENDS);
+        assertEquals(2, ranges.size());
+        assertArrayEquals(PtBytes.toBytes("c"), ranges.get(0).getStartInclusive());
+        assertArrayEquals(new byte[] {'d', 0}, ranges.get(1).getStartInclusive());
+        assertArrayEquals(PtBytes.toBytes("e"), ranges.get(1).getEndExclusive());
+        assertEquals(Integer.valueOf(7), ranges.get(1).getBatchHint());
+    }
+
+    @Test
+    public void testOrdered() {
+        List<RangeRequest> ranges = CassandraKeyValueService.splitRangeAtTokens(RangeRequest.all(), TOKEN_RANGE_ENDS);
+        List<byte[]> rows = Lists.newArrayList();
+        try (ClosableIterator<RowResult<String>> it = new ParallelRangeIterator<String>(ranges, new FakeRanges(50), exec, 2, 3, true)) {
+            while (it.hasNext()) {
+                rows.add(it.next().getRowName());
+            }
+        }
+        assertEquals(allRows(50), rows.size());
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(UnsignedBytes.lexicographicalComparator().compare(rows.get(i - 1), rows.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void testUnordered() {
+        List<RangeRequest> ranges = CassandraKeyValueService.splitRangeAtTokens(RangeRequest.all(), TOKEN_RANGE_ENDS);
+        Set<String> rows = Sets.newHashSet();
+        try (ClosableIterator<RowResult<String>> it = new ParallelRangeIterator<String>(ranges, new FakeRanges(50), exec, 3, 3, false)) {
+            while (it.hasNext()) {
+                rows.add(PtBytes.toString(it.next().getRowName()));
+            }
+        }
+        assertEquals(allRows(50), rows.size());
+    }
+
+    @Test
+    public void testFailurePropagates() {
+        List<RangeRequest> ranges = CassandraKeyValueService.splitRangeAtTokens(RangeRequest.all(), TOKEN_RANGE_ENDS);
+        Function<RangeRequest, ClosableIterator<RowResult<String>>> failing = new Function<RangeRequest, ClosableIterator<RowResult<String>>>() {
+            @Override
+            public ClosableIterator<RowResult<String>> apply(RangeRequest range) {
+                if (range.getStartInclusive().length > 0 && range.getStartInclusive()[0] == 'd') {
+                    throw new IllegalStateException("boom");
+                }
+                return new FakeRanges(5).apply(range);
+            }
+        };
+        try (ClosableIterator<RowResult<String>> it = new ParallelRangeIterator<String>(ranges, failing, exec, 2, 1, true)) {
+            while (it.hasNext()) {
+                it.next();
+            }
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private static int allRows(int rowsPerLetter) {
+        return 26 * rowsPerLetter;
+    }
+
+    /**
+     * Each letter a-z has rowsPerLetter rows named letter + index.
+     */
+    private static class FakeRanges implements Function<RangeRequest, ClosableIterator<RowResult<String>>> {
+        private final int rowsPerLetter;
+
+        FakeRanges(int rowsPerLetter) {
+            this.rowsPerLetter = rowsPerLetter;
+        }
+
+        @Override
+        public ClosableIterator<RowResult<String>> apply(RangeRequest range) {
+            List<RowResult<String>> results = Lists.newArrayList();
+            for (char letter = 'a'; letter <= 'z'; letter++) {
+                for (int i = 0; i < rowsPerLetter; i++) {
+                    byte[] row = PtBytes.toBytes(String.format("%s%03d", letter, i));
+                    if (range.inRange(row)) {
+                        results.add(RowResult.of(Cell.create(row, PtBytes.toBytes("c")), "v"));
+                    }
+                }
+            }
+            return ClosableIterators.wrap(results.iterator());
+        }
+    }
+}
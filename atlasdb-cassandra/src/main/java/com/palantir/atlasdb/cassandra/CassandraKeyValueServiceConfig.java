@@ -106,6 +106,31 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         return 64;
     }
 
+    /**
+     * How many pages of a range scan to fetch in the background while the current page is
+     * being consumed. Zero, the default, fetches each page only once it is needed.
+     */
+    @Value.Default
+    public int rangeReadAheadPages() {
+        return 0;
+    }
+
+    /**
+     * Read-ahead for a single range scan pauses once the pages waiting to be consumed hold
+     * roughly this many bytes.
+     */
+    @Value.Default
+    public long rangeReadAheadBytes() {
+        return 16 * 1024 * 1024;
+    }
+
+    /**
+     * If set, a point read that is still outstanding once it has taken longer than this percentile
+     * of recent reads from its host is also sent to another replica, and whichever replica answers
+     * first is used. For example 0.95 hedges roughly the slowest 5% of reads.
+     */
+    public abstract Optional<Double> hedgedReadPercentile();
+
     public abstract Optional<CassandraJmxCompactionConfig> jmx();
 
     @Override
@@ -120,5 +145,9 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
             Preconditions.checkState(addr.getPort() > 0, "each server must specify a port ([host]:[port])");
         }
         Preconditions.checkNotNull(keyspace(), "'keyspace' must be specified");
+        if (hedgedReadPercentile().isPresent()) {
+            double percentile = hedgedReadPercentile().get();
+            Preconditions.checkState(percentile > 0 && percentile <= 1, "'hedgedReadPercentile' must be in (0, 1]");
+        }
     }
 }
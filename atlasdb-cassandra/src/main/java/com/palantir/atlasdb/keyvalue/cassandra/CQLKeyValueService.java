@@ -28,6 +28,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
@@ -81,10 +82,14 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfigManager;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
@@ -102,16 +107,20 @@ import com.palantir.atlasdb.keyvalue.cassandra.jmx.CassandraJmxCompactionManager
 import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
+import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.common.annotation.Idempotent;
+import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.Visitor;
 import com.palantir.util.paging.AbstractPagingIterable;
 import com.palantir.util.paging.SimpleTokenBackedResultsPage;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
-public class CQLKeyValueService extends AbstractKeyValueService {
+public class CQLKeyValueService extends AbstractKeyValueService implements AsyncKeyValueService {
     private static final Logger log = LoggerFactory.getLogger(CQLKeyValueService.class);
 
     private Cluster cluster, longRunningQueryCluster;
@@ -129,6 +138,10 @@ public class CQLKeyValueService extends AbstractKeyValueService {
 
     private boolean limitBatchSizesToServerDefaults = false;
 
+    // Range read-ahead may be started from tasks on the shared executor, so it gets its own threads.
+    private final ExecutorService readAheadExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas CQL range read-ahead", true));
+
     public static CQLKeyValueService create(CassandraKeyValueServiceConfigManager configManager) {
         Optional<CassandraJmxCompactionManager> compactionManager = CassandraJmxCompaction.createJmxCompactionManager(configManager);
         final CQLKeyValueService ret = new CQLKeyValueService(configManager, compactionManager);
@@ -249,6 +262,7 @@ public class CQLKeyValueService extends AbstractKeyValueService {
         }
         longRunningQuerySession.close();
         longRunningQueryCluster.close();
+        readAheadExecutor.shutdownNow();
         super.close();
     }
 
@@ -306,13 +320,7 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                                     ColumnSelection selection,
                                     final long startTs) {
         if (!selection.allColumnsSelected()) {
-            Collection<byte[]> selectedColumns = selection.getSelectedColumns();
-            Set<Cell> cells = Sets.newHashSetWithExpectedSize(selectedColumns.size() * Iterables.size(rows));
-            for (byte[] row : rows) {
-                for (byte[] col : selectedColumns) {
-                    cells.add(Cell.create(row, col));
-                }
-            }
+            Set<Cell> cells = getSelectedCells(rows, selection);
             try {
                 StartTsResultsCollector collector = new StartTsResultsCollector(startTs);
                 loadWithTs(tableName, cells, startTs, false, collector, readConsistency);
@@ -353,15 +361,7 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                 } catch (Throwable t) {
                     throw Throwables.throwUncheckedException(t);
                 }
-                for (Row row : resultSet.all()) {
-                    Cell c = Cell.create(CQLKeyValueServices.getRowName(row), CQLKeyValueServices.getColName(row));
-                    if ((CQLKeyValueServices.getTs(row) < startTs)
-                            && (!result.containsKey(c) || (result.get(c).getTimestamp() < CQLKeyValueServices.getTs(row)))) {
-                        result.put(
-                                Cell.create(CQLKeyValueServices.getRowName(row), CQLKeyValueServices.getColName(row)),
-                                Value.create(CQLKeyValueServices.getValue(row), CQLKeyValueServices.getTs(row)));
-                    }
-                }
+                collectLatestValues(resultSet, startTs, result);
                 cqlKeyValueServices.logTracedQuery(getRowsQuery, resultSet, session, cqlStatementCache.NORMAL_QUERY);
             }
         }
@@ -373,6 +373,62 @@ public class CQLKeyValueService extends AbstractKeyValueService {
         return result;
     }
 
+    private static Set<Cell> getSelectedCells(Iterable<byte[]> rows, ColumnSelection selection) {
+        Collection<byte[]> selectedColumns = selection.getSelectedColumns();
+        Set<Cell> cells = Sets.newHashSetWithExpectedSize(selectedColumns.size() * Iterables.size(rows));
+        for (byte[] row : rows) {
+            for (byte[] col : selectedColumns) {
+                cells.add(Cell.create(row, col));
+            }
+        }
+        return cells;
+    }
+
+    private static void collectLatestValues(ResultSet resultSet, long startTs, @Output Map<Cell, Value> result) {
+        for (Row row : resultSet.all()) {
+            Cell c = Cell.create(CQLKeyValueServices.getRowName(row), CQLKeyValueServices.getColName(row));
+            if ((CQLKeyValueServices.getTs(row) < startTs)
+                    && (!result.containsKey(c) || (result.get(c).getTimestamp() < CQLKeyValueServices.getTs(row)))) {
+                result.put(c, Value.create(CQLKeyValueServices.getValue(row), CQLKeyValueServices.getTs(row)));
+            }
+        }
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(final String tableName,
+                                                           final Iterable<byte[]> rows,
+                                                           ColumnSelection selection,
+                                                           final long startTs) {
+        if (!selection.allColumnsSelected()) {
+            return loadWithTsAsync(tableName, getSelectedCells(rows, selection), startTs, readConsistency);
+        }
+
+        final String getRowsQuery = "SELECT * FROM " + getFullTableName(tableName) + " WHERE " + CassandraConstants.ROW_NAME
+                + " = ?";
+        List<ResultSetFuture> resultSetFutures = Lists.newArrayList();
+        try {
+            PreparedStatement preparedStatement = getPreparedStatement(tableName, getRowsQuery, session);
+            for (byte[] row : rows) {
+                resultSetFutures.add(session.executeAsync(preparedStatement.bind(ByteBuffer.wrap(row))));
+            }
+        } catch (Throwable t) {
+            cancelAll(resultSetFutures);
+            return Futures.immediateFailedFuture(t);
+        }
+        // Reading the results may fetch further pages, which must not happen on a driver I/O thread.
+        return Futures.transform(Futures.allAsList(resultSetFutures), new Function<List<ResultSet>, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(List<ResultSet> resultSets) {
+                Map<Cell, Value> result = Maps.newHashMap();
+                for (ResultSet resultSet : resultSets) {
+                    collectLatestValues(resultSet, startTs, result);
+                    cqlKeyValueServices.logTracedQuery(getRowsQuery, resultSet, session, cqlStatementCache.NORMAL_QUERY);
+                }
+                return result;
+            }
+        }, executor);
+    }
+
     @Override
     public Map<Cell, Value> get(String tableName, Map<Cell, Long> timestampByCell) {
         if (timestampByCell.isEmpty()) {
@@ -402,15 +458,79 @@ public class CQLKeyValueService extends AbstractKeyValueService {
         }
     }
 
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell) {
+        if (timestampByCell.isEmpty()) {
+            return Futures.<Map<Cell, Value>>immediateFuture(ImmutableMap.<Cell, Value>of());
+        }
+
+        SetMultimap<Long, Cell> cellsByTs = HashMultimap.create();
+        Multimaps.invertFrom(Multimaps.forMap(timestampByCell), cellsByTs);
+        List<ListenableFuture<Map<Cell, Value>>> futures = Lists.newArrayListWithCapacity(cellsByTs.keySet().size());
+        for (long ts : cellsByTs.keySet()) {
+            futures.add(loadWithTsAsync(tableName, cellsByTs.get(ts), ts, readConsistency));
+        }
+        if (futures.size() == 1) {
+            return futures.get(0);
+        }
+        return Futures.transform(Futures.allAsList(futures), new Function<List<Map<Cell, Value>>, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(List<Map<Cell, Value>> results) {
+                Builder<Cell, Value> builder = ImmutableMap.builder();
+                for (Map<Cell, Value> result : results) {
+                    builder.putAll(result);
+                }
+                return builder.build();
+            }
+        });
+    }
+
     private void loadWithTs(final String tableName,
                             final Set<Cell> cells,
                             final long startTs,
                             boolean loadAllTs,
                             final Visitor<Multimap<Cell, Value>> v,
                             final ConsistencyLevel consistency) throws Exception {
-        final String loadWithTsQuery = "SELECT * FROM " + getFullTableName(tableName) + " "
+        String loadWithTsQuery = getLoadWithTsQuery(tableName, loadAllTs);
+        for (ResultSetFuture rsf : startLoadWithTs(tableName, loadWithTsQuery, cells, startTs, consistency)) {
+            visitResults(rsf.getUninterruptibly(), v, loadWithTsQuery, loadAllTs);
+        }
+    }
+
+    private ListenableFuture<Map<Cell, Value>> loadWithTsAsync(String tableName,
+                                                               Set<Cell> cells,
+                                                               long startTs,
+                                                               ConsistencyLevel consistency) {
+        final String loadWithTsQuery = getLoadWithTsQuery(tableName, false);
+        final StartTsResultsCollector collector = new StartTsResultsCollector(startTs);
+        List<ResultSetFuture> resultSetFutures;
+        try {
+            resultSetFutures = startLoadWithTs(tableName, loadWithTsQuery, cells, startTs, consistency);
+        } catch (Throwable t) {
+            return Futures.immediateFailedFuture(t);
+        }
+        return Futures.transform(Futures.allAsList(resultSetFutures), new Function<List<ResultSet>, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(List<ResultSet> resultSets) {
+                for (ResultSet resultSet : resultSets) {
+                    visitResults(resultSet, collector, loadWithTsQuery, false);
+                }
+                return collector.collectedResults;
+            }
+        }, executor);
+    }
+
+    private String getLoadWithTsQuery(String tableName, boolean loadAllTs) {
+        return "SELECT * FROM " + getFullTableName(tableName) + " "
                 + "WHERE " + CassandraConstants.ROW_NAME + " = ? AND " + CassandraConstants.COL_NAME_COL + " = ? AND " + CassandraConstants.TS_COL
                 + " > ?" + (!loadAllTs ? " LIMIT 1" : "");
+    }
+
+    private List<ResultSetFuture> startLoadWithTs(String tableName,
+                                                  String loadWithTsQuery,
+                                                  Set<Cell> cells,
+                                                  long startTs,
+                                                  ConsistencyLevel consistency) {
         final CassandraKeyValueServiceConfig config = configManager.getConfig();
         if (cells.size() > config.fetchBatchCount()) {
             log.warn("A call to " + tableName
@@ -429,9 +549,12 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                             ~startTs));
             resultSetFutures.add(resultSetFuture);
         }
+        return resultSetFutures;
+    }
 
-        for (ResultSetFuture rsf : resultSetFutures) {
-            visitResults(rsf.getUninterruptibly(), v, loadWithTsQuery, loadAllTs);
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
         }
     }
 
@@ -554,6 +677,45 @@ public class CQLKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void multiPut(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp) throws KeyAlreadyExistsException {
+        Map<ResultSetFuture, String> resultSetFutures = startMultiPut(valuesByTable, timestamp);
+        for (Entry<ResultSetFuture, String> result : resultSetFutures.entrySet()) {
+            ResultSet resultSet;
+            try {
+                resultSet = result.getKey().getUninterruptibly();
+                resultSet.all();
+            } catch (Throwable t) {
+                throw Throwables.throwUncheckedException(t);
+            }
+            cqlKeyValueServices.logTracedQuery(getPutQuery(result.getValue(), CassandraConstants.NO_TTL), resultSet, session, cqlStatementCache.NORMAL_QUERY);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+        final List<ResultSetFuture> resultSetFutures = Lists.newArrayList();
+        final List<String> tables = Lists.newArrayList();
+        try {
+            for (Entry<ResultSetFuture, String> e : startMultiPut(valuesByTable, timestamp).entrySet()) {
+                resultSetFutures.add(e.getKey());
+                tables.add(e.getValue());
+            }
+        } catch (Throwable t) {
+            return Futures.immediateFailedFuture(t);
+        }
+        return Futures.transform(Futures.allAsList(resultSetFutures), new Function<List<ResultSet>, Void>() {
+            @Override
+            public Void apply(List<ResultSet> resultSets) {
+                for (int i = 0; i < resultSets.size(); i++) {
+                    ResultSet resultSet = resultSets.get(i);
+                    resultSet.all();
+                    cqlKeyValueServices.logTracedQuery(getPutQuery(tables.get(i), CassandraConstants.NO_TTL), resultSet, session, cqlStatementCache.NORMAL_QUERY);
+                }
+                return null;
+            }
+        }, executor);
+    }
+
+    private Map<ResultSetFuture, String> startMultiPut(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp) {
         Map<ResultSetFuture, String> resultSetFutures = Maps.newHashMap();
         for (Entry<String, ? extends Map<Cell, byte[]>> e : valuesByTable.entrySet()) {
             final String table = e.getKey();
@@ -574,17 +736,7 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                 resultSetFutures.put(getPutPartitionResultSetFuture(table, partition, TransactionType.NONE), table);
             }
         }
-
-        for (Entry<ResultSetFuture, String> result : resultSetFutures.entrySet()) {
-            ResultSet resultSet;
-            try {
-                resultSet = result.getKey().getUninterruptibly();
-                resultSet.all();
-            } catch (Throwable t) {
-                throw Throwables.throwUncheckedException(t);
-            }
-            cqlKeyValueServices.logTracedQuery(getPutQuery(result.getValue(), CassandraConstants.NO_TTL), resultSet, session, cqlStatementCache.NORMAL_QUERY);
-        }
+        return resultSetFutures;
     }
 
     private void putInternal(final String tableName, final Iterable<Map.Entry<Cell, Value>> values, TransactionType transactionType)
@@ -776,6 +928,24 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                 concurrency);
     }
 
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(final String tableName,
+                                                                                                   final RangeRequest rangeRequest,
+                                                                                                   final long timestamp) {
+        // The first page is read with a blocking range query, so it runs on our executor.
+        return MoreExecutors.listeningDecorator(executor).submit(
+                new Callable<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+                    @Override
+                    public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> call() {
+                        return KeyValueServices.getFirstBatchForRangesUsingGetRange(
+                                CQLKeyValueService.this,
+                                tableName,
+                                ImmutableList.of(rangeRequest),
+                                timestamp).get(rangeRequest);
+                    }
+                });
+    }
+
     // TODO: after cassandra change: handle reverse ranges
     // TODO: after cassandra change: handle column filtering
     @Override
@@ -840,7 +1010,8 @@ public class CQLKeyValueService extends AbstractKeyValueService {
         bindQuery.append("LIMIT " + batchHint);
         final String getLastRowQuery = "SELECT * FROM " + getFullTableName(tableName) + " WHERE "
                 + CassandraConstants.ROW_NAME + " = ?";
-        return ClosableIterators.wrap(new AbstractPagingIterable<RowResult<U>, TokenBackedBasicResultsPage<RowResult<U>, byte[]>>() {
+        AbstractPagingIterable<RowResult<U>, TokenBackedBasicResultsPage<RowResult<U>, byte[]>> pages =
+                new AbstractPagingIterable<RowResult<U>, TokenBackedBasicResultsPage<RowResult<U>, byte[]>>() {
             @Override
             protected TokenBackedBasicResultsPage<RowResult<U>, byte[]> getFirstPage()
                     throws Exception {
@@ -906,7 +1077,16 @@ public class CQLKeyValueService extends AbstractKeyValueService {
                 return ResultsExtractor.getRowResults(endExclusive, maxRow, resultsByRow);
             }
 
-        }.iterator());
+        };
+        int readAheadPages = configManager.getConfig().rangeReadAheadPages();
+        if (readAheadPages > 0) {
+            return pages.readAheadIterator(
+                    readAheadExecutor,
+                    readAheadPages,
+                    configManager.getConfig().rangeReadAheadBytes(),
+                    RowResults.getApproximateSizeOfKvsRowResultFunction());
+        }
+        return ClosableIterators.wrap(pages.iterator());
     }
 
     @Override
@@ -45,6 +45,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Client>
     private final int socketQueryTimeoutMillis;
     private final AtomicLong count = new AtomicLong();
     private final GenericObjectPool<Client> clientPool;
+    private final CassandraHostLatency latency;
 
     private CassandraClientPoolingContainer(Builder builder){
         this.addr = builder.addr;
@@ -53,6 +54,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Client>
         this.socketTimeoutMillis = builder.socketTimeoutMillis;
         this.socketQueryTimeoutMillis = builder.socketQueryTimeoutMillis;
         this.clientPool = builder.clientPool;
+        this.latency = builder.latency;
     }
 
     @Override
@@ -63,12 +65,19 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Client>
                 + " calling cassandra host " + addr
                 + " started at " + new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date())
                 + " - " + count.getAndIncrement());
+        long startNanos = latency == null ? 0 : latency.requestStarted();
+        boolean succeeded = false;
         try {
-            return runWithGoodResource(f);
+            V result = runWithGoodResource(f);
+            succeeded = true;
+            return result;
         } catch (Throwable t) {
             log.warn("Error occurred talking to host '{}': {}", addr, t.getMessage());
             throw t;
         } finally {
+            if (latency != null) {
+                latency.requestFinished(startNanos, succeeded);
+            }
             Thread.currentThread().setName(origName);
         }
     }
@@ -136,6 +145,8 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Client>
         private int socketTimeoutMillis = 2000;
         private int socketQueryTimeoutMillis = 62000;
 
+        private CassandraHostLatency latency = null;
+
         private GenericObjectPool<Client> clientPool;
 
         public Builder(InetSocketAddress addr) {
@@ -167,6 +178,11 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Client>
             return this;
         }
 
+        public Builder latency(CassandraHostLatency val){
+            latency = val;
+            return this;
+        }
+
         private GenericObjectPool<Client> createClientPool() {
             CassandraClientFactory cassandraClientFactory =
                     new CassandraClientFactory(addr,
@@ -0,0 +1,218 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Latency and load of the requests made to a single Cassandra host.
+ * <p>
+ * Latencies are kept as an exponentially weighted moving average, used to rank replicas, and
+ * as power of two histograms.  Percentiles are computed over the last two windows of
+ * {@link #SAMPLES_PER_WINDOW} requests so they follow the recent behaviour of the host, while
+ * the histogram exposed over JMX counts every request.
+ * <p>
+ * This class is thread safe.
+ */
+public final class CassandraHostLatency implements CassandraHostLatencyMBean {
+    static final int NUM_BUCKETS = 32;
+    static final int SAMPLES_PER_WINDOW = 1024;
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final int MIN_SAMPLES_FOR_PERCENTILE = 32;
+    private static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InetAddress host;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(NUM_BUCKETS);
+
+    private volatile long ewmaNanos = -1;
+    private volatile long lastSampleNanos;
+    @GuardedBy("this") private long[] currentWindow = new long[NUM_BUCKETS];
+    @GuardedBy("this") private long[] previousWindow = new long[NUM_BUCKETS];
+    @GuardedBy("this") private int currentWindowSamples = 0;
+
+    CassandraHostLatency(InetAddress host) {
+        this.host = host;
+    }
+
+    /**
+     * Marks the start of a request to this host.
+     *
+     * @return the start time to pass to {@link #requestFinished(long, boolean)}
+     */
+    long requestStarted() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void requestFinished(long startNanos, boolean succeeded) {
+        long now = System.nanoTime();
+        long nanos = now - startNanos;
+        inFlight.decrementAndGet();
+        requests.incrementAndGet();
+        if (!succeeded) {
+            failures.incrementAndGet();
+        }
+        int bucket = bucketFor(nanos);
+        histogram.incrementAndGet(bucket);
+        synchronized (this) {
+            long ewma = ewmaNanos;
+            ewmaNanos = ewma < 0 ? nanos : (long) (ewma + EWMA_WEIGHT * (nanos - ewma));
+            lastSampleNanos = now;
+            currentWindow[bucket]++;
+            if (++currentWindowSamples >= SAMPLES_PER_WINDOW) {
+                long[] oldest = previousWindow;
+                Arrays.fill(oldest, 0);
+                previousWindow = currentWindow;
+                currentWindow = oldest;
+                currentWindowSamples = 0;
+            }
+        }
+    }
+
+    /**
+     * The expected cost of sending one more request to this host; lower is better.  A host
+     * with no requests in flight that has not been heard from recently scores zero so that
+     * a replica which was slow once gets probed again rather than being avoided forever.
+     */
+    double getScore(long nowNanos) {
+        long ewma = ewmaNanos;
+        int requestsInFlight = inFlight.get();
+        if (ewma < 0 || (requestsInFlight == 0 && nowNanos - lastSampleNanos > STALE_NANOS)) {
+            return 0;
+        }
+        return (double) ewma * (requestsInFlight + 1);
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of recent request latency, or -1 if
+     * there have been too few recent requests to say.
+     */
+    synchronized long getRecentLatencyPercentileNanos(double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1, "percentile must be in (0, 1]");
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            total += currentWindow[i] + previousWindow[i];
+        }
+        if (total < MIN_SAMPLES_FOR_PERCENTILE) {
+            return -1;
+        }
+        long target = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += currentWindow[i] + previousWindow[i];
+            if (seen >= target) {
+                return bucketUpperBoundNanos(i);
+            }
+        }
+        return bucketUpperBoundNanos(NUM_BUCKETS - 1);
+    }
+
+    static int bucketFor(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        if (micros <= 1) {
+            return 0;
+        }
+        return Math.min(63 - Long.numberOfLeadingZeros(micros), NUM_BUCKETS - 1);
+    }
+
+    private static long bucketUpperBoundNanos(int bucket) {
+        return TimeUnit.MICROSECONDS.toNanos(1L << (bucket + 1));
+    }
+
+    private long percentileMicros(double percentile) {
+        long nanos = getRecentLatencyPercentileNanos(percentile);
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String getHost() {
+        return host.getHostAddress();
+    }
+
+    @Override
+    public int getInFlightRequests() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    @Override
+    public long getLatencyEwmaMicros() {
+        long ewma = ewmaNanos;
+        return ewma < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(ewma);
+    }
+
+    @Override
+    public long getRecentMedianMicros() {
+        return percentileMicros(0.5);
+    }
+
+    @Override
+    public long getRecentP99Micros() {
+        return percentileMicros(0.99);
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized void clearStats() {
+        requests.set(0);
+        failures.set(0);
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+        Arrays.fill(currentWindow, 0);
+        Arrays.fill(previousWindow, 0);
+        currentWindowSamples = 0;
+        ewmaNanos = -1;
+    }
+
+    @Override
+    public String toString() {
+        return "CassandraHostLatency [host=" + getHost()
+                + ", inFlight=" + getInFlightRequests()
+                + ", ewmaMicros=" + getLatencyEwmaMicros()
+                + ", requests=" + getRequestCount() + "]";
+    }
+}
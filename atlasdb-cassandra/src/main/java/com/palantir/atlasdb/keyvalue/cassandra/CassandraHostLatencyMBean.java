@@ -0,0 +1,54 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import javax.management.MXBean;
+
+@MXBean
+public interface CassandraHostLatencyMBean {
+
+    public String getHost();
+
+    public int getInFlightRequests();
+
+    public long getRequestCount();
+
+    public long getFailureCount();
+
+    /**
+     * Exponentially weighted moving average of request latency, or -1 before the first request.
+     */
+    public long getLatencyEwmaMicros();
+
+    /**
+     * Median latency over the recent window, or -1 if there have been too few requests.
+     */
+    public long getRecentMedianMicros();
+
+    /**
+     * 99th percentile latency over the recent window, or -1 if there have been too few requests.
+     */
+    public long getRecentP99Micros();
+
+    /**
+     * Request counts since creation; entry i counts requests that took less than 2^(i+1)
+     * microseconds but not less than 2^i.
+     */
+    public long[] getLatencyHistogram();
+
+    public void clearStats();
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.palantir.util.JMXUtils;
+
+/**
+ * Tracks {@link CassandraHostLatency} for every host the client pool talks to, and uses it to
+ * choose which replica of a key a request should be sent to.
+ * <p>
+ * Replicas are chosen by sampling two at random and taking the one with the lower score, so
+ * load shifts away from slow or busy hosts without every client piling onto whichever host
+ * currently looks fastest.
+ */
+public final class CassandraHostLatencyTracker {
+    private static final String MBEAN_NAME_PREFIX = "com.palantir.atlasdb:type=CassandraHostLatency,host=";
+
+    private final ConcurrentMap<InetAddress, CassandraHostLatency> latencyByHost = Maps.newConcurrentMap();
+
+    public CassandraHostLatency getLatency(InetAddress host) {
+        CassandraHostLatency latency = latencyByHost.get(host);
+        if (latency != null) {
+            return latency;
+        }
+        CassandraHostLatency newLatency = new CassandraHostLatency(host);
+        latency = latencyByHost.putIfAbsent(host, newLatency);
+        if (latency != null) {
+            return latency;
+        }
+        JMXUtils.registerMBeanCatchAndLogExceptions(newLatency, MBEAN_NAME_PREFIX + host.getHostAddress());
+        return newLatency;
+    }
+
+    public Map<InetAddress, CassandraHostLatency> getAllLatencies() {
+        return ImmutableMap.copyOf(latencyByHost);
+    }
+
+    /**
+     * Chooses the replica to send a request to from the given owners of a key.
+     */
+    public InetAddress chooseHost(List<InetAddress> owners) {
+        Preconditions.checkArgument(!owners.isEmpty(), "there must be at least one owner");
+        int size = owners.size();
+        if (size == 1) {
+            return owners.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        InetAddress firstHost = owners.get(first);
+        InetAddress secondHost = owners.get(second);
+        return score(secondHost, now) < score(firstHost, now) ? secondHost : firstHost;
+    }
+
+    /**
+     * Chooses a replica other than {@code exclude} from the given owners of a key, or returns
+     * null if there is no other owner.
+     */
+    public InetAddress chooseOtherHost(List<InetAddress> owners, InetAddress exclude) {
+        InetAddress best = null;
+        double bestScore = Double.MAX_VALUE;
+        long now = System.nanoTime();
+        for (InetAddress owner : owners) {
+            if (owner.equals(exclude)) {
+                continue;
+            }
+            double score = score(owner, now);
+            if (best == null || score < bestScore) {
+                best = owner;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private double score(InetAddress host, long nowNanos) {
+        CassandraHostLatency latency = latencyByHost.get(host);
+        return latency == null ? 0 : latency.getScore(nowNanos);
+    }
+}
@@ -28,6 +28,10 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -82,11 +86,17 @@ import com.google.common.collect.Ordering;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfigManager;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
@@ -103,6 +113,7 @@ import com.palantir.atlasdb.keyvalue.cassandra.jmx.CassandraJmxCompactionManager
 import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
+import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
 import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.common.annotation.Idempotent;
@@ -110,6 +121,8 @@ import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.exception.PalantirRuntimeException;
 import com.palantir.common.pooling.PoolingContainer;
 import com.palantir.util.paging.AbstractPagingIterable;
@@ -130,7 +143,7 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
  * if some nodes are down, and the change can be detected through active hosts,
  * and these inactive nodes will be removed afterwards.
  */
-public class CassandraKeyValueService extends AbstractKeyValueService {
+public class CassandraKeyValueService extends AbstractKeyValueService implements AsyncKeyValueService {
 
     private static final Logger log = LoggerFactory.getLogger(CassandraKeyValueService.class);
 
@@ -157,6 +170,14 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
 
     private TokenAwareMapper tokenAwareMapper;
 
+    // Parallel range readers block on their buffers, so keep them off the shared executor.
+    private final ExecutorService parallelRangeExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas Cassandra parallel range", true));
+
+    // Runs both legs of a hedged read so the caller can wait for whichever finishes first.
+    private final ExecutorService hedgedReadExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas Cassandra hedged read", true));
+
     public static CassandraKeyValueService create(CassandraKeyValueServiceConfigManager configManager) {
         Optional<CassandraJmxCompactionManager> compactionManager = CassandraJmxCompaction.createJmxCompactionManager(configManager);
         CassandraKeyValueService ret = new CassandraKeyValueService(configManager, compactionManager);
@@ -237,7 +258,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 ensureKeyspaceExistsAndIsUpToDate(replicationFactor, safetyDisabled, keyspace, client);
                 client.set_keyspace(keyspace);
 
-                tokenAwareMapper = TokenAwareMapper.create(configManager, clientPool);
+                tokenAwareMapper = TokenAwareMapper.create(configManager, clientPool, containerPoolToUpdate.getLatencyTracker());
                 createTableInternal(client, CassandraConstants.METADATA_TABLE);
                 CassandraVerifier.sanityCheckRingConsistency(currentHosts, keyspace, ssl, safetyDisabled, socketTimeoutMillis, socketQueryTimeoutMillis);
                 upgradeFromOlderInternalSchema(client);
@@ -356,6 +377,31 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             return getRowsForSpecificColumns(tableName, rows, selection, startTs);
         }
 
+        List<Map<Cell, Value>> perHostResults = runAllTasksCancelOnFailure(getRowsTasks(tableName, rows, startTs));
+        return mergePerHostResults(perHostResults);
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(String tableName,
+                                                           Iterable<byte[]> rows,
+                                                           ColumnSelection selection,
+                                                           long startTs) {
+        if (!selection.allColumnsSelected()) {
+            return loadWithTsAsync(tableName, getSelectedCells(rows, selection), startTs);
+        }
+        return Futures.transform(
+                submitAllTasksCancelOnFailure(getRowsTasks(tableName, rows, startTs)),
+                new Function<List<Map<Cell, Value>>, Map<Cell, Value>>() {
+                    @Override
+                    public Map<Cell, Value> apply(List<Map<Cell, Value>> perHostResults) {
+                        return mergePerHostResults(perHostResults);
+                    }
+                });
+    }
+
+    private List<Callable<Map<Cell, Value>>> getRowsTasks(final String tableName,
+                                                          Iterable<byte[]> rows,
+                                                          final long startTs) {
         Set<Entry<InetAddress, List<byte[]>>> rowsByHost =
                 partitionByHost(rows, Functions.<byte[]>identity()).entrySet();
         List<Callable<Map<Cell, Value>>> tasks = Lists.newArrayListWithCapacity(rowsByHost.size());
@@ -367,8 +413,15 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 }
             });
         }
-        List<Map<Cell, Value>> perHostResults = runAllTasksCancelOnFailure(tasks);
-        Map<Cell, Value> result = Maps.newHashMapWithExpectedSize(Iterables.size(rows));
+        return tasks;
+    }
+
+    private static Map<Cell, Value> mergePerHostResults(List<Map<Cell, Value>> perHostResults) {
+        int size = 0;
+        for (Map<Cell, Value> perHostResult : perHostResults) {
+            size += perHostResult.size();
+        }
+        Map<Cell, Value> result = Maps.newHashMapWithExpectedSize(size);
         for (Map<Cell, Value> perHostResult : perHostResults) {
             result.putAll(perHostResult);
         }
@@ -385,7 +438,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             int fetchBatchCount = configManager.getConfig().fetchBatchCount();
             for (final List<byte[]> batch : Lists.partition(rows, fetchBatchCount)) {
                 rowCount += batch.size();
-                result.putAll(clientPool.runWithPooledResourceOnHost(host, new FunctionCheckedException<Client, Map<Cell, Value>, Exception>() {
+                result.putAll(runReadOnHost(host, batch, new FunctionCheckedException<Client, Map<Cell, Value>, Exception>() {
                     @Override
                     public Map<Cell, Value> apply(Client client) throws Exception {
                         // We want to get all the columns in the row so set start and end to empty.
@@ -426,6 +479,17 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                                                        final Iterable<byte[]> rows,
                                                        ColumnSelection selection,
                                                        final long startTs) {
+        Set<Cell> cells = getSelectedCells(rows, selection);
+        try {
+            StartTsResultsCollector collector = new StartTsResultsCollector(startTs);
+            loadWithTs(tableName, cells, startTs, false, collector, readConsistency);
+            return collector.collectedResults;
+        } catch (Exception e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    private static Set<Cell> getSelectedCells(Iterable<byte[]> rows, ColumnSelection selection) {
         Preconditions.checkArgument(!selection.allColumnsSelected(), "Must select specific columns");
 
         Collection<byte[]> selectedColumns = selection.getSelectedColumns();
@@ -435,14 +499,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 cells.add(Cell.create(row, col));
             }
         }
-
-        try {
-            StartTsResultsCollector collector = new StartTsResultsCollector(startTs);
-            loadWithTs(tableName, cells, startTs, false, collector, readConsistency);
-            return collector.collectedResults;
-        } catch (Exception e) {
-            throw Throwables.throwUncheckedException(e);
-        }
+        return cells;
     }
 
     @Override
@@ -474,12 +531,64 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         }
     }
 
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell) {
+        if (timestampByCell.isEmpty()) {
+            return Futures.<Map<Cell, Value>>immediateFuture(ImmutableMap.<Cell, Value>of());
+        }
+
+        SetMultimap<Long, Cell> cellsByTs = Multimaps.invertFrom(
+                Multimaps.forMap(timestampByCell), HashMultimap.<Long, Cell>create());
+        if (cellsByTs.keySet().size() == 1) {
+            long ts = Iterables.getOnlyElement(cellsByTs.keySet());
+            return loadWithTsAsync(tableName, cellsByTs.get(ts), ts);
+        }
+
+        final List<StartTsResultsCollector> collectors = Lists.newArrayListWithCapacity(cellsByTs.keySet().size());
+        List<Callable<Void>> tasks = Lists.newArrayList();
+        for (long ts : cellsByTs.keySet()) {
+            StartTsResultsCollector collector = new StartTsResultsCollector(ts);
+            collectors.add(collector);
+            tasks.addAll(getLoadWithTsTasks(tableName, cellsByTs.get(ts), ts, false, collector, readConsistency));
+        }
+        return Futures.transform(submitAllTasksCancelOnFailure(tasks), new Function<List<Void>, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(List<Void> input) {
+                Builder<Cell, Value> builder = ImmutableMap.builder();
+                for (StartTsResultsCollector collector : collectors) {
+                    builder.putAll(collector.collectedResults);
+                }
+                return builder.build();
+            }
+        });
+    }
+
+    private ListenableFuture<Map<Cell, Value>> loadWithTsAsync(String tableName, Set<Cell> cells, long startTs) {
+        final StartTsResultsCollector collector = new StartTsResultsCollector(startTs);
+        List<Callable<Void>> tasks = getLoadWithTsTasks(tableName, cells, startTs, false, collector, readConsistency);
+        return Futures.transform(submitAllTasksCancelOnFailure(tasks), new Function<List<Void>, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(List<Void> input) {
+                return collector.collectedResults;
+            }
+        });
+    }
+
     private void loadWithTs(String tableName,
                             Set<Cell> cells,
                             long startTs,
                             boolean loadAllTs,
                             ThreadSafeResultVisitor v,
                             ConsistencyLevel consistency) throws Exception {
+        runAllTasksCancelOnFailure(getLoadWithTsTasks(tableName, cells, startTs, loadAllTs, v, consistency));
+    }
+
+    private List<Callable<Void>> getLoadWithTsTasks(String tableName,
+                                                    Set<Cell> cells,
+                                                    long startTs,
+                                                    boolean loadAllTs,
+                                                    ThreadSafeResultVisitor v,
+                                                    ConsistencyLevel consistency) {
         List<Callable<Void>> tasks = Lists.newArrayList();
         for (Map.Entry<InetAddress, List<Cell>> hostAndCells : partitionByHost(cells,
                                                                                Cells.getRowFunction()).entrySet()) {
@@ -491,7 +600,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                                                          v,
                                                          consistency));
         }
-        runAllTasksCancelOnFailure(tasks);
+        return tasks;
     }
 
     // TODO: after cassandra api change: handle different column select per row
@@ -501,7 +610,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                                                                  final long startTs,
                                                                  final boolean loadAllTs,
                                                                  final ThreadSafeResultVisitor v,
-                                                                 final ConsistencyLevel consistency) throws Exception {
+                                                                 final ConsistencyLevel consistency) {
         final ColumnParent colFam = new ColumnParent(internalTableName(tableName));
         TreeMultimap<byte[], Cell> cellsByCol =
                 TreeMultimap.create(UnsignedBytes.lexicographicalComparator(), Ordering.natural());
@@ -523,9 +632,10 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 tasks.add(new Callable<Void>() {
                     @Override
                     public Void call() throws Exception {
-                        return clientPool.runWithPooledResourceOnHost(host, new FunctionCheckedException<Client, Void, Exception>() {
+                        List<byte[]> rows = Lists.transform(partition, Cells.getRowFunction());
+                        Map<ByteBuffer, List<ColumnOrSuperColumn>> results = runReadOnHost(host, rows, new FunctionCheckedException<Client, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
                             @Override
-                            public Void apply(Client client) throws Exception {
+                            public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(Client client) throws Exception {
                                 ByteBuffer start = CassandraKeyValueServices.makeCompositeBuffer(col, startTs - 1);
                                 ByteBuffer end = CassandraKeyValueServices.makeCompositeBuffer(col, -1);
                                 SliceRange slice = new SliceRange(start, end, false, loadAllTs ? Integer.MAX_VALUE : 1);
@@ -536,9 +646,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                                 for (Cell c : partition) {
                                     rowNames.add(ByteBuffer.wrap(c.getRowName()));
                                 }
-                                Map<ByteBuffer, List<ColumnOrSuperColumn>> results = multigetInternal(client, tableName, rowNames, colFam, pred, consistency);
-                                v.visit(results);
-                                return null;
+                                return multigetInternal(client, tableName, rowNames, colFam, pred, consistency);
                             }
 
                             @Override
@@ -547,6 +655,9 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                                         + partition.size() + " rows" + ")";
                             }
                         });
+                        // Visit outside the read so that only one leg of a hedged read is collected.
+                        v.visit(results);
+                        return null;
                     }
                 });
             }
@@ -658,6 +769,17 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
     // Overridden to batch more intelligently than the default implementation.
     @Override
     public void multiPut(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp) throws KeyAlreadyExistsException {
+        runAllTasksCancelOnFailure(getMultiPutTasks(valuesByTable, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+        return Futures.transform(
+                submitAllTasksCancelOnFailure(getMultiPutTasks(valuesByTable, timestamp)),
+                Functions.<Void>constant(null));
+    }
+
+    private List<Callable<Void>> getMultiPutTasks(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
         List<TableCellAndValue> flattened = Lists.newArrayList();
         for (Map.Entry<String, ? extends Map<Cell, byte[]>> tableAndValues : valuesByTable.entrySet()) {
             for (Map.Entry<Cell, byte[]> entry : tableAndValues.getValue().entrySet()) {
@@ -671,7 +793,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         for (Map.Entry<InetAddress, List<TableCellAndValue>> entry : partitionedByHost.entrySet()) {
             callables.addAll(getMultiPutTasksForSingleHost(entry.getKey(), entry.getValue(), timestamp));
         }
-        runAllTasksCancelOnFailure(callables);
+        return callables;
     }
 
     private List<Callable<Void>> getMultiPutTasksForSingleHost(final InetAddress host,
@@ -1073,6 +1195,23 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                 executor, this, tableName, rangeRequests, timestamp, concurrency);
     }
 
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(final String tableName,
+                                                                                                   final RangeRequest rangeRequest,
+                                                                                                   final long timestamp) {
+        return MoreExecutors.listeningDecorator(executor).submit(
+                new Callable<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+                    @Override
+                    public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> call() {
+                        return KeyValueServices.getFirstBatchForRangesUsingGetRange(
+                                CassandraKeyValueService.this,
+                                tableName,
+                                ImmutableList.of(rangeRequest),
+                                timestamp).get(rangeRequest);
+                    }
+                });
+    }
+
 
     // TODO: after cassandra change: handle reverse ranges
     // TODO: after cassandra change: handle column filtering
@@ -1094,6 +1233,92 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         return getRangeWithPageCreator(tableName, rangeRequest, timestamp, deleteConsistency, HistoryExtractor.SUPPLIER);
     }
 
+    /**
+     * Like {@link #getRange} but splits the range along the token ring and reads the pieces
+     * concurrently, each against a replica which owns it. This is meant for large scans.
+     * <p>
+     * If preserveOrder is false rows are returned in no particular order, which avoids waiting
+     * on the slowest token range for callers that do not need sorted output.
+     */
+    @Idempotent
+    public ClosableIterator<RowResult<Value>> getParallelRange(String tableName,
+                                                               RangeRequest rangeRequest,
+                                                               long timestamp,
+                                                               boolean preserveOrder) {
+        return getParallelRangeWithPageCreator(tableName, rangeRequest, timestamp, readConsistency, ValueExtractor.SUPPLIER, preserveOrder);
+    }
+
+    @Idempotent
+    public ClosableIterator<RowResult<Set<Long>>> getParallelRangeOfTimestamps(String tableName,
+                                                                               RangeRequest rangeRequest,
+                                                                               long timestamp,
+                                                                               boolean preserveOrder) {
+        return getParallelRangeWithPageCreator(tableName, rangeRequest, timestamp, deleteConsistency, TimestampExtractor.SUPPLIER, preserveOrder);
+    }
+
+    @Idempotent
+    public ClosableIterator<RowResult<Set<Value>>> getParallelRangeWithHistory(String tableName,
+                                                                               RangeRequest rangeRequest,
+                                                                               long timestamp,
+                                                                               boolean preserveOrder) {
+        return getParallelRangeWithPageCreator(tableName, rangeRequest, timestamp, deleteConsistency, HistoryExtractor.SUPPLIER, preserveOrder);
+    }
+
+    public <T, U> ClosableIterator<RowResult<U>> getParallelRangeWithPageCreator(final String tableName,
+                                                                                 RangeRequest rangeRequest,
+                                                                                 final long timestamp,
+                                                                                 final ConsistencyLevel consistency,
+                                                                                 final Supplier<ResultsExtractor<T, U>> resultsExtractor,
+                                                                                 boolean preserveOrder) {
+        if (rangeRequest.isReverse()) {
+            throw new UnsupportedOperationException();
+        }
+        if (rangeRequest.isEmptyRange()) {
+            return ClosableIterators.wrap(ImmutableList.<RowResult<U>>of().iterator());
+        }
+        List<RangeRequest> subRanges = splitRangeAtTokens(rangeRequest, tokenAwareMapper.getTokenRangeEnds());
+        if (subRanges.size() == 1) {
+            return getRangeWithPageCreator(tableName, rangeRequest, timestamp, consistency, resultsExtractor);
+        }
+        int bufferSize = rangeRequest.getBatchHint() == null ? 100 : rangeRequest.getBatchHint();
+        return new ParallelRangeIterator<U>(
+                subRanges,
+                new Function<RangeRequest, ClosableIterator<RowResult<U>>>() {
+                    @Override
+                    public ClosableIterator<RowResult<U>> apply(RangeRequest subRange) {
+                        return getRangeWithPageCreator(tableName, subRange, timestamp, consistency, resultsExtractor);
+                    }
+                },
+                parallelRangeExecutor,
+                configManager.getConfig().rangesConcurrency(),
+                bufferSize,
+                preserveOrder);
+    }
+
+    /**
+     * Splits the range so that each piece lies within a single token range. A token range
+     * (a, b] holds the rows after a up to and including b, so the first row of the next
+     * token range is b followed by a zero byte.
+     */
+    static List<RangeRequest> splitRangeAtTokens(RangeRequest rangeRequest, List<byte[]> tokenRangeEnds) {
+        List<RangeRequest> subRanges = Lists.newArrayList();
+        byte[] start = rangeRequest.getStartInclusive();
+        byte[] end = rangeRequest.getEndExclusive();
+        for (byte[] tokenRangeEnd : tokenRangeEnds) {
+            byte[] split = Arrays.copyOf(tokenRangeEnd, tokenRangeEnd.length + 1);
+            if (UnsignedBytes.lexicographicalComparator().compare(split, start) <= 0) {
+                continue;
+            }
+            if (end.length != 0 && UnsignedBytes.lexicographicalComparator().compare(split, end) >= 0) {
+                break;
+            }
+            subRanges.add(rangeRequest.getBuilder().startRowInclusive(start).endRowExclusive(split).build());
+            start = split;
+        }
+        subRanges.add(rangeRequest.getBuilder().startRowInclusive(start).endRowExclusive(end).build());
+        return subRanges;
+    }
+
     public <T, U> ClosableIterator<RowResult<U>> getRangeWithPageCreator(final String tableName,
                                                                          final RangeRequest rangeRequest,
                                                                          final long timestamp,
@@ -1113,7 +1338,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         final ColumnParent colFam = new ColumnParent(internalTableName(tableName));
         final ColumnSelection selection = rangeRequest.getColumnNames().isEmpty() ? ColumnSelection.all()
                 : ColumnSelection.create(rangeRequest.getColumnNames());
-        return ClosableIterators.wrap(
+        AbstractPagingIterable<RowResult<U>, TokenBackedBasicResultsPage<RowResult<U>, byte[]>> pages =
                 new AbstractPagingIterable<RowResult<U>, TokenBackedBasicResultsPage<RowResult<U>, byte[]>>() {
                     @Override
                     protected TokenBackedBasicResultsPage<RowResult<U>, byte[]> getFirstPage() throws Exception {
@@ -1126,7 +1351,7 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                     }
 
                     TokenBackedBasicResultsPage<RowResult<U>, byte[]> page(final byte[] startKey) throws Exception {
-                        InetAddress host = tokenAwareMapper.getRandomHostForKey(startKey);
+                        InetAddress host = tokenAwareMapper.getPreferredHostForKey(startKey);
                         return clientPool.runWithPooledResourceOnHost(host, new FunctionCheckedException<Client, TokenBackedBasicResultsPage<RowResult<U>, byte[]>, Exception>() {
                             @Override
                             public TokenBackedBasicResultsPage<RowResult<U>, byte[]> apply(Client client) throws Exception {
@@ -1182,7 +1407,16 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
                         });
                     }
 
-                }.iterator());
+                };
+        int readAheadPages = configManager.getConfig().rangeReadAheadPages();
+        if (readAheadPages > 0) {
+            return pages.readAheadIterator(
+                    parallelRangeExecutor,
+                    readAheadPages,
+                    configManager.getConfig().rangeReadAheadBytes(),
+                    RowResults.getApproximateSizeOfKvsRowResultFunction());
+        }
+        return ClosableIterators.wrap(pages.iterator());
     }
 
     @Override
@@ -1450,6 +1684,8 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
             compactionManager.get().close();
         }
         tokenAwareMapper.shutdown();
+        parallelRangeExecutor.shutdownNow();
+        hedgedReadExecutor.shutdownNow();
         super.close();
     }
 
@@ -1633,12 +1869,71 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         }
         ListMultimap<InetAddress, V> valuesByHost = ArrayListMultimap.create();
         for (ByteBuffer key : partitionedByKey.keySet()) {
-            InetAddress host = tokenAwareMapper.getRandomHostForKey(key.array());
+            InetAddress host = tokenAwareMapper.getPreferredHostForKey(key.array());
             valuesByHost.putAll(host, partitionedByKey.get(key));
         }
         return Multimaps.asMap(valuesByHost);
     }
 
+    /**
+     * Runs a read on the given host.  If hedged reads are configured and the read is still
+     * outstanding once it has taken longer than the configured percentile of recent reads from
+     * that host, the same read is sent to another host which is a replica of every one of
+     * {@code keys} and whichever answers first is returned; the other is cancelled.  If the keys'
+     * token ranges have no other replica in common, the read is not hedged.
+     */
+    private <V> V runReadOnHost(final InetAddress host,
+                                Iterable<byte[]> keys,
+                                final FunctionCheckedException<Client, V, Exception> f) throws Exception {
+        Optional<Double> percentile = configManager.getConfig().hedgedReadPercentile();
+        if (!percentile.isPresent()) {
+            return clientPool.runWithPooledResourceOnHost(host, f);
+        }
+        CassandraHostLatencyTracker latencyTracker = containerPoolToUpdate.getLatencyTracker();
+        long hedgeDelayNanos = latencyTracker.getLatency(host).getRecentLatencyPercentileNanos(percentile.get());
+        final InetAddress otherHost = hedgeDelayNanos < 0 ? null : tokenAwareMapper.getOtherHostForKeys(keys, host);
+        if (otherHost == null) {
+            return clientPool.runWithPooledResourceOnHost(host, f);
+        }
+
+        CompletionService<V> completionService = new ExecutorCompletionService<V>(hedgedReadExecutor);
+        Future<V> primary = completionService.submit(readOnHostTask(host, f));
+        Future<V> hedge = null;
+        try {
+            Future<V> first = completionService.poll(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            if (first == null) {
+                hedge = completionService.submit(readOnHostTask(otherHost, f));
+                first = completionService.take();
+            }
+            try {
+                return first.get();
+            } catch (ExecutionException e) {
+                if (hedge == null) {
+                    throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+                }
+                log.warn("First leg of hedged read {} failed; waiting for the other leg.", f, e.getCause());
+                return completionService.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private <V> Callable<V> readOnHostTask(final InetAddress host,
+                                           final FunctionCheckedException<Client, V, Exception> f) {
+        return new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                return clientPool.runWithPooledResourceOnHost(host, f);
+            }
+        };
+    }
+
     /*
      * Similar to executor.invokeAll, but cancels all remaining tasks if one fails and doesn't spawn new threads if
      * there is only one task
@@ -1672,6 +1967,34 @@ public class CassandraKeyValueService extends AbstractKeyValueService {
         }
     }
 
+    /*
+     * The non-blocking counterpart of runAllTasksCancelOnFailure: the returned future fails as soon as one
+     * task fails, at which point the remaining tasks are cancelled.  Cancelling the returned future cancels
+     * every task.
+     */
+    private <V> ListenableFuture<List<V>> submitAllTasksCancelOnFailure(List<Callable<V>> tasks) {
+        ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
+        final List<ListenableFuture<V>> futures = Lists.newArrayListWithCapacity(tasks.size());
+        for (Callable<V> task : tasks) {
+            futures.add(listeningExecutor.submit(task));
+        }
+        ListenableFuture<List<V>> result = Futures.allAsList(futures);
+        Futures.addCallback(result, new FutureCallback<List<V>>() {
+            @Override
+            public void onSuccess(List<V> results) {
+                // nothing to clean up
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                for (Future<V> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
     private static class TableCellAndValue {
         private final String tableName;
         private final Cell cell;
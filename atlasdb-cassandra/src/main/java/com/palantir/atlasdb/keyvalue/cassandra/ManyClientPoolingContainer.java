@@ -48,6 +48,7 @@ public class ManyClientPoolingContainer extends ForwardingPoolingContainer<Clien
     boolean isShutdown = false;
     boolean safetyDisabled = false;
     private final Random random = new Random();
+    private final CassandraHostLatencyTracker latencyTracker = new CassandraHostLatencyTracker();
 
     public static ManyClientPoolingContainer create(CassandraKeyValueServiceConfig config) {
         ManyClientPoolingContainer ret = new ManyClientPoolingContainer();
@@ -100,9 +101,14 @@ public class ManyClientPoolingContainer extends ForwardingPoolingContainer<Clien
             .isSsl(isSsl)
             .socketTimeout(socketTimeoutMillis)
             .socketQueryTimeout(socketQueryTimeoutMillis)
+            .latency(addr.getAddress() == null ? null : latencyTracker.getLatency(addr.getAddress()))
             .build();
     }
 
+    public CassandraHostLatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
     public synchronized List<InetSocketAddress> getCurrentHosts() {
         return ImmutableList.copyOf(containerMap.keySet());
     }
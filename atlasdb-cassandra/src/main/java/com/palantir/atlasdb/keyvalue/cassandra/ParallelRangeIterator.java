@@ -0,0 +1,202 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Reads a list of disjoint sub-ranges concurrently and returns their rows as one iterator.
+ * <p>
+ * Each running sub-range streams rows into a bounded buffer, so at most
+ * concurrency * bufferSize rows are held in memory. If ordered is true the sub-ranges must be
+ * given in row order and rows are returned in that order: the sub-ranges are read through a
+ * sliding window of concurrency ranges ahead of the consumer. Otherwise rows from different
+ * sub-ranges are interleaved as they arrive.
+ */
+class ParallelRangeIterator<U> extends AbstractIterator<RowResult<U>> implements ClosableIterator<RowResult<U>> {
+    private static final Object END_OF_RANGE = new Object();
+
+    private final List<RangeRequest> subRanges;
+    private final Function<RangeRequest, ClosableIterator<RowResult<U>>> rangeGetter;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final int bufferSize;
+    private final boolean ordered;
+
+    private final List<Future<?>> futures = Lists.newArrayList();
+    private final List<BlockingQueue<Object>> orderedBuffers = Lists.newArrayList();
+    private final BlockingQueue<Object> sharedBuffer;
+    private final AtomicInteger nextUnorderedRange = new AtomicInteger();
+    private int currentRange = 0;
+    private int finishedWorkers = 0;
+    private volatile boolean closed = false;
+
+    ParallelRangeIterator(List<RangeRequest> subRanges,
+                          Function<RangeRequest, ClosableIterator<RowResult<U>>> rangeGetter,
+                          ExecutorService executor,
+                          int concurrency,
+                          int bufferSize,
+                          boolean ordered) {
+        Preconditions.checkArgument(concurrency > 0, "concurrency must be positive");
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be positive");
+        this.subRanges = subRanges;
+        this.rangeGetter = rangeGetter;
+        this.executor = executor;
+        this.concurrency = Math.min(concurrency, Math.max(subRanges.size(), 1));
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+        if (ordered) {
+            this.sharedBuffer = null;
+            for (int i = 0; i < this.concurrency && i < subRanges.size(); i++) {
+                startOrderedRange(i);
+            }
+        } else {
+            this.sharedBuffer = new ArrayBlockingQueue<Object>(this.concurrency * bufferSize);
+            for (int i = 0; i < this.concurrency; i++) {
+                startUnorderedWorker();
+            }
+        }
+    }
+
+    private void startOrderedRange(final int index) {
+        final BlockingQueue<Object> buffer = new ArrayBlockingQueue<Object>(bufferSize);
+        orderedBuffers.add(buffer);
+        futures.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                readRange(subRanges.get(index), buffer);
+                putQuietly(buffer, END_OF_RANGE);
+            }
+        }));
+    }
+
+    private void startUnorderedWorker() {
+        futures.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = nextUnorderedRange.getAndIncrement(); i < subRanges.size() && !closed;
+                        i = nextUnorderedRange.getAndIncrement()) {
+                    if (!readRange(subRanges.get(i), sharedBuffer)) {
+                        break;
+                    }
+                }
+                putQuietly(sharedBuffer, END_OF_RANGE);
+            }
+        }));
+    }
+
+    /**
+     * Returns false if the range failed, in which case the failure has been put in the buffer.
+     */
+    private boolean readRange(RangeRequest range, BlockingQueue<Object> buffer) {
+        try (ClosableIterator<RowResult<U>> it = rangeGetter.apply(range)) {
+            while (it.hasNext() && !closed) {
+                buffer.put(it.next());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Throwable t) {
+            putQuietly(buffer, new Failure(t));
+            return false;
+        }
+    }
+
+    private void putQuietly(BlockingQueue<Object> buffer, Object marker) {
+        try {
+            buffer.put(marker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected RowResult<U> computeNext() {
+        while (true) {
+            Object next;
+            if (ordered) {
+                if (currentRange >= subRanges.size()) {
+                    return endOfData();
+                }
+                next = take(orderedBuffers.get(currentRange));
+                if (next == END_OF_RANGE) {
+                    orderedBuffers.set(currentRange, null);
+                    int toStart = currentRange + concurrency;
+                    if (toStart < subRanges.size()) {
+                        startOrderedRange(toStart);
+                    }
+                    currentRange++;
+                    continue;
+                }
+            } else {
+                if (finishedWorkers >= concurrency) {
+                    return endOfData();
+                }
+                next = take(sharedBuffer);
+                if (next == END_OF_RANGE) {
+                    finishedWorkers++;
+                    continue;
+                }
+            }
+            if (next instanceof Failure) {
+                close();
+                throw Throwables.rewrapAndThrowUncheckedException(((Failure) next).cause);
+            }
+            return (RowResult<U>) next;
+        }
+    }
+
+    private Object take(BlockingQueue<Object> buffer) {
+        try {
+            return buffer.take();
+        } catch (InterruptedException e) {
+            close();
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static final class Failure {
+        final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -30,10 +31,12 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableRangeMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
+import com.google.common.collect.Sets;
 import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
@@ -61,6 +64,7 @@ public class TokenAwareMapper {
 
     private final PoolingContainer<Client> clientPool;
     private final CassandraKeyValueServiceConfigManager configManager;
+    private final CassandraHostLatencyTracker latencyTracker;
 
     private final AtomicReference<RangeMap<Token, List<InetAddress>>> tokenRing = new AtomicReference<RangeMap<Token, List<InetAddress>>>();
 
@@ -82,9 +86,12 @@ public class TokenAwareMapper {
         }
     }
 
-    private TokenAwareMapper(CassandraKeyValueServiceConfigManager configManager, PoolingContainer<Client> clientPool) {
+    private TokenAwareMapper(CassandraKeyValueServiceConfigManager configManager,
+                             PoolingContainer<Client> clientPool,
+                             CassandraHostLatencyTracker latencyTracker) {
         this.clientPool = clientPool;
         this.configManager = configManager;
+        this.latencyTracker = latencyTracker;
     }
 
     /**
@@ -92,8 +99,10 @@ public class TokenAwareMapper {
      * <p>
      * The keyspace returned by {@link CassandraKeyValueServiceConfig#keyspace()} must already exist
      */
-    public static TokenAwareMapper create(CassandraKeyValueServiceConfigManager configManager, PoolingContainer<Client> clientPool) {
-        TokenAwareMapper tokenAwareMapper = new TokenAwareMapper(configManager, clientPool);
+    public static TokenAwareMapper create(CassandraKeyValueServiceConfigManager configManager,
+                                          PoolingContainer<Client> clientPool,
+                                          CassandraHostLatencyTracker latencyTracker) {
+        TokenAwareMapper tokenAwareMapper = new TokenAwareMapper(configManager, clientPool, latencyTracker);
         tokenAwareMapper.refresh();
         tokenAwareMapper.scheduleRefreshTask();
         return tokenAwareMapper;
@@ -156,6 +165,50 @@ public class TokenAwareMapper {
         return owners.get(random.nextInt(owners.size()));
     }
 
+    /**
+     * Returns the replica of this key that currently looks cheapest to talk to, based on the
+     * recent latency and number of in flight requests of each replica.
+     */
+    public InetAddress getPreferredHostForKey(byte[] key) {
+        return latencyTracker.chooseHost(tokenRing.get().get(new Token(key)));
+    }
+
+    /**
+     * Returns the best host other than {@code host} which is a replica of every one of these keys,
+     * or null if their token ranges have no other replica in common.
+     */
+    public InetAddress getOtherHostForKeys(Iterable<byte[]> keys, InetAddress host) {
+        RangeMap<Token, List<InetAddress>> ring = tokenRing.get();
+        Set<InetAddress> commonOwners = null;
+        for (byte[] key : keys) {
+            List<InetAddress> owners = ring.get(new Token(key));
+            if (commonOwners == null) {
+                commonOwners = Sets.newLinkedHashSet(owners);
+            } else {
+                commonOwners.retainAll(owners);
+            }
+            if (commonOwners.isEmpty()) {
+                return null;
+            }
+        }
+        return commonOwners == null ? null : latencyTracker.chooseOtherHost(ImmutableList.copyOf(commonOwners), host);
+    }
+
+    /**
+     * Returns the end token of every range in the ring, in token order. Since we only allow byte
+     * ordered partitioners a token is just a row key, so these are the row keys after which
+     * ownership of the data changes.
+     */
+    public List<byte[]> getTokenRangeEnds() {
+        List<byte[]> ends = Lists.newArrayList();
+        for (Range<Token> range : tokenRing.get().asMapOfRanges().keySet()) {
+            if (range.hasUpperBound()) {
+                ends.add(range.upperEndpoint().bytes);
+            }
+        }
+        return ends;
+    }
+
     public void shutdown() {
         ringRefreshExecutor.shutdown();
     }
@@ -23,6 +23,7 @@ import javax.inject.Singleton;
 
 import com.palantir.atlasdb.factory.ImmutableLockAndTimestampServices;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.lock.LockServerOptions;
 import com.palantir.lock.RemoteLockService;
 import com.palantir.lock.client.LockRefreshingRemoteLockService;
 import com.palantir.lock.impl.LockServiceImpl;
@@ -41,7 +42,8 @@ public class LockAndTimestampModule {
                 config.atlasDbConfig(),
                 config.sslSocketFactory(),
                 resource -> {},
-                LockServiceImpl::create,
+                LockServerOptions.DEFAULT,
+                () -> LockServiceImpl.create(LockServerOptions.DEFAULT),
                 () -> config.atlasDbFactory().createTimestampService(rawKvs));
         return ImmutableLockAndTimestampServices.builder()
                 .from(lts)
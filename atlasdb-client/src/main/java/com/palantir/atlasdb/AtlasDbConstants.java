@@ -79,4 +79,7 @@ public class AtlasDbConstants {
     public static final boolean DEFAULT_ENABLE_SWEEP = false;
     public static final long DEFAULT_SWEEP_PAUSE_MILLIS = 5 * 1000;
     public static final int DEFAULT_SWEEP_BATCH_SIZE = 1000;
+    public static final int DEFAULT_SWEEP_THREADS = 1;
+    public static final long DEFAULT_SWEEP_CELLS_PER_SECOND = 10 * 1000;
+    public static final int DEFAULT_SWEEP_PIPELINE_CHUNK_SIZE = 0;
 }
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.concurrent.ExecutorService;
+
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+
+/**
+ * A key value service which wraps another one and can pass asynchronous calls through to it.
+ * <p>
+ * {@link KeyValueServices#asAsync} uses this so that wrapping a natively asynchronous key value
+ * service does not turn its asynchronous calls back into blocking ones.
+ */
+public interface AsyncWrappingKeyValueService extends KeyValueService {
+
+    /**
+     * Returns an asynchronous view of this key value service.  Its calls do whatever the
+     * corresponding blocking calls of this wrapper do, but are issued through
+     * {@link KeyValueServices#asAsync} on the wrapped key value service.
+     */
+    AsyncKeyValueService asAsync(ExecutorService executor);
+}
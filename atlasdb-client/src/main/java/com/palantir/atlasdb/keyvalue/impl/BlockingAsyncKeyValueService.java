@@ -0,0 +1,101 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * Adapts a key value service with no native asynchronous support to
+ * {@link AsyncKeyValueService} by running each blocking call on an executor.
+ * <p>
+ * Every outstanding call holds an executor thread, so the executor bounds the number of
+ * concurrent requests made to the delegate.
+ */
+public class BlockingAsyncKeyValueService extends ForwardingKeyValueService implements AsyncKeyValueService {
+    private final KeyValueService delegate;
+    private final ListeningExecutorService executor;
+
+    public BlockingAsyncKeyValueService(KeyValueService delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = MoreExecutors.listeningDecorator(executor);
+    }
+
+    @Override
+    protected KeyValueService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(final String tableName, final Map<Cell, Long> timestampByCell) {
+        return executor.submit(new Callable<Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> call() {
+                return delegate.get(tableName, timestampByCell);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(final String tableName,
+                                                           final Iterable<byte[]> rows,
+                                                           final ColumnSelection columnSelection,
+                                                           final long timestamp) {
+        return executor.submit(new Callable<Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> call() {
+                return delegate.getRows(tableName, rows, columnSelection, timestamp);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> multiPutAsync(final Map<String, ? extends Map<Cell, byte[]>> valuesByTable,
+                                                final long timestamp) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                delegate.multiPut(valuesByTable, timestamp);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(final String tableName,
+                                                                                                   final RangeRequest rangeRequest,
+                                                                                                   final long timestamp) {
+        return executor.submit(new Callable<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+            @Override
+            public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> call() {
+                return KeyValueServices.getFirstBatchForRange(delegate, tableName, rangeRequest, timestamp);
+            }
+        });
+    }
+}
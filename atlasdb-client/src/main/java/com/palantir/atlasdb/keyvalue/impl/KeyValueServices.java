@@ -29,6 +29,7 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
@@ -137,6 +138,33 @@ public class KeyValueServices {
         return ret;
     }
 
+    /**
+     * Returns the first page of a single range, as {@link KeyValueService#getFirstBatchForRanges}
+     * would.
+     */
+    public static TokenBackedBasicResultsPage<RowResult<Value>, byte[]> getFirstBatchForRange(
+            KeyValueService kv,
+            String tableName,
+            RangeRequest request,
+            long timestamp) {
+        return kv.getFirstBatchForRanges(tableName, ImmutableList.of(request), timestamp).get(request);
+    }
+
+    /**
+     * Returns the given key value service if it implements {@link AsyncKeyValueService} natively,
+     * passes through {@link AsyncWrappingKeyValueService} wrappers to the key value service they
+     * wrap, and otherwise adapts it by running its blocking calls on the given executor.
+     */
+    public static AsyncKeyValueService asAsync(KeyValueService kv, ExecutorService executor) {
+        if (kv instanceof AsyncKeyValueService) {
+            return (AsyncKeyValueService) kv;
+        }
+        if (kv instanceof AsyncWrappingKeyValueService) {
+            return ((AsyncWrappingKeyValueService) kv).asAsync(executor);
+        }
+        return new BlockingAsyncKeyValueService(kv, executor);
+    }
+
     public static Collection<Map.Entry<Cell, Value>> toConstantTimestampValues(final Collection<Map.Entry<Cell, byte[]>> cells, final long timestamp) {
         return Collections2.transform(cells, new Function<Map.Entry<Cell, byte[]>, Map.Entry<Cell, Value>>() {
             @Override
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.impl;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,10 +31,12 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedMap.Builder;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.common.collect.IterableView;
 
 public class RowResults {
@@ -138,4 +141,41 @@ public class RowResults {
         return size;
 
     }
+
+    /**
+     * Approximates the in-memory size of a row read from a key value service, whose values may
+     * be {@link Value}s, raw bytes, timestamps, or collections of these.
+     */
+    public static long getApproximateSizeOfKvsRowResult(RowResult<?> rr) {
+        long size = rr.getRowName().length;
+        for (Map.Entry<byte[], ?> entry : rr.getColumns().entrySet()) {
+            size += entry.getKey().length + TransactionConstants.APPROX_IN_MEM_CELL_OVERHEAD_BYTES;
+            size += getApproximateSizeOfKvsValue(entry.getValue());
+        }
+        return size;
+    }
+
+    public static Function<RowResult<?>, Long> getApproximateSizeOfKvsRowResultFunction() {
+        return new Function<RowResult<?>, Long>() {
+            @Override
+            public Long apply(RowResult<?> rr) {
+                return getApproximateSizeOfKvsRowResult(rr);
+            }
+        };
+    }
+
+    private static long getApproximateSizeOfKvsValue(Object value) {
+        if (value instanceof Value) {
+            return ((Value) value).getContents().length + Longs.BYTES;
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += getApproximateSizeOfKvsValue(element);
+            }
+            return size;
+        }
+        return Longs.BYTES;
+    }
 }
@@ -22,6 +22,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -42,10 +43,17 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.schema.SweepSchema;
 import com.palantir.atlasdb.schema.generated.SweepPriorityTable;
@@ -55,13 +63,14 @@ import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.persist.Persistables;
 import com.palantir.timestamp.TimestampService;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 /**
  * This kvs wrapper tracks the approximate number of writes to every table
  * since the last time the table was completely swept. This is used when
  * deciding the order in which tables should be swept.
  */
-public class SweepStatsKeyValueService extends ForwardingKeyValueService {
+public class SweepStatsKeyValueService extends ForwardingKeyValueService implements AsyncWrappingKeyValueService {
 
     private static final Logger log = LoggerFactory.getLogger(SweepStatsKeyValueService.class);
     private static final int CLEAR_WEIGHT = 1 << 14;
@@ -91,6 +100,11 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
         return delegate;
     }
 
+    @Override
+    public AsyncKeyValueService asAsync(ExecutorService executor) {
+        return new AsyncSweepStatsKeyValueService(KeyValueServices.asAsync(delegate, executor));
+    }
+
     @Override
     public void put(String tableName, Map<Cell, byte[]> values, long timestamp) {
         delegate().put(tableName, values, timestamp);
@@ -101,12 +115,7 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     @Override
     public void multiPut(Map<String, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
         delegate().multiPut(valuesByTable, timestamp);
-        int newWrites = 0;
-        for (Entry<String, ? extends Map<Cell, byte[]>> entry : valuesByTable.entrySet()) {
-            writesByTable.add(entry.getKey(), entry.getValue().size());
-            newWrites += entry.getValue().size();
-        }
-        recordModifications(newWrites);
+        recordWrites(valuesByTable);
     }
 
     @Override
@@ -195,6 +204,15 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
     // all updates are flushed. It is intended only to be "good enough" for
     // determining what tables have been written to a lot.
 
+    private void recordWrites(Map<String, ? extends Map<Cell, byte[]>> valuesByTable) {
+        int newWrites = 0;
+        for (Entry<String, ? extends Map<Cell, byte[]>> entry : valuesByTable.entrySet()) {
+            writesByTable.add(entry.getKey(), entry.getValue().size());
+            newWrites += entry.getValue().size();
+        }
+        recordModifications(newWrites);
+    }
+
     private void recordModifications(int newWrites) {
         totalModifications.addAndGet(newWrites);
     }
@@ -284,4 +302,55 @@ public class SweepStatsKeyValueService extends ForwardingKeyValueService {
         byte[] value = TransactionConstants.getValueForTimestamp(timestamp);
         delegate().putUnlessExists(TransactionConstants.TRANSACTION_TABLE, ImmutableMap.of(cell, value));
     }
+
+    private class AsyncSweepStatsKeyValueService extends ForwardingKeyValueService implements AsyncKeyValueService {
+        private final AsyncKeyValueService asyncDelegate;
+
+        AsyncSweepStatsKeyValueService(AsyncKeyValueService asyncDelegate) {
+            this.asyncDelegate = asyncDelegate;
+        }
+
+        @Override
+        protected KeyValueService delegate() {
+            return SweepStatsKeyValueService.this;
+        }
+
+        @Override
+        public ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell) {
+            return asyncDelegate.getAsync(tableName, timestampByCell);
+        }
+
+        @Override
+        public ListenableFuture<Map<Cell, Value>> getRowsAsync(String tableName,
+                                                               Iterable<byte[]> rows,
+                                                               ColumnSelection columnSelection,
+                                                               long timestamp) {
+            return asyncDelegate.getRowsAsync(tableName, rows, columnSelection, timestamp);
+        }
+
+        @Override
+        public ListenableFuture<Void> multiPutAsync(final Map<String, ? extends Map<Cell, byte[]>> valuesByTable,
+                                                    long timestamp) {
+            ListenableFuture<Void> future = asyncDelegate.multiPutAsync(valuesByTable, timestamp);
+            Futures.addCallback(future, new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    recordWrites(valuesByTable);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    // Failed writes are not counted, as with multiPut.
+                }
+            }, MoreExecutors.directExecutor());
+            return future;
+        }
+
+        @Override
+        public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(String tableName,
+                                                                                                       RangeRequest rangeRequest,
+                                                                                                       long timestamp) {
+            return asyncDelegate.getRangePageAsync(tableName, rangeRequest, timestamp);
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.ptobject;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
@@ -58,45 +59,93 @@ public class EncodingUtils {
     public static byte[] encodeVarLong(long value) {
         int size = sizeOfVarLong(value);
         byte[] ret = new byte[size];
-        encodeVarLongForSize(value, ret, size);
+        encodeVarLongForSize(value, ret, 0, size, size);
         return ret;
     }
 
+    /**
+     * Writes the same bytes as {@link #encodeVarLong(long)} at the position of the buffer and
+     * advances it by {@link #sizeOfVarLong(long)}.
+     */
+    public static void encodeVarLong(long value, @Output ByteBuffer buf) {
+        int size = sizeOfVarLong(value);
+        if (!buf.hasArray()) {
+            buf.put(encodeVarLong(value));
+            return;
+        }
+        int offset = reserve(buf, size);
+        encodeVarLongForSize(value, buf.array(), offset, size, size);
+    }
+
     public static byte[] encodeUnsignedVarLong(long value) {
         return encodeVarLong(checkUnsigned(value));
     }
 
+    public static void encodeUnsignedVarLong(long value, @Output ByteBuffer buf) {
+        encodeVarLong(checkUnsigned(value), buf);
+    }
+
     public static byte[] encodeSignedVarLong(long value) {
         final boolean negative = value<0;
         int size = sizeOfSignedVarLong(value);
         value ^= (value >> 63);
         byte[] ret = new byte[size];
-        encodeVarLongForSize(value, ret, size+1);
+        encodeVarLongForSize(value, ret, 0, size, size+1);
         if (negative) {
             flipAllBitsInPlace(ret);
         }
         return ret;
     }
 
+    public static void encodeSignedVarLong(long value, @Output ByteBuffer buf) {
+        if (!buf.hasArray()) {
+            buf.put(encodeSignedVarLong(value));
+            return;
+        }
+        final boolean negative = value<0;
+        int size = sizeOfSignedVarLong(value);
+        value ^= (value >> 63);
+        int offset = reserve(buf, size);
+        encodeVarLongForSize(value, buf.array(), offset, size, size+1);
+        if (negative) {
+            flipAllBitsInPlace(buf.array(), offset, size);
+        }
+    }
+
+    /**
+     * Advances the position of the buffer by length and returns the offset in its backing array
+     * of the skipped region.
+     */
+    private static int reserve(ByteBuffer buf, int length) {
+        int position = buf.position();
+        if (buf.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        buf.position(position + length);
+        return buf.arrayOffset() + position;
+    }
+
     /**
      * There will be size-1 bits set before there is a zero.
      * All the bits of value will or-ed (|=) onto the the passed byte[].
+     * The encoding is written to the range [offset, offset + length) of ret.
      * @param size must be <= 17 (but will most likely be 10 or 11 at most)
      */
-    private static void encodeVarLongForSize(long value, @Output byte[] ret, int size) {
-        int end = 0;
+    private static void encodeVarLongForSize(long value, @Output byte[] ret, int offset, int length, int size) {
+        int end = offset;
         if (size > 8) {
-            ret[0] = (byte)0xff;
-            end = 1;
+            ret[offset] = (byte)0xff;
+            end = offset + 1;
             size -= 8;
         }
         ret[end] = (byte)((0xff << (9-size)) & 0xff);
 
-        int index = ret.length;
-        while (index-- > end) {
-            ret[index] |= (byte)((int)value & 0xff);
+        int index = offset + length;
+        while (--index > end) {
+            ret[index] = (byte)((int)value & 0xff);
             value >>>= 8;
         }
+        ret[end] |= (byte)((int)value & 0xff);
     }
 
     public static int sizeOfVarLong(long value) {
@@ -243,7 +292,8 @@ public class EncodingUtils {
     }
 
     public static int sizeOfVarString(String str) {
-        return sizeOfSizedBytes(PtBytes.toBytes(str));
+        int len = sizeOfString(str);
+        return len + sizeOfVarLong(len);
     }
 
     public static int sizeOfSizedBytes(byte[] bytes) {
@@ -254,11 +304,85 @@ public class EncodingUtils {
         return encodeSizedBytes(PtBytes.toBytes(strValue));
     }
 
+    public static void encodeVarString(String strValue, @Output ByteBuffer buf) {
+        encodeVarLong(sizeOfString(strValue), buf);
+        encodeString(strValue, buf);
+    }
+
     public static byte[] encodeSizedBytes(byte[] bytes) {
         byte[] len = encodeVarLong(bytes.length);
         return Bytes.concat(len, bytes);
     }
 
+    public static void encodeSizedBytes(byte[] bytes, @Output ByteBuffer buf) {
+        encodeVarLong(bytes.length, buf);
+        buf.put(bytes);
+    }
+
+    /**
+     * Returns the length of the UTF-8 encoding of str, i.e. {@code PtBytes.toBytes(str).length},
+     * without encoding it.
+     */
+    public static int sizeOfString(String str) {
+        int strLength = str.length();
+        int size = strLength;
+        for (int i = 0; i < strLength; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                continue;
+            } else if (c < 0x800) {
+                size += 1;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < strLength && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    // The pair takes 2 chars and 4 bytes.
+                    size += 2;
+                    i++;
+                }
+                // Unpaired surrogates are replaced by a single '?'.
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes the same bytes as {@link PtBytes#toBytes(String)} at the position of the buffer and
+     * advances it by {@link #sizeOfString(String)}.
+     */
+    public static void encodeString(String str, @Output ByteBuffer buf) {
+        if (!buf.hasArray()) {
+            buf.put(PtBytes.toBytes(str));
+            return;
+        }
+        byte[] ret = buf.array();
+        int index = reserve(buf, sizeOfString(str));
+        int strLength = str.length();
+        for (int i = 0; i < strLength; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                ret[index++] = (byte) c;
+            } else if (c < 0x800) {
+                ret[index++] = (byte) (0xc0 | (c >> 6));
+                ret[index++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < strLength && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                    ret[index++] = (byte) (0xf0 | (codePoint >> 18));
+                    ret[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    ret[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    ret[index++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else {
+                    ret[index++] = '?';
+                }
+            } else {
+                ret[index++] = (byte) (0xe0 | (c >> 12));
+                ret[index++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                ret[index++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+    }
+
     public static byte[] encodeUUID(UUID uuid) {
         return ByteBuffer
                 .allocate(2 * Longs.BYTES)
@@ -268,17 +392,20 @@ public class EncodingUtils {
                 .array();
     }
 
+    public static void encodeUUID(UUID uuid, @Output ByteBuffer buf) {
+        putBigEndianLong(uuid.getMostSignificantBits(), buf);
+        putBigEndianLong(uuid.getLeastSignificantBits(), buf);
+    }
+
     public static UUID decodeUUID(byte[] bytes, int offset) {
-        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, 2 * Longs.BYTES).order(ByteOrder.BIG_ENDIAN);
-        long mostSigBits = buf.getLong();
-        long leastSigBits = buf.getLong();
+        long mostSigBits = PtBytes.toLong(bytes, offset);
+        long leastSigBits = PtBytes.toLong(bytes, offset + Longs.BYTES);
         return new UUID(mostSigBits, leastSigBits);
     }
 
     public static UUID decodeFlippedUUID(byte[] bytes, int offset) {
-        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, 2 * Longs.BYTES).order(ByteOrder.BIG_ENDIAN);
-        long mostSigBits = -1L ^ buf.getLong();
-        long leastSigBits = -1L ^ buf.getLong();
+        long mostSigBits = -1L ^ PtBytes.toLong(bytes, offset);
+        long leastSigBits = -1L ^ PtBytes.toLong(bytes, offset + Longs.BYTES);
         return new UUID(mostSigBits, leastSigBits);
     }
 
@@ -365,9 +492,7 @@ public class EncodingUtils {
     }
 
     public static long decodeLittleEndian(byte[] value, int offset) {
-        byte[] subArray = ArrayUtils.subarray(value, offset, offset + PtBytes.SIZEOF_LONG);
-        ArrayUtils.reverse(subArray);
-        return PtBytes.toLong(subArray);
+        return Long.reverseBytes(PtBytes.toLong(value, offset));
     }
 
     public static byte[] encodeLittleEndian(long val) {
@@ -376,6 +501,17 @@ public class EncodingUtils {
         return bytes;
     }
 
+    public static void encodeLittleEndian(long val, @Output ByteBuffer buf) {
+        putBigEndianLong(Long.reverseBytes(val), buf);
+    }
+
+    /**
+     * Writes the same bytes as {@link PtBytes#toBytes(long)} regardless of the order of the buffer.
+     */
+    public static void putBigEndianLong(long val, @Output ByteBuffer buf) {
+        buf.putLong(buf.order() == ByteOrder.BIG_ENDIAN ? val : Long.reverseBytes(val));
+    }
+
     private static long checkUnsigned(long value) {
         if (value < 0) {
             throw new IllegalArgumentException("Expected unsigned value: " + value);
@@ -463,4 +599,13 @@ public class EncodingUtils {
             return ArrayUtils.addAll(new byte[] { 1 }, PtBytes.toBytes(Long.MIN_VALUE ^ value));
         }
     }
+
+    public static void encodeNullableFixedLong(Long value, @Output ByteBuffer buf) {
+        if (value == null) {
+            buf.put((byte) 0).putLong(0L);
+        } else {
+            buf.put((byte) 1);
+            putBigEndianLong(Long.MIN_VALUE ^ value, buf);
+        }
+    }
 }
@@ -40,11 +40,12 @@ public enum SweepSchema implements AtlasSchema {
                 SweepSchema.class.getPackage().getName() + ".generated",
                 NAMESPACE);
 
-        // This table tracks progress on a sweep job of a single table.
+        // This table tracks progress on sweep jobs. Row 0 tracks the sweep of a
+        // whole table by the single threaded sweeper. When sweeping in parallel,
+        // every other row tracks one row range of a table.
         schema.addTableDefinition("progress", new TableDefinition() {{
             javaTableName("SweepProgress");
             rowName();
-                // This table has at most one row.
                 rowComponent("dummy", ValueType.VAR_LONG);
             columns();
                 // The name of the table being swept.
@@ -55,6 +56,9 @@ public enum SweepSchema implements AtlasSchema {
                 // The row to start sweeping from if sweeping
                 // is paused and resumed.
                 column("start_row", "s", ValueType.BLOB);
+                // The row at which a row range ends, exclusive. Absent
+                // if the range runs to the end of the table.
+                column("end_row", "r", ValueType.BLOB);
                 // The number of cells deleted so far.
                 column("cells_deleted", "d", ValueType.VAR_LONG);
                 // The number of cells examined so far.
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -170,8 +171,7 @@ public final class SweepPriorityTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] fullTableNameBytes = PtBytes.toBytes(fullTableName);
-            return EncodingUtils.add(fullTableNameBytes);
+            return PtBytes.toBytes(fullTableName);
         }
 
         public static final Hydrator<SweepPriorityRow> BYTES_HYDRATOR = new Hydrator<SweepPriorityRow>() {
@@ -1178,6 +1178,7 @@ public final class SweepPriorityTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -1240,5 +1241,5 @@ public final class SweepPriorityTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "qdZuchzEhla/Fq3HX6KS+Q==";
+    static String __CLASS_HASH = "2FMi/SF95t+YD7t8f03MKg==";
 }
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -170,8 +171,7 @@ public final class SweepProgressTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] dummyBytes = EncodingUtils.encodeUnsignedVarLong(dummy);
-            return EncodingUtils.add(dummyBytes);
+            return EncodingUtils.encodeUnsignedVarLong(dummy);
         }
 
         public static final Hydrator<SweepProgressRow> BYTES_HYDRATOR = new Hydrator<SweepProgressRow>() {
@@ -341,6 +341,66 @@ public final class SweepProgressTable implements
         }
     }
 
+    /**
+     * <pre>
+     * Column value description {
+     *   type: byte[];
+     * }
+     * </pre>
+     */
+    public static final class EndRow implements SweepProgressNamedColumnValue<byte[]> {
+        private final byte[] value;
+
+        public static EndRow of(byte[] value) {
+            return new EndRow(value);
+        }
+
+        private EndRow(byte[] value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getColumnName() {
+            return "end_row";
+        }
+
+        @Override
+        public String getShortColumnName() {
+            return "r";
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] persistValue() {
+            byte[] bytes = value;
+            return CompressionUtils.compress(bytes, Compression.NONE);
+        }
+
+        @Override
+        public byte[] persistColumnName() {
+            return PtBytes.toCachedBytes("r");
+        }
+
+        public static final Hydrator<EndRow> BYTES_HYDRATOR = new Hydrator<EndRow>() {
+            @Override
+            public EndRow hydrateFromBytes(byte[] bytes) {
+                bytes = CompressionUtils.decompress(bytes, Compression.NONE);
+                return of(EncodingUtils.getBytesFromOffsetToEnd(bytes, 0));
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("Value", this.value)
+                .toString();
+        }
+    }
+
     /**
      * <pre>
      * Column value description {
@@ -567,6 +627,10 @@ public final class SweepProgressTable implements
             return row.getColumns().containsKey(PtBytes.toCachedBytes("e"));
         }
 
+        public boolean hasEndRow() {
+            return row.getColumns().containsKey(PtBytes.toCachedBytes("r"));
+        }
+
         public boolean hasFullTableName() {
             return row.getColumns().containsKey(PtBytes.toCachedBytes("n"));
         }
@@ -597,6 +661,15 @@ public final class SweepProgressTable implements
             return value.getValue();
         }
 
+        public byte[] getEndRow() {
+            byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes("r"));
+            if (bytes == null) {
+                return null;
+            }
+            EndRow value = EndRow.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+            return value.getValue();
+        }
+
         public String getFullTableName() {
             byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes("n"));
             if (bytes == null) {
@@ -642,6 +715,15 @@ public final class SweepProgressTable implements
             };
         }
 
+        public static Function<SweepProgressRowResult, byte[]> getEndRowFun() {
+            return new Function<SweepProgressRowResult, byte[]>() {
+                @Override
+                public byte[] apply(SweepProgressRowResult rowResult) {
+                    return rowResult.getEndRow();
+                }
+            };
+        }
+
         public static Function<SweepProgressRowResult, String> getFullTableNameFun() {
             return new Function<SweepProgressRowResult, String>() {
                 @Override
@@ -675,6 +757,7 @@ public final class SweepProgressTable implements
                 .add("RowName", getRowName())
                 .add("CellsDeleted", getCellsDeleted())
                 .add("CellsExamined", getCellsExamined())
+                .add("EndRow", getEndRow())
                 .add("FullTableName", getFullTableName())
                 .add("MinimumSweptTimestamp", getMinimumSweptTimestamp())
                 .add("StartRow", getStartRow())
@@ -695,6 +778,12 @@ public final class SweepProgressTable implements
                 return PtBytes.toCachedBytes("e");
             }
         },
+        END_ROW {
+            @Override
+            public byte[] getShortName() {
+                return PtBytes.toCachedBytes("r");
+            }
+        },
         FULL_TABLE_NAME {
             @Override
             public byte[] getShortName() {
@@ -739,6 +828,7 @@ public final class SweepProgressTable implements
                 .put("n", FullTableName.BYTES_HYDRATOR)
                 .put("m", MinimumSweptTimestamp.BYTES_HYDRATOR)
                 .put("s", StartRow.BYTES_HYDRATOR)
+                .put("r", EndRow.BYTES_HYDRATOR)
                 .put("d", CellsDeleted.BYTES_HYDRATOR)
                 .put("e", CellsExamined.BYTES_HYDRATOR)
                 .build();
@@ -785,6 +875,20 @@ public final class SweepProgressTable implements
         return ret;
     }
 
+    public Map<SweepProgressRow, byte[]> getEndRows(Collection<SweepProgressRow> rows) {
+        Map<Cell, SweepProgressRow> cells = Maps.newHashMapWithExpectedSize(rows.size());
+        for (SweepProgressRow row : rows) {
+            cells.put(Cell.create(row.persistToBytes(), PtBytes.toCachedBytes("r")), row);
+        }
+        Map<Cell, byte[]> results = t.get(tableName, cells.keySet());
+        Map<SweepProgressRow, byte[]> ret = Maps.newHashMapWithExpectedSize(results.size());
+        for (Entry<Cell, byte[]> e : results.entrySet()) {
+            byte[] val = EndRow.BYTES_HYDRATOR.hydrateFromBytes(e.getValue()).getValue();
+            ret.put(cells.get(e.getKey()), val);
+        }
+        return ret;
+    }
+
     public Map<SweepProgressRow, Long> getCellsDeleteds(Collection<SweepProgressRow> rows) {
         Map<Cell, SweepProgressRow> cells = Maps.newHashMapWithExpectedSize(rows.size());
         for (SweepProgressRow row : rows) {
@@ -885,6 +989,30 @@ public final class SweepProgressTable implements
         putUnlessExists(Multimaps.forMap(toPut));
     }
 
+    public void putEndRow(SweepProgressRow row, byte[] value) {
+        put(ImmutableMultimap.of(row, EndRow.of(value)));
+    }
+
+    public void putEndRow(Map<SweepProgressRow, byte[]> map) {
+        Map<SweepProgressRow, SweepProgressNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<SweepProgressRow, byte[]> e : map.entrySet()) {
+            toPut.put(e.getKey(), EndRow.of(e.getValue()));
+        }
+        put(Multimaps.forMap(toPut));
+    }
+
+    public void putEndRowUnlessExists(SweepProgressRow row, byte[] value) {
+        putUnlessExists(ImmutableMultimap.of(row, EndRow.of(value)));
+    }
+
+    public void putEndRowUnlessExists(Map<SweepProgressRow, byte[]> map) {
+        Map<SweepProgressRow, SweepProgressNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<SweepProgressRow, byte[]> e : map.entrySet()) {
+            toPut.put(e.getKey(), EndRow.of(e.getValue()));
+        }
+        putUnlessExists(Multimaps.forMap(toPut));
+    }
+
     public void putCellsDeleted(SweepProgressRow row, Long value) {
         put(ImmutableMultimap.of(row, CellsDeleted.of(value)));
     }
@@ -984,6 +1112,16 @@ public final class SweepProgressTable implements
         t.delete(tableName, cells);
     }
 
+    public void deleteEndRow(SweepProgressRow row) {
+        deleteEndRow(ImmutableSet.of(row));
+    }
+
+    public void deleteEndRow(Iterable<SweepProgressRow> rows) {
+        byte[] col = PtBytes.toCachedBytes("r");
+        Set<Cell> cells = Cells.cellsWithConstantColumn(Persistables.persistAll(rows), col);
+        t.delete(tableName, cells);
+    }
+
     public void deleteCellsDeleted(SweepProgressRow row) {
         deleteCellsDeleted(ImmutableSet.of(row));
     }
@@ -1012,9 +1150,10 @@ public final class SweepProgressTable implements
     @Override
     public void delete(Iterable<SweepProgressRow> rows) {
         List<byte[]> rowBytes = Persistables.persistAll(rows);
-        Set<Cell> cells = Sets.newHashSetWithExpectedSize(rowBytes.size() * 5);
+        Set<Cell> cells = Sets.newHashSetWithExpectedSize(rowBytes.size() * 6);
         cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("d")));
         cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("e")));
+        cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("r")));
         cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("n")));
         cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("m")));
         cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("s")));
@@ -1178,6 +1317,7 @@ public final class SweepProgressTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -1240,5 +1380,5 @@ public final class SweepProgressTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "CLjuV6d5OsaOyG0r2OiSaQ==";
+    static String __CLASS_HASH = "7CPLg9EaNd/F8fycHfi0WA==";
 }
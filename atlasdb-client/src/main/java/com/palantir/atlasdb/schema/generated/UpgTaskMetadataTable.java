@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -240,13 +241,15 @@ public final class UpgTaskMetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            byte[] hotfixHotfixBytes = EncodingUtils.encodeUnsignedVarLong(hotfixHotfix);
-            byte[] extraIdBytes = EncodingUtils.encodeVarString(extraId);
-            byte[] rangeIdBytes = EncodingUtils.encodeUnsignedVarLong(rangeId);
-            return EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes, hotfixHotfixBytes, extraIdBytes, rangeIdBytes);
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion) + EncodingUtils.sizeOfUnsignedVarLong(hotfixHotfix) + EncodingUtils.sizeOfVarString(extraId) + EncodingUtils.sizeOfUnsignedVarLong(rangeId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixHotfix, __buffer);
+            EncodingUtils.encodeVarString(extraId, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(rangeId, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<UpgTaskMetadataRow> BYTES_HYDRATOR = new Hydrator<UpgTaskMetadataRow>() {
@@ -270,73 +273,93 @@ public final class UpgTaskMetadataTable implements
         };
 
         public static RangeRequest.Builder createPrefixRangeUnsorted(String namespace) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            return RangeRequest.builder().prefixRange(EncodingUtils.add(namespaceBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            return RangeRequest.builder().prefixRange(__bytes);
         }
 
         public static Prefix prefixUnsorted(String namespace) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            return new Prefix(EncodingUtils.add(namespaceBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            return new Prefix(__bytes);
         }
 
         public static RangeRequest.Builder createPrefixRangeUnsorted(String namespace, long version) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            return RangeRequest.builder().prefixRange(EncodingUtils.add(namespaceBytes, versionBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            return RangeRequest.builder().prefixRange(__bytes);
         }
 
         public static Prefix prefixUnsorted(String namespace, long version) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            return new Prefix(EncodingUtils.add(namespaceBytes, versionBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            return new Prefix(__bytes);
         }
 
         public static RangeRequest.Builder createPrefixRangeUnsorted(String namespace, long version, long hotfixVersion) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            return RangeRequest.builder().prefixRange(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            return RangeRequest.builder().prefixRange(__bytes);
         }
 
         public static Prefix prefixUnsorted(String namespace, long version, long hotfixVersion) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            return new Prefix(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            return new Prefix(__bytes);
         }
 
         public static RangeRequest.Builder createPrefixRangeUnsorted(String namespace, long version, long hotfixVersion, long hotfixHotfix) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            byte[] hotfixHotfixBytes = EncodingUtils.encodeUnsignedVarLong(hotfixHotfix);
-            return RangeRequest.builder().prefixRange(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes, hotfixHotfixBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion) + EncodingUtils.sizeOfUnsignedVarLong(hotfixHotfix)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixHotfix, __buffer);
+            return RangeRequest.builder().prefixRange(__bytes);
         }
 
         public static Prefix prefixUnsorted(String namespace, long version, long hotfixVersion, long hotfixHotfix) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            byte[] hotfixHotfixBytes = EncodingUtils.encodeUnsignedVarLong(hotfixHotfix);
-            return new Prefix(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes, hotfixHotfixBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion) + EncodingUtils.sizeOfUnsignedVarLong(hotfixHotfix)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixHotfix, __buffer);
+            return new Prefix(__bytes);
         }
 
         public static RangeRequest.Builder createPrefixRange(String namespace, long version, long hotfixVersion, long hotfixHotfix, String extraId) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            byte[] hotfixHotfixBytes = EncodingUtils.encodeUnsignedVarLong(hotfixHotfix);
-            byte[] extraIdBytes = EncodingUtils.encodeVarString(extraId);
-            return RangeRequest.builder().prefixRange(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes, hotfixHotfixBytes, extraIdBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion) + EncodingUtils.sizeOfUnsignedVarLong(hotfixHotfix) + EncodingUtils.sizeOfVarString(extraId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixHotfix, __buffer);
+            EncodingUtils.encodeVarString(extraId, __buffer);
+            return RangeRequest.builder().prefixRange(__bytes);
         }
 
         public static Prefix prefix(String namespace, long version, long hotfixVersion, long hotfixHotfix, String extraId) {
-            byte[] namespaceBytes = EncodingUtils.encodeVarString(namespace);
-            byte[] versionBytes = EncodingUtils.encodeUnsignedVarLong(version);
-            byte[] hotfixVersionBytes = EncodingUtils.encodeUnsignedVarLong(hotfixVersion);
-            byte[] hotfixHotfixBytes = EncodingUtils.encodeUnsignedVarLong(hotfixHotfix);
-            byte[] extraIdBytes = EncodingUtils.encodeVarString(extraId);
-            return new Prefix(EncodingUtils.add(namespaceBytes, versionBytes, hotfixVersionBytes, hotfixHotfixBytes, extraIdBytes));
+            byte[] __bytes = new byte[EncodingUtils.sizeOfVarString(namespace) + EncodingUtils.sizeOfUnsignedVarLong(version) + EncodingUtils.sizeOfUnsignedVarLong(hotfixVersion) + EncodingUtils.sizeOfUnsignedVarLong(hotfixHotfix) + EncodingUtils.sizeOfVarString(extraId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeVarString(namespace, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(version, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixVersion, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(hotfixHotfix, __buffer);
+            EncodingUtils.encodeVarString(extraId, __buffer);
+            return new Prefix(__bytes);
         }
 
         @Override
@@ -817,6 +840,7 @@ public final class UpgTaskMetadataTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -169,8 +170,7 @@ public final class UpgradeMetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] namespaceBytes = PtBytes.toBytes(namespace);
-            return EncodingUtils.add(namespaceBytes);
+            return PtBytes.toBytes(namespace);
         }
 
         public static final Hydrator<UpgradeMetadataRow> BYTES_HYDRATOR = new Hydrator<UpgradeMetadataRow>() {
@@ -1085,6 +1085,7 @@ public final class UpgradeMetadataTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
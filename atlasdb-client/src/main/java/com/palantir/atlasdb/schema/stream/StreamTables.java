@@ -19,6 +19,7 @@ import com.palantir.atlasdb.protos.generated.StreamPersistence;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ExpirationStrategy;
 import com.palantir.atlasdb.stream.GenericStreamStore;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.atlasdb.table.description.Schema;
 import com.palantir.atlasdb.table.description.TableDefinition;
 import com.palantir.atlasdb.table.description.ValueType;
@@ -113,6 +114,52 @@ public class StreamTables {
         }};
     }
 
+    /**
+     * Chunks shared by the streams of a deduplicating stream store, keyed by the hash of their
+     * uncompressed content.  The content is Snappy compressed and the uncompressed length is kept
+     * in its own column so existence checks do not read the content.
+     */
+    public static TableDefinition getStreamChunkDefinition(final String longPrefix,
+                                                           final boolean isAppendHeavyAndReadLight) {
+        return new TableDefinition() {{
+            javaTableName(Renderers.CamelCase(longPrefix) + "StreamChunk");
+            rowName();
+                rowComponent("hash",            ValueType.SHA256HASH);
+            columns();
+                column("content", "c",          ValueType.BLOB, Compression.SNAPPY);
+                column("length", "l",           ValueType.VAR_LONG);
+            conflictHandler(ConflictHandler.SERIALIZABLE);
+            maxValueSize(GenericStreamStore.BLOCK_SIZE_IN_BYTES);
+            cachePriority(CachePriority.COLD);
+            if (isAppendHeavyAndReadLight) {
+                appendHeavyAndReadLight();
+            }
+        }};
+    }
+
+    /**
+     * The streams referencing each chunk of a deduplicating stream store.  A chunk may be deleted
+     * once its row here is empty.
+     */
+    public static TableDefinition getStreamChunkIdxDefinition(final String longPrefix,
+                                                              final ValueType idType,
+                                                              final boolean isAppendHeavyAndReadLight) {
+        return new TableDefinition() {{
+            javaTableName(Renderers.CamelCase(longPrefix) + "StreamChunkIdx");
+            rowName();
+                rowComponent("hash",            ValueType.SHA256HASH);
+            dynamicColumns();
+                columnComponent("stream_id",    idType);
+                value(ValueType.VAR_LONG);
+            conflictHandler(ConflictHandler.SERIALIZABLE);
+            maxValueSize(1);
+            explicitCompressionRequested();
+            if (isAppendHeavyAndReadLight) {
+                appendHeavyAndReadLight();
+            }
+        }};
+    }
+
     public static TableDefinition getStreamMetadataDefinition(final String longPrefix,
                                                               final ValueType idType,
                                                               final ExpirationStrategy expirationStrategy,
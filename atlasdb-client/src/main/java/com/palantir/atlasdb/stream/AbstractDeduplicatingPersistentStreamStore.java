@@ -0,0 +1,189 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.atlasdb.transaction.api.TransactionManager;
+import com.palantir.atlasdb.transaction.impl.TxTask;
+import com.palantir.util.crypto.Sha256Hash;
+
+/**
+ * A persistent stream store which keeps streams as content defined chunks which are stored once
+ * and shared between streams, in which case each value row holds the manifest of a block rather
+ * than its bytes.  Stream stores generated with chunk deduplication extend this.
+ */
+public abstract class AbstractDeduplicatingPersistentStreamStore extends AbstractPersistentStreamStore {
+    protected AbstractDeduplicatingPersistentStreamStore(TransactionManager txManager) {
+        super(txManager);
+    }
+
+    /**
+     * Splits the stream into content defined chunks and stores each block as the list of chunk
+     * slices making it up.  Chunks are stored the first time any stream references them and are
+     * shared after that.
+     * <p>
+     * Only the batch in which a chunk first appears in this stream checks whether the chunk is
+     * already stored and records this stream's reference to it.  Later batches only reference it
+     * from their manifests, which is safe because nothing can read those manifests until every
+     * batch has been written.
+     */
+    @Override
+    protected void storeBlocksFromStream(@Nullable Transaction t, long id, InputStream stream) throws IOException {
+        ContentDefinedChunker chunker = new ContentDefinedChunker(stream);
+        int blocksPerTransaction = t == null ? Math.max(1, getBlocksPerWriteTransaction()) : Integer.MAX_VALUE;
+        WriteWindow window = t == null ? new WriteWindow() : null;
+        Set<Sha256Hash> referencedChunks = Sets.newHashSet();
+        Map<Sha256Hash, byte[]> newChunks = Maps.newHashMap();
+        List<byte[]> manifests = Lists.newArrayList();
+        StreamChunkManifest.Builder block = new StreamChunkManifest.Builder();
+        long blockNumber = 0;
+        boolean finished = false;
+        try {
+            for (byte[] chunk = chunker.nextChunk(); chunk != null; chunk = chunker.nextChunk()) {
+                Sha256Hash hash = Sha256Hash.computeHash(chunk);
+                if (referencedChunks.add(hash)) {
+                    newChunks.put(hash, chunk);
+                }
+                int offset = 0;
+                while (offset < chunk.length) {
+                    int length = Math.min(chunk.length - offset, BLOCK_SIZE_IN_BYTES - block.getLength());
+                    block.add(hash, offset, length);
+                    offset += length;
+                    if (block.getLength() == BLOCK_SIZE_IN_BYTES) {
+                        manifests.add(block.build().persistToBytes());
+                        block = new StreamChunkManifest.Builder();
+                        blockNumber++;
+                        if (manifests.size() == blocksPerTransaction) {
+                            writeChunkedBlocks(t, window, storeChunkedBlocksTask(id, blockNumber - manifests.size(), manifests, newChunks, t != null));
+                            manifests = Lists.newArrayList();
+                            newChunks = Maps.newHashMap();
+                        }
+                    }
+                }
+            }
+            if (!block.isEmpty()) {
+                manifests.add(block.build().persistToBytes());
+                blockNumber++;
+            }
+            if (!manifests.isEmpty()) {
+                writeChunkedBlocks(t, window, storeChunkedBlocksTask(id, blockNumber - manifests.size(), manifests, newChunks, t != null));
+            }
+            if (window != null) {
+                window.awaitAll();
+            }
+            finished = true;
+        } finally {
+            if (!finished && window != null) {
+                window.abort();
+            }
+        }
+    }
+
+    private static void writeChunkedBlocks(@Nullable Transaction t, @Nullable WriteWindow window, TxTask task) {
+        if (t != null) {
+            task.execute(t);
+        } else {
+            window.submit(task);
+        }
+    }
+
+    private TxTask storeChunkedBlocksTask(final long id,
+                                          final long firstBlockNumber,
+                                          final List<byte[]> manifests,
+                                          final Map<Sha256Hash, byte[]> newlyReferencedChunks,
+                                          final boolean touchMetadata) {
+        return new TxTask() {
+            @Override
+            public Void execute(Transaction t) {
+                if (!newlyReferencedChunks.isEmpty()) {
+                    Set<Sha256Hash> storedChunks = getStoredChunks(t, newlyReferencedChunks.keySet());
+                    Map<Sha256Hash, byte[]> chunksToStore = Maps.filterKeys(newlyReferencedChunks, Predicates.not(Predicates.in(storedChunks)));
+                    storeChunks(t, id, chunksToStore, newlyReferencedChunks.keySet());
+                }
+                for (int i = 0; i < manifests.size(); i++) {
+                    if (touchMetadata) {
+                        storeBlock(t, id, firstBlockNumber + i, manifests.get(i));
+                    } else {
+                        putBlock(t, id, firstBlockNumber + i, manifests.get(i));
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Returns those of the given chunks which are already stored.
+     */
+    protected abstract Set<Sha256Hash> getStoredChunks(Transaction t, Set<Sha256Hash> hashes);
+
+    /**
+     * Stores the given new chunks and records that this stream references each of the
+     * referenced chunks.
+     */
+    protected abstract void storeChunks(Transaction t, long streamId, Map<Sha256Hash, byte[]> newChunks, Set<Sha256Hash> referencedChunks);
+
+    protected abstract Map<Sha256Hash, byte[]> loadChunks(Transaction t, Set<Sha256Hash> hashes);
+
+    /**
+     * Rebuilds blocks from their stored manifests, loading every chunk they need in one read.
+     */
+    protected final Map<Long, byte[]> assembleChunkedBlocks(Transaction t, Map<Long, byte[]> manifests) {
+        Map<Long, StreamChunkManifest> blockManifests = Maps.newHashMapWithExpectedSize(manifests.size());
+        Set<Sha256Hash> hashes = Sets.newHashSet();
+        for (Map.Entry<Long, byte[]> e : manifests.entrySet()) {
+            StreamChunkManifest manifest = StreamChunkManifest.hydrateFromBytes(e.getValue());
+            blockManifests.put(e.getKey(), manifest);
+            hashes.addAll(manifest.getChunkHashes());
+        }
+        Map<Sha256Hash, byte[]> chunks = hashes.isEmpty() ? ImmutableMap.<Sha256Hash, byte[]>of() : loadChunks(t, hashes);
+
+        Map<Long, byte[]> blocks = Maps.newHashMapWithExpectedSize(blockManifests.size());
+        for (Map.Entry<Long, StreamChunkManifest> e : blockManifests.entrySet()) {
+            byte[] block = new byte[e.getValue().getBlockLength()];
+            int position = 0;
+            for (StreamChunkManifest.Slice slice : e.getValue().getSlices()) {
+                byte[] chunk = chunks.get(slice.hash);
+                Preconditions.checkState(chunk != null, "Missing chunk %s of block %s.", slice.hash, e.getKey());
+                System.arraycopy(chunk, slice.offset, block, position, slice.length);
+                position += slice.length;
+            }
+            blocks.put(e.getKey(), block);
+        }
+        return blocks;
+    }
+
+    /**
+     * The chunks referenced by a stored block manifest.
+     */
+    protected static Set<Sha256Hash> getChunkHashes(byte[] manifest) {
+        return StreamChunkManifest.hydrateFromBytes(manifest).getChunkHashes();
+    }
+}
@@ -22,14 +22,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.CheckForNull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -38,12 +41,17 @@ import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
+import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.ByteArrayIOStream;
 import com.palantir.util.file.DeleteOnCloseFileInputStream;
 
 public abstract class AbstractGenericStreamStore<ID> implements GenericStreamStore<ID> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
+    private static final ExecutorService blockPrefetchExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas stream block prefetch", true));
 
     @CheckForNull protected final TransactionManager txnMgr;
 
@@ -85,6 +93,88 @@ public abstract class AbstractGenericStreamStore<ID> implements GenericStreamSto
         }
     }
 
+    @Override
+    public final InputStream loadStreamLazily(final ID id, int blocksAhead) {
+        Preconditions.checkNotNull(txnMgr);
+        StreamMetadata metadata = getStoredMetadataReadOnly(id);
+        if (metadata.getLength() == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        BlockPrefetchingInputStream.BlockLoader loader = new BlockPrefetchingInputStream.BlockLoader() {
+            @Override
+            public byte[] loadBlock(final long blockId) {
+                // Blocks of a stored stream never change, so each may be read in its own transaction.
+                return txnMgr.runTaskReadOnly(new TransactionTask<byte[], RuntimeException>() {
+                    @Override
+                    public byte[] execute(Transaction t) {
+                        ByteArrayIOStream ios = new ByteArrayIOStream(BLOCK_SIZE_IN_BYTES);
+                        loadSingleBlockToOutputStream(t, id, blockId, ios);
+                        return ios.toByteArray();
+                    }
+                });
+            }
+        };
+        return new BlockPrefetchingInputStream(
+                loader,
+                getNumberOfBlocksFromMetadata(metadata),
+                blocksAhead,
+                getBlockPrefetchExecutor());
+    }
+
+    @Override
+    public final InputStream loadStreamRange(Transaction t, ID id, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "offset must not be negative");
+        Preconditions.checkArgument(length >= 0, "length must not be negative");
+        StreamMetadata metadata = checkStreamStored(id, getMetadata(t, id));
+        long end = Math.min(metadata.getLength(), offset + length);
+        if (end <= offset) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        Preconditions.checkArgument(end - offset <= Integer.MAX_VALUE,
+                "Cannot load a range of %s bytes into memory.", end - offset);
+
+        long firstBlockId = offset / BLOCK_SIZE_IN_BYTES;
+        long lastBlockId = (end - 1) / BLOCK_SIZE_IN_BYTES;
+        Map<Long, byte[]> blocks = loadBlocks(t, id, firstBlockId, lastBlockId);
+        byte[] range = new byte[Ints.checkedCast(end - offset)];
+        int rangePosition = 0;
+        for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {
+            byte[] block = blocks.get(blockId);
+            Preconditions.checkState(block != null, "Block %s of stream %s is missing.", blockId, id);
+            long blockStart = blockId * BLOCK_SIZE_IN_BYTES;
+            int from = (int) (Math.max(offset, blockStart) - blockStart);
+            int to = (int) (Math.min(end, blockStart + block.length) - blockStart);
+            System.arraycopy(block, from, range, rangePosition, to - from);
+            rangePosition += to - from;
+        }
+        return new ByteArrayInputStream(range);
+    }
+
+    @Override
+    public final SeekableByteChannel loadStreamAsChannel(final ID id) {
+        Preconditions.checkNotNull(txnMgr);
+        StreamMetadata metadata = getStoredMetadataReadOnly(id);
+        StreamBlockChannel.BlockRangeLoader loader = new StreamBlockChannel.BlockRangeLoader() {
+            @Override
+            public Map<Long, byte[]> loadBlocks(final long firstBlockId, final long lastBlockId) {
+                return txnMgr.runTaskReadOnly(new TransactionTask<Map<Long, byte[]>, RuntimeException>() {
+                    @Override
+                    public Map<Long, byte[]> execute(Transaction t) {
+                        return AbstractGenericStreamStore.this.loadBlocks(t, id, firstBlockId, lastBlockId);
+                    }
+                });
+            }
+        };
+        return new StreamBlockChannel(loader, metadata.getLength(), BLOCK_SIZE_IN_BYTES);
+    }
+
+    /**
+     * The executor used to prefetch blocks for {@link #loadStreamLazily}.
+     */
+    protected ExecutorService getBlockPrefetchExecutor() {
+        return blockPrefetchExecutor;
+    }
+
     @Override
     public final Map<ID, InputStream> loadStreams(Transaction t, Set<ID> ids) {
         Map<ID, InputStream> ret = Maps.newHashMap();
@@ -128,6 +218,15 @@ public abstract class AbstractGenericStreamStore<ID> implements GenericStreamSto
         }
     }
 
+    private StreamMetadata getStoredMetadataReadOnly(final ID id) {
+        return txnMgr.runTaskReadOnly(new TransactionTask<StreamMetadata, RuntimeException>() {
+            @Override
+            public StreamMetadata execute(Transaction t) {
+                return checkStreamStored(id, getMetadata(t, id));
+            }
+        });
+    }
+
     private StreamMetadata checkStreamStored(ID id, StreamMetadata metadata) {
         if (metadata == null) {
             log.error("Error loading stream " + id + " because it was never stored.");
@@ -167,5 +266,19 @@ public abstract class AbstractGenericStreamStore<ID> implements GenericStreamSto
 
     protected abstract void loadSingleBlockToOutputStream(Transaction t, ID streamId, long blockId, OutputStream os);
 
+    /**
+     * Loads the blocks from {@code firstBlockId} to {@code lastBlockId} inclusive, keyed by block id.
+     * Generated stream stores override this to read all of the blocks in a single request.
+     */
+    protected Map<Long, byte[]> loadBlocks(Transaction t, ID streamId, long firstBlockId, long lastBlockId) {
+        Map<Long, byte[]> blocks = Maps.newHashMap();
+        for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {
+            ByteArrayIOStream ios = new ByteArrayIOStream(BLOCK_SIZE_IN_BYTES);
+            loadSingleBlockToOutputStream(t, streamId, blockId, ios);
+            blocks.put(blockId, ios.toByteArray());
+        }
+        return blocks;
+    }
+
     protected abstract Map<ID, StreamMetadata> getMetadata(Transaction t, Set<ID> streamIds);
 }
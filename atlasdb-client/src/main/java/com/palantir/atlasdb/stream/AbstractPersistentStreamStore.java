@@ -20,7 +20,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 
@@ -29,6 +36,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
@@ -42,10 +50,17 @@ import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.Pair;
 import com.palantir.util.crypto.Sha256Hash;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long> implements PersistentStreamStore {
+    private static final int DEFAULT_BLOCKS_PER_WRITE_TRANSACTION = 2;
+    private static final int DEFAULT_WRITE_TRANSACTIONS_IN_FLIGHT = 4;
+    private static final ExecutorService blockWriteExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas stream block writer", true));
+
     protected AbstractPersistentStreamStore(TransactionManager txManager) {
         super(txManager);
     }
@@ -153,17 +168,16 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
 
         // Try to store the bytes to the stream and get length
         try {
-            storeBlocksFromStream(t, id, countingStream);
+            // We need to use a buffered stream here because we assume each read will fill the whole buffer.
+            storeBlocksFromStream(t, id, new BufferedInputStream(countingStream));
         } catch (IOException e) {
-            long length = countingStream.getCount();
-            StreamMetadata metadata = StreamMetadata.newBuilder()
-                .setStatus(Status.FAILED)
-                .setLength(length)
-                .setHash(com.google.protobuf.ByteString.EMPTY)
-                .build();
-            storeMetadataAndIndex(id, metadata);
-            log.error("Could not store stream " + id + ". Failed after " + length + " bytes.", e);
-            throw Throwables.rewrapAndThrowUncheckedException("Failed to store stream.", e);
+            throw markStreamFailed(id, countingStream.getCount(), e);
+        } catch (RuntimeException e) {
+            if (t != null) {
+                // The blocks were written in t, so they go away with it.
+                throw e;
+            }
+            throw markStreamFailed(id, countingStream.getCount(), e);
         }
 
         // Get hash and length
@@ -179,14 +193,35 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         return metadata;
     }
 
+    /**
+     * Marks a stream which failed to store as FAILED.  Every block which may have been written
+     * lies within the first {@code length} bytes, so cleanup finds all of them.
+     */
+    private RuntimeException markStreamFailed(long id, long length, Exception e) {
+        StreamMetadata metadata = StreamMetadata.newBuilder()
+            .setStatus(Status.FAILED)
+            .setLength(length)
+            .setHash(com.google.protobuf.ByteString.EMPTY)
+            .build();
+        storeMetadataAndIndex(id, metadata);
+        log.error("Could not store stream " + id + ". Failed after " + length + " bytes.", e);
+        throw Throwables.rewrapAndThrowUncheckedException("Failed to store stream.", e);
+    }
 
-    private void storeBlocksFromStream(@Nullable Transaction t, long id, InputStream stream) throws IOException {
-        // We need to use a buffered stream here because we assume each read will fill the whole buffer.
-        stream = new BufferedInputStream(stream);
-        byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
+    /**
+     * Stores the blocks of a buffered stream, in the given transaction or, if it is null, in
+     * transactions of their own.
+     */
+    protected void storeBlocksFromStream(@Nullable Transaction t, long id, InputStream stream) throws IOException {
+        if (t == null) {
+            storeBlocksInConcurrentTransactions(id, stream);
+            return;
+        }
         long blockNumber = 0;
 
         while (true) {
+            // A block may still be referenced by an uncommitted write, so never reuse its buffer.
+            byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
             int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
             // Store only relevant data if it only filled a partial block
             if (length == 0) {
@@ -204,6 +239,153 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    /**
+     * Reads (and so hashes) the stream on this thread while earlier blocks are written in batches of
+     * {@link #getBlocksPerWriteTransaction()} blocks per transaction, with up to
+     * {@link #getWriteTransactionsInFlight()} of those transactions running at once.  This bounds the
+     * number of blocks held in memory and not yet written.
+     * <p>
+     * These transactions do not touch the stream's metadata, or they would all conflict with each
+     * other.  Instead the transaction which finally marks the stream as stored checks that it is
+     * still being stored, so a stream cleaned up in the meantime fails to store.
+     */
+    private void storeBlocksInConcurrentTransactions(long id, InputStream stream) throws IOException {
+        int blocksPerTransaction = Math.max(1, getBlocksPerWriteTransaction());
+        WriteWindow window = new WriteWindow();
+        List<byte[]> batch = Lists.newArrayListWithCapacity(blocksPerTransaction);
+        long blockNumber = 0;
+        boolean finished = false;
+        try {
+            while (true) {
+                // Blocks are handed to the key value service, which may hold on to them, so buffers are not reused.
+                byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
+                int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
+                if (length > 0) {
+                    batch.add(length < BLOCK_SIZE_IN_BYTES ? PtBytes.head(bytesToStore, length) : bytesToStore);
+                    blockNumber++;
+                }
+                boolean lastBlock = length < BLOCK_SIZE_IN_BYTES;
+                if (batch.size() == blocksPerTransaction || (lastBlock && !batch.isEmpty())) {
+                    window.submit(storeBlocksTask(id, blockNumber - batch.size(), batch));
+                    batch = Lists.newArrayListWithCapacity(blocksPerTransaction);
+                }
+                if (lastBlock) {
+                    break;
+                }
+            }
+            window.awaitAll();
+            finished = true;
+        } finally {
+            if (!finished) {
+                window.abort();
+            }
+        }
+    }
+
+    private TxTask storeBlocksTask(final long id, final long firstBlockNumber, final List<byte[]> blocks) {
+        return new TxTask() {
+            @Override
+            public Void execute(Transaction t) {
+                for (int i = 0; i < blocks.size(); i++) {
+                    putBlock(t, id, firstBlockNumber + i, blocks.get(i));
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Runs block writing transactions on the block write executor, at most
+     * {@link #getWriteTransactionsInFlight()} at a time.  These transactions only write blocks, so
+     * concurrent transactions for the same stream do not conflict with each other.
+     */
+    final class WriteWindow {
+        private final int capacity = Math.max(1, getWriteTransactionsInFlight());
+        private final Deque<Future<Void>> inFlight = new ArrayDeque<Future<Void>>();
+        private volatile boolean aborted = false;
+
+        WriteWindow() {
+            Preconditions.checkNotNull(txnMgr);
+        }
+
+        void submit(final TxTask task) {
+            while (inFlight.size() >= capacity) {
+                awaitWrite(inFlight.removeFirst());
+            }
+            inFlight.addLast(getBlockWriteExecutor().submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    if (aborted) {
+                        return null;
+                    }
+                    return txnMgr.runTaskThrowOnConflict(task);
+                }
+            }));
+        }
+
+        void awaitAll() {
+            while (!inFlight.isEmpty()) {
+                awaitWrite(inFlight.removeFirst());
+            }
+        }
+
+        /**
+         * Skips the writes which have not started and waits for the rest to finish, successfully
+         * or not, so that no block is written after this returns.  Interrupting a write would
+         * not stop a transaction which is already committing.
+         */
+        void abort() {
+            aborted = true;
+            boolean interrupted = false;
+            for (Future<Void> write : inFlight) {
+                while (true) {
+                    try {
+                        write.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        break;
+                    }
+                }
+            }
+            inFlight.clear();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void awaitWrite(Future<Void> write) {
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to store stream blocks.", e.getCause());
+        }
+    }
+
+    /**
+     * The number of blocks written in each transaction when storing a stream outside of a transaction.
+     */
+    protected int getBlocksPerWriteTransaction() {
+        return DEFAULT_BLOCKS_PER_WRITE_TRANSACTION;
+    }
+
+    /**
+     * The number of block writing transactions which may run concurrently when storing a stream
+     * outside of a transaction.
+     */
+    protected int getWriteTransactionsInFlight() {
+        return DEFAULT_WRITE_TRANSACTIONS_IN_FLIGHT;
+    }
+
+    protected ExecutorService getBlockWriteExecutor() {
+        return blockWriteExecutor;
+    }
+
     protected void storeBlockWithNonNullTransaction(@Nullable Transaction t, final long id, final long blockNumber, final byte[] bytesToStore) {
         if (t != null) {
             storeBlock(t, id, blockNumber, bytesToStore);
@@ -226,6 +408,12 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
 
     protected abstract void storeBlock(Transaction t, long id, long blockNumber, byte[] block);
 
+    /**
+     * Stores a block like {@link #storeBlock} but without touching the stream's metadata, for blocks
+     * written in their own transactions while the stream is being stored.
+     */
+    protected abstract void putBlock(Transaction t, long id, long blockNumber, byte[] block);
+
     protected abstract void touchMetadataWhileMarkingUsedForConflicts(Transaction t, Iterable<Long> ids) throws StreamCleanedException;
 
     protected abstract void markStreamsAsUsedInternal(Transaction t, final Map<Long, byte[]> streamIdsToReference);
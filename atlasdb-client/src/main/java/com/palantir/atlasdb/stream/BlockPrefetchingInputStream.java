@@ -0,0 +1,149 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.common.base.Throwables;
+
+/**
+ * An input stream over the blocks of a stored stream which loads blocks as they are needed.
+ * <p>
+ * Up to {@code blocksAhead} blocks after the one being read are loaded in parallel on the given
+ * executor, so at most {@code blocksAhead + 1} blocks are held in memory at a time.  With no
+ * blocks ahead each block is loaded on the reading thread.
+ * <p>
+ * Like most input streams this is not thread safe.
+ */
+final class BlockPrefetchingInputStream extends InputStream {
+    interface BlockLoader {
+        byte[] loadBlock(long blockId);
+    }
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final BlockLoader loader;
+    private final long numBlocks;
+    private final int blocksAhead;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> prefetched = new ArrayDeque<Future<byte[]>>();
+    private long nextBlockToLoad = 0;
+    private byte[] block = NO_BYTES;
+    private int position = 0;
+    private boolean closed = false;
+
+    BlockPrefetchingInputStream(BlockLoader loader, long numBlocks, int blocksAhead, ExecutorService executor) {
+        Preconditions.checkArgument(blocksAhead >= 0, "blocksAhead must not be negative");
+        this.loader = loader;
+        this.numBlocks = numBlocks;
+        this.blocksAhead = blocksAhead;
+        this.executor = executor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBlockHasBytes()) {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Preconditions.checkPositionIndexes(off, off + len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureBlockHasBytes()) {
+            return -1;
+        }
+        int bytesRead = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, bytesRead);
+        position += bytesRead;
+        return bytesRead;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkNotClosed();
+        return block.length - position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<byte[]> future : prefetched) {
+            future.cancel(true);
+        }
+        prefetched.clear();
+        block = NO_BYTES;
+        position = 0;
+    }
+
+    private boolean ensureBlockHasBytes() throws IOException {
+        checkNotClosed();
+        while (position == block.length) {
+            if (!prefetched.isEmpty()) {
+                block = getBlock(prefetched.removeFirst());
+            } else if (nextBlockToLoad < numBlocks) {
+                block = blocksAhead > 0 ? getBlock(submit(nextBlockToLoad++)) : loader.loadBlock(nextBlockToLoad++);
+            } else {
+                return false;
+            }
+            position = 0;
+            prefetch();
+        }
+        return true;
+    }
+
+    private void prefetch() {
+        while (prefetched.size() < blocksAhead && nextBlockToLoad < numBlocks) {
+            prefetched.addLast(submit(nextBlockToLoad++));
+        }
+    }
+
+    private Future<byte[]> submit(final long blockId) {
+        return executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return loader.loadBlock(blockId);
+            }
+        });
+    }
+
+    private static byte[] getBlock(Future<byte[]> future) {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
+    }
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
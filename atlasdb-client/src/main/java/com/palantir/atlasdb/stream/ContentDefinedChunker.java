@@ -0,0 +1,103 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nullable;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Splits a stream into chunks whose boundaries depend only on the bytes near them, so an insert or
+ * delete early in a stream only changes the chunks around the edit and identical content in
+ * different streams is split into identical chunks.
+ * <p>
+ * Boundaries are found with a gear hash: each byte shifts the hash left and adds a fixed random
+ * value for that byte, so the hash only depends on the last 64 bytes.  A boundary is placed where
+ * the low bits of the hash are all zero, subject to a minimum and a maximum chunk size.
+ * <p>
+ * This is not thread safe.
+ */
+final class ContentDefinedChunker {
+    static final int MIN_CHUNK_SIZE_IN_BYTES = 16 * 1024;
+    static final int MAX_CHUNK_SIZE_IN_BYTES = 256 * 1024;
+
+    // 16 zero bits gives an average of 64KB past the minimum chunk size.
+    private static final long BOUNDARY_MASK = (1L << 16) - 1;
+    private static final int HASH_WINDOW_IN_BYTES = 64;
+
+    // WARNING: do not change the seed, it would change every chunk boundary and so stop deduplication
+    // against chunks that are already stored.
+    private static final long[] GEAR = createGear(0x5bd1e9955bd1e995L);
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[MAX_CHUNK_SIZE_IN_BYTES];
+    private int buffered = 0;
+    private boolean endOfStream = false;
+
+    ContentDefinedChunker(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next chunk of the stream, or null once the stream is exhausted.
+     */
+    @Nullable
+    byte[] nextChunk() throws IOException {
+        if (!endOfStream && buffered < MAX_CHUNK_SIZE_IN_BYTES) {
+            int read = ByteStreams.read(in, buffer, buffered, MAX_CHUNK_SIZE_IN_BYTES - buffered);
+            buffered += read;
+            endOfStream = buffered < MAX_CHUNK_SIZE_IN_BYTES;
+        }
+        if (buffered == 0) {
+            return null;
+        }
+        int length = findBoundary(buffer, buffered);
+        byte[] chunk = Arrays.copyOf(buffer, length);
+        System.arraycopy(buffer, length, buffer, 0, buffered - length);
+        buffered -= length;
+        return chunk;
+    }
+
+    static int findBoundary(byte[] bytes, int length) {
+        if (length <= MIN_CHUNK_SIZE_IN_BYTES) {
+            return length;
+        }
+        long hash = 0;
+        // Only the last HASH_WINDOW_IN_BYTES bytes contribute to the hash, so there is no need to hash
+        // the whole minimum chunk.
+        for (int i = MIN_CHUNK_SIZE_IN_BYTES - HASH_WINDOW_IN_BYTES; i < length; i++) {
+            hash = (hash << 1) + GEAR[bytes[i] & 0xff];
+            if (i >= MIN_CHUNK_SIZE_IN_BYTES && (hash & BOUNDARY_MASK) == 0) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static long[] createGear(long seed) {
+        Random random = new Random(seed);
+        long[] gear = new long[256];
+        for (int i = 0; i < gear.length; i++) {
+            gear[i] = random.nextLong();
+        }
+        return gear;
+    }
+}
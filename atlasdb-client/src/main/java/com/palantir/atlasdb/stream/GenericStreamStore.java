@@ -17,6 +17,7 @@ package com.palantir.atlasdb.stream;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +33,31 @@ public interface GenericStreamStore<ID> {
     Map<Sha256Hash, ID> lookupStreamIdsByHash(Transaction t, final Set<Sha256Hash> hashes);
 
     InputStream loadStream(Transaction t, ID id);
+
+    /**
+     * Returns a stream which loads blocks as they are read, rather than copying the whole stream
+     * to a temp file first.  Up to {@code blocksAhead} blocks after the one being read are loaded
+     * in parallel, so at most {@code (blocksAhead + 1) * BLOCK_SIZE_IN_BYTES} bytes are buffered.
+     * <p>
+     * The stream's metadata and each block are read in their own read only transactions, so only
+     * committed streams can be loaded this way and the returned stream needs no open transaction.
+     */
+    InputStream loadStreamLazily(ID id, int blocksAhead);
+
+    /**
+     * Returns the bytes of the stream from {@code offset} up to {@code offset + length}, or up to
+     * the end of the stream if that comes first.  Only the blocks covering the range are read, all
+     * in one request, and the range is returned in memory.
+     */
+    InputStream loadStreamRange(Transaction t, ID id, long offset, long length);
+
+    /**
+     * Returns a read only channel over the stream which loads only the blocks covering each read.
+     * As with {@link #loadStreamLazily}, the metadata and blocks are read in their own read only
+     * transactions.
+     */
+    SeekableByteChannel loadStreamAsChannel(ID id);
+
     Map<ID, InputStream> loadStreams(Transaction t, Set<ID> ids);
     File loadStreamAsFile(Transaction t, ID id);
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A read only channel over the blocks of a stored stream, which loads only the blocks
+ * covering each read.
+ * <p>
+ * A read which spans several blocks loads them together, up to {@link #MAX_BLOCKS_PER_READ}
+ * at a time, and the last block loaded is kept so that small sequential reads do not load
+ * the same block again.
+ * <p>
+ * Like most channels over a single position this is not safe for concurrent reads.
+ */
+final class StreamBlockChannel implements SeekableByteChannel {
+    interface BlockRangeLoader {
+        /**
+         * Returns the blocks from {@code firstBlockId} to {@code lastBlockId} inclusive, keyed by block id.
+         */
+        Map<Long, byte[]> loadBlocks(long firstBlockId, long lastBlockId);
+    }
+
+    static final int MAX_BLOCKS_PER_READ = 16;
+
+    private final BlockRangeLoader loader;
+    private final long size;
+    private final int blockSize;
+    private long position = 0;
+    private long cachedBlockId = -1;
+    private byte[] cachedBlock = null;
+    private boolean open = true;
+
+    StreamBlockChannel(BlockRangeLoader loader, long size, int blockSize) {
+        this.loader = loader;
+        this.size = size;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (position >= size) {
+            return -1;
+        }
+        long end = Math.min(size, position + dst.remaining());
+        if (end == position) {
+            return 0;
+        }
+        long firstBlockId = position / blockSize;
+        long lastBlockId = Math.min((end - 1) / blockSize, firstBlockId + MAX_BLOCKS_PER_READ - 1);
+        int bytesRead = 0;
+        if (firstBlockId == cachedBlockId) {
+            bytesRead += copyFromBlock(cachedBlockId, cachedBlock, end, dst);
+            firstBlockId++;
+        }
+        if (firstBlockId <= lastBlockId && position < end) {
+            Map<Long, byte[]> blocks = loader.loadBlocks(firstBlockId, lastBlockId);
+            for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {
+                byte[] block = blocks.get(blockId);
+                Preconditions.checkState(block != null, "Block %s of the stream is missing.", blockId);
+                bytesRead += copyFromBlock(blockId, block, end, dst);
+                cachedBlockId = blockId;
+                cachedBlock = block;
+            }
+        }
+        return bytesRead;
+    }
+
+    private int copyFromBlock(long blockId, byte[] block, long end, ByteBuffer dst) {
+        int offsetInBlock = (int) (position - blockId * blockSize);
+        int length = (int) Math.min(block.length - offsetInBlock, end - position);
+        dst.put(block, offsetInBlock, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        Preconditions.checkArgument(newPosition >= 0, "position must not be negative");
+        checkOpen();
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long newSize) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        cachedBlock = null;
+    }
+
+    private void checkOpen() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
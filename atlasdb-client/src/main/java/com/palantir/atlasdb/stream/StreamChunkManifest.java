@@ -0,0 +1,126 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.palantir.util.crypto.Sha256Hash;
+
+/**
+ * The contents of one block of a deduplicating stream store, as the list of chunk slices which
+ * make up the block in order.
+ * <p>
+ * The persisted form is a format byte followed by, for each slice, the 32 byte hash of the chunk
+ * and the offset and length of the slice within the chunk as 4 byte integers.
+ */
+final class StreamChunkManifest {
+    // WARNING: do not change the persisted format without bumping this and reading both formats.
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HASH_SIZE_IN_BYTES = 32;
+    private static final int SLICE_SIZE_IN_BYTES = HASH_SIZE_IN_BYTES + 4 + 4;
+
+    static final class Slice {
+        final Sha256Hash hash;
+        final int offset;
+        final int length;
+
+        Slice(Sha256Hash hash, int offset, int length) {
+            this.hash = hash;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final List<Slice> slices;
+
+    private StreamChunkManifest(List<Slice> slices) {
+        this.slices = slices;
+    }
+
+    List<Slice> getSlices() {
+        return slices;
+    }
+
+    Set<Sha256Hash> getChunkHashes() {
+        Set<Sha256Hash> hashes = Sets.newHashSet();
+        for (Slice slice : slices) {
+            hashes.add(slice.hash);
+        }
+        return hashes;
+    }
+
+    int getBlockLength() {
+        int length = 0;
+        for (Slice slice : slices) {
+            length += slice.length;
+        }
+        return length;
+    }
+
+    byte[] persistToBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + slices.size() * SLICE_SIZE_IN_BYTES);
+        buffer.put(FORMAT_VERSION);
+        for (Slice slice : slices) {
+            buffer.put(slice.hash.getBytes());
+            buffer.putInt(slice.offset);
+            buffer.putInt(slice.length);
+        }
+        return buffer.array();
+    }
+
+    static StreamChunkManifest hydrateFromBytes(byte[] bytes) {
+        Preconditions.checkArgument(bytes.length > 0 && bytes[0] == FORMAT_VERSION,
+                "Unknown stream chunk manifest format.");
+        Preconditions.checkArgument((bytes.length - 1) % SLICE_SIZE_IN_BYTES == 0,
+                "Corrupt stream chunk manifest of %s bytes.", bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        ImmutableList.Builder<Slice> slices = ImmutableList.builder();
+        while (buffer.hasRemaining()) {
+            byte[] hash = new byte[HASH_SIZE_IN_BYTES];
+            buffer.get(hash);
+            slices.add(new Slice(new Sha256Hash(hash), buffer.getInt(), buffer.getInt()));
+        }
+        return new StreamChunkManifest(slices.build());
+    }
+
+    static final class Builder {
+        private final List<Slice> slices = Lists.newArrayList();
+        private int length = 0;
+
+        void add(Sha256Hash hash, int offset, int sliceLength) {
+            slices.add(new Slice(hash, offset, sliceLength));
+            length += sliceLength;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        boolean isEmpty() {
+            return slices.isEmpty();
+        }
+
+        StreamChunkManifest build() {
+            return new StreamChunkManifest(ImmutableList.copyOf(slices));
+        }
+    }
+}
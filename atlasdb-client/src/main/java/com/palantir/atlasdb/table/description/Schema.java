@@ -151,14 +151,30 @@ public class Schema {
     }
 
     public void addStreamStoreDefinition(final String longName, String shortName, ValueType streamIdType, int inMemoryThreshold, ExpirationStrategy expirationStrategy, boolean hashFirstRowComponent, boolean isAppendHeavyAndReadLight) {
+        addStreamStoreDefinition(longName, shortName, streamIdType, inMemoryThreshold, expirationStrategy, hashFirstRowComponent, isAppendHeavyAndReadLight, false);
+    }
+
+    /**
+     * @param deduplicateChunks If true, streams are split into content defined chunks which are
+     * Snappy compressed and stored once no matter how many streams contain them.  The value table
+     * then holds, for each block, the list of chunk slices making up that block.  This is only
+     * supported for persistent streams.
+     */
+    public void addStreamStoreDefinition(final String longName, String shortName, ValueType streamIdType, int inMemoryThreshold, ExpirationStrategy expirationStrategy, boolean hashFirstRowComponent, boolean isAppendHeavyAndReadLight, boolean deduplicateChunks) {
         if (expirationStrategy == ExpirationStrategy.NEVER) {
             Preconditions.checkArgument(streamIdType.getJavaClassName().equals("long"), "Stream ids must be a long for persistent streams.");
+        } else {
+            Preconditions.checkArgument(!deduplicateChunks, "Only persistent streams may deduplicate chunks.");
         }
-        final StreamStoreRenderer renderer = new StreamStoreRenderer(Renderers.CamelCase(longName), streamIdType, packageName, name, inMemoryThreshold, expirationStrategy);
+        final StreamStoreRenderer renderer = new StreamStoreRenderer(Renderers.CamelCase(longName), streamIdType, packageName, name, inMemoryThreshold, expirationStrategy, deduplicateChunks);
         addTableDefinition(shortName + "_stream_metadata", StreamTables.getStreamMetadataDefinition(longName, streamIdType, expirationStrategy, hashFirstRowComponent, isAppendHeavyAndReadLight));
         addTableDefinition(shortName + "_stream_value", StreamTables.getStreamValueDefinition(longName, streamIdType, expirationStrategy, hashFirstRowComponent, isAppendHeavyAndReadLight));
         addTableDefinition(shortName + "_stream_hash_aidx", StreamTables.getStreamHashIdxDefinition(longName, streamIdType, expirationStrategy, isAppendHeavyAndReadLight));
         addTableDefinition(shortName + "_stream_idx", StreamTables.getStreamIdxDefinition(longName, streamIdType, expirationStrategy, hashFirstRowComponent, isAppendHeavyAndReadLight));
+        if (deduplicateChunks) {
+            addTableDefinition(shortName + "_stream_chunk", StreamTables.getStreamChunkDefinition(longName, isAppendHeavyAndReadLight));
+            addTableDefinition(shortName + "_stream_chunk_idx", StreamTables.getStreamChunkIdxDefinition(longName, streamIdType, isAppendHeavyAndReadLight));
+        }
 
         // We use reflection and wrap these in suppliers because these classes are generated classes that might not always exist.
         addCleanupTask(shortName + "_stream_metadata", new Supplier<OnCleanupTask>() {
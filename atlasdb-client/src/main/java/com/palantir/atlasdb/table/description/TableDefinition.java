@@ -80,10 +80,14 @@ public class TableDefinition extends AbstractDefinition {
     }
 
     public void column(String columnName, String shortName, ValueType valueType) {
+        column(columnName, shortName, valueType, Compression.NONE);
+    }
+
+    public void column(String columnName, String shortName, ValueType valueType, Compression compression) {
         Preconditions.checkState(state == State.DEFINING_COLUMNS);
         Preconditions.checkState(!noColumns);
         checkUniqueColumnNames(columnName, shortName);
-        fixedColumns.add(new NamedColumnDescription(shortName, columnName, ColumnValueDescription.forType(valueType)));
+        fixedColumns.add(new NamedColumnDescription(shortName, columnName, ColumnValueDescription.forType(valueType, compression)));
     }
 
     public void noColumns() {
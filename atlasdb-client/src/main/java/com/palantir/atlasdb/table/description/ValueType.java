@@ -109,6 +109,16 @@ public enum ValueType {
             return "EncodingUtils.encodeUnsignedVarLong(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "EncodingUtils.sizeOfUnsignedVarLong(" + variableName + ")";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeUnsignedVarLong(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return Long.class;
@@ -194,6 +204,16 @@ public enum ValueType {
             return "EncodingUtils.encodeSignedVarLong(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "EncodingUtils.sizeOfSignedVarLong(" + variableName + ")";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeSignedVarLong(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return Long.class;
@@ -278,6 +298,16 @@ public enum ValueType {
             return "PtBytes.toBytes(Long.MIN_VALUE ^ " + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "8";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return bufferName + ".putLong(Long.MIN_VALUE ^ " + variableName + ")";
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return Long.class;
@@ -363,6 +393,16 @@ public enum ValueType {
             return "EncodingUtils.encodeLittleEndian(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "8";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeLittleEndian(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public boolean supportsRangeScans() {
             return false;
@@ -434,6 +474,16 @@ public enum ValueType {
             return variableName + ".getBytes()";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "32";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return bufferName + ".put(" + variableName + ".getBytes())";
+        }
+
         @Override
         public String getHydrateCode(String inputName, String indexName) {
             return "new Sha256Hash(EncodingUtils.get32Bytes(" + inputName + ", " + indexName + "))";
@@ -530,6 +580,16 @@ public enum ValueType {
             return "EncodingUtils.encodeVarString(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "EncodingUtils.sizeOfVarString(" + variableName + ")";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeVarString(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return String.class;
@@ -605,6 +665,16 @@ public enum ValueType {
             return "PtBytes.toBytes(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "EncodingUtils.sizeOfString(" + variableName + ")";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeString(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return String.class;
@@ -661,6 +731,16 @@ public enum ValueType {
             return variableName;
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return variableName + ".length";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return bufferName + ".put(" + variableName + ")";
+        }
+
         @Override
         public String getHydrateCode(String inputName, String indexName) {
             return "EncodingUtils.getBytesFromOffsetToEnd(" + inputName + ", " + indexName + ")";
@@ -736,6 +816,16 @@ public enum ValueType {
             return "EncodingUtils.encodeSizedBytes(" + variableName + ")";
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "EncodingUtils.sizeOfSizedBytes(" + variableName + ")";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return "EncodingUtils.encodeSizedBytes(" + variableName + ", " + bufferName + ")";
+        }
+
         @Override
         public String getHydrateCode(String inputName, String indexName) {
             return "EncodingUtils.decodeSizedBytes(" + inputName + ", " + indexName + ")";
@@ -837,6 +927,16 @@ public enum ValueType {
             return String.format("EncodingUtils.encodeNullableFixedLong(%s)", variableName);
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "9";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return String.format("EncodingUtils.encodeNullableFixedLong(%s, %s)", variableName, bufferName);
+        }
+
         @Override
         public Class<?> getTypeClass() {
             return Long.class;
@@ -887,6 +987,16 @@ public enum ValueType {
             return String.format("EncodingUtils.encodeUUID(%s)", variableName);
         }
 
+        @Override
+        public String getPersistSizeCode(String variableName) {
+            return "16";
+        }
+
+        @Override
+        public String getBufferPersistCode(String variableName, String bufferName) {
+            return String.format("EncodingUtils.encodeUUID(%s, %s)", variableName, bufferName);
+        }
+
         @Override
         public String getHydrateCode(String inputName, String indexName) {
             return String.format("EncodingUtils.decodeUUID(%s, %s)", inputName, indexName);
@@ -940,6 +1050,15 @@ public enum ValueType {
         return getJavaClassName();
     }
     public abstract String getPersistCode(String variableName);
+    /**
+     * Returns code for the exact number of bytes written by {@link #getPersistCode(String)}.
+     */
+    public abstract String getPersistSizeCode(String variableName);
+    /**
+     * Returns code which writes the bytes of {@link #getPersistCode(String)} at the position of a
+     * {@link java.nio.ByteBuffer} and advances it by {@link #getPersistSizeCode(String)}.
+     */
+    public abstract String getBufferPersistCode(String variableName, String bufferName);
     public abstract String getHydrateCode(String inputName, String indexName);
     public abstract String getFlippedHydrateCode(String inputName, String indexName);
     public abstract String getHydrateSizeCode(String variableName);
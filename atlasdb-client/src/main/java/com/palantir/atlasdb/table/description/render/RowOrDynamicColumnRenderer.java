@@ -160,19 +160,52 @@ class RowOrDynamicColumnRenderer extends Renderer {
     private void persistToBytes() {
         line("@Override");
         line("public byte[] persistToBytes() {"); {
-            List<String> vars = Lists.newArrayList();
-            for (NameComponentDescription comp : desc.getRowParts()) {
-                String var = varName(comp) + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", comp.getType().getPersistCode(varName(comp)), ";");
-                if (comp.getOrder() == ValueByteOrder.DESCENDING) {
-                    line("EncodingUtils.flipAllBitsInPlace(", var, ");");
+            List<NameComponentDescription> components = desc.getRowParts();
+            NameComponentDescription first = components.get(0);
+            if (components.size() == 1 && first.getOrder() == ValueByteOrder.ASCENDING) {
+                if (first.getType() == ValueType.BLOB) {
+                    // A blob persists as the field itself, which must not be handed out.
+                    line("return ", varName(first), ".clone();");
+                } else {
+                    line("return ", first.getType().getPersistCode(varName(first)), ";");
                 }
+            } else {
+                renderEncodeToBytes(components, false);
+                line("return __bytes;");
             }
-            line("return EncodingUtils.add(", Joiner.on(", ").join(vars), ");");
         } line("}");
     }
 
+    /**
+     * Renders code which encodes the components into a single exactly sized array named __bytes.
+     */
+    private void renderEncodeToBytes(List<NameComponentDescription> components, boolean withHash) {
+        List<String> sizes = Lists.newArrayList();
+        if (withHash) {
+            sizes.add(ValueType.FIXED_LONG.getPersistSizeCode(NameMetadataDescription.HASH_ROW_COMPONENT_NAME));
+        }
+        for (NameComponentDescription comp : components) {
+            sizes.add(comp.getType().getPersistSizeCode(varName(comp)));
+        }
+        line("byte[] __bytes = new byte[", Joiner.on(" + ").join(sizes), "];");
+        line("ByteBuffer __buffer = ByteBuffer.wrap(__bytes);");
+        if (withHash) {
+            line(ValueType.FIXED_LONG.getBufferPersistCode(NameMetadataDescription.HASH_ROW_COMPONENT_NAME, "__buffer"), ";");
+        }
+        boolean startDeclared = false;
+        for (NameComponentDescription comp : components) {
+            boolean descending = comp.getOrder() == ValueByteOrder.DESCENDING;
+            if (descending) {
+                line(startDeclared ? "" : "int ", "__start = __buffer.position();");
+                startDeclared = true;
+            }
+            line(comp.getType().getBufferPersistCode(varName(comp), "__buffer"), ";");
+            if (descending) {
+                line("EncodingUtils.flipAllBitsInPlace(__bytes, __start, __buffer.position() - __start);");
+            }
+        }
+    }
+
     private void bytesHydrator() {
         line("public static final Hydrator<", Name, "> BYTES_HYDRATOR = new Hydrator<", Name, ">() {"); {
             line("@Override");
@@ -197,44 +230,22 @@ class RowOrDynamicColumnRenderer extends Renderer {
     private void createPrefixRange(int i, boolean isSorted) {
         List<NameComponentDescription> components = getRowPartsWithoutHash().subList(0, i);
         line("public static RangeRequest.Builder createPrefixRange", isSorted ? "" : "Unsorted"); renderParameterList(components); lineEnd(" {"); {
-            List<String> vars = Lists.newArrayList();
             if (desc.hasFirstComponentHash()) {
                 renderComputeFirstComponentHash();
-                String var = NameMetadataDescription.HASH_ROW_COMPONENT_NAME + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", ValueType.FIXED_LONG.getPersistCode(NameMetadataDescription.HASH_ROW_COMPONENT_NAME), ";");
             }
-            for (NameComponentDescription comp : components) {
-                String var = varName(comp) + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", comp.getType().getPersistCode(varName(comp)), ";");
-                if (comp.getOrder() == ValueByteOrder.DESCENDING) {
-                    line("EncodingUtils.flipAllBitsInPlace(", var, ");");
-                }
-            }
-            line("return RangeRequest.builder().prefixRange(EncodingUtils.add(", Joiner.on(", ").join(vars), "));");
+            renderEncodeToBytes(components, desc.hasFirstComponentHash());
+            line("return RangeRequest.builder().prefixRange(__bytes);");
         } line("}");
     }
 
     private void prefix(int i, boolean isSorted) {
         List<NameComponentDescription> components = getRowPartsWithoutHash().subList(0, i);
         line("public static Prefix prefix", isSorted ? "" : "Unsorted"); renderParameterList(components); lineEnd(" {"); {
-            List<String> vars = Lists.newArrayList();
             if (desc.hasFirstComponentHash()) {
                 renderComputeFirstComponentHash();
-                String var = NameMetadataDescription.HASH_ROW_COMPONENT_NAME + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", ValueType.FIXED_LONG.getPersistCode(NameMetadataDescription.HASH_ROW_COMPONENT_NAME), ";");
-            }
-            for (NameComponentDescription comp : components) {
-                String var = varName(comp) + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", comp.getType().getPersistCode(varName(comp)), ";");
-                if (comp.getOrder() == ValueByteOrder.DESCENDING) {
-                    line("EncodingUtils.flipAllBitsInPlace(", var, ");");
-                }
             }
-            line("return new Prefix(EncodingUtils.add(", Joiner.on(", ").join(vars), "));");
+            renderEncodeToBytes(components, desc.hasFirstComponentHash());
+            line("return new Prefix(__bytes);");
         } line("}");
     }
 
@@ -57,6 +57,7 @@ import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ExpirationStrategy;
+import com.palantir.atlasdb.stream.AbstractDeduplicatingPersistentStreamStore;
 import com.palantir.atlasdb.stream.AbstractExpiringStreamStore;
 import com.palantir.atlasdb.stream.AbstractPersistentStreamStore;
 import com.palantir.atlasdb.stream.ExpiringStreamStore;
@@ -83,14 +84,20 @@ public class StreamStoreRenderer {
     private final String schemaName;
     private final int inMemoryThreshold;
     private final ExpirationStrategy expirationStrategy;
+    private final boolean deduplicateChunks;
 
     public StreamStoreRenderer(String name, ValueType streamIdType, String packageName, String schemaName, int inMemoryThreshold, ExpirationStrategy expirationStrategy) {
+        this(name, streamIdType, packageName, schemaName, inMemoryThreshold, expirationStrategy, false);
+    }
+
+    public StreamStoreRenderer(String name, ValueType streamIdType, String packageName, String schemaName, int inMemoryThreshold, ExpirationStrategy expirationStrategy, boolean deduplicateChunks) {
         this.name = name;
         this.streamIdType = streamIdType;
         this.packageName = packageName;
         this.schemaName = schemaName;
         this.inMemoryThreshold = inMemoryThreshold;
         this.expirationStrategy = expirationStrategy;
+        this.deduplicateChunks = deduplicateChunks;
     }
 
     public String getPackageName() {
@@ -128,6 +135,14 @@ public class StreamStoreRenderer {
         final String StreamIdxColumn = StreamIdxTable + "." + name + "StreamIdxColumn";
         final String StreamIdxColumnValue = StreamIdxTable + "." + name + "StreamIdxColumnValue";
 
+        final String StreamChunkTable = name + "StreamChunkTable";
+        final String StreamChunkRow = StreamChunkTable + "." + name + "StreamChunkRow";
+
+        final String StreamChunkIdxTable = name + "StreamChunkIdxTable";
+        final String StreamChunkIdxRow = StreamChunkIdxTable + "." + name + "StreamChunkIdxRow";
+        final String StreamChunkIdxColumn = StreamChunkIdxTable + "." + name + "StreamChunkIdxColumn";
+        final String StreamChunkIdxColumnValue = StreamChunkIdxTable + "." + name + "StreamChunkIdxColumnValue";
+
         final String TableFactory = schemaName + "TableFactory";
         final String StreamId = streamIdType.getJavaObjectClassName();
 
@@ -141,7 +156,7 @@ public class StreamStoreRenderer {
                 importRenderer.renderImports();
                 line();
                 line("@Generated(\"",  StreamStoreRenderer.class.getName(), "\")");
-                line("public final class ", StreamStore, " extends ", (isExpiring() ? "AbstractExpiringStreamStore<" + StreamId + ">" : "AbstractPersistentStreamStore"), " {"); {
+                line("public final class ", StreamStore, " extends ", getSuperclass(), " {"); {
                     fields();
                     line();
                     constructors();
@@ -150,6 +165,10 @@ public class StreamStoreRenderer {
                     line();
                     storeBlock();
                     line();
+                    if (!isExpiring()) {
+                        putBlock();
+                        line();
+                    }
                     touchMetadataWhileStoringForConflicts();
                     line();
                     putMetadataAndHashIndexTask();
@@ -162,6 +181,8 @@ public class StreamStoreRenderer {
                     line();
                     getBlock();
                     line();
+                    loadBlocks();
+                    line();
                     getMetadata();
                     line();
                     lookupStreamIdsByHash();
@@ -173,6 +194,16 @@ public class StreamStoreRenderer {
                     putHashIndexTask();
                     line();
                     deleteStreams();
+                    if (deduplicateChunks) {
+                        line();
+                        deleteChunkReferences();
+                        line();
+                        getStoredChunks();
+                        line();
+                        storeChunks();
+                        line();
+                        loadChunks();
+                    }
                     if (!isExpiring()) {
                         line();
                         markStreamsAsUsedInternal();
@@ -235,6 +266,14 @@ public class StreamStoreRenderer {
                 } line("}");
             }
 
+            private void putBlock() {
+                line("@Override");
+                line("protected void putBlock(Transaction t, long id, long blockNumber, final byte[] block) {"); {
+                    line("Preconditions.checkArgument(block.length <= BLOCK_SIZE_IN_BYTES, \"Block to store in DB must be less than BLOCK_SIZE_IN_BYTES\");");
+                    line("tables.get", StreamValueTable, "(t).putValue(", StreamValueRow, ".of(id, blockNumber), block);");
+                } line("}");
+            }
+
             private void touchMetadataWhileStoringForConflicts() {
                 String params = isExpiring() ? ", long duration, TimeUnit unit" : "";
                 String args = isExpiring() ? ", duration, unit" : "";
@@ -276,6 +315,9 @@ public class StreamStoreRenderer {
                                 line("throw new TransactionFailedRetriableException(\"Cannot reuse the same stream id: \" + streamId);");
                             } line("}");
                             line("rowsToUnstoredMetadata.put(", StreamMetadataRow, ".of(streamId), metadata);");
+                        } line("} else if (metadata.getStatus() == Status.FAILED) {"); {
+                            line("// The length of a failed stream covers every block it may have written, so cleanup finds them.");
+                            line("rowsToUnstoredMetadata.put(", StreamMetadataRow, ".of(streamId), metadata);");
                         } line("}");
                     } line("}");
                     line("putHashIndexTask(t, rowsToStoredMetadata", args, ");");
@@ -328,7 +370,28 @@ public class StreamStoreRenderer {
             private void getBlock() {
                 line("private byte[] getBlock(Transaction t, ", StreamValueRow, " row) {"); {
                     line(StreamValueTable, " valueTable = tables.get", StreamValueTable, "(t);");
-                    line("return valueTable.getValues(ImmutableSet.of(row)).get(row);");
+                    if (deduplicateChunks) {
+                        line("byte[] manifest = valueTable.getValues(ImmutableSet.of(row)).get(row);");
+                        line("return assembleChunkedBlocks(t, ImmutableMap.of(row.getBlockId(), manifest)).get(row.getBlockId());");
+                    } else {
+                        line("return valueTable.getValues(ImmutableSet.of(row)).get(row);");
+                    }
+                } line("}");
+            }
+
+            private void loadBlocks() {
+                line("@Override");
+                line("protected Map<Long, byte[]> loadBlocks(Transaction t, ", StreamId, " streamId, long firstBlockId, long lastBlockId) {"); {
+                    line("Set<", StreamValueRow, "> rows = Sets.newHashSet();");
+                    line("for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {"); {
+                        line("rows.add(", StreamValueRow, ".of(streamId, blockId));");
+                    } line("}");
+                    line(StreamValueTable, " valueTable = tables.get", StreamValueTable, "(t);");
+                    line("Map<Long, byte[]> blocks = Maps.newHashMap();");
+                    line("for (Map.Entry<", StreamValueRow, ", byte[]> e : valueTable.getValues(rows).entrySet()) {"); {
+                        line("blocks.put(e.getKey().getBlockId(), e.getValue());");
+                    } line("}");
+                    line(deduplicateChunks ? "return assembleChunkedBlocks(t, blocks);" : "return blocks;");
                 } line("}");
             }
 
@@ -468,11 +531,86 @@ public class StreamStoreRenderer {
                     } line("}");
 
                     line("tables.get", StreamHashAidxTable, "(t).delete(shToDelete);");
+                    if (deduplicateChunks) {
+                        line("deleteChunkReferences(t, tables.get", StreamValueTable, "(t).getValues(streamValueToDelete));");
+                    }
                     line("tables.get", StreamValueTable, "(t).delete(streamValueToDelete);");
                     line("table.delete(smRows);");
                 } line("}");
             }
 
+            private void deleteChunkReferences() {
+                line("private void deleteChunkReferences(Transaction t, Map<", StreamValueRow, ", byte[]> manifests) {"); {
+                    line("Multimap<", StreamChunkIdxRow, ", ", StreamChunkIdxColumn, "> referencesToDelete = HashMultimap.create();");
+                    line("for (Entry<", StreamValueRow, ", byte[]> e : manifests.entrySet()) {"); {
+                        line(StreamChunkIdxColumn, " column = ", StreamChunkIdxColumn, ".of(e.getKey().getId());");
+                        line("for (Sha256Hash hash : getChunkHashes(e.getValue())) {"); {
+                            line("referencesToDelete.put(", StreamChunkIdxRow, ".of(hash), column);");
+                        } line("}");
+                    } line("}");
+                    line("if (referencesToDelete.isEmpty()) {"); {
+                        line("return;");
+                    } line("}");
+                    line(StreamChunkIdxTable, " chunkIdx = tables.get", StreamChunkIdxTable, "(t);");
+                    line("chunkIdx.delete(referencesToDelete);");
+                    line("// Our own deletes are visible here, so any chunk with references left is used by another stream.");
+                    line("Set<", StreamChunkIdxRow, "> referencedRows = chunkIdx.getRowsMultimap(referencesToDelete.keySet()).keySet();");
+                    line("Set<", StreamChunkRow, "> chunksToDelete = Sets.newHashSet();");
+                    line("for (", StreamChunkIdxRow, " row : Sets.difference(referencesToDelete.keySet(), referencedRows)) {"); {
+                        line("chunksToDelete.add(", StreamChunkRow, ".of(row.getHash()));");
+                    } line("}");
+                    line("tables.get", StreamChunkTable, "(t).delete(chunksToDelete);");
+                } line("}");
+            }
+
+            private void getStoredChunks() {
+                line("@Override");
+                line("protected Set<Sha256Hash> getStoredChunks(Transaction t, Set<Sha256Hash> hashes) {"); {
+                    line("Set<Sha256Hash> storedChunks = Sets.newHashSet();");
+                    line("for (", StreamChunkRow, " row : tables.get", StreamChunkTable, "(t).getLengths(getChunkRowsForHashes(hashes)).keySet()) {"); {
+                        line("storedChunks.add(row.getHash());");
+                    } line("}");
+                    line("return storedChunks;");
+                } line("}");
+                line();
+                line("private Set<", StreamChunkRow, "> getChunkRowsForHashes(Set<Sha256Hash> hashes) {"); {
+                    line("Set<", StreamChunkRow, "> rows = Sets.newHashSet();");
+                    line("for (Sha256Hash hash : hashes) {"); {
+                        line("rows.add(", StreamChunkRow, ".of(hash));");
+                    } line("}");
+                    line("return rows;");
+                } line("}");
+            }
+
+            private void storeChunks() {
+                line("@Override");
+                line("protected void storeChunks(Transaction t, long streamId, Map<Sha256Hash, byte[]> newChunks, Set<Sha256Hash> referencedChunks) {"); {
+                    line(StreamChunkTable, " chunkTable = tables.get", StreamChunkTable, "(t);");
+                    line("for (Entry<Sha256Hash, byte[]> e : newChunks.entrySet()) {"); {
+                        line(StreamChunkRow, " row = ", StreamChunkRow, ".of(e.getKey());");
+                        line("chunkTable.putContent(row, e.getValue());");
+                        line("chunkTable.putLength(row, (long) e.getValue().length);");
+                    } line("}");
+                    line(StreamChunkIdxColumnValue, " reference = ", StreamChunkIdxColumnValue, ".of(", StreamChunkIdxColumn, ".of(streamId), 0L);");
+                    line("Multimap<", StreamChunkIdxRow, ", ", StreamChunkIdxColumnValue, "> references = HashMultimap.create();");
+                    line("for (Sha256Hash hash : referencedChunks) {"); {
+                        line("references.put(", StreamChunkIdxRow, ".of(hash), reference);");
+                    } line("}");
+                    line("tables.get", StreamChunkIdxTable, "(t).put(references);");
+                } line("}");
+            }
+
+            private void loadChunks() {
+                line("@Override");
+                line("protected Map<Sha256Hash, byte[]> loadChunks(Transaction t, Set<Sha256Hash> hashes) {"); {
+                    line("Map<Sha256Hash, byte[]> chunks = Maps.newHashMap();");
+                    line("for (Map.Entry<", StreamChunkRow, ", byte[]> e : tables.get", StreamChunkTable, "(t).getContents(getChunkRowsForHashes(hashes)).entrySet()) {"); {
+                        line("chunks.put(e.getKey().getHash(), e.getValue());");
+                    } line("}");
+                    line("return chunks;");
+                } line("}");
+            }
+
             private void touchMetadataWhileMarkingUsedForConflicts() {
                 line("@Override");
                 line("protected void touchMetadataWhileMarkingUsedForConflicts(Transaction t, Iterable<", StreamId, "> ids) {"); {
@@ -539,6 +677,13 @@ public class StreamStoreRenderer {
         return expirationStrategy == ExpirationStrategy.INDIVIDUALLY_SPECIFIED;
     }
 
+    private String getSuperclass() {
+        if (isExpiring()) {
+            return "AbstractExpiringStreamStore<" + streamIdType.getJavaObjectClassName() + ">";
+        }
+        return deduplicateChunks ? "AbstractDeduplicatingPersistentStreamStore" : "AbstractPersistentStreamStore";
+    }
+
     public String renderIndexCleanupTask() {
         final String StreamStore = name + "StreamStore";
 
@@ -721,6 +866,7 @@ public class StreamStoreRenderer {
         TransactionFailedRetriableException.class,
         StreamCleanedException.class,
         AbstractPersistentStreamStore.class,
+        AbstractDeduplicatingPersistentStreamStore.class,
         AbstractExpiringStreamStore.class,
         List.class,
         CheckForNull.class,
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.table.description.render;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -1247,6 +1248,7 @@ public class TableRenderer {
         List.class,
         Map.class,
         SortedMap.class,
+        ByteBuffer.class,
         Callable.class,
         ExecutorService.class,
         Multimap.class,
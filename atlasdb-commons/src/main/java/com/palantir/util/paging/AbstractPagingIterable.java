@@ -16,7 +16,9 @@
 package com.palantir.util.paging;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.palantir.common.base.Throwables;
@@ -102,6 +104,19 @@ public abstract class AbstractPagingIterable<T, P extends BasicResultsPage<T>> i
         }
     }
 
+    /**
+     * Returns an iterator which, while one page is being consumed, fetches up to maxPagesAhead
+     * further pages on the given executor. Read-ahead pauses once the pages waiting to be consumed
+     * hold at least maxBytesAhead bytes, as measured by sizeOfElement. Closing the iterator
+     * cancels any fetch in flight.
+     */
+    public ReadAheadPagingIterator<T, P> readAheadIterator(ExecutorService executor,
+                                                           int maxPagesAhead,
+                                                           long maxBytesAhead,
+                                                           Function<? super T, Long> sizeOfElement) {
+        return new ReadAheadPagingIterator<T, P>(this, executor, maxPagesAhead, maxBytesAhead, sizeOfElement);
+    }
+
     protected abstract P getFirstPage() throws Exception;
 
     protected abstract P getNextPage(P previous) throws Exception;
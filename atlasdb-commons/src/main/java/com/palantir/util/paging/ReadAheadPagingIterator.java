@@ -0,0 +1,188 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.util.paging;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Iterates over the pages of an {@link AbstractPagingIterable}, fetching the following pages
+ * on an executor while the current one is being consumed.
+ * <p>
+ * At most one fetch is in flight at a time, since each page is needed to request the next one.
+ * A new fetch is only started while fewer than maxPagesAhead fetched pages are waiting to be
+ * consumed and they hold fewer than maxBytesAhead bytes, so at most one page beyond the byte
+ * budget is ever buffered.
+ *
+ * @param <P> page type
+ * @param <T> data type
+ */
+public class ReadAheadPagingIterator<T, P extends BasicResultsPage<T>> extends AbstractIterator<T> implements ClosableIterator<T> {
+    private final AbstractPagingIterable<T, P> iterable;
+    private final ExecutorService executor;
+    private final int maxPagesAhead;
+    private final long maxBytesAhead;
+    private final Function<? super T, Long> sizeOfElement;
+
+    @GuardedBy("this") private final Deque<FetchedPage<P>> fetched = new ArrayDeque<FetchedPage<P>>();
+    @GuardedBy("this") private P lastFetched = null;
+    @GuardedBy("this") private long bytesAhead = 0;
+    @GuardedBy("this") private boolean fetchedAll = false;
+    @GuardedBy("this") private Throwable failure = null;
+    @GuardedBy("this") private Future<?> inFlight = null;
+    @GuardedBy("this") private boolean closed = false;
+
+    private Iterator<T> currentIterator = Collections.emptyIterator();
+
+    ReadAheadPagingIterator(AbstractPagingIterable<T, P> iterable,
+                            ExecutorService executor,
+                            int maxPagesAhead,
+                            long maxBytesAhead,
+                            Function<? super T, Long> sizeOfElement) {
+        Preconditions.checkArgument(maxPagesAhead > 0, "maxPagesAhead must be positive");
+        this.iterable = iterable;
+        this.executor = executor;
+        this.maxPagesAhead = maxPagesAhead;
+        this.maxBytesAhead = maxBytesAhead;
+        this.sizeOfElement = sizeOfElement;
+        synchronized (this) {
+            maybeStartFetch();
+        }
+    }
+
+    @Override
+    protected T computeNext() {
+        while (!currentIterator.hasNext()) {
+            P page = takePage();
+            if (page == null) {
+                return endOfData();
+            }
+            currentIterator = page.getResults().iterator();
+        }
+        return currentIterator.next();
+    }
+
+    private synchronized P takePage() {
+        while (fetched.isEmpty()) {
+            if (closed || (fetchedAll && inFlight == null)) {
+                return null;
+            }
+            if (failure != null) {
+                close();
+                throw Throwables.rewrapAndThrowUncheckedException(failure);
+            }
+            maybeStartFetch();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                close();
+                throw Throwables.throwUncheckedException(e);
+            }
+        }
+        FetchedPage<P> next = fetched.removeFirst();
+        bytesAhead -= next.sizeInBytes;
+        maybeStartFetch();
+        return next.page;
+    }
+
+    @GuardedBy("this")
+    private void maybeStartFetch() {
+        if (closed || fetchedAll || failure != null || inFlight != null) {
+            return;
+        }
+        if (lastFetched != null && (fetched.size() >= maxPagesAhead || bytesAhead >= maxBytesAhead)) {
+            return;
+        }
+        final P previous = lastFetched;
+        inFlight = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                fetch(previous);
+            }
+        });
+    }
+
+    private void fetch(P previous) {
+        P page = null;
+        Throwable error = null;
+        try {
+            page = previous == null ? iterable.getFirstPage() : iterable.getNextPage(previous);
+            Preconditions.checkNotNull(page);
+        } catch (Throwable t) {
+            error = t;
+        }
+        long sizeInBytes = 0;
+        if (page != null) {
+            for (T element : page.getResults()) {
+                sizeInBytes += sizeOfElement.apply(element);
+            }
+        }
+        synchronized (this) {
+            inFlight = null;
+            if (closed) {
+                return;
+            }
+            if (error != null) {
+                failure = error;
+            } else {
+                fetched.addLast(new FetchedPage<P>(page, sizeInBytes));
+                bytesAhead += sizeInBytes;
+                lastFetched = page;
+                fetchedAll = !page.moreResultsAvailable();
+                maybeStartFetch();
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Cancels any fetch in flight and drops all buffered pages.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+        fetched.clear();
+        bytesAhead = 0;
+        currentIterator = Collections.emptyIterator();
+        notifyAll();
+    }
+
+    private static final class FetchedPage<P> {
+        final P page;
+        final long sizeInBytes;
+
+        FetchedPage(P page, long sizeInBytes) {
+            this.page = page;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.util.paging;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class ReadAheadPagingIteratorTest extends Assert {
+    private static final int PAGE_SIZE = 10;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReturnsAllElementsInOrder() {
+        CountingPages pages = new CountingPages(95);
+        ReadAheadPagingIterator<Integer, BasicResultsPage<Integer>> it =
+                pages.readAheadIterator(executor, 3, Long.MAX_VALUE, Functions.constant(1L));
+        assertEquals(Lists.newArrayList(pages), Lists.newArrayList(it));
+    }
+
+    @Test
+    public void testStopsAtPageLimit() throws InterruptedException {
+        CountingPages pages = new CountingPages(1000);
+        ReadAheadPagingIterator<Integer, BasicResultsPage<Integer>> it =
+                pages.readAheadIterator(executor, 2, Long.MAX_VALUE, Functions.constant(1L));
+        assertEquals(0, it.next().intValue());
+        Thread.sleep(200);
+        // The page being consumed plus two pages ahead.
+        assertEquals(3, pages.fetched.get());
+        it.close();
+    }
+
+    @Test
+    public void testStopsAtByteLimit() throws InterruptedException {
+        CountingPages pages = new CountingPages(1000);
+        ReadAheadPagingIterator<Integer, BasicResultsPage<Integer>> it =
+                pages.readAheadIterator(executor, 100, 15, Functions.constant(1L));
+        assertEquals(0, it.next().intValue());
+        Thread.sleep(200);
+        // The page being consumed plus the two pages it takes to reach 15 elements.
+        assertEquals(3, pages.fetched.get());
+        it.close();
+    }
+
+    @Test
+    public void testCloseInterruptsFetch() throws InterruptedException {
+        final CountDownLatch fetching = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        CountingPages pages = new CountingPages(1000) {
+            @Override
+            protected BasicResultsPage<Integer> getNextPage(BasicResultsPage<Integer> previous) {
+                fetching.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return super.getNextPage(previous);
+            }
+        };
+        ReadAheadPagingIterator<Integer, BasicResultsPage<Integer>> it =
+                pages.readAheadIterator(executor, 1, Long.MAX_VALUE, Functions.constant(1L));
+        assertEquals(0, it.next().intValue());
+        assertTrue(fetching.await(10, TimeUnit.SECONDS));
+        it.close();
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testFailureIsRethrown() {
+        CountingPages pages = new CountingPages(1000) {
+            @Override
+            protected BasicResultsPage<Integer> getNextPage(BasicResultsPage<Integer> previous) {
+                throw new IllegalStateException("failed fetch");
+            }
+        };
+        ReadAheadPagingIterator<Integer, BasicResultsPage<Integer>> it =
+                pages.readAheadIterator(executor, 1, Long.MAX_VALUE, Functions.constant(1L));
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            assertEquals(i, it.next().intValue());
+        }
+        try {
+            it.next();
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("failed fetch", e.getMessage());
+        }
+    }
+
+    private static class CountingPages extends AbstractPagingIterable<Integer, BasicResultsPage<Integer>> {
+        final AtomicInteger fetched = new AtomicInteger();
+        private final int size;
+
+        CountingPages(int size) {
+            this.size = size;
+        }
+
+        @Override
+        protected BasicResultsPage<Integer> getFirstPage() {
+            return page(0);
+        }
+
+        @Override
+        protected BasicResultsPage<Integer> getNextPage(BasicResultsPage<Integer> previous) {
+            List<Integer> results = previous.getResults();
+            return page(results.get(results.size() - 1) + 1);
+        }
+
+        private BasicResultsPage<Integer> page(int start) {
+            fetched.incrementAndGet();
+            ImmutableList.Builder<Integer> results = ImmutableList.builder();
+            for (int i = start; i < Math.min(start + PAGE_SIZE, size); i++) {
+                results.add(i);
+            }
+            return new SimpleResultsPage<Integer>(results.build(), start + PAGE_SIZE < size);
+        }
+    }
+}
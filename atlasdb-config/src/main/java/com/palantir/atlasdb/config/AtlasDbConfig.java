@@ -148,4 +148,36 @@ public abstract class AtlasDbConfig {
     public int getSweepBatchSize() {
         return AtlasDbConstants.DEFAULT_SWEEP_BATCH_SIZE;
     }
+
+    /**
+     * The number of threads the background sweeper uses. With more than
+     * one thread, tables are split into row ranges which are swept in
+     * parallel, and the pause between batches is replaced by a limit on
+     * the number of cells examined per second.
+     */
+    @Value.Default
+    public int getSweepThreads() {
+        return AtlasDbConstants.DEFAULT_SWEEP_THREADS;
+    }
+
+    /**
+     * The maximum number of cells examined per second by all threads
+     * of the background sweeper together, when sweeping in parallel.
+     */
+    @Value.Default
+    public long getSweepCellsPerSecond() {
+        return AtlasDbConstants.DEFAULT_SWEEP_CELLS_PER_SECOND;
+    }
+
+    /**
+     * The number of rows passed at a time between the stages of sweeping
+     * a batch. When this is smaller than the batch size, the next rows of
+     * a batch are read while earlier rows have their commit timestamps
+     * looked up and are deleted. Zero sweeps each batch one stage at a
+     * time.
+     */
+    @Value.Default
+    public int getSweepPipelineChunkSize() {
+        return AtlasDbConstants.DEFAULT_SWEEP_PIPELINE_CHUNK_SIZE;
+    }
 }
@@ -63,7 +63,19 @@ public abstract class LeaderConfig {
         return 5000l;
     }
 
+    /**
+     * How long the leader may keep serving requests after a quorum last confirmed its leadership,
+     * without confirming it again.  Acceptors refuse to elect a new leader for this long after each
+     * confirmation, so every server must use the same value and failover may take this much longer.
+     * 0 disables the lease and leadership is confirmed with a quorum on every request.
+     */
+    @Value.Default
+    public long leaderLeaseMs() {
+        return 0l;
+    }
+
     protected final void check() {
+        Preconditions.checkArgument(leaderLeaseMs() >= 0, "leaderLeaseMs must not be negative.");
         Preconditions.checkArgument(leaders().contains(localServer()),
                 "The localServer '%s' must included in the leader entries %s.", localServer(), leaders());
         Preconditions.checkArgument(learnerLogDir().exists() || learnerLogDir().mkdirs(),
@@ -54,7 +54,7 @@ public class Leaders {
             Environment env,
             LeaderConfig config) {
 
-        PaxosAcceptor ourAcceptor = PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath());
+        PaxosAcceptor ourAcceptor = PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath(), config.leaderLeaseMs());
         PaxosLearner ourLearner = PaxosLearnerImpl.newLearner(config.learnerLogDir().getPath());
 
         Set<String> remoteLeaderUris = Sets.newHashSet(config.leaders());
@@ -88,7 +88,8 @@ public class Leaders {
                 executor,
                 config.pingRateMs(),
                 config.randomWaitBeforeProposingLeadershipMs(),
-                config.leaderPingResponseWaitMs());
+                config.leaderPingResponseWaitMs(),
+                config.leaderLeaseMs());
 
         env.register(ourAcceptor);
         env.register(ourLearner);
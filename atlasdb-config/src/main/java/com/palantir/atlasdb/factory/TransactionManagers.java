@@ -17,6 +17,7 @@ package com.palantir.atlasdb.factory;
 
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.net.ssl.SSLSocketFactory;
 
@@ -45,7 +46,6 @@ import com.palantir.atlasdb.schema.generated.SweepTableFactory;
 import com.palantir.atlasdb.spi.AtlasDbFactory;
 import com.palantir.atlasdb.sweep.BackgroundSweeper;
 import com.palantir.atlasdb.sweep.BackgroundSweeperImpl;
-import com.palantir.atlasdb.sweep.SweepTaskRunner;
 import com.palantir.atlasdb.sweep.SweepTaskRunnerImpl;
 import com.palantir.atlasdb.table.description.Schema;
 import com.palantir.atlasdb.table.description.Schemas;
@@ -59,13 +59,23 @@ import com.palantir.atlasdb.transaction.impl.SweepStrategyManagers;
 import com.palantir.atlasdb.transaction.impl.TransactionTables;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionServices;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.leader.LeaderElectionService;
 import com.palantir.leader.proxy.AwaitingLeadershipProxy;
+import com.palantir.lock.AsyncLockService;
+import com.palantir.lock.ForwardingRemoteLockService;
 import com.palantir.lock.LockClient;
+import com.palantir.lock.LockServerOptions;
+import com.palantir.lock.LongPollLockService;
 import com.palantir.lock.RemoteLockService;
+import com.palantir.lock.client.CoalescingRemoteLockService;
 import com.palantir.lock.client.LockRefreshingRemoteLockService;
+import com.palantir.lock.client.LongPollingRemoteLockService;
 import com.palantir.lock.impl.LockServiceImpl;
+import com.palantir.lock.impl.LongPollLockResource;
 import com.palantir.timestamp.TimestampService;
+import com.palantir.util.JMXUtils;
 
 public class TransactionManagers {
 
@@ -97,11 +107,12 @@ public class TransactionManagers {
         final AtlasDbFactory kvsFactory = getKeyValueServiceFactory(config.keyValueService().type());
         final KeyValueService rawKvs = kvsFactory.createRawKeyValueService(config.keyValueService());
 
-        LockAndTimestampServices lts = createLockAndTimestampServices(config, sslSocketFactory, env,
-                new Supplier<RemoteLockService>() {
+        final LockServerOptions lockServerOptions = LockServerOptions.DEFAULT;
+        LockAndTimestampServices lts = createLockAndTimestampServices(config, sslSocketFactory, env, lockServerOptions,
+                new Supplier<AsyncLockService>() {
                     @Override
-                    public RemoteLockService get() {
-                        return LockServiceImpl.create();
+                    public AsyncLockService get() {
+                        return LockServiceImpl.create(lockServerOptions);
                     }
                 },
                 new Supplier<TimestampService>() {
@@ -157,15 +168,25 @@ public class TransactionManagers {
                 sweepStrategyManager,
                 cleaner,
                 allowHiddenTableAccess);
+        JMXUtils.registerMBeanCatchAndLogExceptions(transactionManager.getCommitTimestampCache(),
+                "com.palantir.atlasdb:type=CommitTimestampCache");
 
-        SweepTaskRunner sweepRunner = new SweepTaskRunnerImpl(
+        ExecutorService sweepPipelineExecutor = null;
+        if (config.getSweepPipelineChunkSize() > 0) {
+            sweepPipelineExecutor = PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas sweep pipeline", true));
+        }
+        SweepTaskRunnerImpl sweepRunner = new SweepTaskRunnerImpl(
                 transactionManager,
                 kvs,
                 getUnreadableTsSupplier(transactionManager),
                 getImmutableTsSupplier(transactionManager),
                 transactionService,
                 sweepStrategyManager,
-                ImmutableList.<Follower>of(follower));
+                ImmutableList.<Follower>of(follower),
+                sweepPipelineExecutor,
+                config.getSweepPipelineChunkSize());
+        JMXUtils.registerMBeanCatchAndLogExceptions(sweepRunner.getStageMetrics(),
+                "com.palantir.atlasdb:type=SweepStageMetrics");
         BackgroundSweeper backgroundSweeper = new BackgroundSweeperImpl(
                 transactionManager,
                 kvs,
@@ -173,7 +194,9 @@ public class TransactionManagers {
                 Suppliers.ofInstance(config.enableSweep()),
                 Suppliers.ofInstance(config.getSweepPauseMillis()),
                 Suppliers.ofInstance(config.getSweepBatchSize()),
-                SweepTableFactory.of());
+                SweepTableFactory.of(),
+                config.getSweepThreads(),
+                Suppliers.ofInstance(config.getSweepCellsPerSecond()));
         backgroundSweeper.runInBackground();
 
         return transactionManager;
@@ -210,26 +233,40 @@ public class TransactionManagers {
             AtlasDbConfig config,
             Optional<SSLSocketFactory> sslSocketFactory,
             Environment env,
-            Supplier<RemoteLockService> lock,
+            LockServerOptions lockServerOptions,
+            Supplier<AsyncLockService> lock,
             Supplier<TimestampService> time) {
 
         if (config.leader().isPresent()) {
             LeaderElectionService leader = Leaders.create(sslSocketFactory, env, config.leader().get());
-            env.register(AwaitingLeadershipProxy.newProxyInstance(RemoteLockService.class, lock, leader));
+            // Both lock resources must share one proxy, and so one lock server.
+            final AsyncLockService leadingLock =
+                    AwaitingLeadershipProxy.newProxyInstance(AsyncLockService.class, lock, leader);
+            // Jersey only finds @Path on the directly implemented interfaces, which the proxy does not have.
+            env.register(new ForwardingRemoteLockService() {
+                @Override
+                protected RemoteLockService delegate() {
+                    return leadingLock;
+                }
+            });
+            env.register(new LongPollLockResource(leadingLock, lockServerOptions));
             env.register(AwaitingLeadershipProxy.newProxyInstance(TimestampService.class, time, leader));
 
             warnIf(config.lock().isPresent(), "Ignoring lock server configuration because leadership election is enabled");
             warnIf(config.timestamp().isPresent(), "Ignoring timestamp server configuration because leadership election is enabled");
 
             return ImmutableLockAndTimestampServices.builder()
-                    .lock(createService(sslSocketFactory, config.leader().get().leaders(), RemoteLockService.class))
+                    .lock(createRemoteLockService(sslSocketFactory, config.leader().get().leaders()))
                     .time(createService(sslSocketFactory, config.leader().get().leaders(), TimestampService.class))
                     .build();
         } else {
             warnIf(config.lock().isPresent() != config.timestamp().isPresent(), "Using embedded instances for one (but not both) of lock and timestamp services");
 
+            RemoteLockService remoteLock = config.lock().isPresent()
+                    ? createRemoteLockService(sslSocketFactory, config.lock().get().servers())
+                    : lock.get();
             return ImmutableLockAndTimestampServices.builder()
-                    .lock(config.lock().transform(new ServiceCreator<>(sslSocketFactory, RemoteLockService.class)).or(lock))
+                    .lock(remoteLock)
                     .time(config.timestamp().transform(new ServiceCreator<>(sslSocketFactory, TimestampService.class)).or(time))
                     .build();
         }
@@ -241,6 +278,13 @@ public class TransactionManagers {
         }
     }
 
+    private static RemoteLockService createRemoteLockService(Optional<SSLSocketFactory> sslSocketFactory,
+                                                             Set<String> uris) {
+        return CoalescingRemoteLockService.create(new LongPollingRemoteLockService(
+                createService(sslSocketFactory, uris, RemoteLockService.class),
+                createService(sslSocketFactory, uris, LongPollLockService.class)));
+    }
+
     private static <T> T createService(Optional<SSLSocketFactory> sslSocketFactory, Set<String> uris, Class<T> serviceClass) {
         return AtlasDbHttpClients.createProxyWithFailover(sslSocketFactory, uris, serviceClass);
     }
@@ -19,12 +19,16 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import com.google.common.collect.ForwardingObject;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.keyvalue.NamespacedKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
@@ -37,7 +41,7 @@ import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
-public class NamespaceMappingKeyValueService extends ForwardingObject implements KeyValueService {
+public class NamespaceMappingKeyValueService extends ForwardingObject implements AsyncWrappingKeyValueService {
     private final NamespacedKeyValueService delegate;
 
     public static NamespaceMappingKeyValueService create(NamespacedKeyValueService delegate) {
@@ -69,6 +73,21 @@ public class NamespaceMappingKeyValueService extends ForwardingObject implements
         return delegate;
     }
 
+    /**
+     * The asynchronous view maps each table to the name the namespaced key value service's table
+     * mapper gives it, and issues the call on that service's single delegate.  If there is not
+     * exactly one delegate, the blocking calls are run on {@code executor} instead.
+     */
+    @Override
+    public AsyncKeyValueService asAsync(ExecutorService executor) {
+        Collection<? extends KeyValueService> delegates = delegate().getDelegates();
+        if (delegates.size() != 1) {
+            return new BlockingAsyncKeyValueService(this, executor);
+        }
+        return new AsyncNamespaceMappingKeyValueService(
+                KeyValueServices.asAsync(Iterables.getOnlyElement(delegates), executor));
+    }
+
     @Override
     public void createTable(String tableName, byte[] tableMetadata) {
         delegate().createTable(getTableReference(tableName), tableMetadata);
@@ -254,4 +273,53 @@ public class NamespaceMappingKeyValueService extends ForwardingObject implements
     public void compactInternally(String tableName) {
         delegate().compactInternally(getTableReference(tableName));
     }
+
+    private class AsyncNamespaceMappingKeyValueService extends ForwardingKeyValueService implements AsyncKeyValueService {
+        private final AsyncKeyValueService asyncDelegate;
+
+        AsyncNamespaceMappingKeyValueService(AsyncKeyValueService asyncDelegate) {
+            this.asyncDelegate = asyncDelegate;
+        }
+
+        @Override
+        protected KeyValueService delegate() {
+            return NamespaceMappingKeyValueService.this;
+        }
+
+        private String getShortTableName(String tableName) {
+            return NamespaceMappingKeyValueService.this.delegate().getTableMapper().getShortTableName(
+                    getTableReference(tableName));
+        }
+
+        private <T> Map<String, T> mapToShortTableNames(Map<String, T> map) {
+            return NamespaceMappingKeyValueService.this.delegate().getTableMapper().mapToShortTableNames(
+                    getNamespacedMap(map));
+        }
+
+        @Override
+        public ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell) {
+            return asyncDelegate.getAsync(getShortTableName(tableName), timestampByCell);
+        }
+
+        @Override
+        public ListenableFuture<Map<Cell, Value>> getRowsAsync(String tableName,
+                                                               Iterable<byte[]> rows,
+                                                               ColumnSelection columnSelection,
+                                                               long timestamp) {
+            return asyncDelegate.getRowsAsync(getShortTableName(tableName), rows, columnSelection, timestamp);
+        }
+
+        @Override
+        public ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable,
+                                                    long timestamp) {
+            return asyncDelegate.multiPutAsync(mapToShortTableNames(valuesByTable), timestamp);
+        }
+
+        @Override
+        public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(String tableName,
+                                                                                                       RangeRequest rangeRequest,
+                                                                                                       long timestamp) {
+            return asyncDelegate.getRangePageAsync(getShortTableName(tableName), rangeRequest, timestamp);
+        }
+    }
 }
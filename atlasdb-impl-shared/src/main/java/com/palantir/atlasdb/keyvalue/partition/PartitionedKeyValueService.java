@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.HashMultimap;
@@ -41,7 +42,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
@@ -84,11 +91,11 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
  * @author htarasiuk
  *
  */
-public class PartitionedKeyValueService extends PartitionMapProvider implements KeyValueService {
+public class PartitionedKeyValueService extends PartitionMapProvider implements AsyncKeyValueService {
 
     private static final Logger log = LoggerFactory.getLogger(PartitionedKeyValueService.class);
     private final QuorumParameters quorumParameters;
-    private final ExecutorService executor;
+    private final ListeningExecutorService executor;
 
     // *** Read requests *************************************************************************
     @Override
@@ -611,6 +618,61 @@ public class PartitionedKeyValueService extends PartitionMapProvider implements
         }
     }
 
+    // *** Asynchronous requests ******************************************************************
+    // Completing a quorum request blocks until enough endpoints have responded, so each request
+    // runs on our own executor, which is unbounded.  This keeps the caller's thread free and lets
+    // the tables of a multiPut be written concurrently.
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(final String tableName, final Map<Cell, Long> timestampByCell) {
+        return executor.submit(new Callable<Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> call() {
+                return get(tableName, timestampByCell);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(final String tableName,
+                                                           final Iterable<byte[]> rows,
+                                                           final ColumnSelection columnSelection,
+                                                           final long timestamp) {
+        return executor.submit(new Callable<Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> call() {
+                return getRows(tableName, rows, columnSelection, timestamp);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable,
+                                                final long timestamp) {
+        List<ListenableFuture<Void>> futures = Lists.newArrayListWithCapacity(valuesByTable.size());
+        for (final Map.Entry<String, ? extends Map<Cell, byte[]>> e : valuesByTable.entrySet()) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    put(e.getKey(), e.getValue(), timestamp);
+                    return null;
+                }
+            }));
+        }
+        return Futures.transform(Futures.allAsList(futures), Functions.<Void>constant(null));
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getRangePageAsync(final String tableName,
+                                                                                                   final RangeRequest rangeRequest,
+                                                                                                   final long timestamp) {
+        return executor.submit(new Callable<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+            @Override
+            public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> call() {
+                return KeyValueServices.getFirstBatchForRange(PartitionedKeyValueService.this, tableName, rangeRequest, timestamp);
+            }
+        });
+    }
+
     // *** Table stuff
     // ***********************************************************************************
     @Override
@@ -851,7 +913,7 @@ public class PartitionedKeyValueService extends PartitionMapProvider implements
     protected PartitionedKeyValueService(ExecutorService executor, QuorumParameters quorumParameters,
             ImmutableList<PartitionMapService> partitionMapProviders, int partitionMapProvidersReadFactor) {
         super(partitionMapProviders, partitionMapProvidersReadFactor);
-        this.executor = executor;
+        this.executor = MoreExecutors.listeningDecorator(executor);
         this.quorumParameters = quorumParameters;
     }
 
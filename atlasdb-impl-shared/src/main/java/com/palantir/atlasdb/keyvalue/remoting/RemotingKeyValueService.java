@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.remoting;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.Nullable;
 
@@ -26,6 +27,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
@@ -73,11 +75,16 @@ public class RemotingKeyValueService extends ForwardingKeyValueService {
     /**
      * This is to inject the local KVS instance reference into the context.
      * It is used by the range iterators to download additional pages of data.
+     * If readAheadPages is positive the range iterators instead download up to that many
+     * pages ahead on the given executor.
      *
      * @param remoteService
      * @return
      */
-    private static KeyValueService createClientSideInternal(final KeyValueService remoteService) {
+    private static KeyValueService createClientSideInternal(final KeyValueService remoteService,
+                                                            @Nullable final ExecutorService readAheadExecutor,
+                                                            final int readAheadPages,
+                                                            final long readAheadBytes) {
         return new ForwardingKeyValueService() {
             @Override
             protected KeyValueService delegate() {
@@ -85,8 +92,12 @@ public class RemotingKeyValueService extends ForwardingKeyValueService {
             }
 
             @SuppressWarnings("unchecked")
-            private <T extends ClosableIterator<?>> T withKvs(T it) {
-                return (T) PopulateServiceContextProxy.newProxyInstanceWithConstantValue(
+            private <T> ClosableIterator<RowResult<T>> withKvs(ClosableIterator<RowResult<T>> it) {
+                if (readAheadPages > 0 && it instanceof RangeIterator) {
+                    return ((RangeIterator<T>) it).withReadAhead(
+                            delegate(), readAheadExecutor, readAheadPages, readAheadBytes);
+                }
+                return PopulateServiceContextProxy.newProxyInstanceWithConstantValue(
                         ClosableIterator.class, it, delegate(), serviceContext);
             }
 
@@ -141,6 +152,21 @@ public class RemotingKeyValueService extends ForwardingKeyValueService {
      * @return
      */
     public static KeyValueService createClientSide(String uri, Supplier<Long> localVersionSupplier) {
+        return createClientSide(uri, localVersionSupplier, null, 0, 0L);
+    }
+
+    /**
+     * Like {@link #createClientSide(String, Supplier)}, but range iterators download up to
+     * readAheadPages further pages on the given executor while the current page is consumed,
+     * pausing once the downloaded rows take up roughly readAheadBytes bytes.
+     */
+    public static KeyValueService createClientSide(String uri,
+                                                   Supplier<Long> localVersionSupplier,
+                                                   @Nullable ExecutorService readAheadExecutor,
+                                                   int readAheadPages,
+                                                   long readAheadBytes) {
+        Preconditions.checkArgument(readAheadPages <= 0 || readAheadExecutor != null,
+                "An executor is required for read-ahead");
         ServiceContext<Long> outboxVersionCtx = RemoteContextHolder.OUTBOX.getProviderForKey(LONG_HOLDER.PM_VERSION);
 
         KeyValueService remotingKvs = Feign.builder()
@@ -153,7 +179,8 @@ public class RemotingKeyValueService extends ForwardingKeyValueService {
 
         KeyValueService versionSettingRemotingKvs = PopulateServiceContextProxy.newProxyInstance(
                 KeyValueService.class, remotingKvs, localVersionSupplier, outboxVersionCtx);
-        KeyValueService pagingIteratorsVersionSettingRemotingKvs = createClientSideInternal(versionSettingRemotingKvs);
+        KeyValueService pagingIteratorsVersionSettingRemotingKvs = createClientSideInternal(
+                versionSettingRemotingKvs, readAheadExecutor, readAheadPages, readAheadBytes);
 
         return pagingIteratorsVersionSettingRemotingKvs;
     }
@@ -15,16 +15,24 @@
  */
 package com.palantir.atlasdb.keyvalue.remoting.iterators;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.atlasdb.keyvalue.remoting.RemotingKeyValueService;
 import com.palantir.common.base.ClosableIterator;
+import com.palantir.util.paging.AbstractPagingIterable;
+import com.palantir.util.paging.SimpleTokenBackedResultsPage;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public abstract class RangeIterator<T> implements ClosableIterator<RowResult<T>> {
 
@@ -84,6 +92,43 @@ public abstract class RangeIterator<T> implements ClosableIterator<RowResult<T>>
         }
     }
 
+    /**
+     * Returns an iterator over the remaining rows which downloads up to maxPagesAhead further
+     * pages from the given service in the background while earlier pages are consumed.
+     * Read-ahead pauses once the downloaded rows take up roughly maxBytesAhead bytes.
+     */
+    public ClosableIterator<RowResult<T>> withReadAhead(final KeyValueService keyValueService,
+                                                        ExecutorService executor,
+                                                        int maxPagesAhead,
+                                                        long maxBytesAhead) {
+        final TokenBackedBasicResultsPage<RowResult<T>, byte[]> firstPage =
+                toPage(page.subList(position, page.size()), page, hasNext);
+        return new AbstractPagingIterable<RowResult<T>, TokenBackedBasicResultsPage<RowResult<T>, byte[]>>() {
+            @Override
+            protected TokenBackedBasicResultsPage<RowResult<T>, byte[]> getFirstPage() {
+                return firstPage;
+            }
+
+            @Override
+            protected TokenBackedBasicResultsPage<RowResult<T>, byte[]> getNextPage(TokenBackedBasicResultsPage<RowResult<T>, byte[]> previous) {
+                RangeRequest newRange = range.getBuilder().startRowInclusive(previous.getTokenForNextPage()).build();
+                RangeIterator<T> result = validateIsRangeIterator(getMoreRows(keyValueService, tableName, newRange, timestamp));
+                return toPage(result.page, result.page, result.hasNext);
+            }
+        }.readAheadIterator(executor, maxPagesAhead, maxBytesAhead, RowResults.getApproximateSizeOfKvsRowResultFunction());
+    }
+
+    private TokenBackedBasicResultsPage<RowResult<T>, byte[]> toPage(List<RowResult<T>> results,
+                                                                    List<RowResult<T>> fullPage,
+                                                                    boolean moreAvailable) {
+        if (fullPage.isEmpty()) {
+            return SimpleTokenBackedResultsPage.create(PtBytes.EMPTY_BYTE_ARRAY, results, false);
+        }
+        byte[] lastRow = fullPage.get(fullPage.size() - 1).getRowName();
+        return SimpleTokenBackedResultsPage.create(
+                RangeRequests.getNextStartRow(range.isReverse(), lastRow), results, moreAvailable);
+    }
+
     protected abstract ClosableIterator<RowResult<T>> getMoreRows(KeyValueService kvs, String tableName, RangeRequest newRange, long timestamp);
 
     private void swapWithNewRows(RangeIterator<T> other) {
@@ -15,9 +15,7 @@
  */
 package com.palantir.atlasdb.sweep;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -27,19 +25,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
-import com.palantir.atlasdb.AtlasDbConstants;
+import com.google.common.util.concurrent.RateLimiter;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
@@ -48,7 +44,6 @@ import com.palantir.atlasdb.keyvalue.api.SweepResults;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
 import com.palantir.atlasdb.schema.generated.SweepPriorityTable;
 import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRow;
-import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRowResult;
 import com.palantir.atlasdb.schema.generated.SweepProgressTable;
 import com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProgressRow;
 import com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProgressRowResult;
@@ -56,9 +51,7 @@ import com.palantir.atlasdb.schema.generated.SweepTableFactory;
 import com.palantir.atlasdb.transaction.api.LockAwareTransactionManager;
 import com.palantir.atlasdb.transaction.api.RuntimeTransactionTask;
 import com.palantir.atlasdb.transaction.api.Transaction;
-import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
 import com.palantir.atlasdb.transaction.impl.TxTask;
-import com.palantir.atlasdb.transaction.impl.UnmodifiableTransaction;
 import com.palantir.common.base.Throwables;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockDescriptor;
@@ -69,6 +62,14 @@ import com.palantir.lock.StringLockDescriptor;
 
 public class BackgroundSweeperImpl implements BackgroundSweeper {
     private static final Logger log = LoggerFactory.getLogger(BackgroundSweeperImpl.class);
+
+    /**
+     * The sweep progress row used by the single threaded sweeper.
+     */
+    static final long SINGLE_THREADED_PROGRESS_ROW = 0L;
+
+    private static final long LOCK_REFRESH_MILLIS = 10 * 1000;
+
     private final LockAwareTransactionManager txManager;
     private final KeyValueService kvs;
     private final SweepTaskRunner sweepRunner;
@@ -76,12 +77,15 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
     private final Supplier<Long> sweepPauseMillis;
     private final Supplier<Integer> sweepBatchSize;
     private final SweepTableFactory tableFactory;
+    private final SweepTableChooser tableChooser;
+    private final int sweepThreads;
+    private final Supplier<Long> sweepCellsPerSecond;
+    private final SweepRanges sweepRanges;
+    private final RateLimiter cellsRateLimiter;
     private volatile float batchSizeMultiplier = 1.0f;
+    private volatile boolean holdsSweepLock = false;
     private Thread daemon;
-
-    // weights one month of no sweeping with the same priority as about 100000 expected cells to sweep.
-    private static final double MILLIS_SINCE_SWEEP_PRIORITY_WEIGHT = 100000.0 / TimeUnit.MILLISECONDS.convert(30, TimeUnit.DAYS);
-
+    private final List<Thread> workers = Lists.newArrayList();
 
     public BackgroundSweeperImpl(LockAwareTransactionManager txManager,
                                  KeyValueService kvs,
@@ -90,6 +94,25 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
                                  Supplier<Long> sweepPauseMillis,
                                  Supplier<Integer> sweepBatchSize,
                                  SweepTableFactory tableFactory) {
+        this(txManager, kvs, sweepRunner, isSweepEnabled, sweepPauseMillis, sweepBatchSize, tableFactory,
+                1, Suppliers.ofInstance(Long.MAX_VALUE));
+    }
+
+    /**
+     * If sweepThreads is greater than one, that many workers sweep disjoint row ranges in
+     * parallel, either of one table or of several, and together examine at most
+     * sweepCellsPerSecond cells per second. Otherwise tables are swept one batch at a time
+     * with a pause of sweepPauseMillis between batches.
+     */
+    public BackgroundSweeperImpl(LockAwareTransactionManager txManager,
+                                 KeyValueService kvs,
+                                 SweepTaskRunner sweepRunner,
+                                 Supplier<Boolean> isSweepEnabled,
+                                 Supplier<Long> sweepPauseMillis,
+                                 Supplier<Integer> sweepBatchSize,
+                                 SweepTableFactory tableFactory,
+                                 int sweepThreads,
+                                 Supplier<Long> sweepCellsPerSecond) {
         this.txManager = txManager;
         this.kvs = kvs;
         this.sweepRunner = sweepRunner;
@@ -97,6 +120,11 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
         this.sweepPauseMillis = sweepPauseMillis;
         this.sweepBatchSize = sweepBatchSize;
         this.tableFactory = tableFactory;
+        this.tableChooser = new SweepTableChooser(kvs, tableFactory);
+        this.sweepThreads = sweepThreads;
+        this.sweepCellsPerSecond = sweepCellsPerSecond;
+        this.sweepRanges = new SweepRanges(txManager, kvs, tableFactory, tableChooser, sweepThreads);
+        this.cellsRateLimiter = RateLimiter.create(sweepCellsPerSecond.get());
     }
 
     @Override
@@ -106,10 +134,28 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
         daemon.setDaemon(true);
         daemon.setName("BackgroundSweeper");
         daemon.start();
+        if (sweepThreads > 1) {
+            for (int i = 0; i < sweepThreads; i++) {
+                Thread worker = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        runWorker();
+                    }
+                });
+                worker.setDaemon(true);
+                worker.setName("BackgroundSweeper-" + i);
+                worker.start();
+                workers.add(worker);
+            }
+        }
     }
 
     @Override
     public void run() {
+        if (sweepThreads > 1) {
+            holdSweepLock();
+            return;
+        }
         Optional<LockRefreshToken> locks = Optional.absent();
         try {
             // Wait a while before starting so short lived clis don't try to sweep.
@@ -156,6 +202,142 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
         }
     }
 
+    /**
+     * In parallel mode the daemon thread only takes and refreshes the sweep lock, and the
+     * workers sweep while it is held.
+     */
+    private void holdSweepLock() {
+        Optional<LockRefreshToken> locks = Optional.absent();
+        try {
+            // Wait a while before starting so short lived clis don't try to sweep.
+            Thread.sleep(20 * (1000 + sweepPauseMillis.get()));
+            log.debug("Starting background sweeper with {} threads.", sweepThreads);
+            while (true) {
+                try {
+                    if (isSweepEnabled.get()) {
+                        locks = lockOrRefresh(locks);
+                        if (!locks.isPresent()) {
+                            log.debug("Skipping sweep because sweep is running elsewhere.");
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to take or refresh the sweep lock.", e);
+                    locks = Optional.absent();
+                }
+                holdsSweepLock = locks.isPresent();
+                Thread.sleep(LOCK_REFRESH_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            log.debug("Shutting down background sweeper.");
+        } finally {
+            holdsSweepLock = false;
+            if (locks.isPresent()) {
+                txManager.getLockService().unlock(locks.get());
+            }
+        }
+    }
+
+    private void runWorker() {
+        SweepRanges.Range range = null;
+        float workerBatchSizeMultiplier = 1.0f;
+        try {
+            while (true) {
+                if (!isSweepEnabled.get() || !holdsSweepLock) {
+                    if (range != null) {
+                        sweepRanges.release(range);
+                        range = null;
+                    }
+                    Thread.sleep(LOCK_REFRESH_MILLIS);
+                    continue;
+                }
+                int batchSize = Math.max(1, (int) (sweepBatchSize.get() * workerBatchSizeMultiplier));
+                try {
+                    if (range == null) {
+                        range = sweepRanges.claim(sweepRunner.getSweepTimestamp(SweepStrategy.CONSERVATIVE));
+                    }
+                    if (range == null) {
+                        // Don't change this log statement. It's parsed by test automation code.
+                        log.debug("Skipping sweep because no table has enough new writes to be worth sweeping at the moment.");
+                        Thread.sleep(20 * (1000 + sweepPauseMillis.get()));
+                        continue;
+                    }
+                    SweepResults results = sweepRange(range, batchSize);
+                    range = sweepRanges.saveResults(range, results).orNull();
+                    workerBatchSizeMultiplier = Math.min(1.0f, workerBatchSizeMultiplier * 1.01f);
+                    acquireCells(results.getCellsExamined());
+                } catch (InsufficientConsistencyException e) {
+                    log.warn("Could not sweep because not all nodes of the database are online.", e);
+                    Thread.sleep(20 * (1000 + sweepPauseMillis.get()));
+                } catch (RuntimeException e) {
+                    if (range != null && sweepRanges.checkAndRepairTableDrop(range)) {
+                        log.error("The table being swept by the background sweeper was dropped, moving on...");
+                        range = null;
+                    } else {
+                        log.error("The background sweep job failed unexpectedly with a batch size of " + batchSize +
+                                ". Attempting to continue with a lower batch size...", e);
+                        workerBatchSizeMultiplier = Math.min(workerBatchSizeMultiplier / 2, 1.0f / sweepBatchSize.get());
+                        Thread.sleep(sweepPauseMillis.get());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            log.debug("Shutting down background sweep worker.");
+        } finally {
+            if (range != null) {
+                sweepRanges.release(range);
+            }
+        }
+    }
+
+    private SweepResults sweepRange(SweepRanges.Range range, int batchSize) {
+        Stopwatch watch = Stopwatch.createStarted();
+        try {
+            SweepResults results = sweepRunner.run(range.tableName, batchSize, range.startRow, range.endRow);
+            log.debug("Swept {} unique cells from {} and performed {} deletions in {} ms up to timestamp {}.",
+                    results.getCellsExamined(), range, results.getCellsDeleted(),
+                    watch.elapsed(TimeUnit.MILLISECONDS), results.getSweptTimestamp());
+            return results;
+        } catch (RuntimeException e) {
+            // Error logged at a higher log level above.
+            log.debug("Failed to sweep {} with batch size {}", range, batchSize);
+            throw e;
+        }
+    }
+
+    /**
+     * Blocks until the workers are allowed to have examined this many more cells.
+     */
+    private void acquireCells(long cellsExamined) {
+        double cellsPerSecond = sweepCellsPerSecond.get();
+        if (cellsPerSecond != cellsRateLimiter.getRate()) {
+            cellsRateLimiter.setRate(cellsPerSecond);
+        }
+        cellsRateLimiter.acquire((int) Math.max(1, Math.min(Integer.MAX_VALUE, cellsExamined)));
+    }
+
+    /**
+     * Sweeps one batch of one row range the way a parallel sweep worker would.
+     * @return false if no table is worth sweeping at the moment.
+     */
+    @VisibleForTesting
+    public boolean runRangeOnce() {
+        SweepRanges.Range range = sweepRanges.claim(sweepRunner.getSweepTimestamp(SweepStrategy.CONSERVATIVE));
+        if (range == null) {
+            return false;
+        }
+        try {
+            SweepResults results = sweepRange(range, Math.max(1, sweepBatchSize.get()));
+            Optional<SweepRanges.Range> rest = sweepRanges.saveResults(range, results);
+            if (rest.isPresent()) {
+                sweepRanges.release(rest.get());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            sweepRanges.release(range);
+            throw e;
+        }
+    }
+
     @VisibleForTesting
     public boolean runOnce() {
         SweepProgressRowResult progress = txManager.runTaskWithRetry(
@@ -163,9 +345,9 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
             @Override
             public SweepProgressRowResult execute(Transaction t) {
                 SweepProgressTable progressTable = tableFactory.getSweepProgressTable(t);
-                SweepProgressRowResult result = progressTable.getRow(SweepProgressRow.of(0)).orNull();
+                SweepProgressRowResult result = progressTable.getRow(SweepProgressRow.of(SINGLE_THREADED_PROGRESS_ROW)).orNull();
                 if (result == null) {
-                    result = chooseNextTableToSweep(new SweepTransaction(t, sweepRunner.getSweepTimestamp(SweepStrategy.CONSERVATIVE)));
+                    result = chooseNextTableToSweep(t);
                 }
                 return result;
             }
@@ -194,23 +376,13 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
     }
 
     @Nullable
-    private SweepProgressRowResult chooseNextTableToSweep(SweepTransaction t) {
-        Set<String> allTables = Sets.difference(kvs.getAllTableNames(), AtlasDbConstants.hiddenTables);
-        SweepPriorityTable oldPriorityTable = tableFactory.getSweepPriorityTable(t);
-        SweepPriorityTable newPriorityTable = tableFactory.getSweepPriorityTable(t.delegate());
-
-        // We read priorities from the past because we should prioritize based on what the sweeper will
-        // actually be able to sweep. We read priorities from the present to make sure we don't repeatedly
-        // sweep the same table while waiting for the past to catch up.
-        List<SweepPriorityRowResult> oldPriorities = oldPriorityTable.getAllRowsUnordered().immutableCopy();
-        List<SweepPriorityRowResult> newPriorities = newPriorityTable.getAllRowsUnordered().immutableCopy();
-        Map<String,SweepPriorityRowResult> newPrioritiesByTableName = Maps.uniqueIndex(newPriorities,
-                Functions.compose(SweepPriorityRow.getFullTableNameFun(), SweepPriorityRowResult.getRowNameFun()));
-        String tableName = getTableToSweep(t, allTables, oldPriorities, newPrioritiesByTableName);
+    private SweepProgressRowResult chooseNextTableToSweep(Transaction t) {
+        String tableName = tableChooser.chooseTable(
+                t, sweepRunner.getSweepTimestamp(SweepStrategy.CONSERVATIVE), ImmutableSet.<String>of());
         if (tableName == null) {
             return null;
         }
-        RowResult<byte[]> rawResult = RowResult.<byte[]>create(SweepProgressRow.of(0).persistToBytes(),
+        RowResult<byte[]> rawResult = RowResult.<byte[]>create(SweepProgressRow.of(SINGLE_THREADED_PROGRESS_ROW).persistToBytes(),
                 ImmutableSortedMap.<byte[], byte[]>orderedBy(UnsignedBytes.lexicographicalComparator())
                     .put(SweepProgressTable.SweepProgressNamedColumn.FULL_TABLE_NAME.getShortName(),
                          SweepProgressTable.FullTableName.of(tableName).persistValue())
@@ -220,69 +392,6 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
         return SweepProgressRowResult.of(rawResult);
     }
 
-    @Nullable
-    private String getTableToSweep(SweepTransaction t,
-                                   Set<String> allTables,
-                                   List<SweepPriorityRowResult> oldPriorities,
-                                   Map<String, SweepPriorityRowResult> newPrioritiesByTableName) {
-        Set<String> unsweptTables = Sets.difference(allTables, newPrioritiesByTableName.keySet());
-        if (!unsweptTables.isEmpty()) {
-            return Iterables.get(unsweptTables, 0);
-        }
-        double maxPriority = 0.0;
-        String toSweep = null;
-        Collection<SweepPriorityRow> toDelete = Lists.newArrayList();
-        for (SweepPriorityRowResult oldPriority : oldPriorities) {
-            String tableName = oldPriority.getRowName().getFullTableName();
-            if (allTables.contains(tableName)) {
-                SweepPriorityRowResult newPriority = newPrioritiesByTableName.get(tableName);
-                double priority = getSweepPriority(oldPriority, newPriority);
-                if (priority > maxPriority) {
-                    maxPriority = priority;
-                    toSweep = tableName;
-                }
-            } else {
-                toDelete.add(oldPriority.getRowName());
-            }
-        }
-
-        // Clean up rows for tables that no longer exist.
-        tableFactory.getSweepPriorityTable(t.delegate()).delete(toDelete);
-
-        return toSweep;
-    }
-
-    private double getSweepPriority(SweepPriorityRowResult oldPriority, SweepPriorityRowResult newPriority) {
-        if (AtlasDbConstants.hiddenTables.contains(newPriority.getRowName().getFullTableName())) {
-            // Never sweep hidden tables
-            return 0.0;
-        }
-        if (!newPriority.hasLastSweepTime()) {
-            // Highest priority if we've never swept it before
-            return Double.MAX_VALUE;
-        }
-        if (oldPriority.getWriteCount() > newPriority.getWriteCount()) {
-            // We just swept this, or it got truncated.
-            return 0.0;
-        }
-        long cellsDeleted = Math.max(1, oldPriority.getCellsDeleted());
-        long cellsExamined = Math.max(1, oldPriority.getCellsExamined());
-        long writeCount = Math.max(1, oldPriority.getWriteCount());
-        double previousEfficacy = 1.0 * cellsDeleted / cellsExamined;
-        double estimatedCellsToSweep = previousEfficacy * writeCount;
-        long millisSinceSweep = System.currentTimeMillis() - oldPriority.getLastSweepTime();
-
-        if (writeCount <= 100 + cellsExamined / 100 &&
-                TimeUnit.DAYS.convert(millisSinceSweep, TimeUnit.MILLISECONDS) < 180) {
-            // Not worth the effort if fewer than 1% of cells are new and we've swept in the last 6 months.
-            return 0.0;
-        }
-
-        // This ordering function weights one month of no sweeping
-        // with the same priority as about 100000 expected cells to sweep.
-        return estimatedCellsToSweep + millisSinceSweep * MILLIS_SINCE_SWEEP_PRIORITY_WEIGHT;
-    }
-
     private void saveSweepResults(final SweepProgressRowResult progress,
                                   final SweepResults results) {
         final long cellsDeleted = fromNullable(progress.getCellsDeleted()) + results.getCellsDeleted();
@@ -319,7 +428,7 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
             @Override
             public Void execute(Transaction t) {
                 SweepProgressTable progressTable = tableFactory.getSweepProgressTable(t);
-                SweepProgressRow row = SweepProgressRow.of(0);
+                SweepProgressRow row = SweepProgressRow.of(SINGLE_THREADED_PROGRESS_ROW);
                 progressTable.putFullTableName(row, progress.getFullTableName());
                 progressTable.putStartRow(row, nextStartRow);
                 progressTable.putCellsDeleted(row, cellsDeleted);
@@ -372,7 +481,7 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
                     new RuntimeTransactionTask<SweepProgressRowResult>() {
                 @Override
                 public SweepProgressRowResult execute(Transaction t) {
-                    return tableFactory.getSweepProgressTable(t).getRow(SweepProgressRow.of(0L)).orNull();
+                    return tableFactory.getSweepProgressTable(t).getRow(SweepProgressRow.of(SINGLE_THREADED_PROGRESS_ROW)).orNull();
                 }
             });
             if (result == null || tables.contains(result.getFullTableName())) {
@@ -415,30 +524,18 @@ public class BackgroundSweeperImpl implements BackgroundSweeper {
         }
         log.debug("Signalling background sweeper to shut down.");
         daemon.interrupt();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
         try {
             daemon.join();
             daemon = null;
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            workers.clear();
         } catch (InterruptedException e) {
             throw Throwables.rewrapAndThrowUncheckedException(e);
         }
     }
-
-    private static class SweepTransaction extends UnmodifiableTransaction {
-        private final long sweepTimestamp;
-
-        public SweepTransaction(Transaction delegate, long sweepTimestamp) {
-            super(delegate);
-            this.sweepTimestamp = sweepTimestamp;
-        }
-
-        @Override
-        public long getTimestamp() {
-            return sweepTimestamp;
-        }
-
-        @Override
-        public TransactionReadSentinelBehavior getReadSentinelBehavior() {
-            return TransactionReadSentinelBehavior.IGNORE;
-        }
-    }
 }
@@ -25,6 +25,11 @@ public class NoOpSweepTaskRunner implements SweepTaskRunner {
         return SweepResults.createEmptySweepResult(getSweepTimestamp(null));
     }
 
+    @Override
+    public SweepResults run(String tableName, int batchSize, byte[] startRow, byte[] endRow) {
+        return SweepResults.createEmptySweepResult(getSweepTimestamp(null));
+    }
+
     @Override
     public long getSweepTimestamp(SweepStrategy sweepStrategy) {
         return 0;
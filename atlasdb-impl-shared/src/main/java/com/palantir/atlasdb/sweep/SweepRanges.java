@@ -0,0 +1,359 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.SweepResults;
+import com.palantir.atlasdb.schema.generated.SweepPriorityTable;
+import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRow;
+import com.palantir.atlasdb.schema.generated.SweepProgressTable;
+import com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProgressRow;
+import com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProgressRowResult;
+import com.palantir.atlasdb.schema.generated.SweepTableFactory;
+import com.palantir.atlasdb.transaction.api.LockAwareTransactionManager;
+import com.palantir.atlasdb.transaction.api.RuntimeTransactionTask;
+import com.palantir.atlasdb.transaction.api.Transaction;
+
+/**
+ * Hands out row ranges to the workers of the parallel background sweeper and records
+ * their progress in the sweep progress table.
+ * <p>
+ * When a table is chosen for sweeping it is split by the leading byte of its row names
+ * into one range per worker, and every range gets its own progress row (row 0 belongs to
+ * the single threaded sweeper). A range is finished once it has examined cells but no
+ * start row; the stats of a table are only moved to the priority table when all of its
+ * ranges are finished. Idle workers pick up unfinished ranges of any table, or start on
+ * the next table chosen by priority, so several tables may be swept at once.
+ * <p>
+ * Claims on ranges are only kept in memory. That is enough because only the process
+ * holding the sweep lock sweeps; after a restart every unfinished range resumes from its
+ * saved start row.
+ */
+class SweepRanges {
+    private static final Logger log = LoggerFactory.getLogger(SweepRanges.class);
+
+    private final LockAwareTransactionManager txManager;
+    private final KeyValueService kvs;
+    private final SweepTableFactory tableFactory;
+    private final SweepTableChooser tableChooser;
+    private final int rangesPerTable;
+
+    @GuardedBy("this") private final Set<Long> claimed = Sets.newHashSet();
+
+    SweepRanges(LockAwareTransactionManager txManager,
+                KeyValueService kvs,
+                SweepTableFactory tableFactory,
+                SweepTableChooser tableChooser,
+                int rangesPerTable) {
+        this.txManager = txManager;
+        this.kvs = kvs;
+        this.tableFactory = tableFactory;
+        this.tableChooser = tableChooser;
+        this.rangesPerTable = Math.min(256, rangesPerTable);
+    }
+
+    static final class Range {
+        final long id;
+        final String tableName;
+        @Nullable final byte[] startRow;
+        @Nullable final byte[] endRow;
+
+        Range(long id, String tableName, @Nullable byte[] startRow, @Nullable byte[] endRow) {
+            this.id = id;
+            this.tableName = tableName;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        static Range of(SweepProgressRowResult result) {
+            return new Range(result.getRowName().getDummy(),
+                    result.getFullTableName(),
+                    result.hasStartRow() ? result.getStartRow() : null,
+                    result.hasEndRow() ? result.getEndRow() : null);
+        }
+
+        @Override
+        public String toString() {
+            return tableName + " [" + (startRow == null ? "" : PtBytes.encodeHexString(startRow))
+                    + ", " + (endRow == null ? "" : PtBytes.encodeHexString(endRow)) + ")";
+        }
+    }
+
+    /**
+     * Claims an unfinished range which no other worker is sweeping, starting on a new table
+     * if there is none. Returns null if no table is worth sweeping at the moment.
+     *
+     * @param sweepTimestamp the timestamp at which to read past table priorities.
+     */
+    @Nullable
+    synchronized Range claim(final long sweepTimestamp) {
+        Range range = txManager.runTaskWithRetry(new RuntimeTransactionTask<Range>() {
+            @Override
+            public Range execute(Transaction t) {
+                List<SweepProgressRowResult> ranges = getRanges(t);
+                Set<String> tablesInProgress = Sets.newHashSet();
+                long maxId = 0L;
+                for (SweepProgressRowResult result : ranges) {
+                    long id = result.getRowName().getDummy();
+                    if (!claimed.contains(id) && !isFinished(result)) {
+                        return Range.of(result);
+                    }
+                    tablesInProgress.add(result.getFullTableName());
+                    maxId = Math.max(maxId, id);
+                }
+                String tableName = tableChooser.chooseTable(t, sweepTimestamp, tablesInProgress);
+                if (tableName == null) {
+                    return null;
+                }
+                return startTable(t, tableName, maxId + 1);
+            }
+        });
+        if (range != null) {
+            claimed.add(range.id);
+        }
+        return range;
+    }
+
+    synchronized void release(Range range) {
+        claimed.remove(range.id);
+    }
+
+    private Range startTable(Transaction t, String tableName, long firstId) {
+        SweepProgressTable progressTable = tableFactory.getSweepProgressTable(t);
+        List<Range> ranges = Lists.newArrayList();
+        byte[] start = null;
+        for (int i = 1; i <= rangesPerTable; i++) {
+            byte[] end = i == rangesPerTable ? null : new byte[] { (byte) (256 * i / rangesPerTable) };
+            Range range = new Range(firstId + i - 1, tableName, start, end);
+            SweepProgressRow row = SweepProgressRow.of(range.id);
+            progressTable.putFullTableName(row, tableName);
+            if (start != null) {
+                progressTable.putStartRow(row, start);
+            }
+            if (end != null) {
+                progressTable.putEndRow(row, end);
+            }
+            ranges.add(range);
+            start = end;
+        }
+
+        // Same as the single threaded sweeper, which resets the write count on its first batch.
+        SweepPriorityTable priorityTable = tableFactory.getSweepPriorityTable(t);
+        priorityTable.putWriteCount(SweepPriorityRow.of(tableName), 0L);
+
+        log.debug("Now starting to sweep {} in {} ranges.", tableName, rangesPerTable);
+        return ranges.get(0);
+    }
+
+    /**
+     * Saves the results of sweeping a batch of the range. Returns the rest of the range,
+     * or absent if the range is finished, in which case its claim is released.
+     */
+    Optional<Range> saveResults(final Range range, final SweepResults results) {
+        final Optional<byte[]> nextStartRow = getNextStartRow(range, results);
+        TableStats finishedTable;
+        synchronized (this) {
+            finishedTable = txManager.runTaskWithRetry(new RuntimeTransactionTask<TableStats>() {
+                @Override
+                public TableStats execute(Transaction t) {
+                    SweepProgressTable progressTable = tableFactory.getSweepProgressTable(t);
+                    SweepProgressRow row = SweepProgressRow.of(range.id);
+                    SweepProgressRowResult progress = progressTable.getRow(row).orNull();
+                    if (progress == null) {
+                        // The table was dropped and its ranges cleaned up.
+                        return null;
+                    }
+                    long cellsDeleted = fromNullable(progress.getCellsDeleted()) + results.getCellsDeleted();
+                    long cellsExamined = fromNullable(progress.getCellsExamined()) + results.getCellsExamined();
+                    long minimumSweptTimestamp = progress.hasMinimumSweptTimestamp()
+                            ? progress.getMinimumSweptTimestamp() : results.getSweptTimestamp();
+                    progressTable.putCellsDeleted(row, cellsDeleted);
+                    progressTable.putCellsExamined(row, cellsExamined);
+                    progressTable.putMinimumSweptTimestamp(row, minimumSweptTimestamp);
+                    if (nextStartRow.isPresent()) {
+                        progressTable.putStartRow(row, nextStartRow.get());
+                        return null;
+                    }
+                    progressTable.deleteStartRow(row);
+                    return finishTableIfDone(t, range, new TableStats(cellsDeleted, cellsExamined, minimumSweptTimestamp));
+                }
+            });
+            if (!nextStartRow.isPresent()) {
+                claimed.remove(range.id);
+            }
+            if (finishedTable != null && finishedTable.lastInProgress) {
+                // Truncate instead of delete once nothing else is in progress, since the
+                // progress rows have accumulated many overwrites.
+                kvs.truncateTable(tableFactory.getSweepProgressTable(null).getTableName());
+            }
+        }
+        if (finishedTable != null) {
+            log.debug("Finished sweeping {}, examined {} unique cells, deleted {} cells.",
+                    range.tableName, finishedTable.cellsExamined, finishedTable.cellsDeleted);
+            if (finishedTable.cellsDeleted > 0) {
+                Stopwatch watch = Stopwatch.createStarted();
+                kvs.compactInternally(range.tableName);
+                log.debug("Finished performing compactInternally on {} in {} ms.",
+                        range.tableName, watch.elapsed(TimeUnit.MILLISECONDS));
+            }
+        }
+        if (!nextStartRow.isPresent()) {
+            return Optional.absent();
+        }
+        return Optional.of(new Range(range.id, range.tableName, nextStartRow.get(), range.endRow));
+    }
+
+    private static Optional<byte[]> getNextStartRow(Range range, SweepResults results) {
+        if (!results.getNextStartRow().isPresent()) {
+            return Optional.absent();
+        }
+        byte[] nextStartRow = results.getNextStartRow().get();
+        if (range.endRow != null && PtBytes.BYTES_COMPARATOR.compare(nextStartRow, range.endRow) >= 0) {
+            return Optional.absent();
+        }
+        return results.getNextStartRow();
+    }
+
+    /**
+     * If every other range of the table is finished, moves the stats of the whole table to
+     * the priority table and deletes its ranges. Returns the stats of the table, or null if
+     * some of its ranges are unfinished.
+     */
+    @Nullable
+    private TableStats finishTableIfDone(Transaction t, Range finished, TableStats finishedRange) {
+        SweepProgressTable progressTable = tableFactory.getSweepProgressTable(t);
+        List<SweepProgressRow> tableRanges = Lists.newArrayList(SweepProgressRow.of(finished.id));
+        long cellsDeleted = finishedRange.cellsDeleted;
+        long cellsExamined = finishedRange.cellsExamined;
+        long minimumSweptTimestamp = finishedRange.minimumSweptTimestamp;
+        boolean lastInProgress = true;
+        for (SweepProgressRowResult result : progressTable.getAllRowsUnordered().immutableCopy()) {
+            if (result.getRowName().getDummy() == finished.id) {
+                continue;
+            }
+            if (!finished.tableName.equals(result.getFullTableName())
+                    || result.getRowName().getDummy() == BackgroundSweeperImpl.SINGLE_THREADED_PROGRESS_ROW) {
+                lastInProgress = false;
+                continue;
+            }
+            if (!isFinished(result)) {
+                return null;
+            }
+            tableRanges.add(result.getRowName());
+            cellsDeleted += fromNullable(result.getCellsDeleted());
+            cellsExamined += fromNullable(result.getCellsExamined());
+            if (result.hasMinimumSweptTimestamp()) {
+                minimumSweptTimestamp = Math.min(minimumSweptTimestamp, result.getMinimumSweptTimestamp());
+            }
+        }
+
+        SweepPriorityTable priorityTable = tableFactory.getSweepPriorityTable(t);
+        SweepPriorityRow row = SweepPriorityRow.of(finished.tableName);
+        priorityTable.putCellsDeleted(row, cellsDeleted);
+        priorityTable.putCellsExamined(row, cellsExamined);
+        priorityTable.putLastSweepTime(row, System.currentTimeMillis());
+        priorityTable.putMinimumSweptTimestamp(row, minimumSweptTimestamp);
+        progressTable.delete(tableRanges);
+
+        TableStats stats = new TableStats(cellsDeleted, cellsExamined, minimumSweptTimestamp);
+        stats.lastInProgress = lastInProgress;
+        return stats;
+    }
+
+    /**
+     * Deletes the ranges of the table being swept if it was dropped.
+     * @return Whether the table was dropped.
+     */
+    boolean checkAndRepairTableDrop(final Range range) {
+        try {
+            if (kvs.getAllTableNames().contains(range.tableName)) {
+                return false;
+            }
+            synchronized (this) {
+                txManager.runTaskWithRetry(new RuntimeTransactionTask<Void>() {
+                    @Override
+                    public Void execute(Transaction t) {
+                        List<SweepProgressRow> toDelete = Lists.newArrayList();
+                        for (SweepProgressRowResult result : getRanges(t)) {
+                            if (result.getFullTableName().equals(range.tableName)) {
+                                toDelete.add(result.getRowName());
+                            }
+                        }
+                        tableFactory.getSweepProgressTable(t).delete(toDelete);
+                        return null;
+                    }
+                });
+                claimed.remove(range.id);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to check whether the table being swept was dropped. Continuing under the assumption that it wasn't...", e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the range rows of the progress table in the order they were created.
+     */
+    private List<SweepProgressRowResult> getRanges(Transaction t) {
+        List<SweepProgressRowResult> ranges = Lists.newArrayList();
+        for (SweepProgressRowResult result : tableFactory.getSweepProgressTable(t).getAllRowsUnordered().immutableCopy()) {
+            if (result.getRowName().getDummy() != BackgroundSweeperImpl.SINGLE_THREADED_PROGRESS_ROW
+                    && result.hasFullTableName()) {
+                ranges.add(result);
+            }
+        }
+        return ImmutableList.copyOf(Ordering.natural().onResultOf(SweepProgressRowResult.getRowNameFun()).sortedCopy(ranges));
+    }
+
+    private static boolean isFinished(SweepProgressRowResult result) {
+        return !result.hasStartRow() && result.hasCellsExamined();
+    }
+
+    private static long fromNullable(Long num) {
+        return num == null ? 0L : num.longValue();
+    }
+
+    private static final class TableStats {
+        final long cellsDeleted;
+        final long cellsExamined;
+        final long minimumSweptTimestamp;
+        boolean lastInProgress = false;
+
+        TableStats(long cellsDeleted, long cellsExamined, long minimumSweptTimestamp) {
+            this.cellsDeleted = cellsDeleted;
+            this.cellsExamined = cellsExamined;
+            this.minimumSweptTimestamp = minimumSweptTimestamp;
+        }
+    }
+}
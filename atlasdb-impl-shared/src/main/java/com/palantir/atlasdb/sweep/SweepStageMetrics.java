@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cumulative time spent in each stage of sweep by one {@link SweepTaskRunnerImpl}.
+ * <p>
+ * When sweep is pipelined the stages run concurrently, so the stage with the
+ * largest total is the one limiting throughput on this key value service.
+ * <p>
+ * This class is thread safe.
+ */
+public final class SweepStageMetrics implements SweepStageMetricsMBean {
+    enum Stage {
+        READ_TIMESTAMPS,
+        READ_VALUES,
+        LOOKUP_COMMIT_TIMESTAMPS,
+        RUN_FOLLOWERS,
+        WRITE_SENTINELS,
+        DELETE;
+    }
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong[] nanos = new AtomicLong[Stage.values().length];
+
+    public SweepStageMetrics() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = new AtomicLong();
+        }
+    }
+
+    void recordBatch() {
+        batches.incrementAndGet();
+    }
+
+    void record(Stage stage, long startNanos) {
+        nanos[stage.ordinal()].addAndGet(System.nanoTime() - startNanos);
+    }
+
+    long getMillis(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos[stage.ordinal()].get());
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public long getTimestampReadMillis() {
+        return getMillis(Stage.READ_TIMESTAMPS);
+    }
+
+    @Override
+    public long getValueReadMillis() {
+        return getMillis(Stage.READ_VALUES);
+    }
+
+    @Override
+    public long getCommitTimestampLookupMillis() {
+        return getMillis(Stage.LOOKUP_COMMIT_TIMESTAMPS);
+    }
+
+    @Override
+    public long getFollowerMillis() {
+        return getMillis(Stage.RUN_FOLLOWERS);
+    }
+
+    @Override
+    public long getSentinelWriteMillis() {
+        return getMillis(Stage.WRITE_SENTINELS);
+    }
+
+    @Override
+    public long getDeleteMillis() {
+        return getMillis(Stage.DELETE);
+    }
+
+    @Override
+    public void clearStats() {
+        batches.set(0);
+        for (AtomicLong stageNanos : nanos) {
+            stageNanos.set(0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SweepStageMetrics [batches=").append(getBatchCount());
+        for (Stage stage : Stage.values()) {
+            sb.append(", ").append(stage.name().toLowerCase()).append("Millis=").append(getMillis(stage));
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.schema.generated.SweepPriorityTable;
+import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRow;
+import com.palantir.atlasdb.schema.generated.SweepPriorityTable.SweepPriorityRowResult;
+import com.palantir.atlasdb.schema.generated.SweepTableFactory;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
+import com.palantir.atlasdb.transaction.impl.UnmodifiableTransaction;
+
+/**
+ * Picks the table most in need of sweeping, based on the stats in the sweep priority table.
+ */
+class SweepTableChooser {
+    // weights one month of no sweeping with the same priority as about 100000 expected cells to sweep.
+    private static final double MILLIS_SINCE_SWEEP_PRIORITY_WEIGHT = 100000.0 / TimeUnit.MILLISECONDS.convert(30, TimeUnit.DAYS);
+
+    private final KeyValueService kvs;
+    private final SweepTableFactory tableFactory;
+
+    SweepTableChooser(KeyValueService kvs, SweepTableFactory tableFactory) {
+        this.kvs = kvs;
+        this.tableFactory = tableFactory;
+    }
+
+    /**
+     * Returns the table which should be swept next, ignoring tablesToSkip, or null if
+     * no table is worth sweeping at the moment.
+     *
+     * @param sweepTimestamp the timestamp at which to read past priorities.
+     */
+    @Nullable
+    String chooseTable(Transaction transaction, long sweepTimestamp, Set<String> tablesToSkip) {
+        SweepTransaction t = new SweepTransaction(transaction, sweepTimestamp);
+        Set<String> allTables = Sets.difference(kvs.getAllTableNames(), AtlasDbConstants.hiddenTables);
+        SweepPriorityTable oldPriorityTable = tableFactory.getSweepPriorityTable(t);
+        SweepPriorityTable newPriorityTable = tableFactory.getSweepPriorityTable(t.delegate());
+
+        // We read priorities from the past because we should prioritize based on what the sweeper will
+        // actually be able to sweep. We read priorities from the present to make sure we don't repeatedly
+        // sweep the same table while waiting for the past to catch up.
+        List<SweepPriorityRowResult> oldPriorities = oldPriorityTable.getAllRowsUnordered().immutableCopy();
+        List<SweepPriorityRowResult> newPriorities = newPriorityTable.getAllRowsUnordered().immutableCopy();
+        Map<String,SweepPriorityRowResult> newPrioritiesByTableName = Maps.uniqueIndex(newPriorities,
+                Functions.compose(SweepPriorityRow.getFullTableNameFun(), SweepPriorityRowResult.getRowNameFun()));
+        return getTableToSweep(t, allTables, oldPriorities, newPrioritiesByTableName, tablesToSkip);
+    }
+
+    @Nullable
+    private String getTableToSweep(SweepTransaction t,
+                                   Set<String> allTables,
+                                   List<SweepPriorityRowResult> oldPriorities,
+                                   Map<String, SweepPriorityRowResult> newPrioritiesByTableName,
+                                   Set<String> tablesToSkip) {
+        Set<String> unsweptTables = Sets.difference(
+                Sets.difference(allTables, newPrioritiesByTableName.keySet()), tablesToSkip);
+        if (!unsweptTables.isEmpty()) {
+            return Iterables.get(unsweptTables, 0);
+        }
+        double maxPriority = 0.0;
+        String toSweep = null;
+        Collection<SweepPriorityRow> toDelete = Lists.newArrayList();
+        for (SweepPriorityRowResult oldPriority : oldPriorities) {
+            String tableName = oldPriority.getRowName().getFullTableName();
+            if (allTables.contains(tableName)) {
+                if (tablesToSkip.contains(tableName)) {
+                    continue;
+                }
+                SweepPriorityRowResult newPriority = newPrioritiesByTableName.get(tableName);
+                double priority = getSweepPriority(oldPriority, newPriority);
+                if (priority > maxPriority) {
+                    maxPriority = priority;
+                    toSweep = tableName;
+                }
+            } else {
+                toDelete.add(oldPriority.getRowName());
+            }
+        }
+
+        // Clean up rows for tables that no longer exist.
+        tableFactory.getSweepPriorityTable(t.delegate()).delete(toDelete);
+
+        return toSweep;
+    }
+
+    private double getSweepPriority(SweepPriorityRowResult oldPriority, SweepPriorityRowResult newPriority) {
+        if (AtlasDbConstants.hiddenTables.contains(newPriority.getRowName().getFullTableName())) {
+            // Never sweep hidden tables
+            return 0.0;
+        }
+        if (!newPriority.hasLastSweepTime()) {
+            // Highest priority if we've never swept it before
+            return Double.MAX_VALUE;
+        }
+        if (oldPriority.getWriteCount() > newPriority.getWriteCount()) {
+            // We just swept this, or it got truncated.
+            return 0.0;
+        }
+        long cellsDeleted = Math.max(1, oldPriority.getCellsDeleted());
+        long cellsExamined = Math.max(1, oldPriority.getCellsExamined());
+        long writeCount = Math.max(1, oldPriority.getWriteCount());
+        double previousEfficacy = 1.0 * cellsDeleted / cellsExamined;
+        double estimatedCellsToSweep = previousEfficacy * writeCount;
+        long millisSinceSweep = System.currentTimeMillis() - oldPriority.getLastSweepTime();
+
+        if (writeCount <= 100 + cellsExamined / 100 &&
+                TimeUnit.DAYS.convert(millisSinceSweep, TimeUnit.MILLISECONDS) < 180) {
+            // Not worth the effort if fewer than 1% of cells are new and we've swept in the last 6 months.
+            return 0.0;
+        }
+
+        // This ordering function weights one month of no sweeping
+        // with the same priority as about 100000 expected cells to sweep.
+        return estimatedCellsToSweep + millisSinceSweep * MILLIS_SINCE_SWEEP_PRIORITY_WEIGHT;
+    }
+
+    private static class SweepTransaction extends UnmodifiableTransaction {
+        private final long sweepTimestamp;
+
+        public SweepTransaction(Transaction delegate, long sweepTimestamp) {
+            super(delegate);
+            this.sweepTimestamp = sweepTimestamp;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return sweepTimestamp;
+        }
+
+        @Override
+        public TransactionReadSentinelBehavior getReadSentinelBehavior() {
+            return TransactionReadSentinelBehavior.IGNORE;
+        }
+    }
+}
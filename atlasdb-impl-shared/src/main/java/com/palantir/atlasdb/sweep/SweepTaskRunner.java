@@ -22,5 +22,12 @@ import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrat
 
 public interface SweepTaskRunner {
     public SweepResults run(String tableName, int batchSize, @Nullable byte[] startRow);
+
+    /**
+     * Like {@link #run(String, int, byte[])}, but only sweeps rows before endRow.
+     * A null or empty endRow sweeps to the end of the table.
+     */
+    public SweepResults run(String tableName, int batchSize, @Nullable byte[] startRow, @Nullable byte[] endRow);
+
     public long getSweepTimestamp(SweepStrategy sweepStrategy);
 }
@@ -16,10 +16,18 @@
 package com.palantir.atlasdb.sweep;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -31,6 +39,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
@@ -49,6 +58,7 @@ import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.SweepResults;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
+import com.palantir.atlasdb.sweep.SweepStageMetrics.Stage;
 import com.palantir.atlasdb.transaction.api.Transaction.TransactionType;
 import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
@@ -59,15 +69,27 @@ import com.palantir.common.annotation.Modified;
 import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.base.Throwables;
 
 /**
  * Sweeps one individual table.
+ * <p>
+ * Each batch goes through three stages: reading the timestamps (and for thorough sweep,
+ * the values) of a range of rows, looking up the commit timestamps of those cells, and
+ * writing sentinels and deleting the swept cells.  When constructed with a pipeline
+ * executor, a batch is read in smaller chunks which are passed between the stages over
+ * bounded queues, so that reading one chunk overlaps the lookups and deletes of the chunks
+ * before it.
  *
  * @author jweel
  */
 public class SweepTaskRunnerImpl implements SweepTaskRunner {
     private static final Logger log = LoggerFactory.getLogger(SweepTaskRunnerImpl.class);
     private static final Set<Long> invalidTimestamps = ImmutableSet.of(Value.INVALID_VALUE_TIMESTAMP);
+    private static final int PIPELINE_QUEUE_SIZE = 2;
+    private static final long PIPELINE_POLL_MILLIS = 100;
+    private static final Chunk END_OF_BATCH = new Chunk(0, null,
+            ImmutableMultimap.<Cell, Long>of(), ImmutableSet.<Cell>of());
 
     private final TransactionManager txManager;
     private final KeyValueService keyValueService;
@@ -76,6 +98,9 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
     private final TransactionService transactionService;
     private final SweepStrategyManager sweepStrategyManager;
     private final Collection<Follower> followers;
+    @Nullable private final ExecutorService pipelineExecutor;
+    private final int pipelineChunkSize;
+    private final SweepStageMetrics metrics = new SweepStageMetrics();
 
     public SweepTaskRunnerImpl(TransactionManager txManager,
                            KeyValueService keyValueService,
@@ -84,6 +109,25 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
                            TransactionService transactionService,
                            SweepStrategyManager sweepStrategyManager,
                            Collection<Follower> followers) {
+        this(txManager, keyValueService, unreadableTimestampSupplier, immutableTimestampSupplier,
+                transactionService, sweepStrategyManager, followers, null, 0);
+    }
+
+    /**
+     * @param pipelineExecutor runs the commit timestamp lookup and delete stages of each batch,
+     *        two tasks per concurrent call to {@link #run}. If null, batches are swept serially.
+     * @param pipelineChunkSize the number of rows passed between stages at a time. If this is not
+     *        positive, or not smaller than the batch size, batches are swept serially.
+     */
+    public SweepTaskRunnerImpl(TransactionManager txManager,
+                           KeyValueService keyValueService,
+                           Supplier<Long> unreadableTimestampSupplier,
+                           Supplier<Long> immutableTimestampSupplier,
+                           TransactionService transactionService,
+                           SweepStrategyManager sweepStrategyManager,
+                           Collection<Follower> followers,
+                           @Nullable ExecutorService pipelineExecutor,
+                           int pipelineChunkSize) {
         this.txManager = txManager;
         this.keyValueService = keyValueService;
         this.unreadableTimestampSupplier = unreadableTimestampSupplier;
@@ -91,10 +135,25 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
         this.transactionService = transactionService;
         this.sweepStrategyManager = sweepStrategyManager;
         this.followers = followers;
+        this.pipelineExecutor = pipelineExecutor;
+        this.pipelineChunkSize = pipelineChunkSize;
+    }
+
+    /**
+     * The time spent in each stage of sweep by this runner.
+     * This may be registered with JMX to find the bottleneck stage on a given key value service.
+     */
+    public SweepStageMetrics getStageMetrics() {
+        return metrics;
     }
 
     @Override
     public SweepResults run(String tableName, int batchSize, @Nullable byte[] startRow) {
+        return run(tableName, batchSize, startRow, null);
+    }
+
+    @Override
+    public SweepResults run(String tableName, int batchSize, @Nullable byte[] startRow, @Nullable byte[] endRow) {
         Preconditions.checkNotNull(tableName);
         Preconditions.checkState(!AtlasDbConstants.hiddenTables.contains(tableName));
 
@@ -132,7 +191,14 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
         if (startRow == null) {
             startRow = new byte[0];
         }
-        RangeRequest rangeRequest = RangeRequest.builder().startRowInclusive(startRow).batchHint(batchSize).build();
+        if (endRow == null) {
+            endRow = new byte[0];
+        }
+        RangeRequest rangeRequest = RangeRequest.builder()
+                .startRowInclusive(startRow)
+                .endRowExclusive(endRow)
+                .batchHint(batchSize)
+                .build();
 
         long sweepTimestamp = getSweepTimestamp(sweepStrategy);
 
@@ -147,21 +213,166 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
                 keyValueService.getRangeOfTimestamps(tableName, rangeRequest, sweepTimestamp);
 
         try {
-            List<RowResult<Set<Long>>> rowResultTimestamps = ImmutableList.copyOf(Iterators.limit(rowResults, batchSize));
             PeekingIterator<RowResult<Value>> peekingValues = Iterators.peekingIterator(valueResults);
-            Set<Cell> sentinelsToAdd = Sets.newHashSet();
-            Multimap<Cell, Long> rowTimestamps = getTimestampsFromRowResults(rowResultTimestamps, sweepStrategy);
-            Multimap<Cell, Long> cellTsPairsToSweep = getCellTsPairsToSweep(rowTimestamps, peekingValues, sweepTimestamp, sweepStrategy, sentinelsToAdd);
-            sweepCells(tableName, cellTsPairsToSweep, sentinelsToAdd);
-            byte[] nextRow = rowResultTimestamps.size() < batchSize ? null :
-                RangeRequests.getNextStartRow(false, Iterables.getLast(rowResultTimestamps).getRowName());
-            return new SweepResults(nextRow, rowResultTimestamps.size(), cellTsPairsToSweep.size(), sweepTimestamp);
+            metrics.recordBatch();
+            if (pipelineExecutor == null || pipelineChunkSize <= 0 || pipelineChunkSize >= batchSize) {
+                return sweepSerially(tableName, batchSize, sweepTimestamp, sweepStrategy, rowResults, peekingValues);
+            }
+            return sweepPipelined(tableName, batchSize, sweepTimestamp, sweepStrategy, rowResults, peekingValues);
         } finally {
             rowResults.close();
             valueResults.close();
         }
     }
 
+    private SweepResults sweepSerially(String tableName,
+                                       int batchSize,
+                                       long sweepTimestamp,
+                                       SweepStrategy sweepStrategy,
+                                       Iterator<RowResult<Set<Long>>> rowResults,
+                                       PeekingIterator<RowResult<Value>> values) {
+        Chunk chunk = readChunk(rowResults, values, batchSize, sweepStrategy);
+        findCellsToSweep(chunk, sweepTimestamp, sweepStrategy);
+        sweepCells(tableName, chunk);
+        return new SweepResults(
+                getNextStartRow(chunk.lastRow, chunk.numRows, batchSize),
+                chunk.numRows,
+                chunk.cellTsPairsToSweep.size(),
+                sweepTimestamp);
+    }
+
+    private SweepResults sweepPipelined(final String tableName,
+                                        int batchSize,
+                                        final long sweepTimestamp,
+                                        final SweepStrategy sweepStrategy,
+                                        Iterator<RowResult<Set<Long>>> rowResults,
+                                        PeekingIterator<RowResult<Value>> values) {
+        final BlockingQueue<Chunk> toLookUp = new ArrayBlockingQueue<Chunk>(PIPELINE_QUEUE_SIZE);
+        final BlockingQueue<Chunk> toDelete = new ArrayBlockingQueue<Chunk>(PIPELINE_QUEUE_SIZE);
+        Future<Void> lookUpStage = pipelineExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                try {
+                    for (Chunk chunk = toLookUp.take(); chunk != END_OF_BATCH; chunk = toLookUp.take()) {
+                        findCellsToSweep(chunk, sweepTimestamp, sweepStrategy);
+                        toDelete.put(chunk);
+                    }
+                } finally {
+                    // Also sent on failure, so that the delete stage finishes the chunks it already has.
+                    toDelete.put(END_OF_BATCH);
+                }
+                return null;
+            }
+        });
+        Future<Long> deleteStage = pipelineExecutor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws InterruptedException {
+                long cellsSwept = 0;
+                for (Chunk chunk = toDelete.take(); chunk != END_OF_BATCH; chunk = toDelete.take()) {
+                    sweepCells(tableName, chunk);
+                    cellsSwept += chunk.cellTsPairsToSweep.size();
+                }
+                return cellsSwept;
+            }
+        });
+
+        boolean finished = false;
+        try {
+            int rowsRead = 0;
+            byte[] lastRow = null;
+            while (rowsRead < batchSize) {
+                int rowsToRead = Math.min(pipelineChunkSize, batchSize - rowsRead);
+                Chunk chunk = readChunk(rowResults, values, rowsToRead, sweepStrategy);
+                if (chunk.numRows > 0) {
+                    rowsRead += chunk.numRows;
+                    lastRow = chunk.lastRow;
+                    enqueue(toLookUp, chunk, lookUpStage, deleteStage);
+                }
+                if (chunk.numRows < rowsToRead) {
+                    break;
+                }
+            }
+            enqueue(toLookUp, END_OF_BATCH, lookUpStage, deleteStage);
+            long cellsSwept = deleteStage.get();
+            lookUpStage.get();
+            finished = true;
+            return new SweepResults(getNextStartRow(lastRow, rowsRead, batchSize), rowsRead, cellsSwept, sweepTimestamp);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        } finally {
+            if (!finished) {
+                lookUpStage.cancel(true);
+                deleteStage.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Puts a chunk on the queue to the next stage, failing if any stage has failed in the meantime.
+     * Stages only finish once they have been sent {@link #END_OF_BATCH}, so a stage which is done
+     * while we are still enqueueing must have thrown.
+     */
+    private static void enqueue(BlockingQueue<Chunk> queue, Chunk chunk, Future<?>... stages)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, PIPELINE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            for (Future<?> stage : stages) {
+                if (stage.isDone()) {
+                    stage.get();
+                    throw new IllegalStateException("A sweep stage finished before the end of the batch.");
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static byte[] getNextStartRow(@Nullable byte[] lastRow, int rowsRead, int batchSize) {
+        if (rowsRead < batchSize) {
+            return null;
+        }
+        return RangeRequests.getNextStartRow(false, lastRow);
+    }
+
+    private Chunk readChunk(Iterator<RowResult<Set<Long>>> rowResults,
+                            PeekingIterator<RowResult<Value>> values,
+                            int maxRows,
+                            SweepStrategy sweepStrategy) {
+        long start = System.nanoTime();
+        List<RowResult<Set<Long>>> rowResultTimestamps = ImmutableList.copyOf(Iterators.limit(rowResults, maxRows));
+        metrics.record(Stage.READ_TIMESTAMPS, start);
+
+        start = System.nanoTime();
+        Set<Cell> cellsWithEmptyLatestValue = Sets.newHashSet();
+        for (RowResult<Set<Long>> rowResult : rowResultTimestamps) {
+            for (Cell cell : rowResult.getCellSet()) {
+                if (isLatestValueEmpty(cell, values)) {
+                    cellsWithEmptyLatestValue.add(cell);
+                }
+            }
+        }
+        metrics.record(Stage.READ_VALUES, start);
+
+        byte[] lastRow = rowResultTimestamps.isEmpty() ? null : Iterables.getLast(rowResultTimestamps).getRowName();
+        return new Chunk(
+                rowResultTimestamps.size(),
+                lastRow,
+                getTimestampsFromRowResults(rowResultTimestamps, sweepStrategy),
+                cellsWithEmptyLatestValue);
+    }
+
+    private void findCellsToSweep(Chunk chunk, long sweepTimestamp, SweepStrategy sweepStrategy) {
+        long start = System.nanoTime();
+        chunk.cellTsPairsToSweep = getCellTsPairsToSweep(
+                chunk.timestamps,
+                chunk.cellsWithEmptyLatestValue,
+                sweepTimestamp,
+                sweepStrategy,
+                chunk.sentinelsToAdd);
+        metrics.record(Stage.LOOKUP_COMMIT_TIMESTAMPS, start);
+    }
+
     @Override
     public long getSweepTimestamp(SweepStrategy sweepStrategy) {
         if (sweepStrategy == SweepStrategy.CONSERVATIVE) {
@@ -187,7 +398,7 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
     }
 
     private Multimap<Cell, Long> getCellTsPairsToSweep(Multimap<Cell, Long> cellTsMappings,
-                                                       PeekingIterator<RowResult<Value>> values,
+                                                       Set<Cell> cellsWithEmptyLatestValue,
                                                        long sweepTimestamp,
                                                        SweepStrategy sweepStrategy,
                                                        @Output Set<Cell> sentinelsToAdd) {
@@ -197,7 +408,7 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
         for (Map.Entry<Cell, Collection<Long>> entry : cellTsMappings.asMap().entrySet()) {
             Cell cell = entry.getKey();
             Collection<Long> timestamps = entry.getValue();
-            boolean sweepLastCommitted = isLatestValueEmpty(cell, values);
+            boolean sweepLastCommitted = cellsWithEmptyLatestValue.contains(cell);
             Iterable<? extends Long> timestampsToSweep = getTimestampsToSweep(
                     cell,
                     timestamps,
@@ -296,21 +507,50 @@ public class SweepTaskRunnerImpl implements SweepTaskRunner {
         return commitTs;
     }
 
-    private void sweepCells(String tableName,
-                            Multimap<Cell, Long> cellTsPairsToSweep,
-                            Set<Cell> sentinelsToAdd) {
+    private void sweepCells(String tableName, Chunk chunk) {
+        Multimap<Cell, Long> cellTsPairsToSweep = chunk.cellTsPairsToSweep;
         if (cellTsPairsToSweep.isEmpty()) {
             return;
         }
 
+        long start = System.nanoTime();
         for (Follower follower : followers) {
             follower.run(txManager, tableName, cellTsPairsToSweep.keySet(), TransactionType.HARD_DELETE);
         }
-        if (!sentinelsToAdd.isEmpty()) {
+        metrics.record(Stage.RUN_FOLLOWERS, start);
+        if (!chunk.sentinelsToAdd.isEmpty()) {
+            start = System.nanoTime();
             keyValueService.addGarbageCollectionSentinelValues(
                     tableName,
-                    sentinelsToAdd);
+                    chunk.sentinelsToAdd);
+            metrics.record(Stage.WRITE_SENTINELS, start);
         }
+        start = System.nanoTime();
         keyValueService.delete(tableName, cellTsPairsToSweep);
+        metrics.record(Stage.DELETE, start);
+    }
+
+    /**
+     * A run of consecutive rows of a batch, as it is passed from one stage to the next.
+     */
+    private static final class Chunk {
+        final int numRows;
+        @Nullable final byte[] lastRow;
+        final Multimap<Cell, Long> timestamps;
+        final Set<Cell> cellsWithEmptyLatestValue;
+        final Set<Cell> sentinelsToAdd = Sets.newHashSet();
+        // Written by the look up stage and read by the delete stage after a hand off
+        // through a blocking queue, which makes it visible.
+        Multimap<Cell, Long> cellTsPairsToSweep = ImmutableMultimap.of();
+
+        Chunk(int numRows,
+              @Nullable byte[] lastRow,
+              Multimap<Cell, Long> timestamps,
+              Set<Cell> cellsWithEmptyLatestValue) {
+            this.numRows = numRows;
+            this.lastRow = lastRow;
+            this.timestamps = timestamps;
+            this.cellsWithEmptyLatestValue = cellsWithEmptyLatestValue;
+        }
     }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.base.Preconditions;
+
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+
+/**
+ * A bounded map from start timestamp to commit timestamp which may be shared by every
+ * transaction created by a single transaction manager.
+ * <p>
+ * Once a row has been written to the transactions table it is never changed (it is only ever
+ * written with putUnlessExists), so a cached entry can never become stale and it is safe for
+ * all transactions to read through the same cache.
+ * <p>
+ * The cache is split into stripes to reduce contention.  Each stripe keeps two generations of
+ * primitive long to long maps; when the current generation fills up the older generation is
+ * dropped in bulk and the current one takes its place.  Entries found in the older generation
+ * are promoted, so frequently read timestamps survive rotation.  No boxed values are allocated
+ * on either the read or the write path.
+ * <p>
+ * This class is thread safe.
+ */
+public final class CommitTimestampCache implements CommitTimestampCacheMBean {
+    public static final int DEFAULT_MAX_SIZE = 100000;
+
+    /**
+     * Returned by {@link #get(long)} when there is no cached commit timestamp.
+     */
+    public static final long NO_ENTRY = Long.MIN_VALUE;
+
+    private static final int NUM_STRIPES = 16;
+    private static final int INITIAL_GENERATION_CAPACITY = 8;
+
+    private final Stripe[] stripes;
+    private final int maxSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CommitTimestampCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public CommitTimestampCache(int maxSize) {
+        Preconditions.checkArgument(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        int generationCapacity = Math.max(1, maxSize / (2 * NUM_STRIPES));
+        this.stripes = new Stripe[NUM_STRIPES];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new Stripe(generationCapacity);
+        }
+    }
+
+    /**
+     * Returns the cached commit timestamp for this start timestamp, or {@link #NO_ENTRY}
+     * if it is not cached.
+     */
+    public long get(long startTimestamp) {
+        long commitTimestamp = stripeFor(startTimestamp).get(startTimestamp);
+        if (commitTimestamp == NO_ENTRY) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return commitTimestamp;
+    }
+
+    public void put(long startTimestamp, long commitTimestamp) {
+        Preconditions.checkArgument(commitTimestamp != NO_ENTRY, "Cannot cache the reserved value %s", NO_ENTRY);
+        stripeFor(startTimestamp).put(startTimestamp, commitTimestamp);
+    }
+
+    private Stripe stripeFor(long startTimestamp) {
+        int hash = (int) (startTimestamp ^ (startTimestamp >>> 32));
+        hash ^= (hash >>> 16);
+        return stripes[hash & (NUM_STRIPES - 1)];
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public float getCacheHitPercentage() {
+        long hit = hits.get();
+        long miss = misses.get();
+        if (hit + miss == 0) {
+            return 100.0f;
+        }
+        return 100.0f * hit / (hit + miss);
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int getMaxCacheSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void clearCacheAndStats() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    private final class Stripe {
+        private final int generationCapacity;
+        @GuardedBy("this") private TLongLongMap current;
+        @GuardedBy("this") private TLongLongMap previous;
+
+        Stripe(int generationCapacity) {
+            this.generationCapacity = generationCapacity;
+            this.current = newGeneration();
+            this.previous = newGeneration();
+        }
+
+        synchronized long get(long startTimestamp) {
+            long commitTimestamp = current.get(startTimestamp);
+            if (commitTimestamp != NO_ENTRY) {
+                return commitTimestamp;
+            }
+            commitTimestamp = previous.remove(startTimestamp);
+            if (commitTimestamp != NO_ENTRY) {
+                put(startTimestamp, commitTimestamp);
+            }
+            return commitTimestamp;
+        }
+
+        synchronized void put(long startTimestamp, long commitTimestamp) {
+            if (current.size() >= generationCapacity && !current.containsKey(startTimestamp)) {
+                TLongLongMap oldest = previous;
+                evictions.addAndGet(oldest.size());
+                oldest.clear();
+                previous = current;
+                current = oldest;
+            }
+            current.put(startTimestamp, commitTimestamp);
+        }
+
+        synchronized int size() {
+            return current.size() + previous.size();
+        }
+
+        synchronized void clear() {
+            current.clear();
+            previous.clear();
+        }
+    }
+
+    private static TLongLongMap newGeneration() {
+        // Generations grow on demand and keep their capacity across rotations.
+        return new TLongLongHashMap(INITIAL_GENERATION_CAPACITY, 0.5f, NO_ENTRY, NO_ENTRY);
+    }
+}
@@ -41,12 +41,14 @@ public class ReadOnlyTransaction extends SnapshotTransaction {
 
     public ReadOnlyTransaction(KeyValueService keyValueService,
                                TransactionService transactionService,
+                               CommitTimestampCache commitTimestampCache,
                                long startTimeStamp,
                                AtlasDbConstraintCheckingMode constraintCheckingMode,
                                TransactionReadSentinelBehavior readSentinelBehavior,
                                boolean allowHiddenTableAccess) {
         super(keyValueService,
               transactionService,
+              commitTimestampCache,
               null,
               startTimeStamp,
               constraintCheckingMode,
@@ -43,6 +43,7 @@ public class ReadOnlyTransactionManager extends AbstractTransactionManager imple
     protected final Supplier<Long> startTimestamp;
     protected final TransactionReadSentinelBehavior readSentinelBehavior;
     protected final boolean allowHiddenTableAccess;
+    protected final CommitTimestampCache commitTimestampCache = new CommitTimestampCache();
 
     public ReadOnlyTransactionManager(KeyValueService keyValueService,
                                       TransactionService transactionService,
@@ -99,6 +100,7 @@ public class ReadOnlyTransactionManager extends AbstractTransactionManager imple
         SnapshotTransaction txn = new ReadOnlyTransaction(
                 keyValueService,
                 transactionService,
+                commitTimestampCache,
                 startTimestamp.get(),
                 constraintCheckingMode,
                 readSentinelBehavior,
@@ -29,6 +29,7 @@ import java.util.TreeSet;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
@@ -50,6 +51,8 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.encoding.PtBytes;
@@ -99,6 +102,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                                    RemoteLockService lockService,
                                    TimestampService timestampService,
                                    TransactionService transactionService,
+                                   CommitTimestampCache commitTimestampCache,
                                    Cleaner cleaner,
                                    Supplier<Long> startTimeStamp,
                                    ConflictDetectionManager conflictDetectionManager,
@@ -113,6 +117,7 @@ public class SerializableTransaction extends SnapshotTransaction {
               lockService,
               timestampService,
               transactionService,
+              commitTimestampCache,
               cleaner,
               startTimeStamp,
               conflictDetectionManager,
@@ -143,6 +148,19 @@ public class SerializableTransaction extends SnapshotTransaction {
         return ret;
     }
 
+    @Override
+    public ListenableFuture<Map<Cell, byte[]>> getAsync(final String tableName,
+                                                        final Set<Cell> cells,
+                                                        ExecutorService executor) {
+        return Futures.transform(super.getAsync(tableName, cells, executor), new Function<Map<Cell, byte[]>, Map<Cell, byte[]>>() {
+            @Override
+            public Map<Cell, byte[]> apply(Map<Cell, byte[]> ret) {
+                markCellsRead(tableName, cells, ret);
+                return ret;
+            }
+        });
+    }
+
     @Override
     @Idempotent
     public BatchingVisitable<RowResult<byte[]>> getRange(final String tableName, final RangeRequest rangeRequest) {
@@ -481,6 +499,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                 lockService,
                 timestampService,
                 defaultTransactionService,
+                commitTimestampCache,
                 NoOpCleaner.INSTANCE,
                 Suppliers.ofInstance(commitTs + 1),
                 ConflictDetectionManagers.withoutConflictDetection(keyValueService),
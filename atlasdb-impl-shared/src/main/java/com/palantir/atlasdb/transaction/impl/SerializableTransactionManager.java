@@ -82,6 +82,7 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 cleaner,
                 startTimestampSupplier,
                 conflictDetectionManager,
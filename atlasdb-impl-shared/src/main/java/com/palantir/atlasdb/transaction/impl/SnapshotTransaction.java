@@ -27,6 +27,7 @@ import java.util.SortedMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -62,11 +63,14 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
@@ -76,6 +80,7 @@ import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
 import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
 import com.palantir.atlasdb.table.description.exceptions.AtlasDbConstraintException;
@@ -114,9 +119,7 @@ import com.palantir.lock.LockRequest;
 import com.palantir.lock.RemoteLockService;
 import com.palantir.timestamp.TimestampService;
 import com.palantir.util.AssertUtils;
-import com.palantir.util.DistributedCacheMgrCache;
 import com.palantir.util.Pair;
-import com.palantir.util.SoftCache;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 /**
@@ -164,7 +167,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     protected final ConcurrentMap<String, ConcurrentNavigableMap<Cell, byte[]>> writesByTable = Maps.newConcurrentMap();
     private final ConflictDetectionManager conflictDetectionManager;
-    private final DistributedCacheMgrCache<Long, Long> cachedCommitTimes = new SoftCache<Long, Long>();
+    protected final CommitTimestampCache commitTimestampCache;
     private final AtomicLong byteCount = new AtomicLong();
 
     private final AtlasDbConstraintCheckingMode constraintCheckingMode;
@@ -190,11 +193,13 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      * @param tokensValidForCommit These tokens need to be valid with {@link #lockService} for this transaction
      *                             to commit.  If these locks have expired then the commit will fail.
      * @param transactionTimeoutMillis
+     * @param commitTimestampCache May be shared with other transactions from the same transaction manager.
      */
     /* package */ SnapshotTransaction(KeyValueService keyValueService,
                                RemoteLockService lockService,
                                TimestampService timestampService,
                                TransactionService transactionService,
+                               CommitTimestampCache commitTimestampCache,
                                Cleaner cleaner,
                                Supplier<Long> startTimeStamp,
                                ConflictDetectionManager conflictDetectionManager,
@@ -208,6 +213,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.keyValueService = keyValueService;
         this.timestampService = timestampService;
         this.defaultTransactionService = transactionService;
+        this.commitTimestampCache = commitTimestampCache;
         this.cleaner = cleaner;
         this.lockService = lockService;
         this.startTimestamp = startTimeStamp;
@@ -226,6 +232,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                         RemoteLockService lockService,
                         TimestampService timestampService,
                         TransactionService transactionService,
+                        CommitTimestampCache commitTimestampCache,
                         Cleaner cleaner,
                         long startTimeStamp,
                         Map<String, ConflictHandler> tablesToWriteWrite,
@@ -234,6 +241,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.keyValueService = keyValueService;
         this.timestampService = timestampService;
         this.defaultTransactionService = transactionService;
+        this.commitTimestampCache = commitTimestampCache;
         this.cleaner = cleaner;
         this.lockService = lockService;
         this.startTimestamp = Suppliers.ofInstance(startTimeStamp);
@@ -253,15 +261,17 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      */
     protected SnapshotTransaction(KeyValueService keyValueService,
                                   TransactionService transactionService,
+                                  CommitTimestampCache commitTimestampCache,
                                   RemoteLockService lockService,
                                   long startTimeStamp,
                                   AtlasDbConstraintCheckingMode constraintCheckingMode,
                                   TransactionReadSentinelBehavior readSentinelBehavior) {
-        this(keyValueService, transactionService, lockService, startTimeStamp, constraintCheckingMode, readSentinelBehavior, false);
+        this(keyValueService, transactionService, commitTimestampCache, lockService, startTimeStamp, constraintCheckingMode, readSentinelBehavior, false);
     }
 
     protected SnapshotTransaction(KeyValueService keyValueService,
                                   TransactionService transactionService,
+                                  CommitTimestampCache commitTimestampCache,
                                   RemoteLockService lockService,
                                   long startTimeStamp,
                                   AtlasDbConstraintCheckingMode constraintCheckingMode,
@@ -269,6 +279,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                                   boolean allowHiddenTableAccess) {
         this.keyValueService = keyValueService;
         this.defaultTransactionService = transactionService;
+        this.commitTimestampCache = commitTimestampCache;
         this.cleaner = NoOpCleaner.INSTANCE;
         this.lockService = lockService;
         this.startTimestamp = Suppliers.ofInstance(startTimeStamp);
@@ -409,6 +420,48 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return Maps.filterValues(result, Predicates.not(Value.IS_EMPTY));
     }
 
+    /**
+     * Asynchronous version of {@link #get(String, Set)}.
+     * <p>
+     * The read is issued through {@link AsyncKeyValueService#getAsync} if the key value service
+     * supports it, and on {@code executor} otherwise.  Postfiltering also runs on
+     * {@code executor}, as it may have to look up commit timestamps and reload cells.
+     * <p>
+     * The transaction must not be committed or aborted before the returned future completes.
+     */
+    public ListenableFuture<Map<Cell, byte[]>> getAsync(final String tableName,
+                                                        final Set<Cell> cells,
+                                                        ExecutorService executor) {
+        checkGetPreconditions(tableName);
+        if (Iterables.isEmpty(cells)) {
+            return Futures.<Map<Cell, byte[]>>immediateFuture(ImmutableMap.<Cell, byte[]>of());
+        }
+
+        final Map<Cell, byte[]> result = Maps.newHashMap();
+        SortedMap<Cell, byte[]> writes = writesByTable.get(tableName);
+        if (writes != null) {
+            for (Cell cell : cells) {
+                if (writes.containsKey(cell)) {
+                    result.put(cell, writes.get(cell));
+                }
+            }
+        }
+
+        // We don't need to read any cells that were written locally.
+        Set<Cell> toRead = ImmutableSet.copyOf(Sets.difference(cells, result.keySet()));
+        AsyncKeyValueService asyncKeyValueService = KeyValueServices.asAsync(keyValueService, executor);
+        ListenableFuture<Map<Cell, Value>> rawResults = asyncKeyValueService.getAsync(
+                tableName, Cells.constantValueMap(toRead, getStartTimestamp()));
+        return Futures.transform(rawResults, new Function<Map<Cell, Value>, Map<Cell, byte[]>>() {
+            @Override
+            public Map<Cell, byte[]> apply(Map<Cell, Value> input) {
+                getWithPostfiltering(tableName, input, result, Value.GET_VALUE);
+                validateExternalAndCommitLocksIfNecessary(tableName);
+                return Maps.filterValues(result, Predicates.not(Value.IS_EMPTY));
+            }
+        }, executor);
+    }
+
     @Override
     public Map<Cell, byte[]> getIgnoringLocalWrites(String tableName, Set<Cell> cells) {
         checkGetPreconditions(tableName);
@@ -1558,8 +1611,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         Map<Long, Long> result = Maps.newHashMap();
         Set<Long> gets = Sets.newHashSet();
         for (long startTS : startTimestamps) {
-            Long cached = cachedCommitTimes.get(startTS);
-            if (cached != null) {
+            long cached = commitTimestampCache.get(startTS);
+            if (cached != CommitTimestampCache.NO_ENTRY) {
                 result.put(startTS, cached);
             } else {
                 gets.add(startTS);
@@ -1584,7 +1637,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 long startTS = e.getKey();
                 long commitTS = e.getValue();
                 result.put(startTS, commitTS);
-                cachedCommitTimes.put(startTS, commitTS);
+                commitTimestampCache.put(startTS, commitTS);
             }
         }
         return result;
@@ -61,6 +61,7 @@ import com.palantir.timestamp.TimestampService;
     final LockClient lockClient;
     final Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier;
     final AtomicLong recentImmutableTs = new AtomicLong(-1L);
+    final CommitTimestampCache commitTimestampCache = new CommitTimestampCache();
     final Cleaner cleaner;
     final boolean allowHiddenTableAccess;
 
@@ -174,6 +175,7 @@ import com.palantir.timestamp.TimestampService;
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 cleaner,
                 startTimestampSupplier,
                 conflictDetectionManager,
@@ -194,6 +196,7 @@ import com.palantir.timestamp.TimestampService;
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 NoOpCleaner.INSTANCE,
                 getStartTimestampSupplier(),
                 conflictDetectionManager,
@@ -273,4 +276,12 @@ import com.palantir.timestamp.TimestampService;
     public TimestampService getTimestampService() {
         return timestampService;
     }
+
+    /**
+     * The start to commit timestamp cache shared by every transaction created by this manager.
+     * This may be registered with JMX to monitor hit, miss and eviction counts.
+     */
+    public CommitTimestampCache getCommitTimestampCache() {
+        return commitTimestampCache;
+    }
 }
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2016 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.jdbc;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.jdbc.config.ImmutableHikariDataSourceConfiguration;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.jdbc.ImmutableJdbcKeyValueConfiguration;
+import com.palantir.atlasdb.keyvalue.jdbc.JdbcKeyValueConfiguration;
+import com.palantir.atlasdb.keyvalue.jdbc.JdbcKeyValueService;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Compares reading a whole range page by page with streaming it through one server side
+ * cursor.  A fetch size of zero is the paging mode.
+ * <p>
+ * Runs against an embedded H2 database by default.  To run against Postgres pass the
+ * connection details as system properties, for example
+ * {@code ./gradlew :atlasdb-jdbc-tests:jmh -Datlasdb.jdbc.dialect=POSTGRES
+ * -Datlasdb.jdbc.url=jdbc:postgresql://localhost/atlas -Datlasdb.jdbc.username=atlas
+ * -Datlasdb.jdbc.password=atlas}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcRangeScanBenchmark {
+    private static final String TABLE = "bench.range_scan";
+    private static final int NUM_ROWS = 10000;
+    private static final int NUM_COLS = 4;
+    private static final int NUM_VERSIONS = 2;
+    private static final int VALUE_SIZE = 100;
+
+    @Param({"0", "100", "1000"})
+    public int rangeCursorFetchSize;
+
+    private JdbcKeyValueService kvs;
+
+    @Setup
+    public void setup() {
+        Properties properties = new Properties();
+        properties.put("jdbcUrl", System.getProperty("atlasdb.jdbc.url", "jdbc:h2:./build/jmh/h2RangeScanDb"));
+        properties.put("username", System.getProperty("atlasdb.jdbc.username", "sa"));
+        properties.put("password", System.getProperty("atlasdb.jdbc.password", ""));
+        JdbcKeyValueConfiguration config = ImmutableJdbcKeyValueConfiguration.builder()
+                .dataSourceConfig(ImmutableHikariDataSourceConfiguration.builder()
+                        .sqlDialect(System.getProperty("atlasdb.jdbc.dialect", "H2"))
+                        .properties(properties)
+                        .build())
+                .rangeCursorFetchSize(rangeCursorFetchSize)
+                .build();
+        kvs = JdbcKeyValueService.create(config);
+        kvs.dropTable(TABLE);
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        for (long ts = 1; ts <= NUM_VERSIONS; ts++) {
+            Map<Cell, byte[]> values = Maps.newHashMap();
+            for (long row = 0; row < NUM_ROWS; row++) {
+                for (long col = 0; col < NUM_COLS; col++) {
+                    values.put(Cell.create(Longs.toByteArray(row), Longs.toByteArray(col)), new byte[VALUE_SIZE]);
+                }
+                if (values.size() >= 1000) {
+                    kvs.put(TABLE, values, ts);
+                    values.clear();
+                }
+            }
+            kvs.put(TABLE, values, ts);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        kvs.dropTable(TABLE);
+        kvs.close();
+    }
+
+    @Benchmark
+    public int scanRange() {
+        int cells = 0;
+        try (ClosableIterator<RowResult<Value>> iter = kvs.getRange(TABLE, RangeRequest.all(), Long.MAX_VALUE)) {
+            while (iter.hasNext()) {
+                cells += iter.next().getColumns().size();
+            }
+        }
+        return cells;
+    }
+}
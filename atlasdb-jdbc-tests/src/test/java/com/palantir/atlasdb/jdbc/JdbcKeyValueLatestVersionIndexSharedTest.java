@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.jdbc;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.jdbc.JdbcKeyValueService;
+
+/**
+ * Runs the shared key value service tests with the latest version index enabled for the test
+ * tables.
+ */
+public class JdbcKeyValueLatestVersionIndexSharedTest extends JdbcKeyValueSharedTest {
+    @Override
+    protected JdbcKeyValueService createKvs() {
+        return JdbcTests.createEmptyKvs(0, ImmutableSet.of(TEST_TABLE, "AnotherTable"));
+    }
+
+    @Test
+    public void testDeletingLatestVersionFallsBackToPreviousVersion() {
+        Cell cell = Cell.create(row0, column0);
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(cell, value00), TEST_TIMESTAMP);
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(cell, value01), TEST_TIMESTAMP + 1);
+        keyValueService.delete(TEST_TABLE, ImmutableMultimap.of(cell, TEST_TIMESTAMP + 1));
+
+        Value expected = Value.create(value00, TEST_TIMESTAMP);
+        assertEquals(expected, keyValueService.get(TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+        assertEquals(expected, keyValueService.getRows(
+                TEST_TABLE, ImmutableSet.of(row0), ColumnSelection.all(), Long.MAX_VALUE).get(cell));
+        assertEquals(TEST_TIMESTAMP, (long) keyValueService.getLatestTimestamps(
+                TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+    }
+
+    @Test
+    public void testOlderPutDoesNotLowerLatestVersion() {
+        Cell cell = Cell.create(row0, column0);
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(cell, value01), TEST_TIMESTAMP + 1);
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(cell, value00), TEST_TIMESTAMP);
+
+        assertEquals(Value.create(value01, TEST_TIMESTAMP + 1),
+                keyValueService.get(TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+        assertEquals(Value.create(value00, TEST_TIMESTAMP),
+                keyValueService.get(TEST_TABLE, ImmutableMap.of(cell, TEST_TIMESTAMP + 1)).get(cell));
+    }
+
+    @Test
+    public void testPutBehindUnindexedVersionStaysVisibleAfterRollback() {
+        Cell cell = Cell.create(row0, column0);
+        // A client which does not maintain the index stands in for a later put which wrote its
+        // version but never got to update the index.
+        JdbcKeyValueService unindexed = JdbcTests.createKvs(0, ImmutableSet.<String>of());
+        try {
+            unindexed.put(TEST_TABLE, ImmutableMap.of(cell, value01), TEST_TIMESTAMP + 1);
+        } finally {
+            unindexed.close();
+        }
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(cell, value00), TEST_TIMESTAMP);
+        assertEquals(Value.create(value01, TEST_TIMESTAMP + 1),
+                keyValueService.get(TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+
+        // Rolling back the later put deletes its version.
+        keyValueService.delete(TEST_TABLE, ImmutableMultimap.of(cell, TEST_TIMESTAMP + 1));
+
+        Value expected = Value.create(value00, TEST_TIMESTAMP);
+        assertEquals(expected, keyValueService.get(TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+        assertEquals(expected, keyValueService.getRows(
+                TEST_TABLE, ImmutableSet.of(row0), ColumnSelection.all(), Long.MAX_VALUE).get(cell));
+        assertEquals(TEST_TIMESTAMP, (long) keyValueService.getLatestTimestamps(
+                TEST_TABLE, ImmutableMap.of(cell, Long.MAX_VALUE)).get(cell));
+    }
+}
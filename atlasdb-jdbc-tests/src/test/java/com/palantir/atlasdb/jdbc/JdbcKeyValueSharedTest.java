@@ -27,10 +27,14 @@ public class JdbcKeyValueSharedTest extends AbstractAtlasDbKeyValueServiceTest {
 
     @Override
     public void setUp() throws Exception {
-        db = JdbcTests.createEmptyKvs();
+        db = createKvs();
         super.setUp();
     }
 
+    protected JdbcKeyValueService createKvs() {
+        return JdbcTests.createEmptyKvs();
+    }
+
     @Override
     protected boolean reverseRangesSupported() {
         return true;
@@ -17,7 +17,9 @@ package com.palantir.atlasdb.jdbc;
 
 import java.io.File;
 import java.util.Properties;
+import java.util.Set;
 
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.jdbc.config.ImmutableHikariDataSourceConfiguration;
 import com.palantir.atlasdb.keyvalue.jdbc.ImmutableJdbcKeyValueConfiguration;
 import com.palantir.atlasdb.keyvalue.jdbc.JdbcKeyValueConfiguration;
@@ -30,11 +32,26 @@ public class JdbcTests {
     }
 
     public static JdbcKeyValueService createEmptyKvs() {
+        return createEmptyKvs(0);
+    }
+
+    public static JdbcKeyValueService createEmptyKvs(int rangeCursorFetchSize) {
+        return createEmptyKvs(rangeCursorFetchSize, ImmutableSet.<String>of());
+    }
+
+    public static JdbcKeyValueService createEmptyKvs(int rangeCursorFetchSize, Set<String> latestVersionIndexTables) {
         for (File file : new File("var/data").listFiles()) {
             if (file.getName().endsWith(".db")) {
                 file.delete();
             }
         }
+        return createKvs(rangeCursorFetchSize, latestVersionIndexTables);
+    }
+
+    /**
+     * Opens the test database without clearing it first.
+     */
+    public static JdbcKeyValueService createKvs(int rangeCursorFetchSize, Set<String> latestVersionIndexTables) {
         Properties properties = new Properties();
         properties.put("jdbcUrl", "jdbc:h2:./var/data/h2testDb");
         properties.put("username", "sa");
@@ -43,6 +60,8 @@ public class JdbcTests {
                         .sqlDialect("H2")
                         .properties(properties)
                         .build())
+                .rangeCursorFetchSize(rangeCursorFetchSize)
+                .latestVersionIndexTables(latestVersionIndexTables)
                 .build();
         return JdbcKeyValueService.create(config);
     }
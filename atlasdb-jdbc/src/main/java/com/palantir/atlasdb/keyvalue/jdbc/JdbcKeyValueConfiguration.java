@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.keyvalue.jdbc;
 
+import java.util.Set;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -45,6 +47,42 @@ public abstract class JdbcKeyValueConfiguration implements KeyValueServiceConfig
 
     public abstract JdbcDataSourceConfiguration getDataSourceConfig();
 
+    /**
+     * How many pages of a range scan to fetch in the background while the current page is
+     * being consumed. Zero, the default, fetches each page only once it is needed.
+     */
+    @Value.Default
+    public int getRangeReadAheadPages() {
+        return 0;
+    }
+
+    /**
+     * Read-ahead for a single range scan pauses once the pages waiting to be consumed hold
+     * roughly this many bytes.
+     */
+    @Value.Default
+    public long getRangeReadAheadBytes() {
+        return 16 * 1024 * 1024;
+    }
+
+    /**
+     * If positive, range scans read the whole range through a single server side cursor that
+     * fetches this many records at a time, rather than re-running a query for every page.
+     * The scan holds a connection until its iterator is exhausted or closed, and page
+     * read-ahead does not apply.
+     */
+    @Value.Default
+    public int getRangeCursorFetchSize() {
+        return 0;
+    }
+
+    /**
+     * Tables that keep a side table with the latest version of each cell, so that reads at
+     * recent timestamps are a single indexed lookup.  Writes to these tables do extra work to
+     * maintain the index.  Every client of the database must use the same set of tables.
+     */
+    public abstract Set<String> getLatestVersionIndexTables();
+
     @Value.Check
     void check() {
         if (getTablePrefix().length() > MAX_TABLE_PREFIX_LENGTH) {
@@ -53,5 +91,11 @@ public abstract class JdbcKeyValueConfiguration implements KeyValueServiceConfig
         if (!getTablePrefix().matches("[A-Za-z0-9_]*")) {
             throw new IllegalArgumentException("The table prefix can only contain letters, numbers, and underscores.");
         }
+        if (getRangeReadAheadPages() < 0) {
+            throw new IllegalArgumentException("The range read-ahead page count cannot be negative.");
+        }
+        if (getRangeCursorFetchSize() < 0) {
+            throw new IllegalArgumentException("The range cursor fetch size cannot be negative.");
+        }
     }
 }
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.jdbc;
 
 import static org.jooq.Clause.TABLE_VALUES;
 import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.param;
 import static org.jooq.impl.DSL.row;
 import static org.jooq.impl.DSL.table;
 import static org.jooq.impl.SQLDataType.BIGINT;
@@ -48,11 +49,17 @@ import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.TEMP_TABLE_1
 import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.TEMP_TABLE_2;
 import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.TIMESTAMP;
 import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.VALUE;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.ResultSetRowIterator.COL_NAME_INDEX;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.ResultSetRowIterator.ROW_NAME_INDEX;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.ResultSetRowIterator.TIMESTAMP_INDEX;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.ResultSetRowIterator.VALUE_INDEX;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
@@ -61,6 +68,7 @@ import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
 
 import javax.sql.DataSource;
 
@@ -68,7 +76,9 @@ import org.jooq.BatchBindStep;
 import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStep4;
+import org.jooq.Param;
 import org.jooq.Query;
 import org.jooq.Record;
 import org.jooq.Record1;
@@ -80,7 +90,6 @@ import org.jooq.RowN;
 import org.jooq.SQLDialect;
 import org.jooq.Select;
 import org.jooq.SelectField;
-import org.jooq.SelectOffsetStep;
 import org.jooq.Table;
 import org.jooq.TableLike;
 import org.jooq.TransactionalCallable;
@@ -90,7 +99,9 @@ import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
@@ -116,31 +127,62 @@ import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
+import com.palantir.atlasdb.keyvalue.impl.RowResults;
 import com.palantir.atlasdb.keyvalue.jdbc.impl.MultiTimestampPutBatch;
+import com.palantir.atlasdb.keyvalue.jdbc.impl.PreparedSqlCache;
+import com.palantir.atlasdb.keyvalue.jdbc.impl.PreparedSqlCache.PreparedSql;
 import com.palantir.atlasdb.keyvalue.jdbc.impl.PutBatch;
+import com.palantir.atlasdb.keyvalue.jdbc.impl.ResultSetRowIterator;
 import com.palantir.atlasdb.keyvalue.jdbc.impl.SingleTimestampPutBatch;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.paging.AbstractPagingIterable;
 import com.palantir.util.paging.SimpleTokenBackedResultsPage;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public class JdbcKeyValueService implements KeyValueService {
+    // Named parameters of the cached queries.
+    private static final String TIMESTAMP_PARAM = "ts";
+    private static final String RANGE_TIMESTAMP_PARAM = "range_ts";
+    private static final String START_PARAM = "start_row";
+    private static final String END_PARAM = "end_row";
+    private static final String LIMIT_PARAM = "max_rows";
+    private static final String ROW_PARAM = "row";
+    private static final String COL_PARAM = "col";
+
     private final String tablePrefix;
     private final SQLDialect sqlDialect;
     private final DataSource dataSource;
     private final Settings settings;
+    private final int rangeReadAheadPages;
+    private final long rangeReadAheadBytes;
+    private final int rangeCursorFetchSize;
+    private final PreparedSqlCache sqlCache;
+    private final LatestVersionIndex latestVersionIndex;
+    private final ExecutorService readAheadExecutor =
+            PTExecutors.newCachedThreadPool(new NamedThreadFactory("Atlas JDBC range read-ahead", true));
 
     public final Table<Record> METADATA_TABLE;
 
     private JdbcKeyValueService(String tablePrefix,
                                 SQLDialect sqlDialect,
                                 DataSource dataSource,
-                                Settings settings) {
+                                Settings settings,
+                                int rangeReadAheadPages,
+                                long rangeReadAheadBytes,
+                                int rangeCursorFetchSize,
+                                Set<String> latestVersionIndexTables) {
         this.tablePrefix = tablePrefix;
         this.sqlDialect = sqlDialect;
         this.dataSource = dataSource;
         this.settings = settings;
+        this.rangeReadAheadPages = rangeReadAheadPages;
+        this.rangeReadAheadBytes = rangeReadAheadBytes;
+        this.rangeCursorFetchSize = rangeCursorFetchSize;
+        this.sqlCache = new PreparedSqlCache(sqlDialect, settings);
+        this.latestVersionIndex = new LatestVersionIndex(this, latestVersionIndexTables);
 
         METADATA_TABLE = table(tablePrefix + "_metadata");
     }
@@ -151,7 +193,15 @@ public class JdbcKeyValueService implements KeyValueService {
         DataSource dataSource = dataSourceConfig.createDataSource();
         Settings settings = new Settings();
         settings.setRenderNameStyle(RenderNameStyle.AS_IS);
-        final JdbcKeyValueService kvs = new JdbcKeyValueService(config.getTablePrefix(), sqlDialect, dataSource, settings);
+        final JdbcKeyValueService kvs = new JdbcKeyValueService(
+                config.getTablePrefix(),
+                sqlDialect,
+                dataSource,
+                settings,
+                config.getRangeReadAheadPages(),
+                config.getRangeReadAheadBytes(),
+                config.getRangeCursorFetchSize(),
+                config.getLatestVersionIndexTables());
 
         kvs.run(new Function<DSLContext, Void>() {
             @Override
@@ -170,6 +220,11 @@ public class JdbcKeyValueService implements KeyValueService {
                 } catch (DataAccessException e) {
                     kvs.handleTableCreationException(e);
                 }
+                for (String tableName : Sets.intersection(
+                        kvs.latestVersionIndex.getIndexedTables(),
+                        kvs.getAllTableNames(ctx))) {
+                    kvs.latestVersionIndex.createIndex(ctx, tableName);
+                }
                 return null;
             }
         });
@@ -188,65 +243,34 @@ public class JdbcKeyValueService implements KeyValueService {
     }
 
     @Override
-    public Map<Cell, Value> getRows(String tableName,
+    public Map<Cell, Value> getRows(final String tableName,
                                     Iterable<byte[]> rows,
                                     ColumnSelection columnSelection,
-                                    long timestamp) {
-        if (columnSelection.allColumnsSelected()) {
-            return getRowsAllColumns(tableName, rows, timestamp);
-        } else {
-            return getRowsSomeColumns(tableName, rows, columnSelection, timestamp);
-        }
-    }
-
-    private Map<Cell, Value> getRowsAllColumns(final String tableName,
-                                               final Iterable<byte[]> rows,
-                                               final long timestamp) {
-        if (Iterables.isEmpty(rows)) {
+                                    final long timestamp) {
+        final List<byte[]> rowList = ImmutableList.copyOf(rows);
+        if (rowList.isEmpty()) {
             return ImmutableMap.of();
         }
-        return run(new Function<DSLContext, Map<Cell, Value>>() {
-            @Override
-            public Map<Cell, Value> apply(DSLContext ctx) {
-                Select<? extends Record> query = getLatestTimestampQueryAllColumns(
-                        ctx,
-                        tableName,
-                        ImmutableList.copyOf(rows),
-                        timestamp);
-                Result<? extends Record> records = fetchValues(ctx, tableName, query);
-                Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(records.size());
-                for (Record record : records) {
-                    results.put(
-                            Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
-                            Value.create(record.getValue(A_VALUE), record.getValue(A_TIMESTAMP)));
-                }
-                return results;
-            }
-        });
-    }
-
-    private Map<Cell, Value> getRowsSomeColumns(final String tableName,
-                                                final Iterable<byte[]> rows,
-                                                final ColumnSelection columnSelection,
-                                                final long timestamp) {
-        if (Iterables.isEmpty(rows)) {
-            return ImmutableMap.of();
+        if (latestVersionIndex.isIndexed(tableName)) {
+            return getRowsFromIndex(tableName, rowList, columnSelection, timestamp);
         }
-        return run(new Function<DSLContext, Map<Cell, Value>>() {
+        final List<byte[]> cols = columnSelection.allColumnsSelected()
+                ? ImmutableList.<byte[]>of()
+                : ImmutableList.copyOf(columnSelection.getSelectedColumns());
+        int numRows = PreparedSqlCache.paddedSize(rowList.size());
+        int numCols = cols.isEmpty() ? 0 : PreparedSqlCache.paddedSize(cols.size());
+        Map<String, Object> bindValues = Maps.newHashMap();
+        bindValues.put(TIMESTAMP_PARAM, timestamp);
+        bindList(bindValues, ROW_PARAM, rowList, numRows);
+        bindList(bindValues, COL_PARAM, cols, numCols);
+        return runQuery(getRowsSql(tableName, numRows, numCols), bindValues, new ResultSetReader<Map<Cell, Value>>() {
             @Override
-            public Map<Cell, Value> apply(DSLContext ctx) {
-                Select<? extends Record> query = getLatestTimestampQuerySomeColumns(
-                        ctx,
-                        tableName,
-                        ImmutableList.copyOf(rows),
-                        columnSelection.getSelectedColumns(),
-                        timestamp);
-                Result<? extends Record> records = fetchValues(ctx, tableName, query);
-                Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(records.size());
-                for (Record record : records) {
+            public Map<Cell, Value> read(ResultSet resultSet) throws SQLException {
+                Map<Cell, Value> results = Maps.newHashMap();
+                while (resultSet.next()) {
                     results.put(
-                            Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
-                            Value.create(record.getValue(A_VALUE), record.getValue(A_TIMESTAMP)));
+                            Cell.create(resultSet.getBytes(ROW_NAME_INDEX), resultSet.getBytes(COL_NAME_INDEX)),
+                            Value.create(resultSet.getBytes(VALUE_INDEX), resultSet.getLong(TIMESTAMP_INDEX)));
                 }
                 return results;
             }
@@ -262,22 +286,43 @@ public class JdbcKeyValueService implements KeyValueService {
         return run(new Function<DSLContext, Map<Cell, Value>>() {
             @Override
             public Map<Cell, Value> apply(DSLContext ctx) {
-                Select<? extends Record> query = getLatestTimestampQueryManyTimestamps(
-                        ctx,
-                        tableName,
-                        toRows(timestampByCell));
-                Result<? extends Record> records = fetchValues(ctx, tableName, query);
-                Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(records.size());
-                for (Record record : records) {
-                    results.put(
-                            Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
-                            Value.create(record.getValue(A_VALUE), record.getValue(A_TIMESTAMP)));
+                if (!latestVersionIndex.isIndexed(tableName)) {
+                    return getFromVersions(ctx, tableName, timestampByCell);
+                }
+                Map<Cell, Value> latest = latestVersionIndex.getLatest(ctx, tableName, timestampByCell.keySet());
+                Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(latest.size());
+                Map<Cell, Long> oldReads = Maps.newHashMap();
+                for (Entry<Cell, Value> entry : latest.entrySet()) {
+                    long readTimestamp = timestampByCell.get(entry.getKey());
+                    if (entry.getValue().getTimestamp() < readTimestamp) {
+                        results.put(entry.getKey(), entry.getValue());
+                    } else {
+                        oldReads.put(entry.getKey(), readTimestamp);
+                    }
+                }
+                if (!oldReads.isEmpty()) {
+                    results.putAll(getFromVersions(ctx, tableName, oldReads));
                 }
                 return results;
             }
         });
     }
 
+    private Map<Cell, Value> getFromVersions(DSLContext ctx, String tableName, Map<Cell, Long> timestampByCell) {
+        Select<? extends Record> query = getLatestTimestampQueryManyTimestamps(
+                ctx,
+                tableName,
+                toRows(timestampByCell));
+        Result<? extends Record> records = fetchValues(ctx, tableName, query);
+        Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(records.size());
+        for (Record record : records) {
+            results.put(
+                    Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
+                    Value.create(record.getValue(A_VALUE), record.getValue(A_TIMESTAMP)));
+        }
+        return results;
+    }
+
     @Override
     public Map<Cell, Long> getLatestTimestamps(final String tableName,
                                                final Map<Cell, Long> timestampByCell) {
@@ -287,22 +332,45 @@ public class JdbcKeyValueService implements KeyValueService {
         return run(new Function<DSLContext, Map<Cell, Long>>() {
             @Override
             public Map<Cell, Long> apply(DSLContext ctx) {
-                Select<? extends Record> query = getLatestTimestampQueryManyTimestamps(
-                        ctx,
-                        tableName,
-                        toRows(timestampByCell));
-                Result<? extends Record> records = query.fetch();
-                Map<Cell, Long> results = Maps.newHashMapWithExpectedSize(records.size());
-                for (Record record : records) {
-                    results.put(
-                            Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
-                            record.getValue(MAX_TIMESTAMP, Long.class));
+                if (!latestVersionIndex.isIndexed(tableName)) {
+                    return getLatestTimestampsFromVersions(ctx, tableName, timestampByCell);
+                }
+                Map<Cell, Long> latest = latestVersionIndex.getLatestTimestamps(ctx, tableName, timestampByCell.keySet());
+                Map<Cell, Long> results = Maps.newHashMapWithExpectedSize(latest.size());
+                Map<Cell, Long> oldReads = Maps.newHashMap();
+                for (Entry<Cell, Long> entry : latest.entrySet()) {
+                    long readTimestamp = timestampByCell.get(entry.getKey());
+                    if (entry.getValue() < readTimestamp) {
+                        results.put(entry.getKey(), entry.getValue());
+                    } else {
+                        oldReads.put(entry.getKey(), readTimestamp);
+                    }
+                }
+                if (!oldReads.isEmpty()) {
+                    results.putAll(getLatestTimestampsFromVersions(ctx, tableName, oldReads));
                 }
                 return results;
             }
         });
     }
 
+    private Map<Cell, Long> getLatestTimestampsFromVersions(DSLContext ctx,
+                                                            String tableName,
+                                                            Map<Cell, Long> timestampByCell) {
+        Select<? extends Record> query = getLatestTimestampQueryManyTimestamps(
+                ctx,
+                tableName,
+                toRows(timestampByCell));
+        Result<? extends Record> records = query.fetch();
+        Map<Cell, Long> results = Maps.newHashMapWithExpectedSize(records.size());
+        for (Record record : records) {
+            results.put(
+                    Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
+                    record.getValue(MAX_TIMESTAMP, Long.class));
+        }
+        return results;
+    }
+
     @Override
     public Multimap<Cell, Long> getAllTimestamps(final String tableName,
                                                  final Set<Cell> cells,
@@ -350,74 +418,174 @@ public class JdbcKeyValueService implements KeyValueService {
         return rows;
     }
 
-    private Select<? extends Record> getLatestTimestampQueryAllColumns(DSLContext ctx,
-                                                                       String tableName,
-                                                                       Collection<byte[]> rows,
-                                                                       long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
-                .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(rows)
-                        .and(A_TIMESTAMP.lessThan(timestamp)))
-                .groupBy(A_ROW_NAME, A_COL_NAME);
+    private Map<Cell, Value> getRowsFromIndex(final String tableName,
+                                              final List<byte[]> rows,
+                                              final ColumnSelection columnSelection,
+                                              final long timestamp) {
+        return run(new Function<DSLContext, Map<Cell, Value>>() {
+            @Override
+            public Map<Cell, Value> apply(DSLContext ctx) {
+                Map<Cell, Value> latest = latestVersionIndex.getLatestForRows(ctx, tableName, rows, columnSelection);
+                Map<Cell, Value> results = Maps.newHashMapWithExpectedSize(latest.size());
+                Map<Cell, Long> oldReads = Maps.newHashMap();
+                for (Entry<Cell, Value> entry : latest.entrySet()) {
+                    if (entry.getValue().getTimestamp() < timestamp) {
+                        results.put(entry.getKey(), entry.getValue());
+                    } else {
+                        oldReads.put(entry.getKey(), timestamp);
+                    }
+                }
+                if (!oldReads.isEmpty()) {
+                    results.putAll(getFromVersions(ctx, tableName, oldReads));
+                }
+                return results;
+            }
+        });
     }
 
-    private Select<? extends Record> getLatestTimestampQueryAllColumnsSubQuery(DSLContext ctx,
-                                                                               String tableName,
-                                                                               Select<Record1<byte[]>> subQuery,
-                                                                               long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
-                .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(subQuery)
-                        .and(A_TIMESTAMP.lessThan(timestamp)))
-                .groupBy(A_ROW_NAME, A_COL_NAME);
+    /**
+     * The latest values before a timestamp of the given rows, restricted to the given columns
+     * unless {@code numCols} is zero.
+     */
+    private PreparedSql getRowsSql(final String tableName, final int numRows, final int numCols) {
+        return sqlCache.get(ImmutableList.of("getRows", tableName, numRows, numCols), new Supplier<Query>() {
+            @Override
+            public Query get() {
+                DSLContext ctx = sqlCache.renderer();
+                Condition cond = A_ROW_NAME.in(params(ROW_PARAM, numRows))
+                        .and(A_TIMESTAMP.lessThan(param(TIMESTAMP_PARAM, Long.class)));
+                if (numCols > 0) {
+                    cond = cond.and(A_COL_NAME.in(params(COL_PARAM, numCols)));
+                }
+                return valuesQuery(ctx, tableName, latestTimestampQuery(ctx, tableName, cond));
+            }
+        });
     }
 
-    private Select<? extends Record> getLatestTimestampQuerySomeColumnsSubQuery(DSLContext ctx,
-                                                                                String tableName,
-                                                                                Select<Record1<byte[]>> subQuery,
-                                                                                Collection<byte[]> cols,
-                                                                                long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
-                .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(subQuery)
-                        .and(A_COL_NAME.in(cols)))
-                        .and(A_TIMESTAMP.lessThan(timestamp))
-                .groupBy(A_ROW_NAME, A_COL_NAME);
+    /**
+     * One page of a range: the latest values, or every timestamp, before a timestamp of the
+     * first {@link #LIMIT_PARAM} rows of the range.
+     */
+    private PreparedSql getRangePageSql(final String tableName,
+                                        final RangeRequest rangeRequest,
+                                        final boolean withValues) {
+        final boolean reverse = rangeRequest.isReverse();
+        final boolean hasStart = rangeRequest.getStartInclusive().length > 0;
+        final boolean hasEnd = rangeRequest.getEndExclusive().length > 0;
+        final int numCols = numCols(rangeRequest);
+        List<?> key = ImmutableList.of("rangePage", tableName, withValues, reverse, hasStart, hasEnd, numCols);
+        return sqlCache.get(key, new Supplier<Query>() {
+            @Override
+            public Query get() {
+                DSLContext ctx = sqlCache.renderer();
+                Select<Record1<byte[]>> rangeQuery = ctx.selectDistinct(R_ROW_NAME)
+                        .from(atlasTable(tableName).as(RANGE_TABLE))
+                        .where(rangeCondition(R_ROW_NAME, R_TIMESTAMP, RANGE_TIMESTAMP_PARAM, reverse, hasStart, hasEnd))
+                        .orderBy(reverse ? R_ROW_NAME.desc() : R_ROW_NAME.asc())
+                        .limit(param(LIMIT_PARAM, Integer.class));
+                Condition cond = A_ROW_NAME.in(rangeQuery)
+                        .and(A_TIMESTAMP.lessThan(param(TIMESTAMP_PARAM, Long.class)));
+                if (numCols > 0) {
+                    cond = cond.and(A_COL_NAME.in(params(COL_PARAM, numCols)));
+                }
+                if (withValues) {
+                    return valuesQuery(ctx, tableName, latestTimestampQuery(ctx, tableName, cond));
+                }
+                return ctx.select(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP)
+                        .from(atlasTable(tableName).as(ATLAS_TABLE))
+                        .where(cond);
+            }
+        });
     }
 
-    private Select<? extends Record> getLatestTimestampQuerySomeColumns(DSLContext ctx,
-                                                                        String tableName,
-                                                                        Collection<byte[]> rows,
-                                                                        Collection<byte[]> cols,
-                                                                        long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
-                .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(rows)
-                        .and(A_COL_NAME.in(cols)))
-                        .and(A_TIMESTAMP.lessThan(timestamp))
-                .groupBy(A_ROW_NAME, A_COL_NAME);
+    /**
+     * A whole range as a single query ordered for {@link ResultSetRowIterator}, returning every
+     * version before a timestamp so that no aggregate has to be computed before the first row
+     * can be streamed.
+     */
+    private PreparedSql getRangeScanSql(final String tableName,
+                                        final RangeRequest rangeRequest,
+                                        final boolean withValues) {
+        final boolean reverse = rangeRequest.isReverse();
+        final boolean hasStart = rangeRequest.getStartInclusive().length > 0;
+        final boolean hasEnd = rangeRequest.getEndExclusive().length > 0;
+        final int numCols = numCols(rangeRequest);
+        List<?> key = ImmutableList.of("rangeScan", tableName, withValues, reverse, hasStart, hasEnd, numCols);
+        return sqlCache.get(key, new Supplier<Query>() {
+            @Override
+            public Query get() {
+                DSLContext ctx = sqlCache.renderer();
+                Condition cond = rangeCondition(A_ROW_NAME, A_TIMESTAMP, TIMESTAMP_PARAM, reverse, hasStart, hasEnd);
+                if (numCols > 0) {
+                    cond = cond.and(A_COL_NAME.in(params(COL_PARAM, numCols)));
+                }
+                List<Field<?>> fields = Lists.<Field<?>>newArrayList(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP);
+                if (withValues) {
+                    fields.add(A_VALUE);
+                }
+                return ctx.select(fields)
+                        .from(atlasTable(tableName).as(ATLAS_TABLE))
+                        .where(cond)
+                        .orderBy(reverse ? A_ROW_NAME.desc() : A_ROW_NAME.asc(), A_COL_NAME.asc(), A_TIMESTAMP.desc());
+            }
+        });
     }
 
-    private Select<? extends Record> getAllTimestampsQueryAllColumns(DSLContext ctx,
-                                                                     String tableName,
-                                                                     Select<Record1<byte[]>> subQuery,
-                                                                     long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP)
-                .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(subQuery)
-                        .and(A_TIMESTAMP.lessThan(timestamp)));
+    private static Condition rangeCondition(Field<byte[]> rowName,
+                                            Field<Long> timestamp,
+                                            String timestampParam,
+                                            boolean reverse,
+                                            boolean hasStart,
+                                            boolean hasEnd) {
+        Condition cond = timestamp.lessThan(param(timestampParam, Long.class));
+        if (hasStart) {
+            Param<byte[]> start = param(START_PARAM, byte[].class);
+            cond = cond.and(reverse ? rowName.lessOrEqual(start) : rowName.greaterOrEqual(start));
+        }
+        if (hasEnd) {
+            Param<byte[]> end = param(END_PARAM, byte[].class);
+            cond = cond.and(reverse ? rowName.greaterThan(end) : rowName.lessThan(end));
+        }
+        return cond;
+    }
+
+    private static int numCols(RangeRequest rangeRequest) {
+        Collection<byte[]> cols = rangeRequest.getColumnNames();
+        return cols.isEmpty() ? 0 : PreparedSqlCache.paddedSize(cols.size());
+    }
+
+    private static Map<String, Object> bindRange(RangeRequest rangeRequest, long timestamp) {
+        Map<String, Object> bindValues = Maps.newHashMap();
+        bindValues.put(TIMESTAMP_PARAM, timestamp);
+        bindValues.put(RANGE_TIMESTAMP_PARAM, timestamp);
+        bindValues.put(START_PARAM, rangeRequest.getStartInclusive());
+        bindValues.put(END_PARAM, rangeRequest.getEndExclusive());
+        bindList(bindValues, COL_PARAM, ImmutableList.copyOf(rangeRequest.getColumnNames()), numCols(rangeRequest));
+        return bindValues;
+    }
+
+    private static List<Param<byte[]>> params(String prefix, int count) {
+        List<Param<byte[]>> params = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            params.add(param(prefix + i, byte[].class));
+        }
+        return params;
+    }
+
+    /**
+     * Binds the values of a padded IN list, repeating the last value to fill the padding.
+     */
+    private static void bindList(Map<String, Object> bindValues, String prefix, List<byte[]> values, int paddedSize) {
+        for (int i = 0; i < paddedSize; i++) {
+            bindValues.put(prefix + i, values.get(Math.min(i, values.size() - 1)));
+        }
     }
 
-    private Select<? extends Record> getAllTimestampsQuerySomeColumns(DSLContext ctx,
-                                                                      String tableName,
-                                                                      Select<Record1<byte[]>> subQuery,
-                                                                      Collection<byte[]> cols,
-                                                                      long timestamp) {
-        return ctx.select(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP)
+    private Select<? extends Record> latestTimestampQuery(DSLContext ctx, String tableName, Condition cond) {
+        return ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
                 .from(atlasTable(tableName).as(ATLAS_TABLE))
-                .where(A_ROW_NAME.in(subQuery)
-                        .and(A_COL_NAME.in(cols)))
-                        .and(A_TIMESTAMP.lessThan(timestamp));
+                .where(cond)
+                .groupBy(A_ROW_NAME, A_COL_NAME);
     }
 
     private Select<? extends Record> getLatestTimestampQueryManyTimestamps(DSLContext ctx,
@@ -435,13 +603,18 @@ public class JdbcKeyValueService implements KeyValueService {
     private Result<? extends Record> fetchValues(DSLContext ctx,
                                                  String tableName,
                                                  Select<? extends Record> subQuery) {
+        return valuesQuery(ctx, tableName, subQuery).fetch();
+    }
+
+    private Select<? extends Record> valuesQuery(DSLContext ctx,
+                                                 String tableName,
+                                                 Select<? extends Record> subQuery) {
         return ctx.select(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP, A_VALUE)
                 .from(atlasTable(tableName).as(ATLAS_TABLE))
                 .join(subQuery.asTable(TEMP_TABLE_2))
                 .on(A_ROW_NAME.eq(T2_ROW_NAME)
                         .and(A_COL_NAME.eq(T2_COL_NAME))
-                        .and(A_TIMESTAMP.eq(T2_MAX_TIMESTAMP)))
-                .fetch();
+                        .and(A_TIMESTAMP.eq(T2_MAX_TIMESTAMP)));
     }
 
     @Override
@@ -455,6 +628,9 @@ public class JdbcKeyValueService implements KeyValueService {
             @Override
             public Void apply(DSLContext ctx) {
                 putBatch(ctx, tableName, new SingleTimestampPutBatch(values, timestamp), true);
+                if (latestVersionIndex.isIndexed(tableName)) {
+                    latestVersionIndex.put(ctx, tableName, values, timestamp);
+                }
                 return null;
             }
         });
@@ -471,6 +647,9 @@ public class JdbcKeyValueService implements KeyValueService {
                     Map<Cell, byte[]> values = entry.getValue();
                     if (!values.isEmpty()) {
                         putBatch(ctx, tableName, new SingleTimestampPutBatch(values, timestamp), true);
+                        if (latestVersionIndex.isIndexed(tableName)) {
+                            latestVersionIndex.put(ctx, tableName, values, timestamp);
+                        }
                     }
                 }
                 return null;
@@ -488,6 +667,9 @@ public class JdbcKeyValueService implements KeyValueService {
             @Override
             public Void apply(DSLContext ctx) {
                 putBatch(ctx, tableName, new MultiTimestampPutBatch(values), true);
+                if (latestVersionIndex.isIndexed(tableName)) {
+                    latestVersionIndex.put(ctx, tableName, values);
+                }
                 return null;
             }
         });
@@ -503,18 +685,21 @@ public class JdbcKeyValueService implements KeyValueService {
             @Override
             public Void apply(DSLContext ctx) {
                 putBatch(ctx, tableName, new SingleTimestampPutBatch(values, 0L), false);
+                if (latestVersionIndex.isIndexed(tableName)) {
+                    latestVersionIndex.put(ctx, tableName, values, 0L);
+                }
                 return null;
             }
         });
     }
 
     @Override
-    public void addGarbageCollectionSentinelValues(final String tableName, Set<Cell> cells) {
+    public void addGarbageCollectionSentinelValues(final String tableName, final Set<Cell> cells) {
         if (cells.isEmpty()) {
             return;
         }
-        Long timestamp = Value.INVALID_VALUE_TIMESTAMP;
-        byte[] value = new byte[0];
+        final Long timestamp = Value.INVALID_VALUE_TIMESTAMP;
+        final byte[] value = new byte[0];
         final RowN[] rows = new RowN[cells.size()];
         int i = 0;
         for (Cell cell : cells) {
@@ -536,6 +721,9 @@ public class JdbcKeyValueService implements KeyValueService {
                                         .and(A_COL_NAME.eq(T1_COL_NAME))
                                         .and(A_TIMESTAMP.eq(T1_TIMESTAMP)))))
                 .execute();
+                if (latestVersionIndex.isIndexed(tableName)) {
+                    latestVersionIndex.put(ctx, tableName, Maps.asMap(cells, Functions.constant(value)), timestamp);
+                }
                 return null;
             }
         });
@@ -607,7 +795,7 @@ public class JdbcKeyValueService implements KeyValueService {
         if (keys.isEmpty()) {
             return;
         }
-        run(new Function<DSLContext, Void>() {
+        Function<DSLContext, Void> delete = new Function<DSLContext, Void>() {
             @Override
             public Void apply(DSLContext ctx) {
                 Collection<Row3<byte[], byte[], Long>> rows = Lists.newArrayListWithCapacity(keys.size());
@@ -617,9 +805,17 @@ public class JdbcKeyValueService implements KeyValueService {
                 ctx.deleteFrom(atlasTable(tableName).as(ATLAS_TABLE))
                     .where(row(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP).in(rows))
                     .execute();
+                if (latestVersionIndex.isIndexed(tableName)) {
+                    latestVersionIndex.delete(ctx, tableName, keys);
+                }
                 return null;
             }
-        });
+        };
+        if (latestVersionIndex.isIndexed(tableName)) {
+            runInTransaction(delete);
+        } else {
+            run(delete);
+        }
     }
 
     @Override
@@ -637,6 +833,9 @@ public class JdbcKeyValueService implements KeyValueService {
             public Void apply(DSLContext ctx) {
                 for (String tableName : tableNames) {
                     ctx.truncate(tableName(tableName)).execute();
+                    if (latestVersionIndex.isIndexed(tableName)) {
+                        latestVersionIndex.truncateIndex(ctx, tableName);
+                    }
                 }
                 return null;
             }
@@ -647,7 +846,10 @@ public class JdbcKeyValueService implements KeyValueService {
     public ClosableIterator<RowResult<Value>> getRange(final String tableName,
                                                        final RangeRequest rangeRequest,
                                                        final long timestamp) {
-        Iterable<RowResult<Value>> iter = new AbstractPagingIterable<RowResult<Value>, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+        if (rangeCursorFetchSize > 0) {
+            return scanRange(tableName, rangeRequest, timestamp, true, VALUE_ITERATOR_FACTORY);
+        }
+        AbstractPagingIterable<RowResult<Value>, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> iter = new AbstractPagingIterable<RowResult<Value>, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
             @Override
             protected TokenBackedBasicResultsPage<RowResult<Value>, byte[]> getFirstPage() {
                 return getPageWithValues(tableName, rangeRequest, timestamp);
@@ -660,7 +862,7 @@ public class JdbcKeyValueService implements KeyValueService {
                 return getPageWithValues(tableName, newRange, timestamp);
             }
         };
-        return ClosableIterators.wrap(iter.iterator());
+        return readAhead(iter);
     }
 
     @Override
@@ -674,7 +876,10 @@ public class JdbcKeyValueService implements KeyValueService {
     public ClosableIterator<RowResult<Set<Long>>> getRangeOfTimestamps(final String tableName,
                                                                        final RangeRequest rangeRequest,
                                                                        final long timestamp) {
-        Iterable<RowResult<Set<Long>>> iter = new AbstractPagingIterable<RowResult<Set<Long>>, TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]>>() {
+        if (rangeCursorFetchSize > 0) {
+            return scanRange(tableName, rangeRequest, timestamp, false, TIMESTAMP_ITERATOR_FACTORY);
+        }
+        AbstractPagingIterable<RowResult<Set<Long>>, TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]>> iter = new AbstractPagingIterable<RowResult<Set<Long>>, TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]>>() {
             @Override
             protected TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]> getFirstPage() {
                 return getPageWithTimestamps(tableName, rangeRequest, timestamp);
@@ -687,7 +892,18 @@ public class JdbcKeyValueService implements KeyValueService {
                 return getPageWithTimestamps(tableName, newRange, timestamp);
             }
         };
-        return ClosableIterators.wrap(iter.iterator());
+        return readAhead(iter);
+    }
+
+    private <T> ClosableIterator<RowResult<T>> readAhead(AbstractPagingIterable<RowResult<T>, ?> pages) {
+        if (rangeReadAheadPages > 0) {
+            return pages.readAheadIterator(
+                    readAheadExecutor,
+                    rangeReadAheadPages,
+                    rangeReadAheadBytes,
+                    RowResults.getApproximateSizeOfKvsRowResultFunction());
+        }
+        return ClosableIterators.wrap(pages.iterator());
     }
 
     @Override
@@ -697,101 +913,58 @@ public class JdbcKeyValueService implements KeyValueService {
         return KeyValueServices.getFirstBatchForRangesUsingGetRange(this, tableName, rangeRequests, timestamp);
     }
 
-    private TokenBackedBasicResultsPage<RowResult<Value>, byte[]> getPageWithValues(final String tableName,
+    private TokenBackedBasicResultsPage<RowResult<Value>, byte[]> getPageWithValues(String tableName,
                                                                                     final RangeRequest rangeRequest,
-                                                                                    final long timestamp) {
-        return run(new Function<DSLContext, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
+                                                                                    long timestamp) {
+        final int maxRows = rangeRequest.getBatchHint() == null ? 100 : (int) (1.1 * rangeRequest.getBatchHint());
+        Map<String, Object> bindValues = bindRange(rangeRequest, timestamp);
+        bindValues.put(LIMIT_PARAM, maxRows);
+        PreparedSql sql = getRangePageSql(tableName, rangeRequest, true);
+        return runQuery(sql, bindValues, new ResultSetReader<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>>() {
             @Override
-            public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> apply(DSLContext ctx) {
-                int maxRows = rangeRequest.getBatchHint() == null ? 100 : (int) (1.1 * rangeRequest.getBatchHint());
-                Select<Record1<byte[]>> rangeQuery = getRangeQuery(ctx, tableName, rangeRequest, timestamp, maxRows);
-                Select<? extends Record> query;
-                if (rangeRequest.getColumnNames().isEmpty()) {
-                    query = getLatestTimestampQueryAllColumnsSubQuery(ctx, tableName, rangeQuery, timestamp);
-                } else {
-                    query = getLatestTimestampQuerySomeColumnsSubQuery(ctx, tableName, rangeQuery, rangeRequest.getColumnNames(), timestamp);
-                }
-                Result<? extends Record> records = fetchValues(ctx, tableName, query);
-                if (records.isEmpty()) {
-                    return SimpleTokenBackedResultsPage.create(null, ImmutableList.<RowResult<Value>>of(), false);
-                }
-                NavigableMap<byte[], SortedMap<byte[], Value>> valuesByRow = breakUpValuesByRow(records);
-                if (rangeRequest.isReverse()) {
-                    valuesByRow = valuesByRow.descendingMap();
-                }
-                List<RowResult<Value>> finalResults = Lists.newArrayListWithCapacity(valuesByRow.size());
-                for (Entry<byte[], SortedMap<byte[], Value>> entry : valuesByRow.entrySet()) {
-                    finalResults.add(RowResult.create(entry.getKey(), entry.getValue()));
-                }
-                byte[] nextRow = null;
-                boolean mayHaveMoreResults = false;
-                byte[] lastRow = Iterables.getLast(finalResults).getRowName();
-                if (!RangeRequests.isTerminalRow(rangeRequest.isReverse(), lastRow)) {
-                    nextRow = RangeRequests.getNextStartRow(rangeRequest.isReverse(), lastRow);
-                    mayHaveMoreResults = finalResults.size() == maxRows;
-                }
-                return SimpleTokenBackedResultsPage.create(nextRow, finalResults, mayHaveMoreResults);
+            public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> read(ResultSet resultSet) throws SQLException {
+                NavigableMap<byte[], SortedMap<byte[], Value>> valuesByRow = breakUpValuesByRow(resultSet);
+                return toPage(rangeRequest, valuesByRow, maxRows);
             }
         });
     }
 
-    private static NavigableMap<byte[], SortedMap<byte[], Value>> breakUpValuesByRow(Result<? extends Record> records) {
+    private static NavigableMap<byte[], SortedMap<byte[], Value>> breakUpValuesByRow(ResultSet resultSet) throws SQLException {
         NavigableMap<byte[], SortedMap<byte[], Value>> ret = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
-        for (Record record : records) {
-            byte[] row = record.getValue(A_ROW_NAME);
+        while (resultSet.next()) {
+            byte[] row = resultSet.getBytes(ROW_NAME_INDEX);
             SortedMap<byte[], Value> colMap = ret.get(row);
             if (colMap == null) {
                 colMap = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
                 ret.put(row, colMap);
             }
-            colMap.put(record.getValue(A_COL_NAME), Value.create(record.getValue(A_VALUE), record.getValue(A_TIMESTAMP)));
+            colMap.put(resultSet.getBytes(COL_NAME_INDEX),
+                    Value.create(resultSet.getBytes(VALUE_INDEX), resultSet.getLong(TIMESTAMP_INDEX)));
         }
         return ret;
     }
 
-    private TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]> getPageWithTimestamps(final String tableName,
+    private TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]> getPageWithTimestamps(String tableName,
                                                                                             final RangeRequest rangeRequest,
-                                                                                            final long timestamp) {
-        return run(new Function<DSLContext, TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]>>() {
+                                                                                            long timestamp) {
+        final int maxRows = rangeRequest.getBatchHint() == null ? 100 : (int) (1.1 * rangeRequest.getBatchHint());
+        Map<String, Object> bindValues = bindRange(rangeRequest, timestamp);
+        bindValues.put(LIMIT_PARAM, maxRows);
+        PreparedSql sql = getRangePageSql(tableName, rangeRequest, false);
+        return runQuery(sql, bindValues, new ResultSetReader<TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]>>() {
             @Override
-            public TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]> apply(DSLContext ctx) {
-                int maxRows = rangeRequest.getBatchHint() == null ? 100 : (int) (1.1 * rangeRequest.getBatchHint());
-                Select<Record1<byte[]>> rangeQuery = getRangeQuery(ctx, tableName, rangeRequest, timestamp, maxRows);
-                Select<? extends Record> query;
-                if (rangeRequest.getColumnNames().isEmpty()) {
-                    query = getAllTimestampsQueryAllColumns(ctx, tableName, rangeQuery, timestamp);
-                } else {
-                    query = getAllTimestampsQuerySomeColumns(ctx, tableName, rangeQuery, rangeRequest.getColumnNames(), timestamp);
-                }
-                Result<? extends Record> records = query.fetch();
-                if (records.isEmpty()) {
-                    return SimpleTokenBackedResultsPage.create(null, ImmutableList.<RowResult<Set<Long>>>of(), false);
-                }
-                NavigableMap<byte[], SortedMap<byte[], Set<Long>>> timestampsByRow = breakUpTimestampsByRow(records);
-                if (rangeRequest.isReverse()) {
-                    timestampsByRow = timestampsByRow.descendingMap();
-                }
-                List<RowResult<Set<Long>>> finalResults = Lists.newArrayListWithCapacity(timestampsByRow.size());
-                for (Entry<byte[], SortedMap<byte[], Set<Long>>> entry : timestampsByRow.entrySet()) {
-                    finalResults.add(RowResult.create(entry.getKey(), entry.getValue()));
-                }
-                byte[] nextRow = null;
-                boolean mayHaveMoreResults = false;
-                byte[] lastRow = Iterables.getLast(finalResults).getRowName();
-                if (!RangeRequests.isTerminalRow(rangeRequest.isReverse(), lastRow)) {
-                    nextRow = RangeRequests.getNextStartRow(rangeRequest.isReverse(), lastRow);
-                    mayHaveMoreResults = finalResults.size() == maxRows;
-                }
-                return SimpleTokenBackedResultsPage.create(nextRow, finalResults, mayHaveMoreResults);
+            public TokenBackedBasicResultsPage<RowResult<Set<Long>>, byte[]> read(ResultSet resultSet) throws SQLException {
+                NavigableMap<byte[], SortedMap<byte[], Set<Long>>> timestampsByRow = breakUpTimestampsByRow(resultSet);
+                return toPage(rangeRequest, timestampsByRow, maxRows);
             }
         });
     }
 
-    private static NavigableMap<byte[], SortedMap<byte[], Set<Long>>> breakUpTimestampsByRow(Result<? extends Record> records) {
+    private static NavigableMap<byte[], SortedMap<byte[], Set<Long>>> breakUpTimestampsByRow(ResultSet resultSet) throws SQLException {
         NavigableMap<byte[], SortedMap<byte[], Set<Long>>> ret = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
-        for (Record record : records) {
-            byte[] row = record.getValue(A_ROW_NAME);
-            byte[] col = record.getValue(A_COL_NAME);
+        while (resultSet.next()) {
+            byte[] row = resultSet.getBytes(ROW_NAME_INDEX);
+            byte[] col = resultSet.getBytes(COL_NAME_INDEX);
             SortedMap<byte[], Set<Long>> colMap = ret.get(row);
             if (colMap == null) {
                 colMap = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
@@ -802,31 +975,104 @@ public class JdbcKeyValueService implements KeyValueService {
                 tsSet = Sets.newHashSet();
                 colMap.put(col, tsSet);
             }
-            tsSet.add(record.getValue(A_TIMESTAMP));
+            tsSet.add(resultSet.getLong(TIMESTAMP_INDEX));
         }
         return ret;
     }
 
-    private SelectOffsetStep<Record1<byte[]>> getRangeQuery(DSLContext ctx,
-                                                            String tableName,
-                                                            RangeRequest rangeRequest,
-                                                            long timestamp,
-                                                            int maxRows) {
-        boolean reverse = rangeRequest.isReverse();
-        byte[] start = rangeRequest.getStartInclusive();
-        byte[] end = rangeRequest.getEndExclusive();
-        Condition cond = R_TIMESTAMP.lessThan(timestamp);
-        if (start.length > 0) {
-            cond = cond.and(reverse ? R_ROW_NAME.lessOrEqual(start) : R_ROW_NAME.greaterOrEqual(start));
+    private static <T> TokenBackedBasicResultsPage<RowResult<T>, byte[]> toPage(RangeRequest rangeRequest,
+                                                                                NavigableMap<byte[], SortedMap<byte[], T>> byRow,
+                                                                                int maxRows) {
+        if (byRow.isEmpty()) {
+            return SimpleTokenBackedResultsPage.create(null, ImmutableList.<RowResult<T>>of(), false);
         }
-        if (end.length > 0) {
-            cond = cond.and(reverse ? R_ROW_NAME.greaterThan(end) : R_ROW_NAME.lessThan(end));
+        if (rangeRequest.isReverse()) {
+            byRow = byRow.descendingMap();
+        }
+        List<RowResult<T>> finalResults = Lists.newArrayListWithCapacity(byRow.size());
+        for (Entry<byte[], SortedMap<byte[], T>> entry : byRow.entrySet()) {
+            finalResults.add(RowResult.create(entry.getKey(), entry.getValue()));
+        }
+        byte[] nextRow = null;
+        boolean mayHaveMoreResults = false;
+        byte[] lastRow = Iterables.getLast(finalResults).getRowName();
+        if (!RangeRequests.isTerminalRow(rangeRequest.isReverse(), lastRow)) {
+            nextRow = RangeRequests.getNextStartRow(rangeRequest.isReverse(), lastRow);
+            mayHaveMoreResults = finalResults.size() == maxRows;
+        }
+        return SimpleTokenBackedResultsPage.create(nextRow, finalResults, mayHaveMoreResults);
+    }
+
+    private interface RowIteratorFactory<T> {
+        ResultSetRowIterator<T> create(Connection connection,
+                                       PreparedStatement statement,
+                                       ResultSet resultSet,
+                                       boolean restoreAutoCommit);
+    }
+
+    private static final RowIteratorFactory<Value> VALUE_ITERATOR_FACTORY = new RowIteratorFactory<Value>() {
+        @Override
+        public ResultSetRowIterator<Value> create(Connection connection,
+                                                  PreparedStatement statement,
+                                                  ResultSet resultSet,
+                                                  boolean restoreAutoCommit) {
+            return ResultSetRowIterator.values(connection, statement, resultSet, restoreAutoCommit);
+        }
+    };
+
+    private static final RowIteratorFactory<Set<Long>> TIMESTAMP_ITERATOR_FACTORY = new RowIteratorFactory<Set<Long>>() {
+        @Override
+        public ResultSetRowIterator<Set<Long>> create(Connection connection,
+                                                      PreparedStatement statement,
+                                                      ResultSet resultSet,
+                                                      boolean restoreAutoCommit) {
+            return ResultSetRowIterator.timestamps(connection, statement, resultSet, restoreAutoCommit);
+        }
+    };
+
+    /**
+     * Streams a whole range through one server side cursor.  The connection is held until the
+     * returned iterator is exhausted or closed.  Drivers such as Postgres only use a cursor
+     * when auto-commit is off, so it is turned off for the duration of the scan.
+     */
+    private <T> ClosableIterator<RowResult<T>> scanRange(String tableName,
+                                                         RangeRequest rangeRequest,
+                                                         long timestamp,
+                                                         boolean withValues,
+                                                         RowIteratorFactory<T> factory) {
+        PreparedSql sql = getRangeScanSql(tableName, rangeRequest, withValues);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        boolean restoreAutoCommit = false;
+        try {
+            connection = dataSource.getConnection();
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            statement = sql.prepare(connection, bindRange(rangeRequest, timestamp));
+            statement.setFetchSize(rangeCursorFetchSize);
+            ResultSet resultSet = statement.executeQuery();
+            return factory.create(connection, statement, resultSet, restoreAutoCommit);
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            closeQuietly(connection);
+            throw new DataAccessException("Error scanning range with " + sql, e);
+        } catch (RuntimeException e) {
+            closeQuietly(statement);
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // Ignore, we are already handling a failure
+            }
         }
-        return ctx.selectDistinct(R_ROW_NAME)
-                .from(atlasTable(tableName).as(RANGE_TABLE))
-                .where(cond)
-                .orderBy(reverse ? R_ROW_NAME.desc() : R_ROW_NAME.asc())
-                .limit(maxRows);
     }
 
     @Override
@@ -844,6 +1090,9 @@ public class JdbcKeyValueService implements KeyValueService {
             public Void apply(DSLContext ctx) {
                 for (String tableName : tableNames) {
                     ctx.dropTableIfExists(tableName(tableName)).execute();
+                    if (latestVersionIndex.isIndexed(tableName)) {
+                        latestVersionIndex.dropIndex(ctx, tableName);
+                    }
                 }
                 ctx.deleteFrom(METADATA_TABLE)
                     .where(TABLE_NAME.in(tableNames))
@@ -890,6 +1139,11 @@ public class JdbcKeyValueService implements KeyValueService {
                         .values(tableName, metadata)
                         .execute();
                 }
+                for (String tableName : tableNameToTableMetadata.keySet()) {
+                    if (latestVersionIndex.isIndexed(tableName)) {
+                        latestVersionIndex.createIndex(ctx, tableName);
+                    }
+                }
                 return null;
             }
         });
@@ -992,6 +1246,7 @@ public class JdbcKeyValueService implements KeyValueService {
 
     @Override
     public void close() {
+        readAheadExecutor.shutdownNow();
         if (dataSource instanceof Closeable) {
             try {
                 ((Closeable) dataSource).close();
@@ -1015,6 +1270,20 @@ public class JdbcKeyValueService implements KeyValueService {
         }
     }
 
+    interface ResultSetReader<T> {
+        T read(ResultSet resultSet) throws SQLException;
+    }
+
+    <T> T runQuery(PreparedSql sql, Map<String, ?> bindValues, ResultSetReader<T> reader) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = sql.prepare(connection, bindValues);
+             ResultSet resultSet = statement.executeQuery()) {
+            return reader.read(resultSet);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error executing " + sql, e);
+        }
+    }
+
     <T> T runInTransaction(final Function<DSLContext, T> fun) {
         try (Connection connection = dataSource.getConnection()) {
             final DSLContext ctx = DSL.using(connection, sqlDialect, settings);
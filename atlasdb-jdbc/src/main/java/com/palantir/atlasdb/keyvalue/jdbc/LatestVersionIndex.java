@@ -0,0 +1,392 @@
+/**
+ * Copyright 2016 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.jdbc;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.table;
+import static org.jooq.impl.SQLDataType.BIGINT;
+import static org.jooq.impl.SQLDataType.BLOB;
+import static org.jooq.impl.SQLDataType.VARBINARY;
+
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.ATLAS_TABLE;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.A_COL_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.A_ROW_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.A_TIMESTAMP;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.A_VALUE;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.COL_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.LATEST_TABLE;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.L_COL_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.L_ROW_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.L_TIMESTAMP;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.L_VALUE;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.MAX_TIMESTAMP;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.ROW_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.T2_COL_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.T2_MAX_TIMESTAMP;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.T2_ROW_NAME;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.TEMP_TABLE_2;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.TIMESTAMP;
+import static com.palantir.atlasdb.keyvalue.jdbc.impl.JdbcConstants.VALUE;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.jooq.BatchBindStep;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.Row2;
+import org.jooq.Row3;
+import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * An optional side table for an Atlas table that holds the latest version of every cell, so
+ * that a read above that version is a single primary key lookup instead of a
+ * {@code max(timestamp)} aggregate over all of the versions of the cell.  Reads at or below the
+ * latest version, that is reads of old snapshots, still scan the versions.
+ * <p>
+ * A cell has an entry if and only if it has a version, and the entry is the version with the
+ * greatest timestamp.  Puts raise the entry after the version itself has been written, so once
+ * a put returns its versions are reflected in the index.  A put which finds a later version
+ * already in the table gives the cell the entry of that later version, since the later put may
+ * never update the index itself.  A concurrent reader may miss a version whose put is still in
+ * progress, which is safe because the transaction that wrote it cannot have committed yet.
+ * Deletes recompute the entries of the cells they delete from in the same transaction as the
+ * delete.
+ * <p>
+ * Every client of a database must agree on which tables are indexed, since a client that does
+ * not know about an index would write to the table without maintaining it.
+ */
+final class LatestVersionIndex {
+    private static final String INDEX_SUFFIX = "__latest";
+    private static final int MAX_PUT_ROUNDS = 10;
+
+    private final JdbcKeyValueService kvs;
+    private final Set<String> indexedTables;
+
+    LatestVersionIndex(JdbcKeyValueService kvs, Set<String> indexedTables) {
+        this.kvs = kvs;
+        this.indexedTables = ImmutableSet.copyOf(indexedTables);
+    }
+
+    boolean isIndexed(String tableName) {
+        return indexedTables.contains(tableName);
+    }
+
+    Set<String> getIndexedTables() {
+        return indexedTables;
+    }
+
+    private Table<Record> indexTable(String tableName) {
+        return table(kvs.tableName(tableName + INDEX_SUFFIX));
+    }
+
+    /**
+     * Creates the index of a table unless it already exists, and fills it from the versions
+     * already in the table.
+     */
+    void createIndex(DSLContext ctx, String tableName) {
+        String partialSql = ctx.createTable(indexTable(tableName))
+                .column(ROW_NAME, VARBINARY.nullable(false))
+                .column(COL_NAME, VARBINARY.nullable(false))
+                .column(TIMESTAMP, BIGINT.nullable(false))
+                .column(VALUE, BLOB)
+                .getSQL();
+        int endIndex = partialSql.lastIndexOf(')');
+        String fullSql = partialSql.substring(0, endIndex) + "," +
+                " CONSTRAINT " + kvs.primaryKey(tableName + INDEX_SUFFIX) +
+                " PRIMARY KEY (" + ROW_NAME + ", " + COL_NAME + ")" +
+                partialSql.substring(endIndex);
+        try {
+            ctx.execute(fullSql);
+        } catch (DataAccessException e) {
+            kvs.handleTableCreationException(e);
+            return;
+        }
+        insertLatestVersions(ctx, tableName, DSL.trueCondition());
+    }
+
+    void dropIndex(DSLContext ctx, String tableName) {
+        ctx.dropTableIfExists(indexTable(tableName)).execute();
+    }
+
+    void truncateIndex(DSLContext ctx, String tableName) {
+        ctx.truncate(indexTable(tableName)).execute();
+    }
+
+    void put(DSLContext ctx, String tableName, Map<Cell, byte[]> values, long timestamp) {
+        Map<Cell, Value> latest = Maps.newHashMapWithExpectedSize(values.size());
+        for (Entry<Cell, byte[]> entry : values.entrySet()) {
+            latest.put(entry.getKey(), Value.create(entry.getValue(), timestamp));
+        }
+        raise(ctx, tableName, latest);
+    }
+
+    void put(DSLContext ctx, String tableName, Multimap<Cell, Value> values) {
+        Map<Cell, Value> latest = Maps.newHashMapWithExpectedSize(values.keySet().size());
+        for (Entry<Cell, Value> entry : values.entries()) {
+            Value current = latest.get(entry.getKey());
+            if (current == null || current.getTimestamp() < entry.getValue().getTimestamp()) {
+                latest.put(entry.getKey(), entry.getValue());
+            }
+        }
+        raise(ctx, tableName, latest);
+    }
+
+    /**
+     * Raises the entries of the given cells to the given versions, which must already have been
+     * written to the table.  An entry is first raised in place; a cell without an entry gets one
+     * for the given version, or for the latest version in the table if that is later.  Racing
+     * puts of the same cell can make either step miss, in which case the cell is tried again.
+     */
+    private void raise(DSLContext ctx, String tableName, Map<Cell, Value> latest) {
+        Map<Cell, Value> pending = latest;
+        for (int round = 0; !pending.isEmpty(); round++) {
+            if (round == MAX_PUT_ROUNDS) {
+                throw new DataAccessException("Could not update the latest version index of " + tableName
+                        + " for " + pending.size() + " cells after " + MAX_PUT_ROUNDS + " attempts.");
+            }
+            pending = raiseExistingEntries(ctx, tableName, pending);
+            if (!pending.isEmpty()) {
+                pending = insertMissingEntries(ctx, tableName, pending);
+            }
+        }
+    }
+
+    private Map<Cell, Value> raiseExistingEntries(DSLContext ctx, String tableName, Map<Cell, Value> latest) {
+        Query query = ctx
+                .update(indexTable(tableName))
+                .set(field(TIMESTAMP, Long.class), (Long) null)
+                .set(field(VALUE, byte[].class), (byte[]) null)
+                .where(field(ROW_NAME, byte[].class).eq((byte[]) null)
+                        .and(field(COL_NAME, byte[].class).eq((byte[]) null))
+                        .and(field(TIMESTAMP, Long.class).lessThan((Long) null)));
+        List<Entry<Cell, Value>> entries = Lists.newArrayList(latest.entrySet());
+        BatchBindStep batch = ctx.batch(query);
+        for (Entry<Cell, Value> entry : entries) {
+            Cell cell = entry.getKey();
+            Value value = entry.getValue();
+            batch = batch.bind(
+                    value.getTimestamp(),
+                    value.getContents(),
+                    cell.getRowName(),
+                    cell.getColumnName(),
+                    value.getTimestamp());
+        }
+        int[] counts = batch.execute();
+        Map<Cell, Value> notRaised = Maps.newHashMap();
+        for (int i = 0; i < entries.size(); i++) {
+            // Drivers may report SUCCESS_NO_INFO for batches, so only trust positive counts.
+            if (counts[i] <= 0) {
+                notRaised.put(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        }
+        return notRaised;
+    }
+
+    private Map<Cell, Value> insertMissingEntries(DSLContext ctx, String tableName, Map<Cell, Value> latest) {
+        Map<Cell, Long> entryTimestamps = getEntryTimestamps(ctx, tableName, latest.keySet());
+        Map<Cell, Long> maxTimestamps = getMaxTimestamps(ctx, tableName, latest.keySet());
+        Map<Cell, Value> retry = Maps.newHashMap();
+        Map<Cell, Value> superseded = Maps.newHashMap();
+        for (Entry<Cell, Value> entry : latest.entrySet()) {
+            Cell cell = entry.getKey();
+            Value value = entry.getValue();
+            Long entryTimestamp = entryTimestamps.get(cell);
+            if (entryTimestamp != null) {
+                if (entryTimestamp < value.getTimestamp()) {
+                    retry.put(cell, value);
+                }
+                continue;
+            }
+            Long maxTimestamp = maxTimestamps.get(cell);
+            if (maxTimestamp != null && maxTimestamp > value.getTimestamp()) {
+                superseded.put(cell, value);
+                continue;
+            }
+            try {
+                ctx.insertInto(indexTable(tableName),
+                        field(ROW_NAME, byte[].class),
+                        field(COL_NAME, byte[].class),
+                        field(TIMESTAMP, Long.class),
+                        field(VALUE, byte[].class))
+                    .values(cell.getRowName(), cell.getColumnName(), value.getTimestamp(), value.getContents())
+                    .execute();
+            } catch (DataAccessException e) {
+                // Another put added the entry first.
+                retry.put(cell, value);
+            }
+        }
+        if (!superseded.isEmpty()) {
+            try {
+                insertLatestVersions(ctx, tableName, row(A_ROW_NAME, A_COL_NAME).in(toRows(superseded.keySet())));
+            } catch (DataAccessException e) {
+                // Another put added some of the entries first.
+                retry.putAll(superseded);
+            }
+        }
+        return retry;
+    }
+
+    private Map<Cell, Long> getEntryTimestamps(DSLContext ctx, String tableName, Set<Cell> cells) {
+        Result<? extends Record> records = ctx
+                .select(L_ROW_NAME, L_COL_NAME, L_TIMESTAMP)
+                .from(indexTable(tableName).as(LATEST_TABLE))
+                .where(row(L_ROW_NAME, L_COL_NAME).in(toRows(cells)))
+                .fetch();
+        Map<Cell, Long> timestamps = Maps.newHashMapWithExpectedSize(records.size());
+        for (Record record : records) {
+            timestamps.put(
+                    Cell.create(record.getValue(L_ROW_NAME), record.getValue(L_COL_NAME)),
+                    record.getValue(L_TIMESTAMP));
+        }
+        return timestamps;
+    }
+
+    private Map<Cell, Long> getMaxTimestamps(DSLContext ctx, String tableName, Set<Cell> cells) {
+        Result<? extends Record> records = ctx
+                .select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
+                .from(kvs.atlasTable(tableName).as(ATLAS_TABLE))
+                .where(row(A_ROW_NAME, A_COL_NAME).in(toRows(cells)))
+                .groupBy(A_ROW_NAME, A_COL_NAME)
+                .fetch();
+        Map<Cell, Long> timestamps = Maps.newHashMapWithExpectedSize(records.size());
+        for (Record record : records) {
+            timestamps.put(
+                    Cell.create(record.getValue(A_ROW_NAME), record.getValue(A_COL_NAME)),
+                    record.getValue(MAX_TIMESTAMP, Long.class));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Removes the entries of deleted versions and gives each of the cells without an entry the
+     * latest remaining version.  This must run in the same transaction as the delete itself.
+     */
+    void delete(DSLContext ctx, String tableName, Multimap<Cell, Long> keys) {
+        Collection<Row3<byte[], byte[], Long>> rows = Lists.newArrayListWithCapacity(keys.size());
+        for (Entry<Cell, Long> entry : keys.entries()) {
+            rows.add(row(entry.getKey().getRowName(), entry.getKey().getColumnName(), entry.getValue()));
+        }
+        ctx.deleteFrom(indexTable(tableName).as(LATEST_TABLE))
+                .where(row(L_ROW_NAME, L_COL_NAME, L_TIMESTAMP).in(rows))
+                .execute();
+        insertLatestVersions(ctx, tableName, row(A_ROW_NAME, A_COL_NAME).in(toRows(keys.keySet())));
+    }
+
+    /**
+     * Adds entries for the cells matching the condition that have versions but no entry.
+     */
+    private void insertLatestVersions(DSLContext ctx, String tableName, Condition cells) {
+        ctx.insertInto(indexTable(tableName),
+                field(ROW_NAME, byte[].class),
+                field(COL_NAME, byte[].class),
+                field(TIMESTAMP, Long.class),
+                field(VALUE, byte[].class))
+            .select(ctx.select(A_ROW_NAME, A_COL_NAME, A_TIMESTAMP, A_VALUE)
+                    .from(kvs.atlasTable(tableName).as(ATLAS_TABLE))
+                    .join(ctx.select(A_ROW_NAME, A_COL_NAME, DSL.max(A_TIMESTAMP).as(MAX_TIMESTAMP))
+                            .from(kvs.atlasTable(tableName).as(ATLAS_TABLE))
+                            .where(cells)
+                            .groupBy(A_ROW_NAME, A_COL_NAME)
+                            .asTable(TEMP_TABLE_2))
+                    .on(A_ROW_NAME.eq(T2_ROW_NAME)
+                            .and(A_COL_NAME.eq(T2_COL_NAME))
+                            .and(A_TIMESTAMP.eq(T2_MAX_TIMESTAMP)))
+                    .whereNotExists(ctx.selectOne()
+                            .from(indexTable(tableName).as(LATEST_TABLE))
+                            .where(L_ROW_NAME.eq(A_ROW_NAME)
+                                    .and(L_COL_NAME.eq(A_COL_NAME)))))
+            .execute();
+    }
+
+    /**
+     * The latest version of each of the given cells that has one.
+     */
+    Map<Cell, Value> getLatest(DSLContext ctx, String tableName, Set<Cell> cells) {
+        if (cells.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        return toValues(ctx
+                .select(L_ROW_NAME, L_COL_NAME, L_TIMESTAMP, L_VALUE)
+                .from(indexTable(tableName).as(LATEST_TABLE))
+                .where(row(L_ROW_NAME, L_COL_NAME).in(toRows(cells)))
+                .fetch());
+    }
+
+    /**
+     * The latest timestamp of each of the given cells that has a version.
+     */
+    Map<Cell, Long> getLatestTimestamps(DSLContext ctx, String tableName, Set<Cell> cells) {
+        if (cells.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        return getEntryTimestamps(ctx, tableName, cells);
+    }
+
+    /**
+     * The latest version of each of the selected cells of the given rows.
+     */
+    Map<Cell, Value> getLatestForRows(DSLContext ctx,
+                                      String tableName,
+                                      Collection<byte[]> rows,
+                                      ColumnSelection columnSelection) {
+        Condition cond = L_ROW_NAME.in(rows);
+        if (!columnSelection.allColumnsSelected()) {
+            cond = cond.and(L_COL_NAME.in(Lists.newArrayList(columnSelection.getSelectedColumns())));
+        }
+        return toValues(ctx
+                .select(L_ROW_NAME, L_COL_NAME, L_TIMESTAMP, L_VALUE)
+                .from(indexTable(tableName).as(LATEST_TABLE))
+                .where(cond)
+                .fetch());
+    }
+
+    private static Map<Cell, Value> toValues(Result<? extends Record> records) {
+        Map<Cell, Value> values = Maps.newHashMapWithExpectedSize(records.size());
+        for (Record record : records) {
+            values.put(
+                    Cell.create(record.getValue(L_ROW_NAME), record.getValue(L_COL_NAME)),
+                    Value.create(record.getValue(L_VALUE), record.getValue(L_TIMESTAMP)));
+        }
+        return values;
+    }
+
+    private static Collection<Row2<byte[], byte[]>> toRows(Set<Cell> cells) {
+        Collection<Row2<byte[], byte[]>> rows = Lists.newArrayListWithCapacity(cells.size());
+        for (Cell cell : cells) {
+            rows.add(row(cell.getRowName(), cell.getColumnName()));
+        }
+        return rows;
+    }
+}
@@ -57,6 +57,12 @@ public class JdbcConstants {
     public static final Field<Long> T2_TIMESTAMP = field(TEMP_TABLE_2 + '.' + TIMESTAMP, Long.class);
     public static final Field<byte[]> T2_VALUE = field(TEMP_TABLE_2 + '.' + VALUE, byte[].class);
 
+    public static final String LATEST_TABLE = "l";
+    public static final Field<byte[]> L_ROW_NAME = field(LATEST_TABLE + '.' + ROW_NAME, byte[].class);
+    public static final Field<byte[]> L_COL_NAME = field(LATEST_TABLE + '.' + COL_NAME, byte[].class);
+    public static final Field<Long> L_TIMESTAMP = field(LATEST_TABLE + '.' + TIMESTAMP, Long.class);
+    public static final Field<byte[]> L_VALUE = field(LATEST_TABLE + '.' + VALUE, byte[].class);
+
     public static final String MAX_TIMESTAMP = "max_timestamp";
     public static final Field<Long> T2_MAX_TIMESTAMP = field(TEMP_TABLE_2 + '.' + MAX_TIMESTAMP, Long.class);
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.jdbc.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Caches the SQL rendered for each query shape so that hot queries are only built and rendered
+ * by jOOQ once.  Reusing the exact same SQL string also lets the driver and database reuse
+ * their prepared statements: the Postgres driver switches to a named server side statement
+ * after a few executions, and H2 keeps a per session cache of parsed statements.
+ * <p>
+ * Queries are built with named parameters ({@link DSL#param(String, Class)}) in place of every
+ * bind value, and the key must capture everything else about the query, such as the table
+ * and the number of values in an IN list.
+ */
+public final class PreparedSqlCache {
+    private static final int MAX_CACHED_QUERIES = 1000;
+
+    private final DSLContext renderer;
+    private final Cache<List<?>, PreparedSql> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_QUERIES)
+            .build();
+
+    public PreparedSqlCache(SQLDialect sqlDialect, Settings settings) {
+        this.renderer = DSL.using(sqlDialect, settings);
+    }
+
+    /**
+     * The context to build query templates with; it is not attached to a connection.
+     */
+    public DSLContext renderer() {
+        return renderer;
+    }
+
+    public PreparedSql get(List<?> key, Supplier<? extends Query> template) {
+        PreparedSql sql = cache.getIfPresent(key);
+        if (sql == null) {
+            Query query = template.get();
+            sql = new PreparedSql(renderer.render(query), ImmutableList.copyOf(query.getParams().keySet()));
+            cache.put(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Pads the size of an IN list so that lists of similar sizes share a query shape.  Sizes are
+     * rounded up to a power of two up to 64, and to a multiple of 64 after that.  The padding
+     * repeats the last value, which does not change the result of the IN.
+     */
+    public static int paddedSize(int size) {
+        Preconditions.checkArgument(size > 0, "size must be positive");
+        if (size <= 64) {
+            return size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        }
+        return (size + 63) / 64 * 64;
+    }
+
+    public static final class PreparedSql {
+        private final String sql;
+        private final List<String> paramNames;
+
+        PreparedSql(String sql, List<String> paramNames) {
+            this.sql = sql;
+            this.paramNames = paramNames;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Prepares this statement on the given connection and binds a value to each named
+         * parameter.  The caller is responsible for closing the statement.
+         */
+        public PreparedStatement prepare(Connection connection, Map<String, ?> bindValues) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            try {
+                for (int i = 0; i < paramNames.size(); i++) {
+                    String name = paramNames.get(i);
+                    Preconditions.checkArgument(bindValues.containsKey(name), "No value bound for parameter %s", name);
+                    statement.setObject(i + 1, bindValues.get(name));
+                }
+                return statement;
+            } catch (SQLException | RuntimeException e) {
+                statement.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
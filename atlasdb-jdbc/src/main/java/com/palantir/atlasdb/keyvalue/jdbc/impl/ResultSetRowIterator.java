@@ -0,0 +1,162 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.jdbc.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.jooq.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Streams {@link RowResult}s from a single open result set whose records are ordered by row
+ * name, then column name, then timestamp descending.  The iterator owns the connection,
+ * statement and result set, and releases them once it is exhausted or closed.
+ */
+public abstract class ResultSetRowIterator<T> extends AbstractIterator<RowResult<T>>
+        implements ClosableIterator<RowResult<T>> {
+    private static final Logger log = LoggerFactory.getLogger(ResultSetRowIterator.class);
+
+    public static final int ROW_NAME_INDEX = 1;
+    public static final int COL_NAME_INDEX = 2;
+    public static final int TIMESTAMP_INDEX = 3;
+    public static final int VALUE_INDEX = 4;
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final boolean restoreAutoCommit;
+    private boolean started = false;
+    private boolean hasRecord = false;
+    private boolean closed = false;
+
+    protected ResultSetRowIterator(Connection connection,
+                                   PreparedStatement statement,
+                                   ResultSet resultSet,
+                                   boolean restoreAutoCommit) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.restoreAutoCommit = restoreAutoCommit;
+    }
+
+    /**
+     * Returns an iterator yielding the latest value of each cell; records must include the value.
+     */
+    public static ResultSetRowIterator<Value> values(Connection connection,
+                                                     PreparedStatement statement,
+                                                     ResultSet resultSet,
+                                                     boolean restoreAutoCommit) {
+        return new ResultSetRowIterator<Value>(connection, statement, resultSet, restoreAutoCommit) {
+            @Override
+            protected void addRecord(SortedMap<byte[], Value> columns, ResultSet rs) throws SQLException {
+                byte[] col = rs.getBytes(COL_NAME_INDEX);
+                // The first record of each cell has its greatest timestamp.
+                if (!columns.containsKey(col)) {
+                    columns.put(col, Value.create(rs.getBytes(VALUE_INDEX), rs.getLong(TIMESTAMP_INDEX)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator yielding every timestamp of each cell.
+     */
+    public static ResultSetRowIterator<Set<Long>> timestamps(Connection connection,
+                                                             PreparedStatement statement,
+                                                             ResultSet resultSet,
+                                                             boolean restoreAutoCommit) {
+        return new ResultSetRowIterator<Set<Long>>(connection, statement, resultSet, restoreAutoCommit) {
+            @Override
+            protected void addRecord(SortedMap<byte[], Set<Long>> columns, ResultSet rs) throws SQLException {
+                byte[] col = rs.getBytes(COL_NAME_INDEX);
+                Set<Long> timestamps = columns.get(col);
+                if (timestamps == null) {
+                    timestamps = Sets.newHashSet();
+                    columns.put(col, timestamps);
+                }
+                timestamps.add(rs.getLong(TIMESTAMP_INDEX));
+            }
+        };
+    }
+
+    protected abstract void addRecord(SortedMap<byte[], T> columns, ResultSet rs) throws SQLException;
+
+    @Override
+    protected RowResult<T> computeNext() {
+        if (closed) {
+            return endOfData();
+        }
+        try {
+            if (!started) {
+                started = true;
+                hasRecord = resultSet.next();
+            }
+            if (!hasRecord) {
+                close();
+                return endOfData();
+            }
+            byte[] row = resultSet.getBytes(ROW_NAME_INDEX);
+            SortedMap<byte[], T> columns = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
+            do {
+                addRecord(columns, resultSet);
+                hasRecord = resultSet.next();
+            } while (hasRecord && Arrays.equals(row, resultSet.getBytes(ROW_NAME_INDEX)));
+            return RowResult.create(row, columns);
+        } catch (SQLException e) {
+            close();
+            throw new DataAccessException("Error streaming range from the database", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+            statement.close();
+            if (restoreAutoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Error releasing the cursor of a range scan", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Error closing the connection of a range scan", e);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
@@ -287,6 +288,70 @@ public final class RocksDbKeyValueServiceTest {
         assertEquals("yoyo", new String(meta));
     }
 
+    @Test
+    public void testBatchedReadsMatchSingleReads() {
+        assertBatchedReadsMatchSingleReads(db);
+    }
+
+    @Test
+    public void testBatchedReadsMatchSingleReadsWithAscendingTimestamps() {
+        RocksDbKeyValueService v1Db = RocksDbKeyValueService.create("testdb-v1",
+                ImmutableMap.<String, String>of(),
+                ImmutableMap.<String, String>of(),
+                ImmutableWriteOpts.builder().build(),
+                RocksComparatorName.V1.getComparatorName());
+        try {
+            v1Db.dropTable("yo");
+            v1Db.createTable("yo", AtlasDbConstants.EMPTY_TABLE_METADATA);
+            assertBatchedReadsMatchSingleReads(v1Db);
+        } finally {
+            v1Db.close();
+        }
+    }
+
+    private static void assertBatchedReadsMatchSingleReads(RocksDbKeyValueService db) {
+        Random random = new Random(0);
+        List<Cell> cells = Lists.newArrayList();
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 5; col++) {
+                cells.add(Cell.create(("r" + row).getBytes(), ("c" + col).getBytes()));
+            }
+        }
+        for (long ts = 1; ts <= 5; ts++) {
+            Map<Cell, byte[]> toPut = Maps.newHashMap();
+            for (Cell cell : cells) {
+                if (random.nextBoolean()) {
+                    toPut.put(cell, ("v" + ts).getBytes());
+                }
+            }
+            db.put("yo", toPut, ts);
+        }
+        Map<Cell, Long> request = Maps.newHashMap();
+        for (Cell cell : cells) {
+            if (random.nextInt(3) != 0) {
+                request.put(cell, 1L + random.nextInt(6));
+            }
+        }
+        Map<Cell, Value> values = db.get("yo", request);
+        Map<Cell, Long> latest = db.getLatestTimestamps("yo", request);
+        for (Map.Entry<Cell, Long> entry : request.entrySet()) {
+            Map<Cell, Long> single = ImmutableMap.of(entry.getKey(), entry.getValue());
+            assertEquals(db.get("yo", single).get(entry.getKey()), values.get(entry.getKey()));
+            assertEquals(db.getLatestTimestamps("yo", single).get(entry.getKey()), latest.get(entry.getKey()));
+        }
+
+        List<byte[]> rows = Lists.newArrayList();
+        for (int row = 19; row >= 0; row -= 2) {
+            rows.add(("r" + row).getBytes());
+        }
+        Map<Cell, Value> rowValues = db.getRows("yo", rows, ColumnSelection.all(), 4);
+        Map<Cell, Value> expected = Maps.newHashMap();
+        for (byte[] row : rows) {
+            expected.putAll(db.getRows("yo", ImmutableList.of(row), ColumnSelection.all(), 4));
+        }
+        assertEquals(expected, rowValues);
+    }
+
     @Test
     public void testLockFile() {
         try {
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.rocksdb.impl;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Compares the java comparator key format (V2) with the bytewise key format (V3).
+ */
+@Ignore
+public final class RocksKeyFormatPerfTest {
+    private static final int KEY_SIZE = 16;
+    private static final int VALUE_SIZE = 100;
+    private static final int NUM_BATCHES = 500;
+    private static final int BATCH_SIZE = 1000;
+    private static final int VERSIONS_PER_CELL = 3;
+
+    @Test
+    public void testV2() {
+        runBenchmark(RocksComparatorName.V2);
+    }
+
+    @Test
+    public void testV3() {
+        runBenchmark(RocksComparatorName.V3);
+    }
+
+    private void runBenchmark(RocksComparatorName comparator) {
+        RocksDbKeyValueService db = RocksDbKeyValueService.create("testdb-perf-" + comparator.getComparatorName(),
+                ImmutableMap.<String, String>of(),
+                ImmutableMap.<String, String>of(),
+                ImmutableWriteOpts.builder().build(),
+                comparator.getComparatorName());
+        try {
+            for (String table : db.getAllTableNames()) {
+                db.dropTable(table);
+            }
+            db.createTable("t", AtlasDbConstants.EMPTY_TABLE_METADATA);
+            Random rand = new Random(0);
+            long start = System.nanoTime();
+            long ts = 1;
+            for (int i = 0; i < NUM_BATCHES / VERSIONS_PER_CELL; i++) {
+                Map<Cell, byte[]> toPut = Maps.newHashMap();
+                for (int j = 0; j < BATCH_SIZE; j++) {
+                    toPut.put(Cell.create(randomBytes(rand, KEY_SIZE), randomBytes(rand, KEY_SIZE)), randomBytes(rand, VALUE_SIZE));
+                }
+                for (int v = 0; v < VERSIONS_PER_CELL; v++) {
+                    db.put("t", toPut, ts++);
+                }
+            }
+            long writeMillis = (System.nanoTime() - start) / 1000000;
+
+            start = System.nanoTime();
+            int rows = 0;
+            try (ClosableIterator<RowResult<Value>> it = db.getRange("t", RangeRequest.all(), Long.MAX_VALUE)) {
+                while (it.hasNext()) {
+                    it.next();
+                    rows++;
+                }
+            }
+            long scanMillis = (System.nanoTime() - start) / 1000000;
+
+            System.out.println(comparator + ": wrote " + (ts - 1) * BATCH_SIZE + " cells in " + writeMillis
+                    + " ms, scanned " + rows + " rows in " + scanMillis + " ms");
+        } finally {
+            db.close();
+        }
+    }
+
+    private static byte[] randomBytes(Random rand, int numBytes) {
+        byte[] ret = new byte[numBytes];
+        rand.nextBytes(ret);
+        return ret;
+    }
+}
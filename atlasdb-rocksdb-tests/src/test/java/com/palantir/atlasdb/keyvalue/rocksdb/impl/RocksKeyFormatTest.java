@@ -0,0 +1,99 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.rocksdb.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.util.Pair;
+
+public class RocksKeyFormatTest {
+    private static final RocksKeyFormat FORMAT = RocksKeyFormat.BYTEWISE;
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            Cell cell = Cell.create(randomName(random), randomName(random));
+            long ts = random.nextLong();
+            Pair<Cell, Long> parsed = FORMAT.parseCellAndTs(FORMAT.getKey(cell, ts));
+            assertEquals(cell, parsed.lhSide);
+            assertEquals(ts, (long) parsed.rhSide);
+        }
+    }
+
+    @Test
+    public void testBytewiseOrderMatchesCellOrder() {
+        Random random = new Random(0);
+        List<Pair<Cell, Long>> cells = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            cells.add(Pair.create(Cell.create(randomName(random), randomName(random)), randomTimestamp(random)));
+        }
+        Collections.sort(cells, new Comparator<Pair<Cell, Long>>() {
+            @Override
+            public int compare(Pair<Cell, Long> a, Pair<Cell, Long> b) {
+                int cmp = a.lhSide.compareTo(b.lhSide);
+                return cmp != 0 ? cmp : Long.compare(b.rhSide, a.rhSide);
+            }
+        });
+        Comparator<byte[]> bytewise = UnsignedBytes.lexicographicalComparator();
+        for (int i = 1; i < cells.size(); i++) {
+            byte[] prev = FORMAT.getKey(cells.get(i - 1).lhSide, cells.get(i - 1).rhSide);
+            byte[] next = FORMAT.getKey(cells.get(i).lhSide, cells.get(i).rhSide);
+            assertTrue(bytewise.compare(prev, next) <= 0);
+        }
+    }
+
+    @Test
+    public void testRowKeySortsBeforeRowCells() {
+        byte[] row = {1, 0, 2};
+        byte[] rowKey = FORMAT.getRowKey(row, Long.MAX_VALUE);
+        Comparator<byte[]> bytewise = UnsignedBytes.lexicographicalComparator();
+        assertTrue(bytewise.compare(rowKey, FORMAT.getKey(row, new byte[] {0}, Long.MAX_VALUE)) < 0);
+        assertTrue(bytewise.compare(rowKey, FORMAT.getKey(new byte[] {1, 0}, new byte[] {0}, 0L)) > 0);
+        assertTrue(bytewise.compare(rowKey, FORMAT.getKey(new byte[] {1, 0, 2, 0}, new byte[] {0}, 0L)) < 0);
+    }
+
+    private static byte[] randomName(Random random) {
+        // Small alphabet and lengths so that zero bytes and shared prefixes are common.
+        byte[] name = new byte[1 + random.nextInt(4)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (byte) (random.nextInt(3) - 1);
+        }
+        return name;
+    }
+
+    private static long randomTimestamp(Random random) {
+        switch (random.nextInt(4)) {
+        case 0:
+            return -1L;
+        case 1:
+            return 0L;
+        default:
+            return random.nextLong();
+        }
+    }
+}
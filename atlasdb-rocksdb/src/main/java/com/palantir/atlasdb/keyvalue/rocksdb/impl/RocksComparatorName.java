@@ -20,7 +20,12 @@ import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum RocksComparatorName {
     V1("atlasdb"),
-    V2("atlasdb-v2");
+    V2("atlasdb-v2"),
+    /**
+     * Not a java comparator: keys are encoded so that rocksdb's built-in bytewise
+     * comparator orders them (see {@link RocksKeyFormat#BYTEWISE}).
+     */
+    V3("atlasdb-v3");
 
     private final String comparatorName;
 
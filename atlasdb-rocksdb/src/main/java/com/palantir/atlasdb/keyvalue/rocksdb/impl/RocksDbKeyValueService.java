@@ -24,6 +24,7 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -32,6 +33,8 @@ import java.util.Set;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -77,11 +80,18 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public class RocksDbKeyValueService implements KeyValueService {
     private static final Logger log = LoggerFactory.getLogger(RocksDbKeyValueService.class);
-    private static final String METADATA_TABLE_NAME = "_metadata";
+    static final String METADATA_TABLE_NAME = "_metadata";
     private static final long PUT_UNLESS_EXISTS_TS = 0L;
     private static final String LOCK_FILE_PREFIX = ".pt_kv_lock";
+    /**
+     * A cfOptions entry giving the bloom filter bits per key for table column families,
+     * or 0 to disable bloom filters.
+     */
+    public static final String BLOOM_FILTER_BITS_PER_KEY_OPTION = "bloomFilterBitsPerKey";
+    private static final int DEFAULT_BLOOM_FILTER_BITS_PER_KEY = 10;
     final RocksDB db;
     final ColumnFamilyMap columnFamilies;
+    final RocksKeyFormat keyFormat;
     private final FileLock lock;
     private final RandomAccessFile lockFile;
     private final WriteOpts writeOptions;
@@ -107,6 +117,10 @@ public class RocksDbKeyValueService implements KeyValueService {
         setReflectionOpts(cfMetadataOpts, cfOptions);
         ColumnFamilyOptions cfCommonOpts;
         switch (comparator) {
+        case "atlasdb-v3":
+            // Keys are laid out so that rocksdb's default bytewise comparator orders them.
+            cfCommonOpts = new ColumnFamilyOptions();
+            break;
         case "atlasdb-v2":
             cfCommonOpts = new ColumnFamilyOptions().setComparator(RocksComparator.INSTANCE);
             break;
@@ -117,7 +131,23 @@ public class RocksDbKeyValueService implements KeyValueService {
             throw new IllegalArgumentException("Unknown comparator " + comparator);
         }
         setReflectionOpts(cfCommonOpts, cfOptions);
-        return create(dataDir, dbOpts, cfMetadataOpts, cfCommonOpts, writeOpts);
+        setBloomFilter(cfCommonOpts, cfOptions);
+        return create(dataDir, dbOpts, cfMetadataOpts, cfCommonOpts, writeOpts, RocksKeyFormat.forComparator(comparator));
+    }
+
+    /**
+     * Whole key bloom filters let exact key lookups (multiGet) skip sst files which cannot
+     * contain the key. No prefix extractor is configured: this version of the rocksdb java
+     * api cannot request total order seeks, so with a prefix extractor a range scan which
+     * seeks into one row and then iterates across rows could skip files.
+     */
+    private static void setBloomFilter(ColumnFamilyOptions opts,
+                                       Map<String, String> stringOpts) {
+        String bitsPerKeyString = stringOpts.get(BLOOM_FILTER_BITS_PER_KEY_OPTION);
+        int bitsPerKey = bitsPerKeyString == null ? DEFAULT_BLOOM_FILTER_BITS_PER_KEY : Integer.parseInt(bitsPerKeyString);
+        if (bitsPerKey > 0) {
+            opts.setTableFormatConfig(new BlockBasedTableConfig().setFilter(new BloomFilter(bitsPerKey, false)));
+        }
     }
 
     private static void setReflectionOpts(Object opts,
@@ -155,8 +185,17 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                 ColumnFamilyOptions cfMetadataOptions,
                                                 ColumnFamilyOptions cfCommonOptions,
                                                 WriteOpts writeOptions) {
+        return create(dataDir, dbOptions, cfMetadataOptions, cfCommonOptions, writeOptions, RocksKeyFormat.ROW_SIZE_SUFFIX);
+    }
+
+    private static RocksDbKeyValueService create(String dataDir,
+                                                 DBOptions dbOptions,
+                                                 ColumnFamilyOptions cfMetadataOptions,
+                                                 ColumnFamilyOptions cfCommonOptions,
+                                                 WriteOpts writeOptions,
+                                                 RocksKeyFormat keyFormat) {
         try {
-            RocksDbKeyValueService kvs = lockAndCreateDb(new File(dataDir), dbOptions, cfMetadataOptions, cfCommonOptions, writeOptions);
+            RocksDbKeyValueService kvs = lockAndCreateDb(new File(dataDir), dbOptions, cfMetadataOptions, cfCommonOptions, writeOptions, keyFormat);
             registerMBean(kvs);
             return kvs;
         } catch (Exception e) {
@@ -180,7 +219,8 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                           final DBOptions dbOptions,
                                                           final ColumnFamilyOptions cfMetadataOptions,
                                                           final ColumnFamilyOptions cfCommonOptions,
-                                                          final WriteOpts writeOpts) throws IOException, RocksDBException {
+                                                          final WriteOpts writeOpts,
+                                                          final RocksKeyFormat keyFormat) throws IOException, RocksDBException {
         TempFileUtils.mkdirsWithRetry(dbDir);
         Preconditions.checkArgument(dbDir.exists() && dbDir.isDirectory(), "DB file must be a directory: " + dbDir);
         final RandomAccessFile randomAccessFile =
@@ -223,7 +263,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 }
             }, db);
             columnFamilies.initialize(cfDescriptors, cfHandles);
-            RocksDbKeyValueService ret = new RocksDbKeyValueService(db, columnFamilies, lock, randomAccessFile, writeOpts);
+            RocksDbKeyValueService ret = new RocksDbKeyValueService(db, columnFamilies, keyFormat, lock, randomAccessFile, writeOpts);
             ret.createTable(METADATA_TABLE_NAME, AtlasDbConstants.EMPTY_TABLE_METADATA);
             success = true;
             return ret;
@@ -248,11 +288,13 @@ public class RocksDbKeyValueService implements KeyValueService {
 
     private RocksDbKeyValueService(RocksDB db,
                                    ColumnFamilyMap columnFamilies,
+                                   RocksKeyFormat keyFormat,
                                    FileLock lock,
                                    RandomAccessFile file,
                                    WriteOpts writeOptions) {
         this.db = db;
         this.columnFamilies = columnFamilies;
+        this.keyFormat = keyFormat;
         this.lock = lock;
         this.lockFile = file;
         this.writeOptions = writeOptions;
@@ -297,9 +339,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 ColumnFamily table = columnFamilies.get(tableName)) {
             Map<Cell, Value> results = Maps.newHashMap();
             RocksIterator iter = d.register(getDb().newIterator(table.getHandle()));
-            for (byte[] row : rows) {
-                RocksDbKeyValueServices.getRow(iter, row, columnSelection, timestamp, results);
-            }
+            RocksDbKeyValueServices.getRows(keyFormat, iter, rows, columnSelection, timestamp, results);
             return results;
         }
     }
@@ -311,12 +351,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 ColumnFamily table = columnFamilies.get(tableName)) {
             Map<Cell, Value> results = Maps.newHashMap();
             RocksIterator iter = d.register(getDb().newIterator(table.getHandle()));
-            for (Entry<Cell, Long> entry : timestampByCell.entrySet()) {
-                Value value = RocksDbKeyValueServices.getCell(iter, entry.getKey(), entry.getValue());
-                if (value != null) {
-                    results.put(entry.getKey(), value);
-                }
-            }
+            RocksDbKeyValueServices.getCells(keyFormat, iter, timestampByCell, results);
             return results;
         }
     }
@@ -328,12 +363,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 ColumnFamily table = columnFamilies.get(tableName)) {
             Map<Cell, Long> results = Maps.newHashMap();
             RocksIterator iter = d.register(getDb().newIterator(table.getHandle()));
-            for (Entry<Cell, Long> entry : timestampByCell.entrySet()) {
-                Long ts = RocksDbKeyValueServices.getTimestamp(iter, entry.getKey(), entry.getValue());
-                if (ts != null) {
-                    results.put(entry.getKey(), ts);
-                }
-            }
+            RocksDbKeyValueServices.getLatestTimestamps(keyFormat, iter, timestampByCell, results);
             return results;
         }
     }
@@ -345,7 +375,7 @@ public class RocksDbKeyValueService implements KeyValueService {
             WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, byte[]> entry : values.entrySet()) {
-                byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), timestamp);
+                byte[] key = keyFormat.getKey(entry.getKey(), timestamp);
                 batch.put(table.getHandle(), key, entry.getValue());
             }
             getDb().write(options, batch);
@@ -367,7 +397,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 for (Entry<String, ? extends Map<Cell, byte[]>> entry : valuesByTable.entrySet()) {
                     ColumnFamilyHandle table = cfs.get(entry.getKey()).getHandle();
                     for (Entry<Cell, byte[]> subEntry : entry.getValue().entrySet()) {
-                        byte[] key = RocksDbKeyValueServices.getKey(subEntry.getKey(), timestamp);
+                        byte[] key = keyFormat.getKey(subEntry.getKey(), timestamp);
                         batch.put(table, key, subEntry.getValue());
                     }
                 }
@@ -390,7 +420,7 @@ public class RocksDbKeyValueService implements KeyValueService {
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, Value> entry : cellValues.entries()) {
                 Value value = entry.getValue();
-                byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), value.getTimestamp());
+                byte[] key = keyFormat.getKey(entry.getKey(), value.getTimestamp());
                 batch.put(table.getHandle(), key, value.getContents());
             }
             getDb().write(options, batch);
@@ -408,13 +438,21 @@ public class RocksDbKeyValueService implements KeyValueService {
             Set<Cell> alreadyExists = Sets.newHashSetWithExpectedSize(0);
             WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncCommit()));
             WriteBatch batch = d.register(new WriteBatch());
-            RocksIterator iter = d.register(getDb().newIterator(table.getHandle()));
-            for (Entry<Cell, byte[]> entry : values.entrySet()) {
-                byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), PUT_UNLESS_EXISTS_TS);
-                if (RocksDbKeyValueServices.keyExists(iter, key)) {
-                    alreadyExists.add(entry.getKey());
+            // These are exact keys, so check them with a single multiGet, which can use the
+            // bloom filters rather than seeking an iterator once per cell.
+            List<Entry<Cell, byte[]>> entries = ImmutableList.copyOf(values.entrySet());
+            List<byte[]> keys = Lists.newArrayListWithCapacity(entries.size());
+            for (Entry<Cell, byte[]> entry : entries) {
+                keys.add(keyFormat.getKey(entry.getKey(), PUT_UNLESS_EXISTS_TS));
+            }
+            Map<byte[], byte[]> existing = getDb().multiGet(
+                    Collections.nCopies(keys.size(), table.getHandle()), keys);
+            for (int i = 0; i < entries.size(); i++) {
+                byte[] key = keys.get(i);
+                if (existing.containsKey(key)) {
+                    alreadyExists.add(entries.get(i).getKey());
                 } else {
-                    batch.put(table.getHandle(), key, entry.getValue());
+                    batch.put(table.getHandle(), key, entries.get(i).getValue());
                 }
             }
             getDb().write(options, batch);
@@ -435,7 +473,7 @@ public class RocksDbKeyValueService implements KeyValueService {
             WriteOptions options = d.register(new WriteOptions().setSync(writeOptions.fsyncPut()));
             WriteBatch batch = d.register(new WriteBatch());
             for (Entry<Cell, Long> entry : keys.entries()) {
-                byte[] key = RocksDbKeyValueServices.getKey(entry.getKey(), entry.getValue());
+                byte[] key = keyFormat.getKey(entry.getKey(), entry.getValue());
                 batch.remove(table.getHandle(), key);
             }
             getDb().write(options, batch);
@@ -466,7 +504,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                        long timestamp) {
         ColumnFamily table = columnFamilies.get(tableName);
         RocksIterator iter = getDb().newIterator(table.getHandle());
-        return new ValueRangeIterator(table, iter, rangeRequest, timestamp);
+        return new ValueRangeIterator(table, keyFormat, iter, rangeRequest, timestamp);
     }
 
     @Override
@@ -475,7 +513,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                                        long timestamp) {
         ColumnFamily table = columnFamilies.get(tableName);
         RocksIterator iter = getDb().newIterator(table.getHandle());
-        return new HistoryRangeIterator(table, iter, rangeRequest, timestamp);
+        return new HistoryRangeIterator(table, keyFormat, iter, rangeRequest, timestamp);
     }
 
     @Override
@@ -484,7 +522,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                                                                        long timestamp) {
         ColumnFamily table = columnFamilies.get(tableName);
         RocksIterator iter = getDb().newIterator(table.getHandle());
-        return new TimestampRangeIterator(table, iter, rangeRequest, timestamp);
+        return new TimestampRangeIterator(table, keyFormat, iter, rangeRequest, timestamp);
     }
 
     @Override
@@ -604,7 +642,7 @@ public class RocksDbKeyValueService implements KeyValueService {
                 WriteOptions options = d.register(new WriteOptions().setSync(true));
                 WriteBatch batch = d.register(new WriteBatch());
                 for (Cell cell : cells) {
-                    byte[] key = RocksDbKeyValueServices.getKey(cell, Value.INVALID_VALUE_TIMESTAMP);
+                    byte[] key = keyFormat.getKey(cell, Value.INVALID_VALUE_TIMESTAMP);
                     batch.put(table.getHandle(), key, val);
                 }
                 getDb().write(options, batch);
@@ -622,9 +660,7 @@ public class RocksDbKeyValueService implements KeyValueService {
             Multimap<Cell, Long> results = ArrayListMultimap.create();
             RocksIterator iter = getDb().newIterator(table.getHandle());
             try {
-                for (Cell cell : cells) {
-                    RocksDbKeyValueServices.getTimestamps(iter, cell, timestamp, results);
-                }
+                RocksDbKeyValueServices.getAllTimestamps(keyFormat, iter, cells, timestamp, results);
             } finally {
                 iter.dispose();
             }
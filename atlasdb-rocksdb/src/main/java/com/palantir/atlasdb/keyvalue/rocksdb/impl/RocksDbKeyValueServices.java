@@ -15,46 +15,157 @@
  */
 package com.palantir.atlasdb.keyvalue.rocksdb.impl;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Map.Entry;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.rocksdb.RocksIterator;
 
-import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Multimap;
-import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.Value;
-import com.palantir.atlasdb.ptobject.EncodingUtils;
 import com.palantir.common.annotation.Output;
 import com.palantir.util.Pair;
 
 public class RocksDbKeyValueServices {
+    /**
+     * How many times a batched read will step a positioned iterator forward with next()
+     * before falling back to a seek. This matches rocksdb's own max_sequential_skip_in_iterations.
+     */
+    private static final int MAX_SEQUENTIAL_STEPS = 8;
 
     private RocksDbKeyValueServices() {
         // cannot instantiate
     }
 
+    static void getRows(RocksKeyFormat format,
+                        RocksIterator iter,
+                        Iterable<byte[]> rows,
+                        ColumnSelection columnSelection,
+                        long timestamp,
+                        @Output Map<Cell, Value> results) {
+        boolean positioned = false;
+        for (byte[] row : ImmutableSortedSet.orderedBy(UnsignedBytes.lexicographicalComparator()).addAll(rows).build()) {
+            seekRowForward(format, iter, row, timestamp, positioned);
+            positioned = true;
+            getRow(format, iter, row, columnSelection, timestamp, results);
+        }
+    }
 
-    static boolean keyExists(RocksIterator iter, byte[] key) {
-        iter.seek(key);
-        return iter.isValid() && Arrays.equals(key, iter.key());
+    static void getCells(RocksKeyFormat format,
+                         RocksIterator iter,
+                         Map<Cell, Long> timestampByCell,
+                         @Output Map<Cell, Value> results) {
+        boolean positioned = false;
+        for (Entry<Cell, Long> entry : ImmutableSortedMap.copyOf(timestampByCell).entrySet()) {
+            seekForward(format, iter, entry.getKey(), entry.getValue(), positioned);
+            positioned = true;
+            Value value = getCell(format, iter, entry.getKey());
+            if (value != null) {
+                results.put(entry.getKey(), value);
+            }
+        }
+    }
+
+    static void getLatestTimestamps(RocksKeyFormat format,
+                                    RocksIterator iter,
+                                    Map<Cell, Long> timestampByCell,
+                                    @Output Map<Cell, Long> results) {
+        boolean positioned = false;
+        for (Entry<Cell, Long> entry : ImmutableSortedMap.copyOf(timestampByCell).entrySet()) {
+            seekForward(format, iter, entry.getKey(), entry.getValue(), positioned);
+            positioned = true;
+            Long ts = getTimestamp(format, iter, entry.getKey());
+            if (ts != null) {
+                results.put(entry.getKey(), ts);
+            }
+        }
+    }
+
+    static void getAllTimestamps(RocksKeyFormat format,
+                                 RocksIterator iter,
+                                 Iterable<Cell> cells,
+                                 long timestamp,
+                                 @Output Multimap<Cell, Long> results) {
+        boolean positioned = false;
+        for (Cell cell : ImmutableSortedSet.copyOf(cells)) {
+            seekForward(format, iter, cell, timestamp, positioned);
+            positioned = true;
+            getTimestamps(format, iter, cell, results);
+        }
+    }
+
+    /**
+     * Positions the iterator on the first key at or after format.getKey(cell, timestamp - 1),
+     * exactly as a seek would. If the iterator is already positioned it must be at or before
+     * every key of this cell, which holds when cells are visited in sorted order; in that case
+     * it is stepped forward with next() while that is cheap, and only seeks if the target is
+     * further away. Which versions of the cell sort at or after the target depends on the
+     * format's timestamp order.
+     */
+    private static void seekForward(RocksKeyFormat format,
+                                    RocksIterator iter,
+                                    Cell cell,
+                                    long timestamp,
+                                    boolean positioned) {
+        if (positioned) {
+            for (int i = 0; i < MAX_SEQUENTIAL_STEPS && iter.isValid(); i++) {
+                Pair<Cell, Long> cellAndTs = format.parseCellAndTs(iter.key());
+                int cmp = cellAndTs.lhSide.compareTo(cell);
+                if (cmp > 0 || (cmp == 0 && isAtOrAfter(format, cellAndTs.rhSide, timestamp - 1))) {
+                    return;
+                }
+                iter.next();
+            }
+            if (!iter.isValid()) {
+                return;
+            }
+        }
+        iter.seek(format.getKey(cell, timestamp - 1));
     }
 
-    static void getRow(RocksIterator iter,
-                       byte[] row,
-                       ColumnSelection columnSelection,
-                       long timestamp,
-                       @Output Map<Cell, Value> results) {
-        iter.seek(getKey(row, timestamp - 1));
+    private static boolean isAtOrAfter(RocksKeyFormat format, long ts, long targetTs) {
+        return format.hasDescendingTimestamps() ? ts <= targetTs : ts >= targetTs;
+    }
+
+    /**
+     * Row equivalent of {@link #seekForward}. It is enough to reach the first key of the row,
+     * since {@link #getRow} skips versions which are too new.
+     */
+    private static void seekRowForward(RocksKeyFormat format,
+                                       RocksIterator iter,
+                                       byte[] row,
+                                       long timestamp,
+                                       boolean positioned) {
+        if (positioned) {
+            for (int i = 0; i < MAX_SEQUENTIAL_STEPS && iter.isValid(); i++) {
+                byte[] currentRow = format.parseCellAndTs(iter.key()).lhSide.getRowName();
+                if (UnsignedBytes.lexicographicalComparator().compare(currentRow, row) >= 0) {
+                    return;
+                }
+                iter.next();
+            }
+            if (!iter.isValid()) {
+                return;
+            }
+        }
+        iter.seek(format.getRowKey(row, timestamp - 1));
+    }
+
+    private static void getRow(RocksKeyFormat format,
+                               RocksIterator iter,
+                               byte[] row,
+                               ColumnSelection columnSelection,
+                               long timestamp,
+                               @Output Map<Cell, Value> results) {
         byte[] col = null;
         for (; iter.isValid(); iter.next()) {
-            Pair<Cell, Long> cellAndTs = parseCellAndTs(iter.key());
+            Pair<Cell, Long> cellAndTs = format.parseCellAndTs(iter.key());
             if (!Arrays.equals(row, cellAndTs.lhSide.getRowName())) {
                 return;
             }
@@ -68,12 +179,11 @@ public class RocksDbKeyValueServices {
         }
     }
 
-    static Value getCell(RocksIterator iter,
-                         Cell cell,
-                         long timestamp) {
-        iter.seek(getKey(cell, timestamp - 1));
+    private static Value getCell(RocksKeyFormat format,
+                                 RocksIterator iter,
+                                 Cell cell) {
         if (iter.isValid()) {
-            Pair<Cell, Long> cellAndTs = parseCellAndTs(iter.key());
+            Pair<Cell, Long> cellAndTs = format.parseCellAndTs(iter.key());
             if (cellAndTs.lhSide.equals(cell)) {
                 return Value.create(iter.value(), cellAndTs.rhSide);
             }
@@ -81,12 +191,11 @@ public class RocksDbKeyValueServices {
         return null;
     }
 
-    static Long getTimestamp(RocksIterator iter,
-                             Cell cell,
-                             long timestamp) {
-        iter.seek(getKey(cell, timestamp - 1));
+    private static Long getTimestamp(RocksKeyFormat format,
+                                     RocksIterator iter,
+                                     Cell cell) {
         if (iter.isValid()) {
-            Pair<Cell, Long> cellAndTs = parseCellAndTs(iter.key());
+            Pair<Cell, Long> cellAndTs = format.parseCellAndTs(iter.key());
             if (cellAndTs.lhSide.equals(cell)) {
                 return cellAndTs.rhSide;
             }
@@ -94,13 +203,12 @@ public class RocksDbKeyValueServices {
         return null;
     }
 
-    static void getTimestamps(RocksIterator iter,
-                              Cell cell,
-                              long timestamp,
-                              @Output Multimap<Cell, Long> results) {
-        iter.seek(getKey(cell, timestamp - 1));
+    private static void getTimestamps(RocksKeyFormat format,
+                                      RocksIterator iter,
+                                      Cell cell,
+                                      @Output Multimap<Cell, Long> results) {
         for (; iter.isValid(); iter.next()) {
-            Pair<Cell, Long> cellAndTs = parseCellAndTs(iter.key());
+            Pair<Cell, Long> cellAndTs = format.parseCellAndTs(iter.key());
             if (!cell.equals(cellAndTs.lhSide)) {
                 return;
             }
@@ -108,55 +216,6 @@ public class RocksDbKeyValueServices {
         }
     }
 
-    static byte[] getKey(byte[] row,
-                         long timeStamp) {
-        return getKey(row, new byte[1], timeStamp);
-    }
-
-    static byte[] getKey(Cell cell,
-                         long timeStamp) {
-        return getKey(cell.getRowName(), cell.getColumnName(), timeStamp);
-    }
-
-    static byte[] getKey(byte[] row,
-                         byte[] col,
-                         long timeStamp) {
-        Preconditions.checkArgument(EncodingUtils.sizeOfVarLong(row.length) <= 2);
-        byte[] rowSize = EncodingUtils.encodeVarLong(row.length);
-        ArrayUtils.reverse(rowSize);
-
-        byte[] key = new byte[row.length + col.length + 8 + rowSize.length];
-        ByteBuffer.wrap(key).order(ByteOrder.BIG_ENDIAN)
-                .put(row)
-                .put(col)
-                .putLong(timeStamp)
-                .put(rowSize);
-        return key;
-    }
-
-    static Pair<Cell, Long> parseCellAndTs(byte[] key) {
-        byte[] rowSizeBytes = new byte[2];
-        rowSizeBytes[0] = key[key.length - 1];
-        rowSizeBytes[1] = key[key.length - 2];
-
-        int rowSize = (int) EncodingUtils.decodeVarLong(rowSizeBytes);
-        int colEnd = key.length - 8 - EncodingUtils.sizeOfVarLong(rowSize);
-
-        byte[] rowName = Arrays.copyOf(key, rowSize);
-        byte[] colName = Arrays.copyOfRange(key, rowSize, colEnd);
-        long ts = Longs.fromBytes(
-                key[colEnd+0],
-                key[colEnd+1],
-                key[colEnd+2],
-                key[colEnd+3],
-                key[colEnd+4],
-                key[colEnd+5],
-                key[colEnd+6],
-                key[colEnd+7]);
-
-        return Pair.create(Cell.create(rowName, colName), ts);
-    }
-
     static boolean isInRange(byte[] row, byte[] endRow) {
         return endRow.length == 0 || PtBytes.compareTo(row, endRow) < 0;
     }
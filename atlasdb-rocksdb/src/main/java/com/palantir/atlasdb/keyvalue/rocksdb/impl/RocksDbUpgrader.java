@@ -18,14 +18,18 @@ package com.palantir.atlasdb.keyvalue.rocksdb.impl;
 import java.io.File;
 
 import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.WriteOptions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.rocksdb.impl.ColumnFamilyMap.ColumnFamily;
 import com.palantir.atlasdb.rocksdb.RocksDbAtlasDbFactory;
 import com.palantir.atlasdb.rocksdb.RocksDbKeyValueServiceConfig;
+import com.palantir.util.Pair;
 
 public class RocksDbUpgrader {
     private static final ObjectMapper MAPPER = new ObjectMapper();
@@ -64,10 +68,15 @@ public class RocksDbUpgrader {
             ColumnFamilyHandle newHandle = newCf.getHandle();
             WriteOptions opts = new WriteOptions().setDisableWAL(true).setSync(false);
             RocksIterator iter = oldKvs.db.newIterator(oldCf.getHandle());
+            boolean reencodeKeys = oldKvs.keyFormat != newKvs.keyFormat && hasCellKeys(table);
             iter.seekToFirst();
             long count = 0;
             while (iter.isValid()) {
                 byte[] key = iter.key();
+                if (reencodeKeys) {
+                    Pair<Cell, Long> cellAndTs = oldKvs.keyFormat.parseCellAndTs(key);
+                    key = newKvs.keyFormat.getKey(cellAndTs.lhSide, cellAndTs.rhSide);
+                }
                 byte[] value = iter.value();
                 newKvs.db.put(newHandle, opts, key, value);
                 iter.next();
@@ -83,11 +92,20 @@ public class RocksDbUpgrader {
         System.out.println("Finished migration of all tables.");
     }
 
+    private static boolean hasCellKeys(String table) {
+        // The metadata and default column families are keyed by plain strings.
+        return !table.equals(RocksDbKeyValueService.METADATA_TABLE_NAME)
+                && !table.equals(new String(RocksDB.DEFAULT_COLUMN_FAMILY, Charsets.UTF_8));
+    }
+
     private static void help() {
         System.out.println("RocksDbUpgrader");
         System.out.println();
         System.out.println("  Use this cli to copy your existing rocksdb database");
         System.out.println("  into a new database with possibly different settings.");
+        System.out.println("  Keys are re-encoded when the two configurations use");
+        System.out.println("  different comparators, e.g. to move from atlasdb-v2");
+        System.out.println("  to the bytewise atlasdb-v3 key format.");
         System.out.println();
         System.out.println("Usage: RocksDbUpgrader old-settings.json new-settings.json");
         System.out.println();
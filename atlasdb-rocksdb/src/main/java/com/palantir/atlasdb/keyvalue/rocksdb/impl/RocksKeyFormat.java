@@ -0,0 +1,247 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.rocksdb.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.apache.commons.lang.ArrayUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.util.Pair;
+
+/**
+ * The layout of the (cell, timestamp) keys stored in every table column family.
+ * <p>
+ * Within a row, cells are ordered by column and, within a cell, by descending timestamp,
+ * except in {@link #ASCENDING_ROW_SIZE_SUFFIX}.
+ */
+enum RocksKeyFormat {
+    /**
+     * row + col + big-endian timestamp + reversed varlong row size. These keys can only be
+     * ordered by one of the java comparators, and this is the layout {@link RocksComparator}
+     * orders.
+     */
+    ROW_SIZE_SUFFIX(true) {
+        @Override
+        byte[] getRowKey(byte[] row, long timeStamp) {
+            return getKey(row, new byte[1], timeStamp);
+        }
+
+        @Override
+        byte[] getKey(byte[] row, byte[] col, long timeStamp) {
+            Preconditions.checkArgument(EncodingUtils.sizeOfVarLong(row.length) <= 2);
+            byte[] rowSize = EncodingUtils.encodeVarLong(row.length);
+            ArrayUtils.reverse(rowSize);
+
+            byte[] key = new byte[row.length + col.length + 8 + rowSize.length];
+            ByteBuffer.wrap(key).order(ByteOrder.BIG_ENDIAN)
+                    .put(row)
+                    .put(col)
+                    .putLong(timeStamp)
+                    .put(rowSize);
+            return key;
+        }
+
+        @Override
+        Pair<Cell, Long> parseCellAndTs(byte[] key) {
+            byte[] rowSizeBytes = new byte[2];
+            rowSizeBytes[0] = key[key.length - 1];
+            rowSizeBytes[1] = key[key.length - 2];
+
+            int rowSize = (int) EncodingUtils.decodeVarLong(rowSizeBytes);
+            int colEnd = key.length - 8 - EncodingUtils.sizeOfVarLong(rowSize);
+
+            byte[] rowName = Arrays.copyOf(key, rowSize);
+            byte[] colName = Arrays.copyOfRange(key, rowSize, colEnd);
+            long ts = Longs.fromBytes(
+                    key[colEnd+0],
+                    key[colEnd+1],
+                    key[colEnd+2],
+                    key[colEnd+3],
+                    key[colEnd+4],
+                    key[colEnd+5],
+                    key[colEnd+6],
+                    key[colEnd+7]);
+
+            return Pair.create(Cell.create(rowName, colName), ts);
+        }
+    },
+
+    /**
+     * The keys of {@link #ROW_SIZE_SUFFIX} as ordered by the legacy {@link RocksOldComparator},
+     * which sorts the versions of a cell by ascending timestamp.
+     */
+    ASCENDING_ROW_SIZE_SUFFIX(false) {
+        @Override
+        byte[] getRowKey(byte[] row, long timeStamp) {
+            return ROW_SIZE_SUFFIX.getRowKey(row, timeStamp);
+        }
+
+        @Override
+        byte[] getKey(byte[] row, byte[] col, long timeStamp) {
+            return ROW_SIZE_SUFFIX.getKey(row, col, timeStamp);
+        }
+
+        @Override
+        Pair<Cell, Long> parseCellAndTs(byte[] key) {
+            return ROW_SIZE_SUFFIX.parseCellAndTs(key);
+        }
+    },
+
+    /**
+     * escaped row + escaped col + big-endian inverted timestamp. Row and column have every
+     * 0x00 byte written as 0x00 0xFF and are terminated by 0x00 0x01, so a shorter name sorts
+     * before any name it is a prefix of, and the timestamp is stored xor {@link Long#MAX_VALUE}
+     * so that later timestamps sort first. These keys are correctly ordered by RocksDB's
+     * built-in bytewise comparator and need no java comparator at all.
+     */
+    BYTEWISE(true) {
+        @Override
+        byte[] getRowKey(byte[] row, long timeStamp) {
+            byte[] key = new byte[escapedLength(row)];
+            escape(row, key, 0);
+            return key;
+        }
+
+        @Override
+        byte[] getKey(byte[] row, byte[] col, long timeStamp) {
+            byte[] key = new byte[escapedLength(row) + escapedLength(col) + 8];
+            int offset = escape(row, key, 0);
+            offset = escape(col, key, offset);
+            long invertedTs = timeStamp ^ Long.MAX_VALUE;
+            for (int i = 7; i >= 0; i--) {
+                key[offset + i] = (byte) invertedTs;
+                invertedTs >>>= 8;
+            }
+            return key;
+        }
+
+        @Override
+        Pair<Cell, Long> parseCellAndTs(byte[] key) {
+            int rowEnd = findTerminator(key, 0);
+            int colEnd = findTerminator(key, rowEnd + 2);
+            byte[] rowName = unescape(key, 0, rowEnd);
+            byte[] colName = unescape(key, rowEnd + 2, colEnd);
+            int tsStart = colEnd + 2;
+            Preconditions.checkArgument(key.length == tsStart + 8, "Malformed key");
+            long ts = Longs.fromBytes(
+                    key[tsStart+0],
+                    key[tsStart+1],
+                    key[tsStart+2],
+                    key[tsStart+3],
+                    key[tsStart+4],
+                    key[tsStart+5],
+                    key[tsStart+6],
+                    key[tsStart+7]);
+            return Pair.create(Cell.create(rowName, colName), ts ^ Long.MAX_VALUE);
+        }
+    };
+
+    private static final byte ESCAPE = 0x00;
+    private static final byte ESCAPED_ZERO = (byte) 0xFF;
+    private static final byte TERMINATOR = 0x01;
+
+    private final boolean descendingTimestamps;
+
+    private RocksKeyFormat(boolean descendingTimestamps) {
+        this.descendingTimestamps = descendingTimestamps;
+    }
+
+    /**
+     * Returns true if the versions of a cell are ordered from the latest timestamp to the
+     * earliest.
+     */
+    boolean hasDescendingTimestamps() {
+        return descendingTimestamps;
+    }
+
+    /**
+     * Returns a key which sorts no later than any cell of this row visible at timeStamp.
+     */
+    abstract byte[] getRowKey(byte[] row, long timeStamp);
+
+    abstract byte[] getKey(byte[] row, byte[] col, long timeStamp);
+
+    abstract Pair<Cell, Long> parseCellAndTs(byte[] key);
+
+    byte[] getKey(Cell cell, long timeStamp) {
+        return getKey(cell.getRowName(), cell.getColumnName(), timeStamp);
+    }
+
+    static RocksKeyFormat forComparator(String comparatorName) {
+        switch (comparatorName) {
+        case "atlasdb-v3":
+            return BYTEWISE;
+        case "atlasdb-v2":
+            return ROW_SIZE_SUFFIX;
+        case "atlasdb":
+            return ASCENDING_ROW_SIZE_SUFFIX;
+        default:
+            throw new IllegalArgumentException("Unknown comparator " + comparatorName);
+        }
+    }
+
+    private static int escapedLength(byte[] bytes) {
+        int length = bytes.length + 2;
+        for (byte b : bytes) {
+            if (b == ESCAPE) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private static int escape(byte[] bytes, byte[] dest, int offset) {
+        for (byte b : bytes) {
+            dest[offset++] = b;
+            if (b == ESCAPE) {
+                dest[offset++] = ESCAPED_ZERO;
+            }
+        }
+        dest[offset++] = ESCAPE;
+        dest[offset++] = TERMINATOR;
+        return offset;
+    }
+
+    private static int findTerminator(byte[] key, int start) {
+        for (int i = start; i < key.length - 1; i++) {
+            if (key[i] == ESCAPE) {
+                if (key[i + 1] == TERMINATOR) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Malformed key, missing terminator");
+    }
+
+    private static byte[] unescape(byte[] key, int start, int end) {
+        byte[] ret = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            ret[length++] = key[i];
+            if (key[i] == ESCAPE) {
+                i++;
+            }
+        }
+        return length == ret.length ? ret : Arrays.copyOf(ret, length);
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.common.remoting.ServiceNotAvailableException;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosProposer;
+import com.palantir.paxos.PaxosRoundFailureException;
+import com.palantir.paxos.PaxosValue;
+
+/**
+ * A {@link TransactionService} which decides the commit timestamps of many concurrently
+ * committing transactions with a single paxos round.
+ * <p>
+ * Committing threads queue their start to commit timestamp pairs, and whichever thread finds no
+ * round in progress proposes everything queued as one value and writes the decided batch to the
+ * key value service with one putAll.  Each thread still gets its own result.
+ * <p>
+ * Batches are decided on consecutive sequence numbers, so this service must have paxos
+ * acceptors and learners of its own and cannot share them with a {@link PaxosTransactionService}.
+ * Before proposing at a sequence number the previous batch is written to the key value service,
+ * which is therefore authoritative for every earlier batch; a start timestamp already present
+ * there is never proposed again.
+ */
+public class BatchingPaxosTransactionService implements TransactionService {
+    private final PaxosProposer proposer;
+    private final PaxosLearner learner;
+    private final TransactionKVSWrapper kvStore;
+
+    private final Queue<PendingCommit> pendingCommits = new ConcurrentLinkedQueue<PendingCommit>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    @GuardedBy("batchLock") private long lastWrittenSeq = Long.MIN_VALUE;
+
+    public static TransactionService create(PaxosProposer proposer,
+                                            PaxosLearner learner,
+                                            TransactionKVSWrapper kvStore) {
+        return new BatchingPaxosTransactionService(proposer, learner, kvStore);
+    }
+
+    /**
+     * @param proposer a proposer whose local learner is learner
+     */
+    private BatchingPaxosTransactionService(PaxosProposer proposer,
+                                            PaxosLearner learner,
+                                            TransactionKVSWrapper kvStore) {
+        this.proposer = proposer;
+        this.learner = learner;
+        this.kvStore = kvStore;
+    }
+
+    @Override
+    public Long get(long startTimestamp) {
+        return kvStore.get(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        return kvStore.get(startTimestamps);
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        PendingCommit commit = new PendingCommit(startTimestamp, commitTimestamp);
+        pendingCommits.add(commit);
+
+        // Threads queue up here while a round is in progress, and the first of them to get the
+        // lock proposes the commits of all the others as well.
+        batchLock.lock();
+        try {
+            if (!commit.isDone()) {
+                runBatch();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (commit.failure != null) {
+            throw commit.failure;
+        }
+        if (!commit.isDone()) {
+            // the thread running our batch died with an error
+            throw new ServiceNotAvailableException("Could not store transaction");
+        }
+        if (commit.decidedCommitTimestamp != commitTimestamp) {
+            throw new KeyAlreadyExistsException("Key " + startTimestamp + " already exists and is mapped to "
+                    + commit.decidedCommitTimestamp);
+        }
+    }
+
+    @GuardedBy("batchLock")
+    private void runBatch() {
+        Map<Long, List<PendingCommit>> unresolved = Maps.newHashMap();
+        for (PendingCommit commit = pendingCommits.poll(); commit != null; commit = pendingCommits.poll()) {
+            List<PendingCommit> commits = unresolved.get(commit.startTimestamp);
+            if (commits == null) {
+                commits = Lists.newArrayListWithCapacity(1);
+                unresolved.put(commit.startTimestamp, commits);
+            }
+            commits.add(commit);
+        }
+
+        try {
+            while (!unresolved.isEmpty()) {
+                long seq = writePreviousBatchAndGetNextSeq();
+                resolve(unresolved, kvStore.get(unresolved.keySet()));
+                if (unresolved.isEmpty()) {
+                    break;
+                }
+
+                // The first thread to commit a start timestamp proposes its commit timestamp.
+                Map<Long, Long> proposal = Maps.newHashMapWithExpectedSize(unresolved.size());
+                for (Map.Entry<Long, List<PendingCommit>> e : unresolved.entrySet()) {
+                    proposal.put(e.getKey(), e.getValue().get(0).commitTimestamp);
+                }
+
+                byte[] decided;
+                try {
+                    decided = proposer.propose(seq, encodeBatch(proposal));
+                } catch (PaxosRoundFailureException e) {
+                    throw new ServiceNotAvailableException("Could not store transactions", e);
+                }
+
+                // If another proposer won this sequence number, our commits go in the next batch.
+                Map<Long, Long> decidedBatch = decodeBatch(decided);
+                writeBatch(seq, decidedBatch);
+                resolve(unresolved, decidedBatch);
+            }
+        } catch (RuntimeException e) {
+            for (List<PendingCommit> commits : unresolved.values()) {
+                for (PendingCommit commit : commits) {
+                    commit.failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the greatest batch we know to have been decided and returns the sequence number after
+     * it.  Whoever decided the batch before that wrote it before proposing, and so on, so every
+     * earlier batch is then in the key value service.
+     */
+    @GuardedBy("batchLock")
+    private long writePreviousBatchAndGetNextSeq() {
+        PaxosValue greatest = learner.getGreatestLearnedValue();
+        if (greatest == null) {
+            return 0;
+        }
+        if (greatest.getRound() != lastWrittenSeq) {
+            writeBatch(greatest.getRound(), decodeBatch(greatest.getData()));
+        }
+        return greatest.getRound() + 1;
+    }
+
+    @GuardedBy("batchLock")
+    private void writeBatch(long seq, Map<Long, Long> batch) {
+        if (!batch.isEmpty()) {
+            kvStore.putAll(batch);
+        }
+        lastWrittenSeq = seq;
+    }
+
+    private static void resolve(Map<Long, List<PendingCommit>> unresolved, Map<Long, Long> decided) {
+        for (Map.Entry<Long, Long> e : decided.entrySet()) {
+            List<PendingCommit> commits = unresolved.remove(e.getKey());
+            if (commits != null) {
+                for (PendingCommit commit : commits) {
+                    commit.decidedCommitTimestamp = e.getValue();
+                }
+            }
+        }
+    }
+
+    static byte[] encodeBatch(Map<Long, Long> batch) {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * 2 * 8);
+        for (Map.Entry<Long, Long> e : batch.entrySet()) {
+            buffer.putLong(e.getKey());
+            buffer.putLong(e.getValue());
+        }
+        return buffer.array();
+    }
+
+    static Map<Long, Long> decodeBatch(byte[] bytes) {
+        if (bytes == null) {
+            return ImmutableMap.of();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Map<Long, Long> batch = Maps.newHashMapWithExpectedSize(bytes.length / 16);
+        while (buffer.hasRemaining()) {
+            batch.put(buffer.getLong(), buffer.getLong());
+        }
+        return batch;
+    }
+
+    /**
+     * A commit waiting to be decided.  Its result is written by the thread running the batch and
+     * read by the committing thread after it has taken the batch lock.
+     */
+    private static final class PendingCommit {
+        final long startTimestamp;
+        final long commitTimestamp;
+        Long decidedCommitTimestamp;
+        RuntimeException failure;
+
+        PendingCommit(long startTimestamp, long commitTimestamp) {
+            this.startTimestamp = startTimestamp;
+            this.commitTimestamp = commitTimestamp;
+        }
+
+        boolean isDone() {
+            return decidedCommitTimestamp != null || failure != null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.paxos.PaxosAcceptor;
+import com.palantir.paxos.PaxosAcceptorImpl;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosLearnerImpl;
+import com.palantir.paxos.PaxosProposer;
+import com.palantir.paxos.PaxosProposerImpl;
+import com.palantir.paxos.PaxosRoundFailureException;
+
+public class BatchingPaxosTransactionServiceTest {
+    private static final String LOG_DIR = "batching-paxos-test/";
+    private static final int NUM_NODES = 3;
+
+    private final List<PaxosAcceptor> acceptors = Lists.newArrayList();
+    private final List<PaxosLearner> learners = Lists.newArrayList();
+    private final AtomicInteger proposals = new AtomicInteger();
+    private final TransactionKVSWrapper kvStore = new TransactionKVSWrapper(new InMemoryKeyValueService(true));
+    private ExecutorService executor;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+        executor = PTExecutors.newCachedThreadPool();
+        for (int i = 0; i < NUM_NODES; i++) {
+            acceptors.add(PaxosAcceptorImpl.newAcceptor(LOG_DIR + "acceptor/" + i));
+            learners.add(PaxosLearnerImpl.newLearner(LOG_DIR + "learner/" + i));
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+    }
+
+    @Test
+    public void testConcurrentCommitsShareRounds() throws Exception {
+        final TransactionService service = newService(0);
+        int numCommits = 32;
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int i = 0; i < numCommits; i++) {
+            final long startTs = i;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    service.putUnlessExists(startTs, startTs + 100);
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        for (long startTs = 0; startTs < numCommits; startTs++) {
+            assertEquals(Long.valueOf(startTs + 100), service.get(startTs));
+        }
+        assertTrue("expected commits to be batched, but saw " + proposals.get() + " proposals",
+                proposals.get() < numCommits);
+    }
+
+    @Test
+    public void testEachStartTimestampIsDecidedOnce() throws Exception {
+        TransactionService first = newService(0);
+        TransactionService second = newService(1);
+
+        first.putUnlessExists(1, 10);
+        try {
+            second.putUnlessExists(1, 20);
+            fail();
+        } catch (KeyAlreadyExistsException e) {
+            // expected
+        }
+
+        // the second service proposes on top of the batch the first decided
+        second.putUnlessExists(2, 20);
+        try {
+            first.putUnlessExists(2, 30);
+            fail();
+        } catch (KeyAlreadyExistsException e) {
+            // expected
+        }
+        assertEquals(Long.valueOf(10), first.get(1));
+        assertEquals(Long.valueOf(20), first.get(2));
+    }
+
+    private TransactionService newService(int node) {
+        final PaxosProposer delegate = PaxosProposerImpl.newProposer(
+                learners.get(node),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                NUM_NODES / 2 + 1,
+                executor);
+        PaxosProposer slowProposer = new PaxosProposer() {
+            @Override
+            public byte[] propose(long seq, byte[] proposalValue) throws PaxosRoundFailureException {
+                proposals.incrementAndGet();
+                try {
+                    // give other committers time to queue up behind this round
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new PaxosRoundFailureException("interrupted", e);
+                }
+                return delegate.propose(seq, proposalValue);
+            }
+
+            @Override
+            public int getQuorumSize() {
+                return delegate.getQuorumSize();
+            }
+
+            @Override
+            public String getUUID() {
+                return delegate.getUUID();
+            }
+        };
+        return BatchingPaxosTransactionService.create(slowProposer, learners.get(node), kvStore);
+    }
+}
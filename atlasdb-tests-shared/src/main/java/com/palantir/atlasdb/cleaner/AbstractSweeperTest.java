@@ -19,6 +19,8 @@ import static com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProg
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
@@ -32,6 +34,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -127,6 +130,15 @@ public abstract class AbstractSweeperTest {
         backgroundSweeper = new BackgroundSweeperImpl(txManager, kvs, sweepRunner, sweepEnabledSupplier, sweepNoPause, batchSizeSupplier, SweepTableFactory.of());
     }
 
+    protected void setupParallelBackgroundSweeper(int batchSize, int threads) {
+        Supplier<Boolean> sweepEnabledSupplier = () -> true;
+        Supplier<Long> sweepNoPause = () -> 0L;
+        Supplier<Integer> batchSizeSupplier = () -> batchSize;
+        Supplier<Long> noCellsLimit = () -> Long.MAX_VALUE;
+        backgroundSweeper = new BackgroundSweeperImpl(txManager, kvs, sweepRunner, sweepEnabledSupplier, sweepNoPause,
+                batchSizeSupplier, SweepTableFactory.of(), threads, noCellsLimit);
+    }
+
     @After
     public void tearDown() {
         kvs.teardown();
@@ -493,6 +505,103 @@ public abstract class AbstractSweeperTest {
         }
     }
 
+    @Test
+    public void testParallelSweepSweepsAllRanges() {
+        setupParallelBackgroundSweeper(2, 4);
+        createTable(SweepStrategy.CONSERVATIVE);
+        List<String> rows = ImmutableList.of("0foo", "1foo", "Afoo", "Bfoo", "afoo", "zfoo");
+        // Stay clear of the timestamps given to the sweeper's own transactions.
+        for (int i = 0; i < rows.size(); i++) {
+            put(rows.get(i), "bar", 10000 + i);
+            put(rows.get(i), "baz", 20000 + i);
+        }
+        sweepTimestamp.set(30000);
+        for (int i = 0; i < 100 && backgroundSweeper.runRangeOnce(); i++) {
+            // keep sweeping until no table is worth sweeping
+        }
+        Assert.assertFalse(backgroundSweeper.runRangeOnce());
+
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertEquals("baz", get(rows.get(i), 30000));
+            Assert.assertEquals(ImmutableSet.of(-1L, 20000L + i), getAllTs(rows.get(i)));
+        }
+        SweepPriorityRowResult result = Iterables.getOnlyElement(Iterables.filter(getPriorityTable(),
+                r -> r.getRowName().getFullTableName().equals(TABLE_NAME)));
+        Assert.assertEquals(new Long(30000), result.getMinimumSweptTimestamp());
+        Assert.assertEquals(new Long(rows.size()), result.getCellsDeleted());
+        Assert.assertEquals(new Long(rows.size()), result.getCellsExamined());
+        Assert.assertEquals(0, getProgressTable().size());
+    }
+
+    @Test
+    public void testPipelinedSweepMatchesSerialSweep() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SweepTaskRunnerImpl pipelinedRunner = new SweepTaskRunnerImpl(txManager, kvs, sweepTimestamp::get,
+                    sweepTimestamp::get, txService, SweepStrategyManagers.createDefault(kvs),
+                    ImmutableList.<Follower>of(), executor, 2);
+            createTable(SweepStrategy.THOROUGH);
+            int numRows = 7;
+            for (int i = 0; i < numRows; i++) {
+                put("row" + i, "bar", 50 + i);
+                put("row" + i, i % 2 == 0 ? "" : "baz", 100 + i);
+            }
+            sweepTimestamp.set(175);
+
+            // sweepRunner has no pipeline executor, so it sweeps each batch serially.
+            List<SweepResults> serialResults = sweepInBatchesOf(sweepRunner, 5);
+            List<Set<Long>> serialTimestamps = Lists.newArrayList();
+            for (int i = 0; i < numRows; i++) {
+                serialTimestamps.add(getAllTs("row" + i));
+            }
+
+            // The values are committed already, so they only need to be written again.
+            kvs.truncateTable(TABLE_NAME);
+            for (int i = 0; i < numRows; i++) {
+                putUncommitted("row" + i, "bar", 50 + i);
+                putUncommitted("row" + i, i % 2 == 0 ? "" : "baz", 100 + i);
+            }
+            List<SweepResults> pipelinedResults = sweepInBatchesOf(pipelinedRunner, 5);
+
+            Assert.assertEquals(2, serialResults.size());
+            Assert.assertEquals(serialResults.size(), pipelinedResults.size());
+            for (int i = 0; i < serialResults.size(); i++) {
+                assertSameResults(serialResults.get(i), pipelinedResults.get(i));
+            }
+            for (int i = 0; i < numRows; i++) {
+                Assert.assertEquals(serialTimestamps.get(i), getAllTs("row" + i));
+            }
+            Assert.assertEquals(2, pipelinedRunner.getStageMetrics().getBatchCount());
+
+            // Rows whose latest value is a delete lose both values, the others keep their latest.
+            Assert.assertEquals(4 * 2 + 3, serialResults.get(0).getCellsDeleted() + serialResults.get(1).getCellsDeleted());
+            for (int i = 0; i < numRows; i++) {
+                Set<Long> expected = i % 2 == 0 ? ImmutableSet.<Long>of() : ImmutableSet.of(100L + i);
+                Assert.assertEquals(expected, serialTimestamps.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<SweepResults> sweepInBatchesOf(SweepTaskRunner runner, int batchSize) {
+        List<SweepResults> results = Lists.newArrayList();
+        byte[] startRow = new byte[0];
+        while (startRow != null) {
+            SweepResults result = runner.run(TABLE_NAME, batchSize, startRow);
+            results.add(result);
+            startRow = result.getNextStartRow().orNull();
+        }
+        return results;
+    }
+
+    private static void assertSameResults(SweepResults expected, SweepResults actual) {
+        Assert.assertEquals(expected.getCellsExamined(), actual.getCellsExamined());
+        Assert.assertEquals(expected.getCellsDeleted(), actual.getCellsDeleted());
+        Assert.assertEquals(expected.getSweptTimestamp(), actual.getSweptTimestamp());
+        Assert.assertArrayEquals(expected.getNextStartRow().orNull(), actual.getNextStartRow().orNull());
+    }
+
     private List<SweepProgressRowResult> getProgressTable() {
         return txManager.runTaskReadOnly(t -> {
             SweepProgressTable progressTable = SweepTableFactory.of().getSweepProgressTable(t);
@@ -79,6 +79,7 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 NoOpCleaner.INSTANCE,
                 Suppliers.ofInstance(timestampService.getFreshTimestamp()),
                 ConflictDetectionManagers.fromMap(tablesToWriteWrite),
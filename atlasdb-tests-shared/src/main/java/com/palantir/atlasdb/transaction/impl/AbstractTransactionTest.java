@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 
 import org.junit.After;
@@ -82,6 +83,7 @@ import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.collect.IterableView;
 import com.palantir.common.collect.MapEntries;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockServerOptions;
 import com.palantir.lock.impl.LockServiceImpl;
@@ -101,6 +103,7 @@ public abstract class AbstractTransactionTest {
     protected TransactionService transactionService;
     protected ConflictDetectionManager conflictDetectionManager;
     protected SweepStrategyManager sweepStrategyManager;
+    protected CommitTimestampCache commitTimestampCache;
 
     @BeforeClass
     public static void setupLockClient() {
@@ -136,6 +139,7 @@ public abstract class AbstractTransactionTest {
         transactionService = TransactionServices.createTransactionService(keyValueService);
         conflictDetectionManager = ConflictDetectionManagers.createDefault(keyValueService);
         sweepStrategyManager = SweepStrategyManagers.createDefault(keyValueService);
+        commitTimestampCache = new CommitTimestampCache();
     }
 
     @After
@@ -168,6 +172,7 @@ public abstract class AbstractTransactionTest {
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 NoOpCleaner.INSTANCE,
                 timestampService.getFreshTimestamp(),
                 ImmutableMap.of(
@@ -866,6 +871,31 @@ public abstract class AbstractTransactionTest {
         assertEquals("v3", get(t, "row2", "col1"));
     }
 
+    @Test
+    public void testGetAsync() throws InterruptedException, ExecutionException {
+        Transaction t = startTransaction();
+        put(t, "row1", "col1", "v1");
+        put(t, "row1", "col2", "v2");
+        t.commit();
+
+        ExecutorService executor = PTExecutors.newCachedThreadPool();
+        try {
+            t = startTransaction();
+            put(t, "row1", "col2", "v3");
+            put(t, "row2", "col1", "v4");
+            Map<Cell, byte[]> result = ((SnapshotTransaction) t).getAsync(
+                    TEST_TABLE,
+                    ImmutableSet.of(getCell("row1", "col1"), getCell("row1", "col2"), getCell("row3", "col1")),
+                    executor).get();
+            assertEquals(2, result.size());
+            assertEquals("v1", PtBytes.toString(result.get(getCell("row1", "col1"))));
+            assertEquals("v3", PtBytes.toString(result.get(getCell("row1", "col2"))));
+            t.commit();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testReadMyWritesRange() {
         Transaction t = startTransaction();
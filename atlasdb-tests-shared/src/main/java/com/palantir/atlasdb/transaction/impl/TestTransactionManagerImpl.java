@@ -87,6 +87,7 @@ public class TestTransactionManagerImpl extends SerializableTransactionManager i
                 lockService,
                 timestampService,
                 transactionService,
+                commitTimestampCache,
                 cleaner,
                 timestampService.getFreshTimestamp(),
                 conflictDetectionManager.get(),
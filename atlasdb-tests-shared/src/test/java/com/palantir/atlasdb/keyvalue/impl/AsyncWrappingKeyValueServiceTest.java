@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.timestamp.InMemoryTimestampService;
+
+public class AsyncWrappingKeyValueServiceTest {
+    private static final String TABLE = "ns.table";
+    private static final Cell CELL = Cell.create("row".getBytes(), "column".getBytes());
+    private static final byte[] VALUE = "value".getBytes();
+    private static final long TIMESTAMP = 10L;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAsyncCallsReachNativeAsyncKeyValueServiceThroughWrappers() throws Exception {
+        CountingAsyncKeyValueService rawKvs = new CountingAsyncKeyValueService(executor);
+        KeyValueService kvs = NamespacedKeyValueServices.wrapWithStaticNamespaceMappingKvs(rawKvs);
+        kvs = new SweepStatsKeyValueService(kvs, new InMemoryTimestampService());
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+
+        AsyncKeyValueService asyncKvs = KeyValueServices.asAsync(kvs, executor);
+        asyncKvs.multiPutAsync(ImmutableMap.of(TABLE, ImmutableMap.of(CELL, VALUE)), TIMESTAMP).get();
+        Map<Cell, Value> result = asyncKvs.getAsync(TABLE, ImmutableMap.of(CELL, TIMESTAMP + 1)).get();
+
+        assertEquals(1, rawKvs.multiPutAsyncCalls.get());
+        assertEquals(1, rawKvs.getAsyncCalls.get());
+        assertArrayEquals(VALUE, result.get(CELL).getContents());
+        assertArrayEquals(VALUE, kvs.get(TABLE, ImmutableMap.of(CELL, TIMESTAMP + 1)).get(CELL).getContents());
+    }
+
+    @Test
+    public void testBlockingKeyValueServiceStillWorksThroughWrappers() throws Exception {
+        KeyValueService kvs = NamespacedKeyValueServices.wrapWithStaticNamespaceMappingKvs(
+                new InMemoryKeyValueService(false));
+        kvs = new SweepStatsKeyValueService(kvs, new InMemoryTimestampService());
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+
+        AsyncKeyValueService asyncKvs = KeyValueServices.asAsync(kvs, executor);
+        asyncKvs.multiPutAsync(ImmutableMap.of(TABLE, ImmutableMap.of(CELL, VALUE)), TIMESTAMP).get();
+
+        assertArrayEquals(VALUE, kvs.get(TABLE, ImmutableMap.of(CELL, TIMESTAMP + 1)).get(CELL).getContents());
+    }
+
+    private static class CountingAsyncKeyValueService extends BlockingAsyncKeyValueService {
+        final AtomicInteger getAsyncCalls = new AtomicInteger();
+        final AtomicInteger multiPutAsyncCalls = new AtomicInteger();
+
+        CountingAsyncKeyValueService(ExecutorService executor) {
+            super(new InMemoryKeyValueService(false), executor);
+        }
+
+        @Override
+        public ListenableFuture<Map<Cell, Value>> getAsync(String tableName, Map<Cell, Long> timestampByCell) {
+            getAsyncCalls.incrementAndGet();
+            return super.getAsync(tableName, timestampByCell);
+        }
+
+        @Override
+        public ListenableFuture<Void> multiPutAsync(Map<String, ? extends Map<Cell, byte[]>> valuesByTable,
+                                                    long timestamp) {
+            multiPutAsyncCalls.incrementAndGet();
+            return super.multiPutAsync(valuesByTable, timestamp);
+        }
+    }
+}
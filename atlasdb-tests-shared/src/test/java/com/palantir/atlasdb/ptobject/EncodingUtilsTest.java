@@ -20,11 +20,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.SortedMap;
+import java.util.UUID;
 
 import org.junit.Test;
 
@@ -284,4 +287,78 @@ public class EncodingUtilsTest {
             assertEquals(components, result);
         }
     }
+
+    @Test
+    public void testBufferEncodersMatchArrayEncoders() {
+        long[] longs = new long[1000];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = rand.nextLong() >> rand.nextInt(64);
+        }
+        longs[0] = Long.MIN_VALUE;
+        longs[1] = Long.MAX_VALUE;
+        longs[2] = 0;
+        longs[3] = -1;
+
+        for (long l : longs) {
+            ByteBuffer buf = ByteBuffer.allocate(2 * EncodingUtils.sizeOfSignedVarLong(l) + 1);
+            buf.put((byte) 7);
+            EncodingUtils.encodeSignedVarLong(l, buf);
+            EncodingUtils.encodeSignedVarLong(l, buf);
+            assertEquals(buf.capacity(), buf.position());
+            assertArrayEquals(EncodingUtils.add(new byte[] {7}, EncodingUtils.encodeSignedVarLong(l), EncodingUtils.encodeSignedVarLong(l)), buf.array());
+
+            long unsigned = l & Long.MAX_VALUE;
+            buf = ByteBuffer.allocate(EncodingUtils.sizeOfVarLong(unsigned));
+            EncodingUtils.encodeUnsignedVarLong(unsigned, buf);
+            assertArrayEquals(EncodingUtils.encodeVarLong(unsigned), buf.array());
+
+            buf = ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN);
+            EncodingUtils.encodeLittleEndian(l, buf);
+            EncodingUtils.encodeNullableFixedLong(l, buf);
+            assertArrayEquals(EncodingUtils.add(EncodingUtils.encodeLittleEndian(l), EncodingUtils.encodeNullableFixedLong(l)), buf.array());
+            assertEquals(l, EncodingUtils.decodeLittleEndian(buf.array(), 0));
+        }
+
+        UUID uuid = new UUID(rand.nextLong(), rand.nextLong());
+        ByteBuffer buf = ByteBuffer.allocate(25);
+        EncodingUtils.encodeUUID(uuid, buf);
+        EncodingUtils.encodeNullableFixedLong(null, buf);
+        assertArrayEquals(EncodingUtils.add(EncodingUtils.encodeUUID(uuid), EncodingUtils.encodeNullableFixedLong(null)), buf.array());
+        assertEquals(uuid, EncodingUtils.decodeUUID(buf.array(), 0));
+
+        byte[] bytes = new byte[rand.nextInt(300)];
+        rand.nextBytes(bytes);
+        buf = ByteBuffer.allocate(EncodingUtils.sizeOfSizedBytes(bytes));
+        EncodingUtils.encodeSizedBytes(bytes, buf);
+        assertArrayEquals(EncodingUtils.encodeSizedBytes(bytes), buf.array());
+    }
+
+    @Test
+    public void testBufferStringEncodersMatchArrayEncoders() {
+        List<String> strings = Lists.newArrayList("", "abc", "\u00e9\u4e2d", "\ud83d\ude00", "\ud83d", "a\ude00b", "\ude00\ud83d");
+        for (int i = 0; i < 100; i++) {
+            char[] chars = new char[rand.nextInt(200)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) rand.nextInt(rand.nextBoolean() ? 0x80 : Character.MAX_VALUE + 1);
+            }
+            strings.add(new String(chars));
+        }
+        for (String str : strings) {
+            byte[] expected = PtBytes.toBytes(str);
+            assertEquals(expected.length, EncodingUtils.sizeOfString(str));
+            assertEquals(EncodingUtils.encodeVarString(str).length, EncodingUtils.sizeOfVarString(str));
+
+            ByteBuffer buf = ByteBuffer.allocate(expected.length);
+            EncodingUtils.encodeString(str, buf);
+            assertArrayEquals(expected, buf.array());
+
+            buf = ByteBuffer.allocate(EncodingUtils.sizeOfVarString(str));
+            EncodingUtils.encodeVarString(str, buf);
+            assertArrayEquals(EncodingUtils.encodeVarString(str), buf.array());
+
+            buf = ByteBuffer.allocateDirect(EncodingUtils.sizeOfVarString(str));
+            EncodingUtils.encodeVarString(str, buf);
+            assertEquals(0, buf.remaining());
+        }
+    }
 }
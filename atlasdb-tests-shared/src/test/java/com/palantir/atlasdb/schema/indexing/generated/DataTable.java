@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.indexing.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -169,8 +170,7 @@ public final class DataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-            return EncodingUtils.add(idBytes);
+            return PtBytes.toBytes(Long.MIN_VALUE ^ id);
         }
 
         public static final Hydrator<DataRow> BYTES_HYDRATOR = new Hydrator<DataRow>() {
@@ -916,8 +916,7 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return EncodingUtils.add(valueBytes);
+                return PtBytes.toBytes(Long.MIN_VALUE ^ value);
             }
 
             public static final Hydrator<Index1IdxRow> BYTES_HYDRATOR = new Hydrator<Index1IdxRow>() {
@@ -1030,10 +1029,12 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                __buffer.putLong(Long.MIN_VALUE ^ id);
+                return __bytes;
             }
 
             public static final Hydrator<Index1IdxColumn> BYTES_HYDRATOR = new Hydrator<Index1IdxColumn>() {
@@ -1557,9 +1558,11 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(valueBytes, idBytes);
+                byte[] __bytes = new byte[8 + 8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value);
+                __buffer.putLong(Long.MIN_VALUE ^ id);
+                return __bytes;
             }
 
             public static final Hydrator<Index2IdxRow> BYTES_HYDRATOR = new Hydrator<Index2IdxRow>() {
@@ -1575,13 +1578,17 @@ public final class DataTable implements
             };
 
             public static RangeRequest.Builder createPrefixRange(long value) {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return RangeRequest.builder().prefixRange(EncodingUtils.add(valueBytes));
+                byte[] __bytes = new byte[8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value);
+                return RangeRequest.builder().prefixRange(__bytes);
             }
 
             public static Prefix prefix(long value) {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return new Prefix(EncodingUtils.add(valueBytes));
+                byte[] __bytes = new byte[8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value);
+                return new Prefix(__bytes);
             }
 
             @Override
@@ -1670,9 +1677,11 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName)];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<Index2IdxColumn> BYTES_HYDRATOR = new Hydrator<Index2IdxColumn>() {
@@ -2184,8 +2193,7 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return EncodingUtils.add(valueBytes);
+                return PtBytes.toBytes(Long.MIN_VALUE ^ value);
             }
 
             public static final Hydrator<Index3IdxRow> BYTES_HYDRATOR = new Hydrator<Index3IdxRow>() {
@@ -2282,9 +2290,11 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName)];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<Index3IdxColumn> BYTES_HYDRATOR = new Hydrator<Index3IdxColumn>() {
@@ -2803,9 +2813,11 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] value1Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value1);
-                byte[] value2Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value2);
-                return EncodingUtils.add(value1Bytes, value2Bytes);
+                byte[] __bytes = new byte[8 + 8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value1);
+                __buffer.putLong(Long.MIN_VALUE ^ value2);
+                return __bytes;
             }
 
             public static final Hydrator<Index4IdxRow> BYTES_HYDRATOR = new Hydrator<Index4IdxRow>() {
@@ -2821,13 +2833,17 @@ public final class DataTable implements
             };
 
             public static RangeRequest.Builder createPrefixRange(long value1) {
-                byte[] value1Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value1);
-                return RangeRequest.builder().prefixRange(EncodingUtils.add(value1Bytes));
+                byte[] __bytes = new byte[8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value1);
+                return RangeRequest.builder().prefixRange(__bytes);
             }
 
             public static Prefix prefix(long value1) {
-                byte[] value1Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value1);
-                return new Prefix(EncodingUtils.add(value1Bytes));
+                byte[] __bytes = new byte[8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                __buffer.putLong(Long.MIN_VALUE ^ value1);
+                return new Prefix(__bytes);
             }
 
             @Override
@@ -2916,9 +2932,11 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName)];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<Index4IdxColumn> BYTES_HYDRATOR = new Hydrator<Index4IdxColumn>() {
@@ -3364,6 +3382,7 @@ public final class DataTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -3426,5 +3445,5 @@ public final class DataTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "cDqCVFftUEM9/8r+1LB40g==";
+    static String __CLASS_HASH = "lE71ny4AFrW5PZ3mDweISg==";
 }
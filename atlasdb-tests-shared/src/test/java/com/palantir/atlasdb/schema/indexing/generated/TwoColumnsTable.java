@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.indexing.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -169,8 +170,7 @@ public final class TwoColumnsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-            return EncodingUtils.add(idBytes);
+            return PtBytes.toBytes(Long.MIN_VALUE ^ id);
         }
 
         public static final Hydrator<TwoColumnsRow> BYTES_HYDRATOR = new Hydrator<TwoColumnsRow>() {
@@ -946,8 +946,7 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] fooBytes = PtBytes.toBytes(Long.MIN_VALUE ^ foo);
-                return EncodingUtils.add(fooBytes);
+                return PtBytes.toBytes(Long.MIN_VALUE ^ foo);
             }
 
             public static final Hydrator<FooToIdCondIdxRow> BYTES_HYDRATOR = new Hydrator<FooToIdCondIdxRow>() {
@@ -1060,10 +1059,12 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                __buffer.putLong(Long.MIN_VALUE ^ id);
+                return __bytes;
             }
 
             public static final Hydrator<FooToIdCondIdxColumn> BYTES_HYDRATOR = new Hydrator<FooToIdCondIdxColumn>() {
@@ -1546,8 +1547,7 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] fooBytes = PtBytes.toBytes(Long.MIN_VALUE ^ foo);
-                return EncodingUtils.add(fooBytes);
+                return PtBytes.toBytes(Long.MIN_VALUE ^ foo);
             }
 
             public static final Hydrator<FooToIdIdxRow> BYTES_HYDRATOR = new Hydrator<FooToIdIdxRow>() {
@@ -1660,10 +1660,12 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 8];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                __buffer.putLong(Long.MIN_VALUE ^ id);
+                return __bytes;
             }
 
             public static final Hydrator<FooToIdIdxColumn> BYTES_HYDRATOR = new Hydrator<FooToIdIdxColumn>() {
@@ -2080,6 +2082,7 @@ public final class TwoColumnsTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -2142,5 +2145,5 @@ public final class TwoColumnsTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "A3tj36Y8gynf0aGZblPfFA==";
+    static String __CLASS_HASH = "8hcgfwnSY8EqSZthWC7xVA==";
 }
@@ -16,23 +16,42 @@
 package com.palantir.atlasdb.schema.stream;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.palantir.atlasdb.AtlasDbTestCase;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
+import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
+import com.palantir.atlasdb.schema.stream.generated.StreamTestDedupStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.StreamTestStreamStore;
+import com.palantir.atlasdb.schema.stream.generated.StreamTestStreamValueTable.StreamTestStreamValueRowResult;
 import com.palantir.atlasdb.schema.stream.generated.StreamTestTableFactory;
 import com.palantir.atlasdb.schema.stream.generated.StreamTestWithHashStreamIdxTable.StreamTestWithHashStreamIdxRow;
 import com.palantir.atlasdb.schema.stream.generated.StreamTestWithHashStreamMetadataTable.StreamTestWithHashStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.StreamTestWithHashStreamValueTable.StreamTestWithHashStreamValueRow;
+import com.palantir.atlasdb.stream.GenericStreamStore;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
+import com.palantir.atlasdb.transaction.impl.ForwardingTransactionManager;
 import com.palantir.util.crypto.Sha256Hash;
 
 public class StreamTest extends AtlasDbTestCase {
@@ -72,6 +91,254 @@ public class StreamTest extends AtlasDbTestCase {
         });
     }
 
+    @Test
+    public void testLoadStreamLazilyAcrossBlocks() throws Exception {
+        final byte[] data = randomBytes(3 * GenericStreamStore.BLOCK_SIZE_IN_BYTES + 12345);
+        final PersistentStreamStore store = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of());
+        final long streamId = storeStream(store, data);
+        for (int blocksAhead : new int[] {0, 2}) {
+            InputStream stream = store.loadStreamLazily(streamId, blocksAhead);
+            try {
+                Assert.assertArrayEquals(data, ByteStreams.toByteArray(stream));
+                Assert.assertEquals(-1, stream.read());
+            } finally {
+                stream.close();
+            }
+        }
+    }
+
+    @Test
+    public void testLoadStreamRange() throws Exception {
+        final int blockSize = GenericStreamStore.BLOCK_SIZE_IN_BYTES;
+        byte[] data = randomBytes(3 * blockSize + 12345);
+        final PersistentStreamStore store = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of());
+        final long streamId = storeStream(store, data);
+        long[][] ranges = {
+                {0, 10},
+                {blockSize - 5, 10},
+                {2 * blockSize + 7, blockSize + 100},
+                {data.length - 3, 100},
+                {data.length + 1, 10}};
+        for (final long[] range : ranges) {
+            byte[] loaded = txManager.runTaskWithRetry(new TransactionTask<byte[], Exception>() {
+                @Override
+                public byte[] execute(Transaction t) throws Exception {
+                    return ByteStreams.toByteArray(store.loadStreamRange(t, streamId, range[0], range[1]));
+                }
+            });
+            int from = (int) Math.min(range[0], data.length);
+            int to = (int) Math.min(range[0] + range[1], data.length);
+            Assert.assertArrayEquals(Arrays.copyOfRange(data, from, to), loaded);
+        }
+    }
+
+    @Test
+    public void testLoadStreamAsChannel() throws Exception {
+        final int blockSize = GenericStreamStore.BLOCK_SIZE_IN_BYTES;
+        byte[] data = randomBytes(2 * blockSize + 100);
+        final PersistentStreamStore store = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of());
+        final long streamId = storeStream(store, data);
+        SeekableByteChannel channel = store.loadStreamAsChannel(streamId);
+        try {
+            Assert.assertEquals(data.length, channel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+            channel.position(blockSize - 4);
+            Assert.assertEquals(10, channel.read(buffer));
+            Assert.assertArrayEquals(Arrays.copyOfRange(data, blockSize - 4, blockSize + 6), buffer.array());
+
+            buffer.clear();
+            channel.position(5);
+            Assert.assertEquals(10, channel.read(buffer));
+            Assert.assertArrayEquals(Arrays.copyOfRange(data, 5, 15), buffer.array());
+
+            buffer.clear();
+            channel.position(data.length - 3);
+            Assert.assertEquals(3, channel.read(buffer));
+            Assert.assertEquals(data.length, channel.position());
+            Assert.assertEquals(-1, channel.read(buffer));
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    public void testStoreStreamOfWholeBlocks() throws Exception {
+        // More blocks than are written in one transaction, ending exactly on a block boundary.
+        final byte[] data = randomBytes(5 * GenericStreamStore.BLOCK_SIZE_IN_BYTES);
+        final PersistentStreamStore store = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of());
+        final long streamId = storeStream(store, data);
+        byte[] loaded = txManager.runTaskWithRetry(new TransactionTask<byte[], Exception>() {
+            @Override
+            public byte[] execute(Transaction t) throws Exception {
+                InputStream stream = store.loadStream(t, streamId);
+                try {
+                    return ByteStreams.toByteArray(stream);
+                } finally {
+                    stream.close();
+                }
+            }
+        });
+        Assert.assertArrayEquals(data, loaded);
+    }
+
+    @Test
+    public void testConcurrentBlockTransactionsDoNotConflict() throws Exception {
+        // Pick up the conflict handlers of the stream tables, which were created after the manager.
+        conflictDetectionManager.recompute();
+        final Thread testThread = Thread.currentThread();
+        final CyclicBarrier bothWritten = new CyclicBarrier(2);
+        final AtomicInteger heldOpen = new AtomicInteger();
+        // Fails on any conflict, and keeps the first two block transactions open until both have written.
+        TransactionManager overlappingTxManager = new ForwardingTransactionManager() {
+            @Override
+            protected TransactionManager delegate() {
+                return txManager;
+            }
+
+            @Override
+            public <T, E extends Exception> T runTaskWithRetry(TransactionTask<T, E> task) throws E {
+                return runTaskThrowOnConflict(task);
+            }
+
+            @Override
+            public <T, E extends Exception> T runTaskThrowOnConflict(final TransactionTask<T, E> task) throws E {
+                if (Thread.currentThread() == testThread || heldOpen.getAndIncrement() >= 2) {
+                    return super.runTaskThrowOnConflict(task);
+                }
+                return super.runTaskThrowOnConflict(new TransactionTask<T, E>() {
+                    @Override
+                    public T execute(Transaction t) throws E {
+                        T result = task.execute(t);
+                        try {
+                            bothWritten.await(10, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw Throwables.propagate(e);
+                        }
+                        return result;
+                    }
+                });
+            }
+        };
+        final byte[] data = randomBytes(5 * GenericStreamStore.BLOCK_SIZE_IN_BYTES + 12345);
+        final PersistentStreamStore store = StreamTestStreamStore.of(overlappingTxManager, StreamTestTableFactory.of());
+        long streamId = overlappingTxManager.runTaskThrowOnConflict(new TransactionTask<Long, Exception>() {
+            @Override
+            public Long execute(Transaction t) throws Exception {
+                Sha256Hash hash = Sha256Hash.computeHash(data);
+                return store.getByHashOrStoreStreamAndMarkAsUsed(t, hash, new ByteArrayInputStream(data), "ref".getBytes());
+            }
+        });
+        Assert.assertTrue(heldOpen.get() > 2);
+        Assert.assertArrayEquals(data, loadStream(store, streamId));
+    }
+
+    @Test
+    public void testFailedBlockTransactionMarksStreamFailed() throws Exception {
+        final Thread testThread = Thread.currentThread();
+        final AtomicInteger blockTransactions = new AtomicInteger();
+        TransactionManager failingTxManager = new ForwardingTransactionManager() {
+            @Override
+            protected TransactionManager delegate() {
+                return txManager;
+            }
+
+            @Override
+            public <T, E extends Exception> T runTaskThrowOnConflict(TransactionTask<T, E> task) throws E {
+                if (Thread.currentThread() != testThread && blockTransactions.incrementAndGet() == 2) {
+                    throw new IllegalStateException("Failed to write blocks.");
+                }
+                return super.runTaskThrowOnConflict(task);
+            }
+        };
+        PersistentStreamStore store = StreamTestStreamStore.of(failingTxManager, StreamTestTableFactory.of());
+        try {
+            store.storeStream(new ByteArrayInputStream(randomBytes(5 * GenericStreamStore.BLOCK_SIZE_IN_BYTES + 12345)));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        txManager.runTaskReadOnly(new TransactionTask<Void, RuntimeException>() {
+            @Override
+            public Void execute(Transaction t) {
+                StreamMetadata metadata = Iterables.getOnlyElement(StreamTestTableFactory.of()
+                        .getStreamTestStreamMetadataTable(t).getAllRowsUnordered().immutableCopy()).getMetadata();
+                Assert.assertEquals(Status.FAILED, metadata.getStatus());
+                long blocksToCleanUp = (metadata.getLength() + GenericStreamStore.BLOCK_SIZE_IN_BYTES - 1) / GenericStreamStore.BLOCK_SIZE_IN_BYTES;
+                List<StreamTestStreamValueRowResult> blocks = StreamTestTableFactory.of()
+                        .getStreamTestStreamValueTable(t).getAllRowsUnordered().immutableCopy();
+                Assert.assertFalse(blocks.isEmpty());
+                for (StreamTestStreamValueRowResult block : blocks) {
+                    Assert.assertTrue(block.getRowName().getBlockId() < blocksToCleanUp);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testDeduplicatedChunksAreSharedBetweenStreams() throws Exception {
+        final int blockSize = GenericStreamStore.BLOCK_SIZE_IN_BYTES;
+        byte[] first = randomBytes(3 * blockSize + 12345);
+        // The same content with a few bytes inserted near the start of the second block.
+        byte[] inserted = PtBytes.toBytes("inserted");
+        byte[] second = new byte[first.length + inserted.length];
+        System.arraycopy(first, 0, second, 0, blockSize + 100);
+        System.arraycopy(inserted, 0, second, blockSize + 100, inserted.length);
+        System.arraycopy(first, blockSize + 100, second, blockSize + 100 + inserted.length, first.length - blockSize - 100);
+
+        final PersistentStreamStore store = StreamTestDedupStreamStore.of(txManager, StreamTestTableFactory.of());
+        long firstId = storeStream(store, first);
+        long chunksForFirst = countDedupChunks();
+        long secondId = storeStream(store, second);
+        long chunksForBoth = countDedupChunks();
+
+        Assert.assertArrayEquals(first, loadStream(store, firstId));
+        Assert.assertArrayEquals(second, loadStream(store, secondId));
+        Assert.assertTrue(chunksForFirst > 1);
+        Assert.assertTrue("Only the chunks around the insert should be new, but there were "
+                + (chunksForBoth - chunksForFirst), chunksForBoth - chunksForFirst <= 3);
+    }
+
+    private long countDedupChunks() {
+        return txManager.runTaskReadOnly(new TransactionTask<Long, RuntimeException>() {
+            @Override
+            public Long execute(Transaction t) {
+                return StreamTestTableFactory.of().getStreamTestDedupStreamChunkTable(t).getAllRowsUnordered().count();
+            }
+        });
+    }
+
+    private byte[] loadStream(final PersistentStreamStore store, final long streamId) throws Exception {
+        return txManager.runTaskWithRetry(new TransactionTask<byte[], Exception>() {
+            @Override
+            public byte[] execute(Transaction t) throws Exception {
+                InputStream stream = store.loadStream(t, streamId);
+                try {
+                    return ByteStreams.toByteArray(stream);
+                } finally {
+                    stream.close();
+                }
+            }
+        });
+    }
+
+    private long storeStream(final PersistentStreamStore store, final byte[] data) throws Exception {
+        return txManager.runTaskWithRetry(new TransactionTask<Long, Exception>() {
+            @Override
+            public Long execute(Transaction t) throws Exception {
+                Sha256Hash hash = Sha256Hash.computeHash(data);
+                return store.getByHashOrStoreStreamAndMarkAsUsed(t, hash, new ByteArrayInputStream(data), "ref".getBytes());
+            }
+        });
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(0).nextBytes(data);
+        return data;
+    }
+
     @Test
     public void testStreamStoreWithHashValueRowPersistToBytesAndHydrateSucceeds() {
         StreamTestWithHashStreamValueRow row = StreamTestWithHashStreamValueRow.of(5L, 5L);
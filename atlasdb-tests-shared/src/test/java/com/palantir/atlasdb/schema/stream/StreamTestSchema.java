@@ -42,6 +42,15 @@ public class StreamTestSchema implements AtlasSchema {
                 ExpirationStrategy.INDIVIDUALLY_SPECIFIED,
                 true,
                 true);
+        schema.addStreamStoreDefinition(
+                "stream_test_dedup",
+                "stream_test_dedup",
+                ValueType.VAR_LONG,
+                4000,
+                ExpirationStrategy.NEVER,
+                false,
+                false,
+                true);
 
         return schema;
     }
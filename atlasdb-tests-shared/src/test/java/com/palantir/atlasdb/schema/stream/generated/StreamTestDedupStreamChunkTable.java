@@ -0,0 +1,827 @@
+package com.palantir.atlasdb.schema.stream.generated;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Generated;
+
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.palantir.atlasdb.compress.CompressionUtils;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Prefix;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.atlasdb.schema.Namespace;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedExpiringSet;
+import com.palantir.atlasdb.table.api.AtlasDbNamedMutableTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedPersistentSet;
+import com.palantir.atlasdb.table.api.ColumnValue;
+import com.palantir.atlasdb.table.api.TypedRowResult;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.atlasdb.table.description.ValueType;
+import com.palantir.atlasdb.table.generation.ColumnValues;
+import com.palantir.atlasdb.table.generation.Descending;
+import com.palantir.atlasdb.table.generation.NamedColumnValue;
+import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
+import com.palantir.atlasdb.transaction.api.ConstraintCheckingTransaction;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.common.base.AbortingVisitor;
+import com.palantir.common.base.AbortingVisitors;
+import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitableView;
+import com.palantir.common.base.BatchingVisitables;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.collect.IterableView;
+import com.palantir.common.persist.Persistable;
+import com.palantir.common.persist.Persistable.Hydrator;
+import com.palantir.common.persist.Persistables;
+import com.palantir.common.proxy.AsyncProxy;
+import com.palantir.util.AssertUtils;
+import com.palantir.util.crypto.Sha256Hash;
+
+
+@Generated("com.palantir.atlasdb.table.description.render.TableRenderer")
+public final class StreamTestDedupStreamChunkTable implements
+        AtlasDbMutablePersistentTable<StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkRow,
+                                         StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkNamedColumnValue<?>,
+                                         StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkRowResult>,
+        AtlasDbNamedMutableTable<StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkRow,
+                                    StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkNamedColumnValue<?>,
+                                    StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkRowResult> {
+    private final Transaction t;
+    private final List<StreamTestDedupStreamChunkTrigger> triggers;
+    private final static String rawTableName = "stream_test_dedup_stream_chunk";
+    private final String tableName;
+    private final Namespace namespace;
+
+    static StreamTestDedupStreamChunkTable of(Transaction t, Namespace namespace) {
+        return new StreamTestDedupStreamChunkTable(t, namespace, ImmutableList.<StreamTestDedupStreamChunkTrigger>of());
+    }
+
+    static StreamTestDedupStreamChunkTable of(Transaction t, Namespace namespace, StreamTestDedupStreamChunkTrigger trigger, StreamTestDedupStreamChunkTrigger... triggers) {
+        return new StreamTestDedupStreamChunkTable(t, namespace, ImmutableList.<StreamTestDedupStreamChunkTrigger>builder().add(trigger).add(triggers).build());
+    }
+
+    static StreamTestDedupStreamChunkTable of(Transaction t, Namespace namespace, List<StreamTestDedupStreamChunkTrigger> triggers) {
+        return new StreamTestDedupStreamChunkTable(t, namespace, triggers);
+    }
+
+    private StreamTestDedupStreamChunkTable(Transaction t, Namespace namespace, List<StreamTestDedupStreamChunkTrigger> triggers) {
+        this.t = t;
+        this.tableName = namespace.getName().isEmpty() ? rawTableName : namespace.getName() + "." + rawTableName;
+        this.triggers = triggers;
+        this.namespace = namespace;
+    }
+
+    public static String getRawTableName() {
+        return rawTableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Namespace getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * <pre>
+     * StreamTestDedupStreamChunkRow {
+     *   {@literal Sha256Hash hash};
+     * }
+     * </pre>
+     */
+    public static final class StreamTestDedupStreamChunkRow implements Persistable, Comparable<StreamTestDedupStreamChunkRow> {
+        private final Sha256Hash hash;
+
+        public static StreamTestDedupStreamChunkRow of(Sha256Hash hash) {
+            return new StreamTestDedupStreamChunkRow(hash);
+        }
+
+        private StreamTestDedupStreamChunkRow(Sha256Hash hash) {
+            this.hash = hash;
+        }
+
+        public Sha256Hash getHash() {
+            return hash;
+        }
+
+        public static Function<StreamTestDedupStreamChunkRow, Sha256Hash> getHashFun() {
+            return new Function<StreamTestDedupStreamChunkRow, Sha256Hash>() {
+                @Override
+                public Sha256Hash apply(StreamTestDedupStreamChunkRow row) {
+                    return row.hash;
+                }
+            };
+        }
+
+        public static Function<Sha256Hash, StreamTestDedupStreamChunkRow> fromHashFun() {
+            return new Function<Sha256Hash, StreamTestDedupStreamChunkRow>() {
+                @Override
+                public StreamTestDedupStreamChunkRow apply(Sha256Hash row) {
+                    return StreamTestDedupStreamChunkRow.of(row);
+                }
+            };
+        }
+
+        @Override
+        public byte[] persistToBytes() {
+            return hash.getBytes();
+        }
+
+        public static final Hydrator<StreamTestDedupStreamChunkRow> BYTES_HYDRATOR = new Hydrator<StreamTestDedupStreamChunkRow>() {
+            @Override
+            public StreamTestDedupStreamChunkRow hydrateFromBytes(byte[] __input) {
+                int __index = 0;
+                Sha256Hash hash = new Sha256Hash(EncodingUtils.get32Bytes(__input, __index));
+                __index += 32;
+                return new StreamTestDedupStreamChunkRow(hash);
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("hash", hash)
+                .toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            StreamTestDedupStreamChunkRow other = (StreamTestDedupStreamChunkRow) obj;
+            return Objects.equal(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(hash);
+        }
+
+        @Override
+        public int compareTo(StreamTestDedupStreamChunkRow o) {
+            return ComparisonChain.start()
+                .compare(this.hash, o.hash)
+                .result();
+        }
+    }
+
+    public interface StreamTestDedupStreamChunkNamedColumnValue<T> extends NamedColumnValue<T> { /* */ }
+
+    /**
+     * <pre>
+     * Column value description {
+     *   type: byte[];
+     * }
+     * </pre>
+     */
+    public static final class Content implements StreamTestDedupStreamChunkNamedColumnValue<byte[]> {
+        private final byte[] value;
+
+        public static Content of(byte[] value) {
+            return new Content(value);
+        }
+
+        private Content(byte[] value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getColumnName() {
+            return "content";
+        }
+
+        @Override
+        public String getShortColumnName() {
+            return "c";
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] persistValue() {
+            byte[] bytes = value;
+            return CompressionUtils.compress(bytes, Compression.SNAPPY);
+        }
+
+        @Override
+        public byte[] persistColumnName() {
+            return PtBytes.toCachedBytes("c");
+        }
+
+        public static final Hydrator<Content> BYTES_HYDRATOR = new Hydrator<Content>() {
+            @Override
+            public Content hydrateFromBytes(byte[] bytes) {
+                bytes = CompressionUtils.decompress(bytes, Compression.SNAPPY);
+                return of(EncodingUtils.getBytesFromOffsetToEnd(bytes, 0));
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("Value", this.value)
+                .toString();
+        }
+    }
+
+    /**
+     * <pre>
+     * Column value description {
+     *   type: Long;
+     * }
+     * </pre>
+     */
+    public static final class Length implements StreamTestDedupStreamChunkNamedColumnValue<Long> {
+        private final Long value;
+
+        public static Length of(Long value) {
+            return new Length(value);
+        }
+
+        private Length(Long value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getColumnName() {
+            return "length";
+        }
+
+        @Override
+        public String getShortColumnName() {
+            return "l";
+        }
+
+        @Override
+        public Long getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] persistValue() {
+            byte[] bytes = EncodingUtils.encodeUnsignedVarLong(value);
+            return CompressionUtils.compress(bytes, Compression.NONE);
+        }
+
+        @Override
+        public byte[] persistColumnName() {
+            return PtBytes.toCachedBytes("l");
+        }
+
+        public static final Hydrator<Length> BYTES_HYDRATOR = new Hydrator<Length>() {
+            @Override
+            public Length hydrateFromBytes(byte[] bytes) {
+                bytes = CompressionUtils.decompress(bytes, Compression.NONE);
+                return of(EncodingUtils.decodeUnsignedVarLong(bytes, 0));
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("Value", this.value)
+                .toString();
+        }
+    }
+
+    public interface StreamTestDedupStreamChunkTrigger {
+        public void putStreamTestDedupStreamChunk(Multimap<StreamTestDedupStreamChunkRow, ? extends StreamTestDedupStreamChunkNamedColumnValue<?>> newRows);
+    }
+
+    public static final class StreamTestDedupStreamChunkRowResult implements TypedRowResult {
+        private final RowResult<byte[]> row;
+
+        public static StreamTestDedupStreamChunkRowResult of(RowResult<byte[]> row) {
+            return new StreamTestDedupStreamChunkRowResult(row);
+        }
+
+        private StreamTestDedupStreamChunkRowResult(RowResult<byte[]> row) {
+            this.row = row;
+        }
+
+        @Override
+        public StreamTestDedupStreamChunkRow getRowName() {
+            return StreamTestDedupStreamChunkRow.BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());
+        }
+
+        public static Function<StreamTestDedupStreamChunkRowResult, StreamTestDedupStreamChunkRow> getRowNameFun() {
+            return new Function<StreamTestDedupStreamChunkRowResult, StreamTestDedupStreamChunkRow>() {
+                @Override
+                public StreamTestDedupStreamChunkRow apply(StreamTestDedupStreamChunkRowResult rowResult) {
+                    return rowResult.getRowName();
+                }
+            };
+        }
+
+        public static Function<RowResult<byte[]>, StreamTestDedupStreamChunkRowResult> fromRawRowResultFun() {
+            return new Function<RowResult<byte[]>, StreamTestDedupStreamChunkRowResult>() {
+                @Override
+                public StreamTestDedupStreamChunkRowResult apply(RowResult<byte[]> rowResult) {
+                    return new StreamTestDedupStreamChunkRowResult(rowResult);
+                }
+            };
+        }
+
+        public boolean hasContent() {
+            return row.getColumns().containsKey(PtBytes.toCachedBytes("c"));
+        }
+
+        public boolean hasLength() {
+            return row.getColumns().containsKey(PtBytes.toCachedBytes("l"));
+        }
+
+        public byte[] getContent() {
+            byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes("c"));
+            if (bytes == null) {
+                return null;
+            }
+            Content value = Content.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+            return value.getValue();
+        }
+
+        public Long getLength() {
+            byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes("l"));
+            if (bytes == null) {
+                return null;
+            }
+            Length value = Length.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+            return value.getValue();
+        }
+
+        public static Function<StreamTestDedupStreamChunkRowResult, byte[]> getContentFun() {
+            return new Function<StreamTestDedupStreamChunkRowResult, byte[]>() {
+                @Override
+                public byte[] apply(StreamTestDedupStreamChunkRowResult rowResult) {
+                    return rowResult.getContent();
+                }
+            };
+        }
+
+        public static Function<StreamTestDedupStreamChunkRowResult, Long> getLengthFun() {
+            return new Function<StreamTestDedupStreamChunkRowResult, Long>() {
+                @Override
+                public Long apply(StreamTestDedupStreamChunkRowResult rowResult) {
+                    return rowResult.getLength();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("RowName", getRowName())
+                .add("Content", getContent())
+                .add("Length", getLength())
+                .toString();
+        }
+    }
+
+    public enum StreamTestDedupStreamChunkNamedColumn {
+        CONTENT {
+            @Override
+            public byte[] getShortName() {
+                return PtBytes.toCachedBytes("c");
+            }
+        },
+        LENGTH {
+            @Override
+            public byte[] getShortName() {
+                return PtBytes.toCachedBytes("l");
+            }
+        };
+
+        public abstract byte[] getShortName();
+
+        public static Function<StreamTestDedupStreamChunkNamedColumn, byte[]> toShortName() {
+            return new Function<StreamTestDedupStreamChunkNamedColumn, byte[]>() {
+                @Override
+                public byte[] apply(StreamTestDedupStreamChunkNamedColumn namedColumn) {
+                    return namedColumn.getShortName();
+                }
+            };
+        }
+    }
+
+    public static ColumnSelection getColumnSelection(Collection<StreamTestDedupStreamChunkNamedColumn> cols) {
+        return ColumnSelection.create(Collections2.transform(cols, StreamTestDedupStreamChunkNamedColumn.toShortName()));
+    }
+
+    public static ColumnSelection getColumnSelection(StreamTestDedupStreamChunkNamedColumn... cols) {
+        return getColumnSelection(Arrays.asList(cols));
+    }
+
+    private static final Map<String, Hydrator<? extends StreamTestDedupStreamChunkNamedColumnValue<?>>> shortNameToHydrator =
+            ImmutableMap.<String, Hydrator<? extends StreamTestDedupStreamChunkNamedColumnValue<?>>>builder()
+                .put("c", Content.BYTES_HYDRATOR)
+                .put("l", Length.BYTES_HYDRATOR)
+                .build();
+
+    public Map<StreamTestDedupStreamChunkRow, byte[]> getContents(Collection<StreamTestDedupStreamChunkRow> rows) {
+        Map<Cell, StreamTestDedupStreamChunkRow> cells = Maps.newHashMapWithExpectedSize(rows.size());
+        for (StreamTestDedupStreamChunkRow row : rows) {
+            cells.put(Cell.create(row.persistToBytes(), PtBytes.toCachedBytes("c")), row);
+        }
+        Map<Cell, byte[]> results = t.get(tableName, cells.keySet());
+        Map<StreamTestDedupStreamChunkRow, byte[]> ret = Maps.newHashMapWithExpectedSize(results.size());
+        for (Entry<Cell, byte[]> e : results.entrySet()) {
+            byte[] val = Content.BYTES_HYDRATOR.hydrateFromBytes(e.getValue()).getValue();
+            ret.put(cells.get(e.getKey()), val);
+        }
+        return ret;
+    }
+
+    public Map<StreamTestDedupStreamChunkRow, Long> getLengths(Collection<StreamTestDedupStreamChunkRow> rows) {
+        Map<Cell, StreamTestDedupStreamChunkRow> cells = Maps.newHashMapWithExpectedSize(rows.size());
+        for (StreamTestDedupStreamChunkRow row : rows) {
+            cells.put(Cell.create(row.persistToBytes(), PtBytes.toCachedBytes("l")), row);
+        }
+        Map<Cell, byte[]> results = t.get(tableName, cells.keySet());
+        Map<StreamTestDedupStreamChunkRow, Long> ret = Maps.newHashMapWithExpectedSize(results.size());
+        for (Entry<Cell, byte[]> e : results.entrySet()) {
+            Long val = Length.BYTES_HYDRATOR.hydrateFromBytes(e.getValue()).getValue();
+            ret.put(cells.get(e.getKey()), val);
+        }
+        return ret;
+    }
+
+    public void putContent(StreamTestDedupStreamChunkRow row, byte[] value) {
+        put(ImmutableMultimap.of(row, Content.of(value)));
+    }
+
+    public void putContent(Map<StreamTestDedupStreamChunkRow, byte[]> map) {
+        Map<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<StreamTestDedupStreamChunkRow, byte[]> e : map.entrySet()) {
+            toPut.put(e.getKey(), Content.of(e.getValue()));
+        }
+        put(Multimaps.forMap(toPut));
+    }
+
+    public void putContentUnlessExists(StreamTestDedupStreamChunkRow row, byte[] value) {
+        putUnlessExists(ImmutableMultimap.of(row, Content.of(value)));
+    }
+
+    public void putContentUnlessExists(Map<StreamTestDedupStreamChunkRow, byte[]> map) {
+        Map<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<StreamTestDedupStreamChunkRow, byte[]> e : map.entrySet()) {
+            toPut.put(e.getKey(), Content.of(e.getValue()));
+        }
+        putUnlessExists(Multimaps.forMap(toPut));
+    }
+
+    public void putLength(StreamTestDedupStreamChunkRow row, Long value) {
+        put(ImmutableMultimap.of(row, Length.of(value)));
+    }
+
+    public void putLength(Map<StreamTestDedupStreamChunkRow, Long> map) {
+        Map<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<StreamTestDedupStreamChunkRow, Long> e : map.entrySet()) {
+            toPut.put(e.getKey(), Length.of(e.getValue()));
+        }
+        put(Multimaps.forMap(toPut));
+    }
+
+    public void putLengthUnlessExists(StreamTestDedupStreamChunkRow row, Long value) {
+        putUnlessExists(ImmutableMultimap.of(row, Length.of(value)));
+    }
+
+    public void putLengthUnlessExists(Map<StreamTestDedupStreamChunkRow, Long> map) {
+        Map<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<StreamTestDedupStreamChunkRow, Long> e : map.entrySet()) {
+            toPut.put(e.getKey(), Length.of(e.getValue()));
+        }
+        putUnlessExists(Multimaps.forMap(toPut));
+    }
+
+    @Override
+    public void put(Multimap<StreamTestDedupStreamChunkRow, ? extends StreamTestDedupStreamChunkNamedColumnValue<?>> rows) {
+        t.useTable(tableName, this);
+        t.put(tableName, ColumnValues.toCellValues(rows));
+        for (StreamTestDedupStreamChunkTrigger trigger : triggers) {
+            trigger.putStreamTestDedupStreamChunk(rows);
+        }
+    }
+
+    @Override
+    public void putUnlessExists(Multimap<StreamTestDedupStreamChunkRow, ? extends StreamTestDedupStreamChunkNamedColumnValue<?>> rows) {
+        Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> existing = getRowsMultimap(rows.keySet());
+        Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> toPut = HashMultimap.create();
+        for (Entry<StreamTestDedupStreamChunkRow, ? extends StreamTestDedupStreamChunkNamedColumnValue<?>> entry : rows.entries()) {
+            if (!existing.containsEntry(entry.getKey(), entry.getValue())) {
+                toPut.put(entry.getKey(), entry.getValue());
+            }
+        }
+        put(toPut);
+    }
+
+    public void deleteContent(StreamTestDedupStreamChunkRow row) {
+        deleteContent(ImmutableSet.of(row));
+    }
+
+    public void deleteContent(Iterable<StreamTestDedupStreamChunkRow> rows) {
+        byte[] col = PtBytes.toCachedBytes("c");
+        Set<Cell> cells = Cells.cellsWithConstantColumn(Persistables.persistAll(rows), col);
+        t.delete(tableName, cells);
+    }
+
+    public void deleteLength(StreamTestDedupStreamChunkRow row) {
+        deleteLength(ImmutableSet.of(row));
+    }
+
+    public void deleteLength(Iterable<StreamTestDedupStreamChunkRow> rows) {
+        byte[] col = PtBytes.toCachedBytes("l");
+        Set<Cell> cells = Cells.cellsWithConstantColumn(Persistables.persistAll(rows), col);
+        t.delete(tableName, cells);
+    }
+
+    @Override
+    public void delete(StreamTestDedupStreamChunkRow row) {
+        delete(ImmutableSet.of(row));
+    }
+
+    @Override
+    public void delete(Iterable<StreamTestDedupStreamChunkRow> rows) {
+        List<byte[]> rowBytes = Persistables.persistAll(rows);
+        Set<Cell> cells = Sets.newHashSetWithExpectedSize(rowBytes.size() * 2);
+        cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("c")));
+        cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("l")));
+        t.delete(tableName, cells);
+    }
+
+    @Override
+    public Optional<StreamTestDedupStreamChunkRowResult> getRow(StreamTestDedupStreamChunkRow row) {
+        return getRow(row, ColumnSelection.all());
+    }
+
+    @Override
+    public Optional<StreamTestDedupStreamChunkRowResult> getRow(StreamTestDedupStreamChunkRow row, ColumnSelection columns) {
+        byte[] bytes = row.persistToBytes();
+        RowResult<byte[]> rowResult = t.getRows(tableName, ImmutableSet.of(bytes), columns).get(bytes);
+        if (rowResult == null) {
+            return Optional.absent();
+        } else {
+            return Optional.of(StreamTestDedupStreamChunkRowResult.of(rowResult));
+        }
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkRowResult> getRows(Iterable<StreamTestDedupStreamChunkRow> rows) {
+        return getRows(rows, ColumnSelection.all());
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkRowResult> getRows(Iterable<StreamTestDedupStreamChunkRow> rows, ColumnSelection columns) {
+        SortedMap<byte[], RowResult<byte[]>> results = t.getRows(tableName, Persistables.persistAll(rows), columns);
+        List<StreamTestDedupStreamChunkRowResult> rowResults = Lists.newArrayListWithCapacity(results.size());
+        for (RowResult<byte[]> row : results.values()) {
+            rowResults.add(StreamTestDedupStreamChunkRowResult.of(row));
+        }
+        return rowResults;
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkRowResult> getAsyncRows(Iterable<StreamTestDedupStreamChunkRow> rows, ExecutorService exec) {
+        return getAsyncRows(rows, ColumnSelection.all(), exec);
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkRowResult> getAsyncRows(final Iterable<StreamTestDedupStreamChunkRow> rows, final ColumnSelection columns, ExecutorService exec) {
+        Callable<List<StreamTestDedupStreamChunkRowResult>> c =
+                new Callable<List<StreamTestDedupStreamChunkRowResult>>() {
+            @Override
+            public List<StreamTestDedupStreamChunkRowResult> call() {
+                return getRows(rows, columns);
+            }
+        };
+        return AsyncProxy.create(exec.submit(c), List.class);
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkNamedColumnValue<?>> getRowColumns(StreamTestDedupStreamChunkRow row) {
+        return getRowColumns(row, ColumnSelection.all());
+    }
+
+    @Override
+    public List<StreamTestDedupStreamChunkNamedColumnValue<?>> getRowColumns(StreamTestDedupStreamChunkRow row, ColumnSelection columns) {
+        byte[] bytes = row.persistToBytes();
+        RowResult<byte[]> rowResult = t.getRows(tableName, ImmutableSet.of(bytes), columns).get(bytes);
+        if (rowResult == null) {
+            return ImmutableList.of();
+        } else {
+            List<StreamTestDedupStreamChunkNamedColumnValue<?>> ret = Lists.newArrayListWithCapacity(rowResult.getColumns().size());
+            for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {
+                ret.add(shortNameToHydrator.get(PtBytes.toString(e.getKey())).hydrateFromBytes(e.getValue()));
+            }
+            return ret;
+        }
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getRowsMultimap(Iterable<StreamTestDedupStreamChunkRow> rows) {
+        return getRowsMultimapInternal(rows, ColumnSelection.all());
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getRowsMultimap(Iterable<StreamTestDedupStreamChunkRow> rows, ColumnSelection columns) {
+        return getRowsMultimapInternal(rows, columns);
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getAsyncRowsMultimap(Iterable<StreamTestDedupStreamChunkRow> rows, ExecutorService exec) {
+        return getAsyncRowsMultimap(rows, ColumnSelection.all(), exec);
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getAsyncRowsMultimap(final Iterable<StreamTestDedupStreamChunkRow> rows, final ColumnSelection columns, ExecutorService exec) {
+        Callable<Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>>> c =
+                new Callable<Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>>>() {
+            @Override
+            public Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> call() {
+                return getRowsMultimapInternal(rows, columns);
+            }
+        };
+        return AsyncProxy.create(exec.submit(c), Multimap.class);
+    }
+
+    private Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getRowsMultimapInternal(Iterable<StreamTestDedupStreamChunkRow> rows, ColumnSelection columns) {
+        SortedMap<byte[], RowResult<byte[]>> results = t.getRows(tableName, Persistables.persistAll(rows), columns);
+        return getRowMapFromRowResults(results.values());
+    }
+
+    private static Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> getRowMapFromRowResults(Collection<RowResult<byte[]>> rowResults) {
+        Multimap<StreamTestDedupStreamChunkRow, StreamTestDedupStreamChunkNamedColumnValue<?>> rowMap = HashMultimap.create();
+        for (RowResult<byte[]> result : rowResults) {
+            StreamTestDedupStreamChunkRow row = StreamTestDedupStreamChunkRow.BYTES_HYDRATOR.hydrateFromBytes(result.getRowName());
+            for (Entry<byte[], byte[]> e : result.getColumns().entrySet()) {
+                rowMap.put(row, shortNameToHydrator.get(PtBytes.toString(e.getKey())).hydrateFromBytes(e.getValue()));
+            }
+        }
+        return rowMap;
+    }
+
+    public BatchingVisitableView<StreamTestDedupStreamChunkRowResult> getAllRowsUnordered() {
+        return getAllRowsUnordered(ColumnSelection.all());
+    }
+
+    public BatchingVisitableView<StreamTestDedupStreamChunkRowResult> getAllRowsUnordered(ColumnSelection columns) {
+        return BatchingVisitables.transform(t.getRange(tableName, RangeRequest.builder().retainColumns(columns).build()),
+                new Function<RowResult<byte[]>, StreamTestDedupStreamChunkRowResult>() {
+            @Override
+            public StreamTestDedupStreamChunkRowResult apply(RowResult<byte[]> input) {
+                return StreamTestDedupStreamChunkRowResult.of(input);
+            }
+        });
+    }
+
+    @Override
+    public List<String> findConstraintFailures(Map<Cell, byte[]> writes,
+                                               ConstraintCheckingTransaction transaction,
+                                               AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public List<String> findConstraintFailuresNoRead(Map<Cell, byte[]> writes,
+                                                     AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    /**
+     * This exists to avoid unused import warnings
+     * {@link AbortingVisitor}
+     * {@link AbortingVisitors}
+     * {@link ArrayListMultimap}
+     * {@link Arrays}
+     * {@link AssertUtils}
+     * {@link AsyncProxy}
+     * {@link AtlasDbConstraintCheckingMode}
+     * {@link AtlasDbDynamicMutableExpiringTable}
+     * {@link AtlasDbDynamicMutablePersistentTable}
+     * {@link AtlasDbMutableExpiringTable}
+     * {@link AtlasDbMutablePersistentTable}
+     * {@link AtlasDbNamedExpiringSet}
+     * {@link AtlasDbNamedMutableTable}
+     * {@link AtlasDbNamedPersistentSet}
+     * {@link BatchingVisitable}
+     * {@link BatchingVisitableView}
+     * {@link BatchingVisitables}
+     * {@link ByteBuffer}
+     * {@link Bytes}
+     * {@link Callable}
+     * {@link Cell}
+     * {@link Cells}
+     * {@link Collection}
+     * {@link Collections2}
+     * {@link ColumnSelection}
+     * {@link ColumnValue}
+     * {@link ColumnValues}
+     * {@link ComparisonChain}
+     * {@link Compression}
+     * {@link CompressionUtils}
+     * {@link ConstraintCheckingTransaction}
+     * {@link Descending}
+     * {@link EncodingUtils}
+     * {@link Entry}
+     * {@link EnumSet}
+     * {@link ExecutorService}
+     * {@link Function}
+     * {@link Generated}
+     * {@link HashMultimap}
+     * {@link HashSet}
+     * {@link Hashing}
+     * {@link Hydrator}
+     * {@link ImmutableList}
+     * {@link ImmutableMap}
+     * {@link ImmutableMultimap}
+     * {@link ImmutableSet}
+     * {@link InvalidProtocolBufferException}
+     * {@link IterableView}
+     * {@link Iterables}
+     * {@link Iterator}
+     * {@link Joiner}
+     * {@link List}
+     * {@link Lists}
+     * {@link Map}
+     * {@link Maps}
+     * {@link MoreObjects}
+     * {@link Multimap}
+     * {@link Multimaps}
+     * {@link NamedColumnValue}
+     * {@link Namespace}
+     * {@link Objects}
+     * {@link Optional}
+     * {@link Persistable}
+     * {@link Persistables}
+     * {@link Prefix}
+     * {@link PtBytes}
+     * {@link RangeRequest}
+     * {@link RowResult}
+     * {@link Set}
+     * {@link Sets}
+     * {@link Sha256Hash}
+     * {@link SortedMap}
+     * {@link Supplier}
+     * {@link Throwables}
+     * {@link TimeUnit}
+     * {@link Transaction}
+     * {@link TypedRowResult}
+     * {@link UnsignedBytes}
+     * {@link ValueType}
+     */
+    static String __CLASS_HASH = "bV2SnqBrR+ho/iGr4HJCQw==";
+}
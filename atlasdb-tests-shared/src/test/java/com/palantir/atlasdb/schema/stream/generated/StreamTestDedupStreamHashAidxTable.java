@@ -0,0 +1,730 @@
+package com.palantir.atlasdb.schema.stream.generated;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Generated;
+
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.palantir.atlasdb.compress.CompressionUtils;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Prefix;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.atlasdb.schema.Namespace;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedExpiringSet;
+import com.palantir.atlasdb.table.api.AtlasDbNamedMutableTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedPersistentSet;
+import com.palantir.atlasdb.table.api.ColumnValue;
+import com.palantir.atlasdb.table.api.TypedRowResult;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.atlasdb.table.description.ValueType;
+import com.palantir.atlasdb.table.generation.ColumnValues;
+import com.palantir.atlasdb.table.generation.Descending;
+import com.palantir.atlasdb.table.generation.NamedColumnValue;
+import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
+import com.palantir.atlasdb.transaction.api.ConstraintCheckingTransaction;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.common.base.AbortingVisitor;
+import com.palantir.common.base.AbortingVisitors;
+import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitableView;
+import com.palantir.common.base.BatchingVisitables;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.collect.IterableView;
+import com.palantir.common.persist.Persistable;
+import com.palantir.common.persist.Persistable.Hydrator;
+import com.palantir.common.persist.Persistables;
+import com.palantir.common.proxy.AsyncProxy;
+import com.palantir.util.AssertUtils;
+import com.palantir.util.crypto.Sha256Hash;
+
+
+@Generated("com.palantir.atlasdb.table.description.render.TableRenderer")
+public final class StreamTestDedupStreamHashAidxTable implements
+        AtlasDbDynamicMutablePersistentTable<StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxRow,
+                                                StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxColumn,
+                                                StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxColumnValue,
+                                                StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxRowResult> {
+    private final Transaction t;
+    private final List<StreamTestDedupStreamHashAidxTrigger> triggers;
+    private final static String rawTableName = "stream_test_dedup_stream_hash_aidx";
+    private final String tableName;
+    private final Namespace namespace;
+
+    static StreamTestDedupStreamHashAidxTable of(Transaction t, Namespace namespace) {
+        return new StreamTestDedupStreamHashAidxTable(t, namespace, ImmutableList.<StreamTestDedupStreamHashAidxTrigger>of());
+    }
+
+    static StreamTestDedupStreamHashAidxTable of(Transaction t, Namespace namespace, StreamTestDedupStreamHashAidxTrigger trigger, StreamTestDedupStreamHashAidxTrigger... triggers) {
+        return new StreamTestDedupStreamHashAidxTable(t, namespace, ImmutableList.<StreamTestDedupStreamHashAidxTrigger>builder().add(trigger).add(triggers).build());
+    }
+
+    static StreamTestDedupStreamHashAidxTable of(Transaction t, Namespace namespace, List<StreamTestDedupStreamHashAidxTrigger> triggers) {
+        return new StreamTestDedupStreamHashAidxTable(t, namespace, triggers);
+    }
+
+    private StreamTestDedupStreamHashAidxTable(Transaction t, Namespace namespace, List<StreamTestDedupStreamHashAidxTrigger> triggers) {
+        this.t = t;
+        this.tableName = namespace.getName().isEmpty() ? rawTableName : namespace.getName() + "." + rawTableName;
+        this.triggers = triggers;
+        this.namespace = namespace;
+    }
+
+    public static String getRawTableName() {
+        return rawTableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Namespace getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * <pre>
+     * StreamTestDedupStreamHashAidxRow {
+     *   {@literal Sha256Hash hash};
+     * }
+     * </pre>
+     */
+    public static final class StreamTestDedupStreamHashAidxRow implements Persistable, Comparable<StreamTestDedupStreamHashAidxRow> {
+        private final Sha256Hash hash;
+
+        public static StreamTestDedupStreamHashAidxRow of(Sha256Hash hash) {
+            return new StreamTestDedupStreamHashAidxRow(hash);
+        }
+
+        private StreamTestDedupStreamHashAidxRow(Sha256Hash hash) {
+            this.hash = hash;
+        }
+
+        public Sha256Hash getHash() {
+            return hash;
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxRow, Sha256Hash> getHashFun() {
+            return new Function<StreamTestDedupStreamHashAidxRow, Sha256Hash>() {
+                @Override
+                public Sha256Hash apply(StreamTestDedupStreamHashAidxRow row) {
+                    return row.hash;
+                }
+            };
+        }
+
+        public static Function<Sha256Hash, StreamTestDedupStreamHashAidxRow> fromHashFun() {
+            return new Function<Sha256Hash, StreamTestDedupStreamHashAidxRow>() {
+                @Override
+                public StreamTestDedupStreamHashAidxRow apply(Sha256Hash row) {
+                    return StreamTestDedupStreamHashAidxRow.of(row);
+                }
+            };
+        }
+
+        @Override
+        public byte[] persistToBytes() {
+            return hash.getBytes();
+        }
+
+        public static final Hydrator<StreamTestDedupStreamHashAidxRow> BYTES_HYDRATOR = new Hydrator<StreamTestDedupStreamHashAidxRow>() {
+            @Override
+            public StreamTestDedupStreamHashAidxRow hydrateFromBytes(byte[] __input) {
+                int __index = 0;
+                Sha256Hash hash = new Sha256Hash(EncodingUtils.get32Bytes(__input, __index));
+                __index += 32;
+                return new StreamTestDedupStreamHashAidxRow(hash);
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("hash", hash)
+                .toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            StreamTestDedupStreamHashAidxRow other = (StreamTestDedupStreamHashAidxRow) obj;
+            return Objects.equal(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(hash);
+        }
+
+        @Override
+        public int compareTo(StreamTestDedupStreamHashAidxRow o) {
+            return ComparisonChain.start()
+                .compare(this.hash, o.hash)
+                .result();
+        }
+    }
+
+    /**
+     * <pre>
+     * StreamTestDedupStreamHashAidxColumn {
+     *   {@literal Long streamId};
+     * }
+     * </pre>
+     */
+    public static final class StreamTestDedupStreamHashAidxColumn implements Persistable, Comparable<StreamTestDedupStreamHashAidxColumn> {
+        private final long streamId;
+
+        public static StreamTestDedupStreamHashAidxColumn of(long streamId) {
+            return new StreamTestDedupStreamHashAidxColumn(streamId);
+        }
+
+        private StreamTestDedupStreamHashAidxColumn(long streamId) {
+            this.streamId = streamId;
+        }
+
+        public long getStreamId() {
+            return streamId;
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxColumn, Long> getStreamIdFun() {
+            return new Function<StreamTestDedupStreamHashAidxColumn, Long>() {
+                @Override
+                public Long apply(StreamTestDedupStreamHashAidxColumn row) {
+                    return row.streamId;
+                }
+            };
+        }
+
+        public static Function<Long, StreamTestDedupStreamHashAidxColumn> fromStreamIdFun() {
+            return new Function<Long, StreamTestDedupStreamHashAidxColumn>() {
+                @Override
+                public StreamTestDedupStreamHashAidxColumn apply(Long row) {
+                    return StreamTestDedupStreamHashAidxColumn.of(row);
+                }
+            };
+        }
+
+        @Override
+        public byte[] persistToBytes() {
+            return EncodingUtils.encodeUnsignedVarLong(streamId);
+        }
+
+        public static final Hydrator<StreamTestDedupStreamHashAidxColumn> BYTES_HYDRATOR = new Hydrator<StreamTestDedupStreamHashAidxColumn>() {
+            @Override
+            public StreamTestDedupStreamHashAidxColumn hydrateFromBytes(byte[] __input) {
+                int __index = 0;
+                Long streamId = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                __index += EncodingUtils.sizeOfUnsignedVarLong(streamId);
+                return new StreamTestDedupStreamHashAidxColumn(streamId);
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("streamId", streamId)
+                .toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            StreamTestDedupStreamHashAidxColumn other = (StreamTestDedupStreamHashAidxColumn) obj;
+            return Objects.equal(streamId, other.streamId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(streamId);
+        }
+
+        @Override
+        public int compareTo(StreamTestDedupStreamHashAidxColumn o) {
+            return ComparisonChain.start()
+                .compare(this.streamId, o.streamId)
+                .result();
+        }
+    }
+
+    public interface StreamTestDedupStreamHashAidxTrigger {
+        public void putStreamTestDedupStreamHashAidx(Multimap<StreamTestDedupStreamHashAidxRow, ? extends StreamTestDedupStreamHashAidxColumnValue> newRows);
+    }
+
+    /**
+     * <pre>
+     * Column name description {
+     *   {@literal Long streamId};
+     * }
+     * Column value description {
+     *   type: Long;
+     * }
+     * </pre>
+     */
+    public static final class StreamTestDedupStreamHashAidxColumnValue implements ColumnValue<Long> {
+        private final StreamTestDedupStreamHashAidxColumn columnName;
+        private final Long value;
+
+        public static StreamTestDedupStreamHashAidxColumnValue of(StreamTestDedupStreamHashAidxColumn columnName, Long value) {
+            return new StreamTestDedupStreamHashAidxColumnValue(columnName, value);
+        }
+
+        private StreamTestDedupStreamHashAidxColumnValue(StreamTestDedupStreamHashAidxColumn columnName, Long value) {
+            this.columnName = columnName;
+            this.value = value;
+        }
+
+        public StreamTestDedupStreamHashAidxColumn getColumnName() {
+            return columnName;
+        }
+
+        @Override
+        public Long getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] persistColumnName() {
+            return columnName.persistToBytes();
+        }
+
+        @Override
+        public byte[] persistValue() {
+            byte[] bytes = EncodingUtils.encodeUnsignedVarLong(value);
+            return CompressionUtils.compress(bytes, Compression.NONE);
+        }
+
+        public static Long hydrateValue(byte[] bytes) {
+            bytes = CompressionUtils.decompress(bytes, Compression.NONE);
+            return EncodingUtils.decodeUnsignedVarLong(bytes, 0);
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxColumnValue, StreamTestDedupStreamHashAidxColumn> getColumnNameFun() {
+            return new Function<StreamTestDedupStreamHashAidxColumnValue, StreamTestDedupStreamHashAidxColumn>() {
+                @Override
+                public StreamTestDedupStreamHashAidxColumn apply(StreamTestDedupStreamHashAidxColumnValue columnValue) {
+                    return columnValue.getColumnName();
+                }
+            };
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxColumnValue, Long> getValueFun() {
+            return new Function<StreamTestDedupStreamHashAidxColumnValue, Long>() {
+                @Override
+                public Long apply(StreamTestDedupStreamHashAidxColumnValue columnValue) {
+                    return columnValue.getValue();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("ColumnName", this.columnName)
+                .add("Value", this.value)
+                .toString();
+        }
+    }
+
+    public static final class StreamTestDedupStreamHashAidxRowResult implements TypedRowResult {
+        private final StreamTestDedupStreamHashAidxRow rowName;
+        private final ImmutableSet<StreamTestDedupStreamHashAidxColumnValue> columnValues;
+
+        public static StreamTestDedupStreamHashAidxRowResult of(RowResult<byte[]> rowResult) {
+            StreamTestDedupStreamHashAidxRow rowName = StreamTestDedupStreamHashAidxRow.BYTES_HYDRATOR.hydrateFromBytes(rowResult.getRowName());
+            Set<StreamTestDedupStreamHashAidxColumnValue> columnValues = Sets.newHashSetWithExpectedSize(rowResult.getColumns().size());
+            for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {
+                StreamTestDedupStreamHashAidxColumn col = StreamTestDedupStreamHashAidxColumn.BYTES_HYDRATOR.hydrateFromBytes(e.getKey());
+                Long value = StreamTestDedupStreamHashAidxColumnValue.hydrateValue(e.getValue());
+                columnValues.add(StreamTestDedupStreamHashAidxColumnValue.of(col, value));
+            }
+            return new StreamTestDedupStreamHashAidxRowResult(rowName, ImmutableSet.copyOf(columnValues));
+        }
+
+        private StreamTestDedupStreamHashAidxRowResult(StreamTestDedupStreamHashAidxRow rowName, ImmutableSet<StreamTestDedupStreamHashAidxColumnValue> columnValues) {
+            this.rowName = rowName;
+            this.columnValues = columnValues;
+        }
+
+        @Override
+        public StreamTestDedupStreamHashAidxRow getRowName() {
+            return rowName;
+        }
+
+        public Set<StreamTestDedupStreamHashAidxColumnValue> getColumnValues() {
+            return columnValues;
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxRowResult, StreamTestDedupStreamHashAidxRow> getRowNameFun() {
+            return new Function<StreamTestDedupStreamHashAidxRowResult, StreamTestDedupStreamHashAidxRow>() {
+                @Override
+                public StreamTestDedupStreamHashAidxRow apply(StreamTestDedupStreamHashAidxRowResult rowResult) {
+                    return rowResult.rowName;
+                }
+            };
+        }
+
+        public static Function<StreamTestDedupStreamHashAidxRowResult, ImmutableSet<StreamTestDedupStreamHashAidxColumnValue>> getColumnValuesFun() {
+            return new Function<StreamTestDedupStreamHashAidxRowResult, ImmutableSet<StreamTestDedupStreamHashAidxColumnValue>>() {
+                @Override
+                public ImmutableSet<StreamTestDedupStreamHashAidxColumnValue> apply(StreamTestDedupStreamHashAidxRowResult rowResult) {
+                    return rowResult.columnValues;
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("RowName", getRowName())
+                .add("ColumnValues", getColumnValues())
+                .toString();
+        }
+    }
+
+    @Override
+    public void delete(StreamTestDedupStreamHashAidxRow row, StreamTestDedupStreamHashAidxColumn column) {
+        delete(ImmutableMultimap.of(row, column));
+    }
+
+    @Override
+    public void delete(Iterable<StreamTestDedupStreamHashAidxRow> rows) {
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> toRemove = HashMultimap.create();
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> result = getRowsMultimap(rows);
+        for (Entry<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> e : result.entries()) {
+            toRemove.put(e.getKey(), e.getValue().getColumnName());
+        }
+        delete(toRemove);
+    }
+
+    @Override
+    public void delete(Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> values) {
+        t.delete(tableName, ColumnValues.toCells(values));
+    }
+
+    @Override
+    public void put(StreamTestDedupStreamHashAidxRow rowName, Iterable<StreamTestDedupStreamHashAidxColumnValue> values) {
+        put(ImmutableMultimap.<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>builder().putAll(rowName, values).build());
+    }
+
+    @Override
+    public void put(StreamTestDedupStreamHashAidxRow rowName, StreamTestDedupStreamHashAidxColumnValue... values) {
+        put(ImmutableMultimap.<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>builder().putAll(rowName, values).build());
+    }
+
+    @Override
+    public void put(Multimap<StreamTestDedupStreamHashAidxRow, ? extends StreamTestDedupStreamHashAidxColumnValue> values) {
+        t.useTable(tableName, this);
+        t.put(tableName, ColumnValues.toCellValues(values));
+        for (StreamTestDedupStreamHashAidxTrigger trigger : triggers) {
+            trigger.putStreamTestDedupStreamHashAidx(values);
+        }
+    }
+
+    @Override
+    public void putUnlessExists(StreamTestDedupStreamHashAidxRow rowName, Iterable<StreamTestDedupStreamHashAidxColumnValue> values) {
+        putUnlessExists(ImmutableMultimap.<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>builder().putAll(rowName, values).build());
+    }
+
+    @Override
+    public void putUnlessExists(StreamTestDedupStreamHashAidxRow rowName, StreamTestDedupStreamHashAidxColumnValue... values) {
+        putUnlessExists(ImmutableMultimap.<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>builder().putAll(rowName, values).build());
+    }
+
+    @Override
+    public void putUnlessExists(Multimap<StreamTestDedupStreamHashAidxRow, ? extends StreamTestDedupStreamHashAidxColumnValue> rows) {
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> toGet = Multimaps.transformValues(rows, StreamTestDedupStreamHashAidxColumnValue.getColumnNameFun());
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> existing = get(toGet);
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> toPut = HashMultimap.create();
+        for (Entry<StreamTestDedupStreamHashAidxRow, ? extends StreamTestDedupStreamHashAidxColumnValue> entry : rows.entries()) {
+            if (!existing.containsEntry(entry.getKey(), entry.getValue())) {
+                toPut.put(entry.getKey(), entry.getValue());
+            }
+        }
+        put(toPut);
+    }
+
+    @Override
+    public void touch(Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> values) {
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> currentValues = get(values);
+        put(currentValues);
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> toDelete = HashMultimap.create(values);
+        for (Map.Entry<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> e : currentValues.entries()) {
+            toDelete.remove(e.getKey(), e.getValue().getColumnName());
+        }
+        delete(toDelete);
+    }
+
+    public static ColumnSelection getColumnSelection(Collection<StreamTestDedupStreamHashAidxColumn> cols) {
+        return ColumnSelection.create(Collections2.transform(cols, Persistables.persistToBytesFunction()));
+    }
+
+    public static ColumnSelection getColumnSelection(StreamTestDedupStreamHashAidxColumn... cols) {
+        return getColumnSelection(Arrays.asList(cols));
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> get(Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> cells) {
+        Set<Cell> rawCells = ColumnValues.toCells(cells);
+        Map<Cell, byte[]> rawResults = t.get(tableName, rawCells);
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> rowMap = HashMultimap.create();
+        for (Entry<Cell, byte[]> e : rawResults.entrySet()) {
+            if (e.getValue().length > 0) {
+                StreamTestDedupStreamHashAidxRow row = StreamTestDedupStreamHashAidxRow.BYTES_HYDRATOR.hydrateFromBytes(e.getKey().getRowName());
+                StreamTestDedupStreamHashAidxColumn col = StreamTestDedupStreamHashAidxColumn.BYTES_HYDRATOR.hydrateFromBytes(e.getKey().getColumnName());
+                Long val = StreamTestDedupStreamHashAidxColumnValue.hydrateValue(e.getValue());
+                rowMap.put(row, StreamTestDedupStreamHashAidxColumnValue.of(col, val));
+            }
+        }
+        return rowMap;
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getAsync(final Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumn> cells, ExecutorService exec) {
+        Callable<Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>> c =
+                new Callable<Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>>() {
+            @Override
+            public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> call() {
+                return get(cells);
+            }
+        };
+        return AsyncProxy.create(exec.submit(c), Multimap.class);
+    }
+
+    @Override
+    public List<StreamTestDedupStreamHashAidxColumnValue> getRowColumns(StreamTestDedupStreamHashAidxRow row) {
+        return getRowColumns(row, ColumnSelection.all());
+    }
+
+    @Override
+    public List<StreamTestDedupStreamHashAidxColumnValue> getRowColumns(StreamTestDedupStreamHashAidxRow row, ColumnSelection columns) {
+        byte[] bytes = row.persistToBytes();
+        RowResult<byte[]> rowResult = t.getRows(tableName, ImmutableSet.of(bytes), columns).get(bytes);
+        if (rowResult == null) {
+            return ImmutableList.of();
+        } else {
+            List<StreamTestDedupStreamHashAidxColumnValue> ret = Lists.newArrayListWithCapacity(rowResult.getColumns().size());
+            for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {
+                StreamTestDedupStreamHashAidxColumn col = StreamTestDedupStreamHashAidxColumn.BYTES_HYDRATOR.hydrateFromBytes(e.getKey());
+                Long val = StreamTestDedupStreamHashAidxColumnValue.hydrateValue(e.getValue());
+                ret.add(StreamTestDedupStreamHashAidxColumnValue.of(col, val));
+            }
+            return ret;
+        }
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getRowsMultimap(Iterable<StreamTestDedupStreamHashAidxRow> rows) {
+        return getRowsMultimapInternal(rows, ColumnSelection.all());
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getRowsMultimap(Iterable<StreamTestDedupStreamHashAidxRow> rows, ColumnSelection columns) {
+        return getRowsMultimapInternal(rows, columns);
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getAsyncRowsMultimap(Iterable<StreamTestDedupStreamHashAidxRow> rows, ExecutorService exec) {
+        return getAsyncRowsMultimap(rows, ColumnSelection.all(), exec);
+    }
+
+    @Override
+    public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getAsyncRowsMultimap(final Iterable<StreamTestDedupStreamHashAidxRow> rows, final ColumnSelection columns, ExecutorService exec) {
+        Callable<Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>> c =
+                new Callable<Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue>>() {
+            @Override
+            public Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> call() {
+                return getRowsMultimapInternal(rows, columns);
+            }
+        };
+        return AsyncProxy.create(exec.submit(c), Multimap.class);
+    }
+
+    private Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getRowsMultimapInternal(Iterable<StreamTestDedupStreamHashAidxRow> rows, ColumnSelection columns) {
+        SortedMap<byte[], RowResult<byte[]>> results = t.getRows(tableName, Persistables.persistAll(rows), columns);
+        return getRowMapFromRowResults(results.values());
+    }
+
+    private static Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> getRowMapFromRowResults(Collection<RowResult<byte[]>> rowResults) {
+        Multimap<StreamTestDedupStreamHashAidxRow, StreamTestDedupStreamHashAidxColumnValue> rowMap = HashMultimap.create();
+        for (RowResult<byte[]> result : rowResults) {
+            StreamTestDedupStreamHashAidxRow row = StreamTestDedupStreamHashAidxRow.BYTES_HYDRATOR.hydrateFromBytes(result.getRowName());
+            for (Entry<byte[], byte[]> e : result.getColumns().entrySet()) {
+                StreamTestDedupStreamHashAidxColumn col = StreamTestDedupStreamHashAidxColumn.BYTES_HYDRATOR.hydrateFromBytes(e.getKey());
+                Long val = StreamTestDedupStreamHashAidxColumnValue.hydrateValue(e.getValue());
+                rowMap.put(row, StreamTestDedupStreamHashAidxColumnValue.of(col, val));
+            }
+        }
+        return rowMap;
+    }
+
+    public BatchingVisitableView<StreamTestDedupStreamHashAidxRowResult> getAllRowsUnordered() {
+        return getAllRowsUnordered(ColumnSelection.all());
+    }
+
+    public BatchingVisitableView<StreamTestDedupStreamHashAidxRowResult> getAllRowsUnordered(ColumnSelection columns) {
+        return BatchingVisitables.transform(t.getRange(tableName, RangeRequest.builder().retainColumns(columns).build()),
+                new Function<RowResult<byte[]>, StreamTestDedupStreamHashAidxRowResult>() {
+            @Override
+            public StreamTestDedupStreamHashAidxRowResult apply(RowResult<byte[]> input) {
+                return StreamTestDedupStreamHashAidxRowResult.of(input);
+            }
+        });
+    }
+
+    @Override
+    public List<String> findConstraintFailures(Map<Cell, byte[]> writes,
+                                               ConstraintCheckingTransaction transaction,
+                                               AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public List<String> findConstraintFailuresNoRead(Map<Cell, byte[]> writes,
+                                                     AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    /**
+     * This exists to avoid unused import warnings
+     * {@link AbortingVisitor}
+     * {@link AbortingVisitors}
+     * {@link ArrayListMultimap}
+     * {@link Arrays}
+     * {@link AssertUtils}
+     * {@link AsyncProxy}
+     * {@link AtlasDbConstraintCheckingMode}
+     * {@link AtlasDbDynamicMutableExpiringTable}
+     * {@link AtlasDbDynamicMutablePersistentTable}
+     * {@link AtlasDbMutableExpiringTable}
+     * {@link AtlasDbMutablePersistentTable}
+     * {@link AtlasDbNamedExpiringSet}
+     * {@link AtlasDbNamedMutableTable}
+     * {@link AtlasDbNamedPersistentSet}
+     * {@link BatchingVisitable}
+     * {@link BatchingVisitableView}
+     * {@link BatchingVisitables}
+     * {@link ByteBuffer}
+     * {@link Bytes}
+     * {@link Callable}
+     * {@link Cell}
+     * {@link Cells}
+     * {@link Collection}
+     * {@link Collections2}
+     * {@link ColumnSelection}
+     * {@link ColumnValue}
+     * {@link ColumnValues}
+     * {@link ComparisonChain}
+     * {@link Compression}
+     * {@link CompressionUtils}
+     * {@link ConstraintCheckingTransaction}
+     * {@link Descending}
+     * {@link EncodingUtils}
+     * {@link Entry}
+     * {@link EnumSet}
+     * {@link ExecutorService}
+     * {@link Function}
+     * {@link Generated}
+     * {@link HashMultimap}
+     * {@link HashSet}
+     * {@link Hashing}
+     * {@link Hydrator}
+     * {@link ImmutableList}
+     * {@link ImmutableMap}
+     * {@link ImmutableMultimap}
+     * {@link ImmutableSet}
+     * {@link InvalidProtocolBufferException}
+     * {@link IterableView}
+     * {@link Iterables}
+     * {@link Iterator}
+     * {@link Joiner}
+     * {@link List}
+     * {@link Lists}
+     * {@link Map}
+     * {@link Maps}
+     * {@link MoreObjects}
+     * {@link Multimap}
+     * {@link Multimaps}
+     * {@link NamedColumnValue}
+     * {@link Namespace}
+     * {@link Objects}
+     * {@link Optional}
+     * {@link Persistable}
+     * {@link Persistables}
+     * {@link Prefix}
+     * {@link PtBytes}
+     * {@link RangeRequest}
+     * {@link RowResult}
+     * {@link Set}
+     * {@link Sets}
+     * {@link Sha256Hash}
+     * {@link SortedMap}
+     * {@link Supplier}
+     * {@link Throwables}
+     * {@link TimeUnit}
+     * {@link Transaction}
+     * {@link TypedRowResult}
+     * {@link UnsignedBytes}
+     * {@link ValueType}
+     */
+    static String __CLASS_HASH = "x09Eh+wMkZ5pwkidnUCtXg==";
+}
@@ -43,6 +43,7 @@ import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata.Builder;
+import com.palantir.atlasdb.stream.AbstractDeduplicatingPersistentStreamStore;
 import com.palantir.atlasdb.stream.AbstractExpiringStreamStore;
 import com.palantir.atlasdb.stream.AbstractPersistentStreamStore;
 import com.palantir.atlasdb.stream.ExpiringStreamStore;
@@ -108,6 +109,12 @@ public final class StreamTestStreamStore extends AbstractPersistentStreamStore {
         }
     }
 
+    @Override
+    protected void putBlock(Transaction t, long id, long blockNumber, final byte[] block) {
+        Preconditions.checkArgument(block.length <= BLOCK_SIZE_IN_BYTES, "Block to store in DB must be less than BLOCK_SIZE_IN_BYTES");
+        tables.getStreamTestStreamValueTable(t).putValue(StreamTestStreamValueTable.StreamTestStreamValueRow.of(id, blockNumber), block);
+    }
+
     private void touchMetadataWhileStoringForConflicts(Transaction t, Long id, long blockNumber) {
         StreamTestStreamMetadataTable metaTable = tables.getStreamTestStreamMetadataTable(t);
         StreamTestStreamMetadataTable.StreamTestStreamMetadataRow row = StreamTestStreamMetadataTable.StreamTestStreamMetadataRow.of(id);
@@ -141,6 +148,9 @@ public final class StreamTestStreamStore extends AbstractPersistentStreamStore {
                     throw new TransactionFailedRetriableException("Cannot reuse the same stream id: " + streamId);
                 }
                 rowsToUnstoredMetadata.put(StreamTestStreamMetadataTable.StreamTestStreamMetadataRow.of(streamId), metadata);
+            } else if (metadata.getStatus() == Status.FAILED) {
+                // The length of a failed stream covers every block it may have written, so cleanup finds them.
+                rowsToUnstoredMetadata.put(StreamTestStreamMetadataTable.StreamTestStreamMetadataRow.of(streamId), metadata);
             }
         }
         putHashIndexTask(t, rowsToStoredMetadata);
@@ -181,6 +191,20 @@ public final class StreamTestStreamStore extends AbstractPersistentStreamStore {
         return valueTable.getValues(ImmutableSet.of(row)).get(row);
     }
 
+    @Override
+    protected Map<Long, byte[]> loadBlocks(Transaction t, Long streamId, long firstBlockId, long lastBlockId) {
+        Set<StreamTestStreamValueTable.StreamTestStreamValueRow> rows = Sets.newHashSet();
+        for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {
+            rows.add(StreamTestStreamValueTable.StreamTestStreamValueRow.of(streamId, blockId));
+        }
+        StreamTestStreamValueTable valueTable = tables.getStreamTestStreamValueTable(t);
+        Map<Long, byte[]> blocks = Maps.newHashMap();
+        for (Map.Entry<StreamTestStreamValueTable.StreamTestStreamValueRow, byte[]> e : valueTable.getValues(rows).entrySet()) {
+            blocks.put(e.getKey().getBlockId(), e.getValue());
+        }
+        return blocks;
+    }
+
     @Override
     protected Map<Long, StreamMetadata> getMetadata(Transaction t, Set<Long> streamIds) {
         if (streamIds.isEmpty()) {
@@ -360,6 +384,7 @@ public final class StreamTestStreamStore extends AbstractPersistentStreamStore {
 
     /**
      * This exists to avoid unused import warnings
+     * {@link AbstractDeduplicatingPersistentStreamStore}
      * {@link AbstractExpiringStreamStore}
      * {@link AbstractPersistentStreamStore}
      * {@link ArrayListMultimap}
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.stream.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -176,9 +177,11 @@ public final class StreamTestStreamValueTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = EncodingUtils.encodeUnsignedVarLong(id);
-            byte[] blockIdBytes = EncodingUtils.encodeUnsignedVarLong(blockId);
-            return EncodingUtils.add(idBytes, blockIdBytes);
+            byte[] __bytes = new byte[EncodingUtils.sizeOfUnsignedVarLong(id) + EncodingUtils.sizeOfUnsignedVarLong(blockId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeUnsignedVarLong(id, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(blockId, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<StreamTestStreamValueRow> BYTES_HYDRATOR = new Hydrator<StreamTestStreamValueRow>() {
@@ -633,6 +636,7 @@ public final class StreamTestStreamValueTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -695,5 +699,5 @@ public final class StreamTestStreamValueTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "2KEvkQR/hBT2U+coipiazQ==";
+    static String __CLASS_HASH = "fE2WFsMxhDWjwStWCltzRQ==";
 }
@@ -38,6 +38,30 @@ public final class StreamTestTableFactory {
         return of(ImmutableList.<Function<? super Transaction, SharedTriggers>>of(), defaultNamespace);
     }
 
+    public StreamTestDedupStreamChunkTable getStreamTestDedupStreamChunkTable(Transaction t, StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkTrigger... triggers) {
+        return StreamTestDedupStreamChunkTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public StreamTestDedupStreamChunkIdxTable getStreamTestDedupStreamChunkIdxTable(Transaction t, StreamTestDedupStreamChunkIdxTable.StreamTestDedupStreamChunkIdxTrigger... triggers) {
+        return StreamTestDedupStreamChunkIdxTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public StreamTestDedupStreamHashAidxTable getStreamTestDedupStreamHashAidxTable(Transaction t, StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxTrigger... triggers) {
+        return StreamTestDedupStreamHashAidxTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public StreamTestDedupStreamIdxTable getStreamTestDedupStreamIdxTable(Transaction t, StreamTestDedupStreamIdxTable.StreamTestDedupStreamIdxTrigger... triggers) {
+        return StreamTestDedupStreamIdxTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public StreamTestDedupStreamMetadataTable getStreamTestDedupStreamMetadataTable(Transaction t, StreamTestDedupStreamMetadataTable.StreamTestDedupStreamMetadataTrigger... triggers) {
+        return StreamTestDedupStreamMetadataTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public StreamTestDedupStreamValueTable getStreamTestDedupStreamValueTable(Transaction t, StreamTestDedupStreamValueTable.StreamTestDedupStreamValueTrigger... triggers) {
+        return StreamTestDedupStreamValueTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
     public StreamTestStreamHashAidxTable getStreamTestStreamHashAidxTable(Transaction t, StreamTestStreamHashAidxTable.StreamTestStreamHashAidxTrigger... triggers) {
         return StreamTestStreamHashAidxTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
     }
@@ -71,6 +95,12 @@ public final class StreamTestTableFactory {
     }
 
     public interface SharedTriggers extends
+            StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkTrigger,
+            StreamTestDedupStreamChunkIdxTable.StreamTestDedupStreamChunkIdxTrigger,
+            StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxTrigger,
+            StreamTestDedupStreamIdxTable.StreamTestDedupStreamIdxTrigger,
+            StreamTestDedupStreamMetadataTable.StreamTestDedupStreamMetadataTrigger,
+            StreamTestDedupStreamValueTable.StreamTestDedupStreamValueTrigger,
             StreamTestStreamHashAidxTable.StreamTestStreamHashAidxTrigger,
             StreamTestStreamIdxTable.StreamTestStreamIdxTrigger,
             StreamTestStreamMetadataTable.StreamTestStreamMetadataTrigger,
@@ -83,6 +113,36 @@ public final class StreamTestTableFactory {
     }
 
     public abstract static class NullSharedTriggers implements SharedTriggers {
+        @Override
+        public void putStreamTestDedupStreamChunk(Multimap<StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkRow, ? extends StreamTestDedupStreamChunkTable.StreamTestDedupStreamChunkNamedColumnValue<?>> newRows) {
+            // do nothing
+        }
+
+        @Override
+        public void putStreamTestDedupStreamChunkIdx(Multimap<StreamTestDedupStreamChunkIdxTable.StreamTestDedupStreamChunkIdxRow, ? extends StreamTestDedupStreamChunkIdxTable.StreamTestDedupStreamChunkIdxColumnValue> newRows) {
+            // do nothing
+        }
+
+        @Override
+        public void putStreamTestDedupStreamHashAidx(Multimap<StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxRow, ? extends StreamTestDedupStreamHashAidxTable.StreamTestDedupStreamHashAidxColumnValue> newRows) {
+            // do nothing
+        }
+
+        @Override
+        public void putStreamTestDedupStreamIdx(Multimap<StreamTestDedupStreamIdxTable.StreamTestDedupStreamIdxRow, ? extends StreamTestDedupStreamIdxTable.StreamTestDedupStreamIdxColumnValue> newRows) {
+            // do nothing
+        }
+
+        @Override
+        public void putStreamTestDedupStreamMetadata(Multimap<StreamTestDedupStreamMetadataTable.StreamTestDedupStreamMetadataRow, ? extends StreamTestDedupStreamMetadataTable.StreamTestDedupStreamMetadataNamedColumnValue<?>> newRows) {
+            // do nothing
+        }
+
+        @Override
+        public void putStreamTestDedupStreamValue(Multimap<StreamTestDedupStreamValueTable.StreamTestDedupStreamValueRow, ? extends StreamTestDedupStreamValueTable.StreamTestDedupStreamValueNamedColumnValue<?>> newRows) {
+            // do nothing
+        }
+
         @Override
         public void putStreamTestStreamHashAidx(Multimap<StreamTestStreamHashAidxTable.StreamTestStreamHashAidxRow, ? extends StreamTestStreamHashAidxTable.StreamTestStreamHashAidxColumnValue> newRows) {
             // do nothing
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.stream.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -171,9 +172,11 @@ public final class StreamTestWithHashStreamIdxTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] firstComponentHashBytes = PtBytes.toBytes(Long.MIN_VALUE ^ firstComponentHash);
-            byte[] idBytes = EncodingUtils.encodeUnsignedVarLong(id);
-            return EncodingUtils.add(firstComponentHashBytes, idBytes);
+            byte[] __bytes = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(id)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            __buffer.putLong(Long.MIN_VALUE ^ firstComponentHash);
+            EncodingUtils.encodeUnsignedVarLong(id, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<StreamTestWithHashStreamIdxRow> BYTES_HYDRATOR = new Hydrator<StreamTestWithHashStreamIdxRow>() {
@@ -267,8 +270,7 @@ public final class StreamTestWithHashStreamIdxTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] referenceBytes = EncodingUtils.encodeSizedBytes(reference);
-            return EncodingUtils.add(referenceBytes);
+            return EncodingUtils.encodeSizedBytes(reference);
         }
 
         public static final Hydrator<StreamTestWithHashStreamIdxColumn> BYTES_HYDRATOR = new Hydrator<StreamTestWithHashStreamIdxColumn>() {
@@ -662,6 +664,7 @@ public final class StreamTestWithHashStreamIdxTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -724,5 +727,5 @@ public final class StreamTestWithHashStreamIdxTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "DXlBZB/Eo3beREjyk4XO9w==";
+    static String __CLASS_HASH = "OCkv0KWyB30uUeJ7zb9koQ==";
 }
@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.stream.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -173,9 +174,11 @@ public final class StreamTestWithHashStreamMetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] firstComponentHashBytes = PtBytes.toBytes(Long.MIN_VALUE ^ firstComponentHash);
-            byte[] idBytes = EncodingUtils.encodeUnsignedVarLong(id);
-            return EncodingUtils.add(firstComponentHashBytes, idBytes);
+            byte[] __bytes = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(id)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            __buffer.putLong(Long.MIN_VALUE ^ firstComponentHash);
+            EncodingUtils.encodeUnsignedVarLong(id, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<StreamTestWithHashStreamMetadataRow> BYTES_HYDRATOR = new Hydrator<StreamTestWithHashStreamMetadataRow>() {
@@ -654,6 +657,7 @@ public final class StreamTestWithHashStreamMetadataTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -716,5 +720,5 @@ public final class StreamTestWithHashStreamMetadataTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "a1P3II1PNyGgUokMLv0hWA==";
+    static String __CLASS_HASH = "eK9QhRFDCEV179r6GmOQ2A==";
 }
@@ -43,6 +43,7 @@ import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata.Builder;
+import com.palantir.atlasdb.stream.AbstractDeduplicatingPersistentStreamStore;
 import com.palantir.atlasdb.stream.AbstractExpiringStreamStore;
 import com.palantir.atlasdb.stream.AbstractPersistentStreamStore;
 import com.palantir.atlasdb.stream.ExpiringStreamStore;
@@ -141,6 +142,9 @@ public final class StreamTestWithHashStreamStore extends AbstractExpiringStreamS
                     throw new TransactionFailedRetriableException("Cannot reuse the same stream id: " + streamId);
                 }
                 rowsToUnstoredMetadata.put(StreamTestWithHashStreamMetadataTable.StreamTestWithHashStreamMetadataRow.of(streamId), metadata);
+            } else if (metadata.getStatus() == Status.FAILED) {
+                // The length of a failed stream covers every block it may have written, so cleanup finds them.
+                rowsToUnstoredMetadata.put(StreamTestWithHashStreamMetadataTable.StreamTestWithHashStreamMetadataRow.of(streamId), metadata);
             }
         }
         putHashIndexTask(t, rowsToStoredMetadata, duration, unit);
@@ -181,6 +185,20 @@ public final class StreamTestWithHashStreamStore extends AbstractExpiringStreamS
         return valueTable.getValues(ImmutableSet.of(row)).get(row);
     }
 
+    @Override
+    protected Map<Long, byte[]> loadBlocks(Transaction t, Long streamId, long firstBlockId, long lastBlockId) {
+        Set<StreamTestWithHashStreamValueTable.StreamTestWithHashStreamValueRow> rows = Sets.newHashSet();
+        for (long blockId = firstBlockId; blockId <= lastBlockId; blockId++) {
+            rows.add(StreamTestWithHashStreamValueTable.StreamTestWithHashStreamValueRow.of(streamId, blockId));
+        }
+        StreamTestWithHashStreamValueTable valueTable = tables.getStreamTestWithHashStreamValueTable(t);
+        Map<Long, byte[]> blocks = Maps.newHashMap();
+        for (Map.Entry<StreamTestWithHashStreamValueTable.StreamTestWithHashStreamValueRow, byte[]> e : valueTable.getValues(rows).entrySet()) {
+            blocks.put(e.getKey().getBlockId(), e.getValue());
+        }
+        return blocks;
+    }
+
     @Override
     protected Map<Long, StreamMetadata> getMetadata(Transaction t, Set<Long> streamIds) {
         if (streamIds.isEmpty()) {
@@ -306,6 +324,7 @@ public final class StreamTestWithHashStreamStore extends AbstractExpiringStreamS
 
     /**
      * This exists to avoid unused import warnings
+     * {@link AbstractDeduplicatingPersistentStreamStore}
      * {@link AbstractExpiringStreamStore}
      * {@link AbstractPersistentStreamStore}
      * {@link ArrayListMultimap}
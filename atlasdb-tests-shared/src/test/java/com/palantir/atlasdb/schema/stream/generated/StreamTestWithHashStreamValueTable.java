@@ -1,5 +1,6 @@
 package com.palantir.atlasdb.schema.stream.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -180,10 +181,12 @@ public final class StreamTestWithHashStreamValueTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] firstComponentHashBytes = PtBytes.toBytes(Long.MIN_VALUE ^ firstComponentHash);
-            byte[] idBytes = EncodingUtils.encodeUnsignedVarLong(id);
-            byte[] blockIdBytes = EncodingUtils.encodeUnsignedVarLong(blockId);
-            return EncodingUtils.add(firstComponentHashBytes, idBytes, blockIdBytes);
+            byte[] __bytes = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(id) + EncodingUtils.sizeOfUnsignedVarLong(blockId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            __buffer.putLong(Long.MIN_VALUE ^ firstComponentHash);
+            EncodingUtils.encodeUnsignedVarLong(id, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(blockId, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<StreamTestWithHashStreamValueRow> BYTES_HYDRATOR = new Hydrator<StreamTestWithHashStreamValueRow>() {
@@ -642,6 +645,7 @@ public final class StreamTestWithHashStreamValueTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -704,5 +708,5 @@ public final class StreamTestWithHashStreamValueTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "/W5S6serveoEX9umxltNGA==";
+    static String __CLASS_HASH = "i8Fqu4+8d1KwQPRG83s+8g==";
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CommitTimestampCacheTest extends Assert {
+
+    @Test
+    public void testGetAndPut() {
+        CommitTimestampCache cache = new CommitTimestampCache();
+        assertEquals(CommitTimestampCache.NO_ENTRY, cache.get(1L));
+        cache.put(1L, 2L);
+        cache.put(3L, TransactionConstants.FAILED_COMMIT_TS);
+        assertEquals(2L, cache.get(1L));
+        assertEquals(TransactionConstants.FAILED_COMMIT_TS, cache.get(3L));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        int maxSize = 1000;
+        CommitTimestampCache cache = new CommitTimestampCache(maxSize);
+        long lastStartTs = 100 * maxSize;
+        for (long i = 0; i <= lastStartTs; i++) {
+            cache.put(i, i + 1);
+        }
+        assertTrue(cache.getSize() <= maxSize);
+        assertTrue(cache.getEvictionCount() > 0);
+        assertEquals(lastStartTs + 1, cache.get(lastStartTs));
+    }
+
+    @Test
+    public void testRecentlyReadEntriesSurviveRotation() {
+        int maxSize = 64;
+        CommitTimestampCache cache = new CommitTimestampCache(maxSize);
+        cache.put(-5L, 7L);
+        for (long i = 0; i < 10 * maxSize; i++) {
+            cache.put(i, i + 1);
+            assertEquals(7L, cache.get(-5L));
+        }
+    }
+}
@@ -260,6 +260,7 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 lock,
                 timestampService,
                 transactionService,
+                new CommitTimestampCache(),
                 NoOpCleaner.INSTANCE,
                 transactionTs,
                 ImmutableMap.of(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE),
@@ -314,6 +315,7 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 lockService,
                 timestampService,
                 transactionService,
+                new CommitTimestampCache(),
                 NoOpCleaner.INSTANCE,
                 transactionTs,
                 ImmutableMap.of(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE),
@@ -61,8 +61,10 @@ public class ConcurrentMapWithLogging {
         try {
             if (map.containsKey(startTimestamp))
                 throw new KeyAlreadyExistsException("Key " + startTimestamp + " already exists and is mapped to " + commitTimestamp);
-            map.put(startTimestamp, commitTimestamp);
+            // Log first so a failed append leaves nothing in the map. Appends under different
+            // stripes run concurrently, which lets the log batch their syncs.
             log.append(startTimestamp, commitTimestamp);
+            map.put(startTimestamp, commitTimestamp);
         } finally {
             stripedLock.get(startTimestamp).unlock();
         }
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.palantir.common.base.Throwables;
+
+/**
+ * Keeps each piece of metadata in its own file in a local directory.  A put writes and syncs a
+ * temporary file and then renames it over the old one, so a crash leaves either the old or the
+ * new data.
+ */
+public class FileMetadataStorageService implements MetadataStorageService {
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private final File dir;
+
+    private FileMetadataStorageService(File dir) {
+        this.dir = dir;
+    }
+
+    public static FileMetadataStorageService create(String dir) {
+        File file = new File(dir);
+        if (!file.isDirectory() && !file.mkdirs()) {
+            throw new IllegalStateException("Could not create the metadata directory " + file.getAbsolutePath());
+        }
+        return new FileMetadataStorageService(file);
+    }
+
+    @Override
+    public synchronized void put(String name, byte[] data) {
+        File file = new File(dir, name);
+        File tmpFile = new File(dir, name + TMP_FILE_SUFFIX);
+        try {
+            FileOutputStream out = new FileOutputStream(tmpFile);
+            try {
+                out.write(data);
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    @Override
+    public synchronized byte[] get(String name) {
+        File file = new File(dir, name);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+}
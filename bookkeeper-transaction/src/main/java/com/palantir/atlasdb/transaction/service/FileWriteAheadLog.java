@@ -0,0 +1,307 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.palantir.common.base.Throwables;
+
+/**
+ * A write ahead log kept in preallocated, memory mapped segment files on the local disk.
+ * <p>
+ * Each entry is written with a CRC32 checksum, so a torn entry at the end of a segment is
+ * ignored when the log is read back.  An append returns once its entry is durable, and the
+ * appends of concurrent writers share a single force of the mapped segments (group commit).
+ */
+public class FileWriteAheadLog implements WriteAheadLog {
+    private static final String SEGMENT_SUFFIX = ".wal";
+    // start timestamp, commit timestamp, checksum
+    private static final int ENTRY_SIZE = 8 + 8 + 4;
+
+    private final File dir;
+    private final long logId;
+    private final int segmentSizeBytes;
+
+    @GuardedBy("this") private final List<MappedByteBuffer> segments;
+    @GuardedBy("this") private final Set<MappedByteBuffer> unsyncedSegments = new LinkedHashSet<MappedByteBuffer>();
+    @GuardedBy("this") private boolean closed;
+    @GuardedBy("this") private long appendedEntries = 0;
+
+    private final Object syncMonitor = new Object();
+    @GuardedBy("syncMonitor") private long durableEntries = 0;
+    @GuardedBy("syncMonitor") private boolean syncInProgress = false;
+
+    private FileWriteAheadLog(File dir, long logId, int segmentSizeBytes, List<MappedByteBuffer> segments, boolean closed) {
+        this.dir = dir;
+        this.logId = logId;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.segments = segments;
+        this.closed = closed;
+    }
+
+    /* package */ static FileWriteAheadLog create(File dir, long logId, int segmentSizeBytes) {
+        FileWriteAheadLog log = new FileWriteAheadLog(dir, logId, segmentSizeBytes,
+                Lists.<MappedByteBuffer>newArrayList(), false);
+        synchronized (log) {
+            log.addSegment();
+        }
+        return log;
+    }
+
+    /* package */ static FileWriteAheadLog retrieve(File dir, long logId) {
+        List<MappedByteBuffer> segments = Lists.newArrayList();
+        for (File file : getSegmentFiles(dir, logId).values()) {
+            segments.add(map(file, MapMode.READ_ONLY, 0));
+        }
+        return new FileWriteAheadLog(dir, logId, 0, segments, true);
+    }
+
+    /**
+     * @return the greatest id of any log with segments in dir, or -1 if there are none
+     */
+    /* package */ static long getGreatestLogId(File dir) {
+        long greatest = -1;
+        File[] files = dir.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            long[] ids = parseSegmentName(file.getName());
+            if (ids != null) {
+                greatest = Math.max(greatest, ids[0]);
+            }
+        }
+        return greatest;
+    }
+
+    @Override
+    public void append(long startTs, long commitTs) {
+        long entry;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Cannot append to a closed log");
+            }
+            MappedByteBuffer segment = segments.get(segments.size() - 1);
+            if (segment.remaining() < ENTRY_SIZE) {
+                segment = addSegment();
+            }
+            int offset = segment.position();
+            segment.putLong(startTs);
+            segment.putLong(commitTs);
+            segment.putInt(checksum(segment, offset));
+            unsyncedSegments.add(segment);
+            entry = ++appendedEntries;
+        }
+        awaitDurable(entry);
+    }
+
+    @Override
+    public void close() {
+        long entries;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The log is already closed");
+            }
+            closed = true;
+            entries = appendedEntries;
+        }
+        awaitDurable(entries);
+    }
+
+    @Override
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public long getId() {
+        return logId;
+    }
+
+    @Override
+    public Iterator<TransactionLogEntry> iterator() {
+        List<ByteBuffer> toRead = Lists.newArrayList();
+        synchronized (this) {
+            if (!closed) {
+                throw new IllegalStateException("Cannot visit log entries until log is closed");
+            }
+            for (MappedByteBuffer segment : segments) {
+                toRead.add(segment.duplicate());
+            }
+        }
+
+        ImmutableList.Builder<TransactionLogEntry> entries = ImmutableList.builder();
+        for (ByteBuffer segment : toRead) {
+            // Reads each segment up to its first invalid entry, which is where writing stopped.
+            segment.position(0);
+            while (segment.remaining() >= ENTRY_SIZE) {
+                int offset = segment.position();
+                long startTs = segment.getLong();
+                long commitTs = segment.getLong();
+                if (segment.getInt() != checksum(segment, offset)) {
+                    break;
+                }
+                entries.add(new TransactionLogEntry(startTs, commitTs));
+            }
+        }
+        return entries.build().iterator();
+    }
+
+    /**
+     * Blocks until the given number of entries are durable.  The first writer to arrive forces
+     * every segment with unsynced entries, and writers arriving while it does so wait to share
+     * the next force rather than each issuing their own.
+     */
+    private void awaitDurable(long entry) {
+        boolean interrupted = false;
+        try {
+            synchronized (syncMonitor) {
+                while (durableEntries < entry && syncInProgress) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (durableEntries >= entry) {
+                    return;
+                }
+                syncInProgress = true;
+            }
+            sync();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sync() {
+        List<MappedByteBuffer> toSync;
+        long syncedEntries;
+        synchronized (this) {
+            toSync = Lists.newArrayList(unsyncedSegments);
+            unsyncedSegments.clear();
+            syncedEntries = appendedEntries;
+        }
+        boolean succeeded = false;
+        try {
+            for (MappedByteBuffer segment : toSync) {
+                segment.force();
+            }
+            succeeded = true;
+        } finally {
+            if (!succeeded) {
+                synchronized (this) {
+                    unsyncedSegments.addAll(toSync);
+                }
+            }
+            synchronized (syncMonitor) {
+                if (succeeded) {
+                    durableEntries = Math.max(durableEntries, syncedEntries);
+                }
+                syncInProgress = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private MappedByteBuffer addSegment() {
+        File file = new File(dir, getSegmentName(logId, segments.size()));
+        MappedByteBuffer segment = map(file, MapMode.READ_WRITE, segmentSizeBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, MapMode mode, int preallocateSize) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, mode == MapMode.READ_ONLY ? "r" : "rw");
+            if (raf.length() < preallocateSize) {
+                raf.setLength(preallocateSize);
+            }
+            // The mapping remains valid once the file is closed.
+            return raf.getChannel().map(mode, 0, raf.length());
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static int checksum(ByteBuffer segment, int offset) {
+        ByteBuffer entry = segment.duplicate();
+        entry.limit(offset + 16);
+        entry.position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(entry);
+        return (int) crc.getValue();
+    }
+
+    private static String getSegmentName(long logId, int segment) {
+        return logId + "." + segment + SEGMENT_SUFFIX;
+    }
+
+    /**
+     * @return the log id and segment number of a segment file, or null if this is not one
+     */
+    private static long[] parseSegmentName(String name) {
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        String[] parts = name.substring(0, name.length() - SEGMENT_SUFFIX.length()).split("\\.");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static SortedMap<Long, File> getSegmentFiles(File dir, long logId) {
+        TreeMap<Long, File> segments = new TreeMap<Long, File>();
+        File[] files = dir.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            long[] ids = parseSegmentName(file.getName());
+            if (ids != null && ids[0] == logId) {
+                segments.put(ids[1], file);
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.io.File;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps {@link FileWriteAheadLog}s in a local directory, so that a {@link TransactionServiceImpl}
+ * can run on a single node without a BookKeeper cluster.
+ */
+public class FileWriteAheadLogManager implements WriteAheadLogManager {
+    public static final int DEFAULT_SEGMENT_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private final File dir;
+    private final int segmentSizeBytes;
+    @GuardedBy("this") private long nextLogId;
+
+    private FileWriteAheadLogManager(File dir, int segmentSizeBytes) {
+        this.dir = dir;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.nextLogId = FileWriteAheadLog.getGreatestLogId(dir) + 1;
+    }
+
+    public static FileWriteAheadLogManager create(String dir) {
+        return create(dir, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    /**
+     * @param segmentSizeBytes the size each segment file is preallocated to
+     */
+    public static FileWriteAheadLogManager create(String dir, int segmentSizeBytes) {
+        Preconditions.checkArgument(segmentSizeBytes >= 20, "segmentSizeBytes must fit at least one entry");
+        File file = new File(dir);
+        if (!file.isDirectory() && !file.mkdirs()) {
+            throw new IllegalStateException("Could not create the log directory " + file.getAbsolutePath());
+        }
+        return new FileWriteAheadLogManager(file, segmentSizeBytes);
+    }
+
+    @Override
+    public synchronized WriteAheadLog create() {
+        return FileWriteAheadLog.create(dir, nextLogId++, segmentSizeBytes);
+    }
+
+    @Override
+    public WriteAheadLog retrieve(long logId) {
+        return FileWriteAheadLog.retrieve(dir, logId);
+    }
+}
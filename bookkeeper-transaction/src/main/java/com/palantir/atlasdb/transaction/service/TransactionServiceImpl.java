@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.transaction.service;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -101,6 +102,18 @@ public class TransactionServiceImpl implements TransactionService {
                 flushPeriod);
     }
 
+    /**
+     * Creates a service which keeps its write ahead logs and metadata in local files under
+     * dataDir, so it needs no BookKeeper or ZooKeeper.
+     */
+    public static TransactionServiceImpl createWithLocalLog(KeyValueService keyValueService, String dataDir, long flushPeriod) {
+        return create(
+                FileWriteAheadLogManager.create(new File(dataDir, "wal").getPath()),
+                new TransactionKVSWrapper(keyValueService),
+                FileMetadataStorageService.create(new File(dataDir, "metadata").getPath()),
+                flushPeriod);
+    }
+
     // not thread safe
     private void start(long flushPeriod) {
         if (!running) {
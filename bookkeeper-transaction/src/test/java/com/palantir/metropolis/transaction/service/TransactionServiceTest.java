@@ -15,6 +15,11 @@
  */
 package com.palantir.metropolis.transaction.service;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
@@ -24,17 +29,23 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.transaction.service.FileWriteAheadLogManager;
 import com.palantir.atlasdb.transaction.service.InMemoryMetadataStorageService;
 import com.palantir.atlasdb.transaction.service.InMemoryWriteAheadLog;
 import com.palantir.atlasdb.transaction.service.MetadataStorageService;
 import com.palantir.atlasdb.transaction.service.TransactionKVSWrapper;
+import com.palantir.atlasdb.transaction.service.TransactionLogEntry;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionServiceImpl;
+import com.palantir.atlasdb.transaction.service.WriteAheadLog;
 import com.palantir.atlasdb.transaction.service.WriteAheadLogManager;
 
 public class TransactionServiceTest {
@@ -56,6 +67,46 @@ public class TransactionServiceTest {
         assert(service.get(2) == null);
     }
 
+    @Test
+    public void testRecoveryWithLocalLog() throws Exception {
+        File dir = Files.createTempDirectory("transaction-service-test").toFile();
+        try {
+            KeyValueService kvs = new InMemoryKeyValueService(true);
+            TransactionServiceImpl service = TransactionServiceImpl.createWithLocalLog(kvs, dir.getPath(), Long.MAX_VALUE);
+            service.putUnlessExists(0, 1);
+            service.putUnlessExists(1, 2);
+            service.shutdown();
+
+            // nothing was flushed, so the second service must recover the commits from the log
+            service = TransactionServiceImpl.createWithLocalLog(kvs, dir.getPath(), Long.MAX_VALUE);
+            assertEquals(Long.valueOf(1), service.get(0));
+            assertEquals(Long.valueOf(2), service.get(1));
+            assertNull(service.get(2));
+            service.shutdown();
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testLocalLogSpansSegments() throws Exception {
+        File dir = Files.createTempDirectory("write-ahead-log-test").toFile();
+        try {
+            WriteAheadLogManager manager = FileWriteAheadLogManager.create(dir.getPath(), 100);
+            WriteAheadLog log = manager.create();
+            List<TransactionLogEntry> expected = Lists.newArrayList();
+            for (long i = 0; i < 50; i++) {
+                log.append(i, i + 1);
+                expected.add(new TransactionLogEntry(i, i + 1));
+            }
+            log.close();
+            assertEquals(expected, ImmutableList.copyOf(manager.retrieve(log.getId())));
+            assertEquals(log.getId() + 1, FileWriteAheadLogManager.create(dir.getPath(), 100).create().getId());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
     @Test
     public void testConcurrentPutsHasOnlyOneSuccessful()
             throws InterruptedException, ExecutionException {
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.example.profile;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.palantir.example.profile.schema.generated.UserProfileTable.CookiesIdxTable.CookiesIdxColumn;
+import com.palantir.example.profile.schema.generated.UserProfileTable.CookiesIdxTable.CookiesIdxRow;
+import com.palantir.example.profile.schema.generated.UserProfileTable.UserProfileRow;
+
+/**
+ * Measures encoding and decoding the generated keys of the user profile table and its cookie
+ * index.  The gradle jmh task runs with the gc profiler so the bytes allocated per operation are
+ * reported alongside the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserProfileKeyBenchmark {
+    private UserProfileRow profileRow;
+    private CookiesIdxRow cookieRow;
+    private CookiesIdxColumn cookieColumn;
+    private byte[] profileRowBytes;
+    private byte[] cookieRowBytes;
+    private byte[] cookieColumnBytes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        byte[] rowName = new byte[16];
+        byte[] columnName = new byte[2];
+        random.nextBytes(rowName);
+        random.nextBytes(columnName);
+
+        profileRow = UserProfileRow.of(id);
+        cookieRow = CookiesIdxRow.of("session-" + Long.toHexString(random.nextLong()));
+        cookieColumn = CookiesIdxColumn.of(rowName, columnName, id);
+        profileRowBytes = profileRow.persistToBytes();
+        cookieRowBytes = cookieRow.persistToBytes();
+        cookieColumnBytes = cookieColumn.persistToBytes();
+    }
+
+    @Benchmark
+    public byte[] encodeProfileRow() {
+        return profileRow.persistToBytes();
+    }
+
+    @Benchmark
+    public UserProfileRow decodeProfileRow() {
+        return UserProfileRow.BYTES_HYDRATOR.hydrateFromBytes(profileRowBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeCookieRow() {
+        return cookieRow.persistToBytes();
+    }
+
+    @Benchmark
+    public CookiesIdxRow decodeCookieRow() {
+        return CookiesIdxRow.BYTES_HYDRATOR.hydrateFromBytes(cookieRowBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeCookieColumn() {
+        return cookieColumn.persistToBytes();
+    }
+
+    @Benchmark
+    public CookiesIdxColumn decodeCookieColumn() {
+        return CookiesIdxColumn.BYTES_HYDRATOR.hydrateFromBytes(cookieColumnBytes);
+    }
+}
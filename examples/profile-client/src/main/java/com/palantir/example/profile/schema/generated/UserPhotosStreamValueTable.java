@@ -1,5 +1,6 @@
 package com.palantir.example.profile.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -177,9 +178,11 @@ public final class UserPhotosStreamValueTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = EncodingUtils.encodeUnsignedVarLong(id);
-            byte[] blockIdBytes = EncodingUtils.encodeUnsignedVarLong(blockId);
-            return EncodingUtils.add(idBytes, blockIdBytes);
+            byte[] __bytes = new byte[EncodingUtils.sizeOfUnsignedVarLong(id) + EncodingUtils.sizeOfUnsignedVarLong(blockId)];
+            ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+            EncodingUtils.encodeUnsignedVarLong(id, __buffer);
+            EncodingUtils.encodeUnsignedVarLong(blockId, __buffer);
+            return __bytes;
         }
 
         public static final Hydrator<UserPhotosStreamValueRow> BYTES_HYDRATOR = new Hydrator<UserPhotosStreamValueRow>() {
@@ -634,6 +637,7 @@ public final class UserPhotosStreamValueTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -696,5 +700,5 @@ public final class UserPhotosStreamValueTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "t8z03QTVqE0sNoRXDBJQnA==";
+    static String __CLASS_HASH = "Zr79vmn3lZKZxB8txhb2mg==";
 }
@@ -1,5 +1,6 @@
 package com.palantir.example.profile.schema.generated;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -170,8 +171,7 @@ public final class UserProfileTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = EncodingUtils.encodeUUID(id);
-            return EncodingUtils.add(idBytes);
+            return EncodingUtils.encodeUUID(id);
         }
 
         public static final Hydrator<UserProfileRow> BYTES_HYDRATOR = new Hydrator<UserProfileRow>() {
@@ -1296,8 +1296,7 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] cookieBytes = PtBytes.toBytes(cookie);
-                return EncodingUtils.add(cookieBytes);
+                return PtBytes.toBytes(cookie);
             }
 
             public static final Hydrator<CookiesIdxRow> BYTES_HYDRATOR = new Hydrator<CookiesIdxRow>() {
@@ -1410,10 +1409,12 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 16];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                EncodingUtils.encodeUUID(id, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<CookiesIdxColumn> BYTES_HYDRATOR = new Hydrator<CookiesIdxColumn>() {
@@ -1930,8 +1931,7 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] timeBytes = EncodingUtils.encodeUnsignedVarLong(time);
-                return EncodingUtils.add(timeBytes);
+                return EncodingUtils.encodeUnsignedVarLong(time);
             }
 
             public static final Hydrator<CreatedIdxRow> BYTES_HYDRATOR = new Hydrator<CreatedIdxRow>() {
@@ -2044,10 +2044,12 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 16];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                EncodingUtils.encodeUUID(id, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<CreatedIdxColumn> BYTES_HYDRATOR = new Hydrator<CreatedIdxColumn>() {
@@ -2564,8 +2566,7 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] birthdayBytes = EncodingUtils.encodeSignedVarLong(birthday);
-                return EncodingUtils.add(birthdayBytes);
+                return EncodingUtils.encodeSignedVarLong(birthday);
             }
 
             public static final Hydrator<UserBirthdaysIdxRow> BYTES_HYDRATOR = new Hydrator<UserBirthdaysIdxRow>() {
@@ -2678,10 +2679,12 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
-                byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __bytes = new byte[EncodingUtils.sizeOfSizedBytes(rowName) + EncodingUtils.sizeOfSizedBytes(columnName) + 16];
+                ByteBuffer __buffer = ByteBuffer.wrap(__bytes);
+                EncodingUtils.encodeSizedBytes(rowName, __buffer);
+                EncodingUtils.encodeSizedBytes(columnName, __buffer);
+                EncodingUtils.encodeUUID(id, __buffer);
+                return __bytes;
             }
 
             public static final Hydrator<UserBirthdaysIdxColumn> BYTES_HYDRATOR = new Hydrator<UserBirthdaysIdxColumn>() {
@@ -3132,6 +3135,7 @@ public final class UserProfileTable implements
      * {@link BatchingVisitable}
      * {@link BatchingVisitableView}
      * {@link BatchingVisitables}
+     * {@link ByteBuffer}
      * {@link Bytes}
      * {@link Callable}
      * {@link Cell}
@@ -3194,5 +3198,5 @@ public final class UserProfileTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "H6aTI37mwLQ2Z3aoKzdQfA==";
+    static String __CLASS_HASH = "8UU50bz3bdurMh4/NZx5Dg==";
 }
@@ -40,6 +40,22 @@ public interface PaxosAcceptor {
     @Consumes(MediaType.APPLICATION_JSON)
     public PaxosPromise prepare(@PathParam("seq") long seq, PaxosProposalId pid);
 
+    /**
+     * Prepares for a given proposal on this and every later instance of paxos (multi-paxos). On
+     * success the acceptor promises not to accept proposals less than pid for any sequence number
+     * from seq onwards.
+     *
+     * @param seq the first instance of paxos to prepare for
+     * @param pid the proposal to prepare for
+     * @return the promise for seq, together with the greatest sequence number this acceptor had
+     *         prepared or accepted when it promised
+     */
+    @POST
+    @Path("prepare-range/{seq}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public PaxosRangePromise prepareRange(@PathParam("seq") long seq, PaxosProposalId pid);
+
     /**
      * The acceptor decides whether to accept or reject a given proposal.
      *
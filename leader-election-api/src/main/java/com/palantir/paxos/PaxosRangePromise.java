@@ -0,0 +1,62 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import javax.annotation.Nonnull;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.palantir.common.annotation.Immutable;
+
+/**
+ * A promise for one instance of paxos which, when successful, also extends to every later
+ * instance.  The latest sequence is the greatest instance the acceptor had any state for when
+ * it made the promise; a proposer holding the promise from a quorum may skip phase one for any
+ * instance beyond the latest sequence of every member of that quorum.
+ */
+@Immutable
+public class PaxosRangePromise implements PaxosResponse {
+    private static final long serialVersionUID = 1L;
+
+    @Nonnull final PaxosPromise promise;
+    final long latestSequence;
+
+    @JsonCreator
+    public PaxosRangePromise(@JsonProperty("promise") PaxosPromise promise,
+                             @JsonProperty("latestSequence") long latestSequence) {
+        this.promise = Preconditions.checkNotNull(promise);
+        this.latestSequence = latestSequence;
+    }
+
+    @Override
+    public boolean isSuccessful() {
+        return promise.isSuccessful();
+    }
+
+    public PaxosPromise getPromise() {
+        return promise;
+    }
+
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "PaxosRangePromise [promise=" + promise + ", latestSequence=" + latestSequence + "]";
+    }
+}
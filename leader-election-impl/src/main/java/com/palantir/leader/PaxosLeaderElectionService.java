@@ -28,7 +28,10 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Nullable;
@@ -66,6 +69,12 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
     private static final Logger log = LoggerFactory.getLogger(PaxosLeaderElectionService.class);
     private static final Logger leaderLog = LoggerFactory.getLogger("leadership");
 
+    /**
+     * The fraction of a lease the leader gives up to allow for its clock running slower than the
+     * clocks of the acceptors which granted the lease.
+     */
+    private static final double MAX_CLOCK_DRIFT = 0.1;
+
     private final ReentrantLock lock;
 
     final PaxosProposer proposer;
@@ -78,9 +87,13 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
     final long updatePollingRateInMs;
     final long randomWaitBeforeProposingLeadership;
     final long leaderPingResponseWaitMs;
+    final long leaderLeaseNanos;
 
     final ExecutorService executor;
 
+    private final AtomicReference<LeaderLease> lease = new AtomicReference<LeaderLease>();
+    private final AtomicBoolean isRenewingLease = new AtomicBoolean(false);
+
     final ConcurrentMap<String, PingableLeader> uuidToServiceCache = Maps.newConcurrentMap();
 
     public PaxosLeaderElectionService(PaxosProposer proposer,
@@ -92,6 +105,26 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
                                       long updatePollingWaitInMs,
                                       long randomWaitBeforeProposingLeadership,
                                       long leaderPingResponseWaitMs) {
+        this(proposer, knowledge, potentialLeadersToHosts, acceptors, learners, executor,
+                updatePollingWaitInMs, randomWaitBeforeProposingLeadership, leaderPingResponseWaitMs, 0L);
+    }
+
+    /**
+     * @param leaderLeaseMs if positive, a leadership check confirmed by a quorum is trusted for this
+     *        long (less an allowance for clock drift) without going back to the acceptors.  Every
+     *        acceptor must have been created with a lease at least this long, otherwise a new leader
+     *        could be elected while this one still trusts its lease.
+     */
+    public PaxosLeaderElectionService(PaxosProposer proposer,
+                                      PaxosLearner knowledge,
+                                      Map<PingableLeader, HostAndPort> potentialLeadersToHosts,
+                                      ImmutableList<PaxosAcceptor> acceptors,
+                                      ImmutableList<PaxosLearner> learners,
+                                      ExecutorService executor,
+                                      long updatePollingWaitInMs,
+                                      long randomWaitBeforeProposingLeadership,
+                                      long leaderPingResponseWaitMs,
+                                      long leaderLeaseMs) {
         this.proposer = proposer;
         this.knowledge = knowledge;
         // XXX This map uses something that may be proxied as a key! Be very careful if making a new map from this.
@@ -102,6 +135,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
         this.updatePollingRateInMs = updatePollingWaitInMs;
         this.randomWaitBeforeProposingLeadership = randomWaitBeforeProposingLeadership;
         this.leaderPingResponseWaitMs = leaderPingResponseWaitMs;
+        this.leaderLeaseNanos = TimeUnit.MILLISECONDS.toNanos(leaderLeaseMs);
         lock = new ReentrantLock();
     }
 
@@ -374,8 +408,81 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
      */
     private final ConcurrentMap<LeadershipToken, StillLeadingCall> currentIsStillLeadingCall = Maps.newConcurrentMap();
 
+    /**
+     * A period during which a quorum of acceptors have promised not to prepare a new round, so this
+     * node is still the leader without having to ask them again.
+     */
+    private static final class LeaderLease {
+        final LeadershipToken token;
+        final long validUntilNanos;
+        final long renewAfterNanos;
+
+        LeaderLease(LeadershipToken token, long confirmationStartNanos, long leaseNanos) {
+            this.token = token;
+            this.validUntilNanos = confirmationStartNanos + (long) (leaseNanos * (1 - MAX_CLOCK_DRIFT));
+            this.renewAfterNanos = confirmationStartNanos + leaseNanos / 2;
+        }
+    }
+
     @Override
     public StillLeadingStatus isStillLeading(LeadershipToken token) {
+        LeaderLease currentLease = lease.get();
+        if (currentLease != null && currentLease.token.sameAs(token)) {
+            long now = System.nanoTime();
+            // Our own knowledge is in memory, so it is cheap to make sure we have not learned of a new leader.
+            if (now - currentLease.validUntilNanos < 0 && isLatestToken(token)) {
+                if (now - currentLease.renewAfterNanos >= 0) {
+                    renewLeaseInBackground(token);
+                }
+                return StillLeadingStatus.LEADING;
+            }
+        }
+        return checkStillLeadingWithQuorum(token);
+    }
+
+    private boolean isLatestToken(LeadershipToken token) {
+        PaxosValue mostRecentValue = knowledge.getGreatestLearnedValue();
+        return isLastConfirmedLeader(mostRecentValue) && token.sameAs(genTokenFromValue(mostRecentValue));
+    }
+
+    private void renewLeaseInBackground(final LeadershipToken token) {
+        if (!isRenewingLease.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        checkStillLeadingWithQuorum(token);
+                    } catch (Throwable t) {
+                        log.warn("Failed to renew the leader lease", t);
+                    } finally {
+                        isRenewingLease.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            isRenewingLease.set(false);
+        }
+    }
+
+    private void extendLease(LeadershipToken token, long confirmationStartNanos) {
+        LeaderLease newLease = new LeaderLease(token, confirmationStartNanos, leaderLeaseNanos);
+        while (true) {
+            LeaderLease currentLease = lease.get();
+            if (currentLease != null
+                    && currentLease.token.sameAs(token)
+                    && currentLease.validUntilNanos - newLease.validUntilNanos >= 0) {
+                return;
+            }
+            if (lease.compareAndSet(currentLease, newLease)) {
+                return;
+            }
+        }
+    }
+
+    private StillLeadingStatus checkStillLeadingWithQuorum(LeadershipToken token) {
         while (true) {
             StillLeadingCallBatch callBatch = getStillLeadingCallBatch(token);
 
@@ -467,6 +574,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
 
         // check if node thinks it is leader
         if (!isLastConfirmedLeader(mostRecentValue)) {
+            lease.set(null);
             return StillLeadingStatus.NOT_LEADING;
         }
 
@@ -475,7 +583,8 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
             return StillLeadingStatus.NOT_LEADING;
         }
 
-        // check if node still has quorum
+        // check if node still has quorum; a lease can only run from before the acceptors confirm it
+        long confirmationStartNanos = System.nanoTime();
         List<PaxosResponse> responses = PaxosQuorumChecker.<PaxosAcceptor, PaxosResponse> collectQuorumResponses(
                 acceptors,
                 new Function<PaxosAcceptor, PaxosResponse>() {
@@ -491,6 +600,9 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
                 true);
         if (PaxosQuorumChecker.hasQuorum(responses, proposer.getQuorumSize())) {
             // If we have a quorum we are good to go
+            if (leaderLeaseNanos > 0) {
+                extendLease(token, confirmationStartNanos);
+            }
             return StillLeadingStatus.LEADING;
         }
 
@@ -498,6 +610,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
             if (paxosResponse != null && !paxosResponse.isSuccessful()) {
                 // If we have a nack then someone has prepared or accepted a new seq.
                 // In this case we are most likely not the leader
+                lease.set(null);
                 return StillLeadingStatus.NOT_LEADING;
             }
         }
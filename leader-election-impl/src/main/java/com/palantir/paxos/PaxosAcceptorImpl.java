@@ -15,38 +15,149 @@
  */
 package com.palantir.paxos;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Objects;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+
 public class PaxosAcceptorImpl implements PaxosAcceptor {
     private static final Logger logger = LoggerFactory.getLogger(PaxosAcceptorImpl.class);
 
+    private static final String RANGE_PROMISE_DIR = "range-promises";
+    private static final String LEASE_GRANT_DIR = "lease-grants";
+
     /**
      * @param logDir string path for directory to place durable logs
      * @param type the type of the objects accepted by the acceptor
      * @return a new acceptor
      */
     public static PaxosAcceptor newAcceptor(String logDir) {
-        PaxosStateLog<PaxosAcceptorState> log = new PaxosStateLogImpl<PaxosAcceptorState>(logDir);
+        return newAcceptor(logDir, 0L);
+    }
+
+    /**
+     * @param logDir string path for directory to place durable logs
+     * @param leaderLeaseMs how long after confirming the latest round to a leader this acceptor
+     *        refuses to prepare any later round, or 0 to grant no leases.  This must be at least
+     *        the lease the leader relies on.  Leases are logged, and an acceptor which restarts
+     *        after granting one keeps refusing for a full lease after it starts.
+     * @return a new acceptor
+     */
+    public static PaxosAcceptor newAcceptor(String logDir, long leaderLeaseMs) {
+        return newAcceptor(
+                new PaxosStateLogImpl<PaxosAcceptorState>(logDir),
+                new PaxosStateLogImpl<PaxosRangePromiseState>(new File(logDir, RANGE_PROMISE_DIR).getPath()),
+                new PaxosStateLogImpl<PaxosLeaseGrantState>(new File(logDir, LEASE_GRANT_DIR).getPath()),
+                leaderLeaseMs);
+    }
+
+    /**
+     * @param log the durable log to keep the acceptor state in, for example a
+     *        {@link SegmentedPaxosStateLog}
+     * @param rangePromiseLog the durable log to keep multi-paxos promises in
+     * @param leaseGrantLog the durable log to keep leader leases in
+     * @param leaderLeaseMs see {@link #newAcceptor(String, long)}
+     * @return a new acceptor
+     */
+    public static PaxosAcceptor newAcceptor(PaxosStateLog<PaxosAcceptorState> log,
+                                            PaxosStateLog<PaxosRangePromiseState> rangePromiseLog,
+                                            PaxosStateLog<PaxosLeaseGrantState> leaseGrantLog,
+                                            long leaderLeaseMs) {
         return new PaxosAcceptorImpl(
                 new ConcurrentSkipListMap<Long, PaxosAcceptorState>(),
                 log,
-                log.getGreatestLogEntry());
+                log.getGreatestLogEntry(),
+                rangePromiseLog,
+                readLatest(rangePromiseLog, PaxosRangePromiseState.BYTES_HYDRATOR, "multi-paxos promise"),
+                leaseGrantLog,
+                readLatest(leaseGrantLog, PaxosLeaseGrantState.BYTES_HYDRATOR, "leader lease"),
+                leaderLeaseMs);
+    }
+
+    private static <T extends Persistable & Versionable> T readLatest(PaxosStateLog<T> log,
+                                                                      Persistable.Hydrator<T> hydrator,
+                                                                      String description) {
+        long greatest = log.getGreatestLogEntry();
+        if (greatest == NO_LOG_ENTRY) {
+            return null;
+        }
+        try {
+            byte[] bytes = log.readRound(greatest);
+            if (bytes == null) {
+                throw new IOException("missing " + description + " " + greatest);
+            }
+            return hydrator.hydrateFromBytes(bytes);
+        } catch (IOException e) {
+            // Forgetting a promise or a lease could let a stale proposal be accepted, so refuse to start.
+            throw Throwables.rewrapAndThrowUncheckedException("could not read the " + description, e);
+        }
     }
 
     final ConcurrentSkipListMap<Long, PaxosAcceptorState> state;
     final PaxosStateLog<PaxosAcceptorState> log;
     final long greatestInLogAtStartup;
+    final long leaderLeaseNanos;
+    private final Object leaseLock = new Object();
+    @GuardedBy("leaseLock") LeaseGrant leaseGrant;
+    final PaxosStateLog<PaxosLeaseGrantState> leaseGrantLog;
+    @GuardedBy("leaseLock") PaxosLeaseGrantState loggedLeaseGrant; // null if none
+    final PaxosStateLog<PaxosRangePromiseState> rangePromiseLog;
+    // Prepares and accepts share this lock, and promising a range takes it exclusively.
+    private final ReadWriteLock rangeLock = new ReentrantReadWriteLock();
+    @GuardedBy("rangeLock") PaxosRangePromiseState rangePromise; // null if none
 
     private PaxosAcceptorImpl(ConcurrentSkipListMap<Long, PaxosAcceptorState> state,
                               PaxosStateLog<PaxosAcceptorState> log,
-                              long greatestInLogAtStartup) {
+                              long greatestInLogAtStartup,
+                              PaxosStateLog<PaxosRangePromiseState> rangePromiseLog,
+                              PaxosRangePromiseState rangePromise,
+                              PaxosStateLog<PaxosLeaseGrantState> leaseGrantLog,
+                              PaxosLeaseGrantState loggedLeaseGrant,
+                              long leaderLeaseMs) {
         this.state = state;
         this.log = log;
         this.greatestInLogAtStartup = greatestInLogAtStartup;
+        this.rangePromiseLog = rangePromiseLog;
+        this.rangePromise = rangePromise;
+        this.leaseGrantLog = leaseGrantLog;
+        this.loggedLeaseGrant = loggedLeaseGrant;
+        this.leaderLeaseNanos = TimeUnit.MILLISECONDS.toNanos(leaderLeaseMs);
+        // We cannot tell when a lease granted before a restart was granted, so treat it as
+        // granted now; the leader holding it may still be relying on it.
+        this.leaseGrant = loggedLeaseGrant == null
+                ? LeaseGrant.NONE
+                : new LeaseGrant(loggedLeaseGrant.latestSeq, System.nanoTime());
+    }
+
+    /**
+     * The last time this acceptor confirmed the latest round to the leader, which it treats as a
+     * promise not to prepare any later round until the lease has run out.
+     */
+    static final class LeaseGrant {
+        static final LeaseGrant NONE = new LeaseGrant(Long.MAX_VALUE, 0L);
+
+        final long latestSeq;
+        final long grantedAtNanos;
+
+        LeaseGrant(long latestSeq, long grantedAtNanos) {
+            this.latestSeq = latestSeq;
+            this.grantedAtNanos = grantedAtNanos;
+        }
+
+        boolean blocks(long seq, long leaseNanos) {
+            return seq > latestSeq && System.nanoTime() - grantedAtNanos < leaseNanos;
+        }
     }
 
     @Override
@@ -58,6 +169,82 @@ public class PaxosAcceptorImpl implements PaxosAcceptor {
             return new PaxosPromise(pid); // nack
         }
 
+        if (leaderLeaseNanos > 0) {
+            // Checking the lease and preparing must not interleave with granting a new lease.
+            synchronized (leaseLock) {
+                if (leaseGrant.blocks(seq, leaderLeaseNanos)) {
+                    // The current leader may still be serving requests under its lease.
+                    return new PaxosPromise(pid); // nack
+                }
+                return prepareWithinRange(seq, pid);
+            }
+        }
+        return prepareWithinRange(seq, pid);
+    }
+
+    private PaxosPromise prepareWithinRange(long seq, PaxosProposalId pid) {
+        rangeLock.readLock().lock();
+        try {
+            if (rangePromise != null && rangePromise.rejects(seq, pid)) {
+                return new PaxosPromise(rangePromise.promisedId); // nack
+            }
+            return prepareInternal(seq, pid);
+        } finally {
+            rangeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PaxosRangePromise prepareRange(long seq, PaxosProposalId pid) {
+        try {
+            checkLogIfNeeded(seq);
+        } catch (Exception e) {
+            logger.error("log read failed for request: " + seq, e);
+            return new PaxosRangePromise(new PaxosPromise(pid), NO_LOG_ENTRY); // nack
+        }
+
+        if (leaderLeaseNanos > 0) {
+            synchronized (leaseLock) {
+                if (leaseGrant.blocks(seq, leaderLeaseNanos)) {
+                    return new PaxosRangePromise(new PaxosPromise(pid), NO_LOG_ENTRY); // nack
+                }
+                return prepareRangeInternal(seq, pid);
+            }
+        }
+        return prepareRangeInternal(seq, pid);
+    }
+
+    private PaxosRangePromise prepareRangeInternal(long seq, PaxosProposalId pid) {
+        // No prepare or accept may run between promising the range and reporting the latest
+        // sequence, or the proposer could skip phase one for a round with an accepted value.
+        rangeLock.writeLock().lock();
+        try {
+            PaxosRangePromiseState oldRange = rangePromise;
+            if (oldRange != null && pid.compareTo(oldRange.promisedId) < 0) {
+                return new PaxosRangePromise(new PaxosPromise(oldRange.promisedId), NO_LOG_ENTRY); // nack
+            }
+
+            PaxosPromise promise = prepareInternal(seq, pid);
+            if (!promise.isSuccessful()) {
+                return new PaxosRangePromise(promise, NO_LOG_ENTRY);
+            }
+
+            // The new range also covers the old one, so no earlier promise is weakened.
+            long fromSeq = oldRange != null ? Math.min(seq, oldRange.fromSeq) : seq;
+            if (oldRange == null || fromSeq != oldRange.fromSeq || !pid.equals(oldRange.promisedId)) {
+                PaxosRangePromiseState newRange = new PaxosRangePromiseState(fromSeq, pid);
+                long next = rangePromiseLog.getGreatestLogEntry() + 1;
+                rangePromiseLog.writeRound(next, newRange);
+                rangePromiseLog.truncate(next - 1);
+                rangePromise = newRange;
+            }
+            return new PaxosRangePromise(promise, getLatestSequence());
+        } finally {
+            rangeLock.writeLock().unlock();
+        }
+    }
+
+    private PaxosPromise prepareInternal(long seq, PaxosProposalId pid) {
         for (;;) {
             PaxosAcceptorState oldState = state.get(seq);
 
@@ -98,6 +285,18 @@ public class PaxosAcceptorImpl implements PaxosAcceptor {
             return new BooleanPaxosResponse(false); // nack
         }
 
+        rangeLock.readLock().lock();
+        try {
+            if (rangePromise != null && rangePromise.rejects(seq, proposal.id)) {
+                return new BooleanPaxosResponse(false); // nack
+            }
+            return acceptInternal(seq, proposal);
+        } finally {
+            rangeLock.readLock().unlock();
+        }
+    }
+
+    private BooleanPaxosResponse acceptInternal(long seq, PaxosProposal proposal) {
         for (;;) {
             PaxosAcceptorState oldState = state.get(seq);
 
@@ -106,10 +305,18 @@ public class PaxosAcceptorImpl implements PaxosAcceptor {
                 return new BooleanPaxosResponse(false);
             }
 
+            // A proposal id carries a single value. Phase two may be sent without phase one under
+            // a range promise, so this cannot be left to the proposer.
+            if (oldState != null
+                    && proposal.id.equals(oldState.lastAcceptedId)
+                    && !Objects.equal(proposal.val, oldState.lastAcceptedValue)) {
+                return new BooleanPaxosResponse(false);
+            }
+
             // ack
             PaxosAcceptorState newState = oldState != null
                     ? oldState.withState(proposal.id, proposal.id, proposal.val)
-                    : PaxosAcceptorState.newState(proposal.id);
+                    : PaxosAcceptorState.newState(proposal.id).withState(proposal.id, proposal.id, proposal.val);
             if ((oldState == null && state.putIfAbsent(seq, newState) == null)
                     || (oldState != null && state.replace(seq, oldState, newState))) {
                 log.writeRound(seq, newState);
@@ -120,6 +327,26 @@ public class PaxosAcceptorImpl implements PaxosAcceptor {
 
     @Override
     public long getLatestSequencePreparedOrAccepted() {
+        if (leaderLeaseNanos > 0) {
+            // Leaders confirm their leadership with this call, so it also grants them a lease.
+            synchronized (leaseLock) {
+                long latestSeq = getLatestSequence();
+                if (loggedLeaseGrant == null || loggedLeaseGrant.latestSeq != latestSeq) {
+                    // The lease must survive a restart, so log it before granting it.
+                    PaxosLeaseGrantState newGrant = new PaxosLeaseGrantState(latestSeq);
+                    long next = leaseGrantLog.getGreatestLogEntry() + 1;
+                    leaseGrantLog.writeRound(next, newGrant);
+                    leaseGrantLog.truncate(next - 1);
+                    loggedLeaseGrant = newGrant;
+                }
+                leaseGrant = new LeaseGrant(latestSeq, System.nanoTime());
+                return latestSeq;
+            }
+        }
+        return getLatestSequence();
+    }
+
+    private long getLatestSequence() {
         if (state.isEmpty()) {
             return greatestInLogAtStartup;
         } else {
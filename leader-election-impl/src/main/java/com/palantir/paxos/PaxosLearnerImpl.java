@@ -34,7 +34,15 @@ public class PaxosLearnerImpl implements PaxosLearner {
      * @return a new learner
      */
     public static PaxosLearner newLearner(String logDir) {
-        PaxosStateLogImpl<PaxosValue> log = new PaxosStateLogImpl<PaxosValue>(logDir);
+        return newLearner(new PaxosStateLogImpl<PaxosValue>(logDir));
+    }
+
+    /**
+     * @param log the durable log to keep learned values in, for example a
+     *        {@link SegmentedPaxosStateLog}
+     * @return a new learner
+     */
+    public static PaxosLearner newLearner(PaxosStateLog<PaxosValue> log) {
         ConcurrentSkipListMap<Long, PaxosValue> state = new ConcurrentSkipListMap<Long, PaxosValue>();
 
         byte[] greatestValidValue = PaxosStateLogs.getGreatestValidLogEntry(log);
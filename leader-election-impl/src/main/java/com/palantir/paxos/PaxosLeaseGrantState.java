@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.google.common.base.Defaults;
+import com.palantir.common.annotation.Immutable;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+
+/**
+ * The logged leader lease of an acceptor: it has promised a leader not to prepare any round
+ * after latestSeq for the length of a lease.
+ */
+@Immutable
+public class PaxosLeaseGrantState implements Persistable, Versionable {
+    final long latestSeq;
+
+    public static final Hydrator<PaxosLeaseGrantState> BYTES_HYDRATOR = new Hydrator<PaxosLeaseGrantState>() {
+        @Override
+        public PaxosLeaseGrantState hydrateFromBytes(byte[] input) {
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(input));
+                return new PaxosLeaseGrantState(in.readLong());
+            } catch (IOException e) {
+                throw Throwables.throwUncheckedException(e);
+            }
+        }
+    };
+
+    public PaxosLeaseGrantState(long latestSeq) {
+        this.latestSeq = latestSeq;
+    }
+
+    @Override
+    public byte[] persistToBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(latestSeq);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return Defaults.defaultValue(long.class);
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 /**
  * Implementation of a paxos proposer than can be a designated proposer (leader) and designated
@@ -44,13 +46,30 @@ public class PaxosProposerImpl implements PaxosProposer {
                                             ImmutableList<PaxosLearner> allLearners,
                                             int quorumSize,
                                             ExecutorService executor) {
+        return newProposer(localLearner, allAcceptors, allLearners, quorumSize, executor, false);
+    }
+
+    /**
+     * @param multiPaxos whether phase one should prepare every later sequence number as well.
+     *        Once it has, this proposer runs only phase two for sequence numbers beyond those the
+     *        acceptors already know about, until another proposer pre-empts it.  This halves the
+     *        round trips of a stable proposer, but proposers contending for the same sequence
+     *        numbers will keep pre-empting each other.
+     */
+    public static PaxosProposer newProposer(PaxosLearner localLearner,
+                                            ImmutableList<PaxosAcceptor> allAcceptors,
+                                            ImmutableList<PaxosLearner> allLearners,
+                                            int quorumSize,
+                                            ExecutorService executor,
+                                            boolean multiPaxos) {
         return new PaxosProposerImpl(
                 localLearner,
                 allAcceptors,
                 allLearners,
                 quorumSize,
                 UUID.randomUUID().toString(),
-                executor);
+                executor,
+                multiPaxos);
     }
 
     final ImmutableList<PaxosAcceptor> allAcceptors;
@@ -59,6 +78,8 @@ public class PaxosProposerImpl implements PaxosProposer {
     final int quorumSize;
     final String uuid;
     final AtomicLong proposalNum;
+    final boolean multiPaxos;
+    final AtomicReference<PreparedRange> preparedRange = new AtomicReference<PreparedRange>();
 
     private final ExecutorService executor;
 
@@ -67,7 +88,8 @@ public class PaxosProposerImpl implements PaxosProposer {
                               ImmutableList<PaxosLearner> learners,
                               int quorumSize,
                               String uuid,
-                              ExecutorService executor) {
+                              ExecutorService executor,
+                              boolean multiPaxos) {
         Preconditions.checkState(
                 quorumSize > acceptors.size() / 2,
                 "quorum size needs to be at least the majority of acceptors");
@@ -78,18 +100,40 @@ public class PaxosProposerImpl implements PaxosProposer {
         this.uuid = uuid;
         this.proposalNum = new AtomicLong();
         this.executor = executor;
+        this.multiPaxos = multiPaxos;
+    }
+
+    /**
+     * A proposal id a quorum has promised for every sequence number from firstSeq onwards, where
+     * none of that quorum had yet prepared or accepted anything.
+     */
+    static final class PreparedRange {
+        final PaxosProposalId pid;
+        final long firstSeq;
+
+        PreparedRange(PaxosProposalId pid, long firstSeq) {
+            this.pid = pid;
+            this.firstSeq = firstSeq;
+        }
     }
 
     @Override
     public byte[] propose(final long seq, @Nullable byte[] bytes) throws PaxosRoundFailureException {
-        final PaxosProposalId proposalID = new PaxosProposalId(proposalNum.incrementAndGet(), uuid);
         PaxosValue toPropose = new PaxosValue(uuid, seq, bytes);
+        final PaxosValue finalValue;
 
-        // paxos phase one (prepare and promise)
-        final PaxosValue finalValue = phaseOne(seq, proposalID, toPropose);
+        PreparedRange range = preparedRange.get();
+        if (range != null && seq >= range.firstSeq && tryFastPath(seq, range, toPropose)) {
+            finalValue = toPropose;
+        } else {
+            final PaxosProposalId proposalID = new PaxosProposalId(proposalNum.incrementAndGet(), uuid);
 
-        // paxos phase two (accept request and accepted)
-        phaseTwo(seq, proposalID, finalValue);
+            // paxos phase one (prepare and promise)
+            finalValue = phaseOne(seq, proposalID, toPropose);
+
+            // paxos phase two (accept request and accepted)
+            phaseTwo(seq, proposalID, finalValue);
+        }
 
         // broadcast learned value
         for (final PaxosLearner learner : allLearners) {
@@ -116,6 +160,22 @@ public class PaxosProposerImpl implements PaxosProposer {
         return finalValue.getData();
     }
 
+    /**
+     * Runs only phase two of paxos under a range already prepared by a quorum.  Our value is the
+     * only one that can be chosen, as no member of that quorum had accepted anything for seq.
+     *
+     * @return false if we have been pre-empted, in which case the range is dropped
+     */
+    private boolean tryFastPath(long seq, PreparedRange range, PaxosValue value) {
+        try {
+            phaseTwo(seq, range.pid, value);
+            return true;
+        } catch (PaxosRoundFailureException e) {
+            preparedRange.compareAndSet(range, null);
+            return false;
+        }
+    }
+
     /**
      * Executes phase one of paxos (see
      * http://en.wikipedia.org/wiki/Paxos_(computer_science)#Basic_Paxos)
@@ -129,6 +189,9 @@ public class PaxosProposerImpl implements PaxosProposer {
      */
     private PaxosValue phaseOne(final long seq, final PaxosProposalId pid, PaxosValue value)
             throws PaxosRoundFailureException {
+        if (multiPaxos) {
+            return phaseOneForRange(seq, pid, value);
+        }
         List<PaxosPromise> receivedPromises = PaxosQuorumChecker.<PaxosAcceptor, PaxosPromise> collectQuorumResponses(
                 allAcceptors,
                 new Function<PaxosAcceptor, PaxosPromise>() {
@@ -143,21 +206,67 @@ public class PaxosProposerImpl implements PaxosProposer {
                 PaxosQuorumChecker.DEFAULT_REMOTE_REQUESTS_TIMEOUT_IN_SECONDS);
 
         if (!PaxosQuorumChecker.hasQuorum(receivedPromises, quorumSize)) {
-            // update proposal number on failure
-            for (PaxosPromise promise : receivedPromises) {
-                while (true) {
-                    long curNum = proposalNum.get();
-                    if (promise.promisedId.number <= curNum) {
-                        break;
-                    }
-                    if (proposalNum.compareAndSet(curNum, promise.promisedId.number)) {
-                        break;
+            updateProposalNumber(receivedPromises);
+            throw new PaxosRoundFailureException("failed to acquire quorum in paxos phase one");
+        }
+
+        return chooseValue(receivedPromises, value);
+    }
+
+    /**
+     * Executes phase one of paxos for seq while also preparing every later sequence number.  On
+     * success, later proposals beyond what any member of the quorum has seen skip phase one.
+     */
+    private PaxosValue phaseOneForRange(final long seq, final PaxosProposalId pid, PaxosValue value)
+            throws PaxosRoundFailureException {
+        List<PaxosRangePromise> receivedPromises =
+                PaxosQuorumChecker.<PaxosAcceptor, PaxosRangePromise> collectQuorumResponses(
+                allAcceptors,
+                new Function<PaxosAcceptor, PaxosRangePromise>() {
+                    @Override
+                    @Nullable
+                    public PaxosRangePromise apply(@Nullable PaxosAcceptor acceptor) {
+                        return acceptor.prepareRange(seq, pid);
                     }
-                }
+                },
+                quorumSize,
+                executor,
+                PaxosQuorumChecker.DEFAULT_REMOTE_REQUESTS_TIMEOUT_IN_SECONDS);
+
+        List<PaxosPromise> promises = Lists.newArrayListWithCapacity(receivedPromises.size());
+        long latestSequence = seq;
+        for (PaxosRangePromise rangePromise : receivedPromises) {
+            promises.add(rangePromise.promise);
+            if (rangePromise.isSuccessful()) {
+                latestSequence = Math.max(latestSequence, rangePromise.latestSequence);
             }
+        }
+
+        if (!PaxosQuorumChecker.hasQuorum(promises, quorumSize)) {
+            updateProposalNumber(promises);
             throw new PaxosRoundFailureException("failed to acquire quorum in paxos phase one");
         }
 
+        preparedRange.set(new PreparedRange(pid, latestSequence + 1));
+        return chooseValue(promises, value);
+    }
+
+    private void updateProposalNumber(List<PaxosPromise> receivedPromises) {
+        // update proposal number on failure
+        for (PaxosPromise promise : receivedPromises) {
+            while (true) {
+                long curNum = proposalNum.get();
+                if (promise.promisedId.number <= curNum) {
+                    break;
+                }
+                if (proposalNum.compareAndSet(curNum, promise.promisedId.number)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static PaxosValue chooseValue(List<PaxosPromise> receivedPromises, PaxosValue value) {
         PaxosPromise greatestPromise = Collections.max(receivedPromises);
         if (greatestPromise.lastAcceptedValue != null) {
             return greatestPromise.lastAcceptedValue;
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.google.common.base.Defaults;
+import com.palantir.common.annotation.Immutable;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+import com.palantir.paxos.persistence.generated.PaxosPersistence;
+
+/**
+ * The logged multi-paxos promise of an acceptor: no proposal less than promisedId will be
+ * accepted for any sequence number from fromSeq onwards.
+ */
+@Immutable
+public class PaxosRangePromiseState implements Persistable, Versionable {
+    final long fromSeq;
+    final PaxosProposalId promisedId;
+
+    public static final Hydrator<PaxosRangePromiseState> BYTES_HYDRATOR = new Hydrator<PaxosRangePromiseState>() {
+        @Override
+        public PaxosRangePromiseState hydrateFromBytes(byte[] input) {
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(input));
+                long fromSeq = in.readLong();
+                return new PaxosRangePromiseState(
+                        fromSeq,
+                        PaxosProposalId.hydrateFromProto(PaxosPersistence.PaxosProposalId.parseFrom(in)));
+            } catch (IOException e) {
+                throw Throwables.throwUncheckedException(e);
+            }
+        }
+    };
+
+    public PaxosRangePromiseState(long fromSeq, PaxosProposalId promisedId) {
+        this.fromSeq = fromSeq;
+        this.promisedId = promisedId;
+    }
+
+    /**
+     * @return whether this promise stops the given proposal being accepted for seq
+     */
+    boolean rejects(long seq, PaxosProposalId pid) {
+        return seq >= fromSeq && pid.compareTo(promisedId) < 0;
+    }
+
+    @Override
+    public byte[] persistToBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(fromSeq);
+            promisedId.persistToProto().writeTo(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return Defaults.defaultValue(long.class);
+    }
+}
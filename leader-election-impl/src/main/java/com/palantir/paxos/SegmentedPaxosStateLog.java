@@ -0,0 +1,503 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.persist.Persistable;
+
+/**
+ * A {@link PaxosStateLog} which appends rounds to preallocated, memory mapped segment files
+ * instead of writing a file per round.
+ * <p>
+ * Each record carries its own CRC32 checksum, so a torn write at the end of a segment is
+ * detected and ignored when the log is reopened.  Concurrent writers share a single force of the
+ * mapped segments (group commit) and every write returns only once its record is durable.
+ * <p>
+ * The location of the latest record for each sequence number is kept in memory, so reads and
+ * the least and greatest entries do not touch the file system.  Truncation is itself logged, and
+ * whole segments holding nothing but truncated rounds are deleted in the background.
+ * <p>
+ * This log uses a different on disk format to {@link PaxosStateLogImpl} and must be given its
+ * own directory.
+ */
+public class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V> {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int RECORD_MAGIC = 0x50617873;
+    private static final byte ROUND_RECORD = 1;
+    private static final byte TRUNCATE_RECORD = 2;
+    // magic, type, seq, version, payload length
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 4;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    private static final ExecutorService backgroundExecutor = PTExecutors.newSingleThreadExecutor(
+            new NamedThreadFactory("paxos-log-truncator", true));
+
+    final String path;
+    private final int segmentSizeBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    @GuardedBy("lock") private final TreeMap<Long, Segment> segments = new TreeMap<Long, Segment>();
+    @GuardedBy("lock") private final Map<Long, Location> index = new HashMap<Long, Location>();
+    @GuardedBy("lock") private final Set<Segment> unsyncedSegments = new LinkedHashSet<Segment>();
+    @GuardedBy("lock") private Segment activeSegment;
+    @GuardedBy("lock") private long greatestLogEntry = PaxosAcceptor.NO_LOG_ENTRY;
+    @GuardedBy("lock") private long leastLogEntry = PaxosAcceptor.NO_LOG_ENTRY;
+    @GuardedBy("lock") private long truncatedThrough = Long.MIN_VALUE;
+    @GuardedBy("lock") private long appendedRecords = 0;
+
+    private final Object syncMonitor = new Object();
+    @GuardedBy("syncMonitor") private long durableRecords = 0;
+    @GuardedBy("syncMonitor") private boolean syncInProgress = false;
+
+    public SegmentedPaxosStateLog(String path) {
+        this(path, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    /**
+     * @param path directory holding the segment files
+     * @param segmentSizeBytes the size each segment file is preallocated to.  A round too large to
+     *        fit in a segment of this size is given a segment of its own.
+     */
+    public SegmentedPaxosStateLog(String path, int segmentSizeBytes) {
+        Preconditions.checkArgument(segmentSizeBytes > HEADER_SIZE + CHECKSUM_SIZE,
+                "segmentSizeBytes must be larger than a record header");
+        this.path = path;
+        this.segmentSizeBytes = segmentSizeBytes;
+        lock.lock();
+        try {
+            FileUtils.forceMkdir(new File(path));
+            recover();
+            // Never append after recovered records: the tail of the last segment may be torn.
+            long nextId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+            activeSegment = createSegment(nextId, segmentSizeBytes);
+            deleteInBackground(removeObsoleteSegments(), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("IO problem related to the path " + new File(path).getAbsolutePath(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        byte[] bytes = round.persistToBytes();
+        long record;
+        lock.lock();
+        try {
+            // reject old state
+            Location latest = index.get(seq);
+            if (latest != null && round.getVersion() < latest.version) {
+                return;
+            }
+
+            Location location = append(ROUND_RECORD, seq, round.getVersion(), bytes);
+            putRound(seq, location);
+            record = appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(record);
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        Location location;
+        lock.lock();
+        try {
+            location = index.get(seq);
+        } finally {
+            lock.unlock();
+        }
+        if (location == null) {
+            return null;
+        }
+        // Records are never modified once written, and a mapping stays readable even after its
+        // segment file has been deleted, so the read itself needs no lock.
+        byte[] bytes = location.segment.readPayload(location.offset);
+        if (bytes == null) {
+            throw new CorruptLogFileException();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        lock.lock();
+        try {
+            return leastLogEntry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        lock.lock();
+        try {
+            return greatestLogEntry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        List<Segment> obsolete;
+        long record;
+        lock.lock();
+        try {
+            if (greatestLogEntry >= 0) {
+                // We never want to remove our most recent entry
+                toDeleteInclusive = Math.min(greatestLogEntry - 1, toDeleteInclusive);
+            }
+            if (toDeleteInclusive <= truncatedThrough) {
+                return;
+            }
+            append(TRUNCATE_RECORD, toDeleteInclusive, 0L, EMPTY_PAYLOAD);
+            applyTruncation(toDeleteInclusive);
+            obsolete = removeObsoleteSegments();
+            record = appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+        // The truncation record must be durable before any segment goes, otherwise a crash could
+        // leave a log missing rounds without knowing it had been truncated.
+        deleteInBackground(obsolete, record);
+    }
+
+    @GuardedBy("lock")
+    private void putRound(long seq, Location location) {
+        index.put(seq, location);
+        greatestLogEntry = Math.max(greatestLogEntry, seq);
+        if (truncatedThrough != Long.MIN_VALUE && (index.size() == 1 || seq < leastLogEntry)) {
+            leastLogEntry = seq;
+        }
+    }
+
+    @GuardedBy("lock")
+    private void applyTruncation(long toDeleteInclusive) {
+        truncatedThrough = toDeleteInclusive;
+        long least = Long.MAX_VALUE;
+        for (Iterator<Long> it = index.keySet().iterator(); it.hasNext(); ) {
+            long seq = it.next();
+            if (seq <= toDeleteInclusive) {
+                it.remove();
+            } else {
+                least = Math.min(least, seq);
+            }
+        }
+        leastLogEntry = index.isEmpty() ? PaxosAcceptor.NO_LOG_ENTRY : least;
+    }
+
+    /**
+     * Removes every segment other than the active one that is empty or holds nothing newer than
+     * the truncation point.
+     */
+    @GuardedBy("lock")
+    private List<Segment> removeObsoleteSegments() {
+        List<Segment> obsolete = Lists.newArrayList();
+        for (Iterator<Segment> it = segments.values().iterator(); it.hasNext(); ) {
+            Segment segment = it.next();
+            if (segment != activeSegment
+                    && (segment.writePosition == 0 || segment.maxSeq <= truncatedThrough)) {
+                it.remove();
+                unsyncedSegments.remove(segment);
+                obsolete.add(segment);
+            }
+        }
+        return obsolete;
+    }
+
+    private void deleteInBackground(final List<Segment> obsolete, final long afterRecord) {
+        if (obsolete.isEmpty()) {
+            return;
+        }
+        backgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    awaitDurable(afterRecord);
+                } catch (RuntimeException e) {
+                    log.error("failed to sync paxos log {}, not deleting truncated segments", path, e);
+                    return;
+                }
+                for (Segment segment : obsolete) {
+                    if (!segment.file.delete()) {
+                        log.warn("failed to delete log segment {}", segment.file.getAbsolutePath());
+                    }
+                }
+            }
+        });
+    }
+
+    @GuardedBy("lock")
+    private Location append(byte type, long seq, long version, byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length + CHECKSUM_SIZE;
+        if (activeSegment.buffer.capacity() - activeSegment.writePosition < recordSize) {
+            try {
+                activeSegment = createSegment(activeSegment.id + 1, Math.max(segmentSizeBytes, recordSize));
+            } catch (IOException e) {
+                log.error("problem creating paxos log segment", e);
+                throw Throwables.throwUncheckedException(e);
+            }
+        }
+        Segment segment = activeSegment;
+        int offset = segment.writePosition;
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset);
+        buffer.putInt(RECORD_MAGIC);
+        buffer.put(type);
+        buffer.putLong(seq);
+        buffer.putLong(version);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.putInt(checksum(segment.buffer, offset, payload.length));
+
+        segment.writePosition = offset + recordSize;
+        segment.maxSeq = Math.max(segment.maxSeq, seq);
+        unsyncedSegments.add(segment);
+        appendedRecords++;
+        return new Location(segment, offset, version);
+    }
+
+    /**
+     * Blocks until the given number of appended records are durable.  The first writer to arrive
+     * forces every segment with unsynced records, and the writers which arrive while it does so
+     * wait to share the next force rather than each issuing their own.
+     */
+    private void awaitDurable(long record) {
+        boolean interrupted = false;
+        try {
+            synchronized (syncMonitor) {
+                while (durableRecords < record && syncInProgress) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (durableRecords >= record) {
+                    return;
+                }
+                syncInProgress = true;
+            }
+            sync();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sync() {
+        List<Segment> toSync;
+        long syncedRecords;
+        lock.lock();
+        try {
+            toSync = Lists.newArrayList(unsyncedSegments);
+            unsyncedSegments.clear();
+            syncedRecords = appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+        boolean succeeded = false;
+        try {
+            for (Segment segment : toSync) {
+                segment.buffer.force();
+            }
+            succeeded = true;
+        } finally {
+            if (!succeeded) {
+                lock.lock();
+                try {
+                    unsyncedSegments.addAll(toSync);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            synchronized (syncMonitor) {
+                if (succeeded) {
+                    durableRecords = Math.max(durableRecords, syncedRecords);
+                }
+                syncInProgress = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the segments on disk.  Each segment is read up to its first invalid
+     * record, which is where the previous process stopped writing to it.
+     */
+    @GuardedBy("lock")
+    private void recover() throws IOException {
+        File[] files = new File(path).listFiles();
+        TreeMap<Long, File> segmentFiles = new TreeMap<Long, File>();
+        for (File file : files == null ? new File[0] : files) {
+            String name = file.getName();
+            if (!name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+            try {
+                segmentFiles.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+
+        for (Map.Entry<Long, File> e : segmentFiles.entrySet()) {
+            Segment segment = new Segment(e.getKey(), e.getValue(), map(e.getValue(), 0));
+            segments.put(segment.id, segment);
+            ByteBuffer buffer = segment.buffer.duplicate();
+            while (buffer.remaining() >= HEADER_SIZE + CHECKSUM_SIZE) {
+                int offset = buffer.position();
+                if (buffer.getInt() != RECORD_MAGIC) {
+                    break;
+                }
+                byte type = buffer.get();
+                long seq = buffer.getLong();
+                long version = buffer.getLong();
+                int length = buffer.getInt();
+                if (length < 0 || buffer.remaining() < length + CHECKSUM_SIZE) {
+                    break;
+                }
+                buffer.position(buffer.position() + length);
+                if (buffer.getInt() != checksum(segment.buffer, offset, length)) {
+                    log.warn("ignoring the tail of log segment {} from offset {} as its checksum is invalid",
+                            segment.file.getAbsolutePath(), offset);
+                    break;
+                }
+
+                segment.maxSeq = Math.max(segment.maxSeq, seq);
+                if (type == ROUND_RECORD) {
+                    putRound(seq, new Location(segment, offset, version));
+                } else if (type == TRUNCATE_RECORD && seq > truncatedThrough) {
+                    applyTruncation(seq);
+                }
+            }
+            segment.writePosition = buffer.position();
+        }
+    }
+
+    @GuardedBy("lock")
+    private Segment createSegment(long id, int size) throws IOException {
+        File file = new File(path, Long.toString(id) + SEGMENT_SUFFIX);
+        Segment segment = new Segment(id, file, map(file, size));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, int preallocateSize) throws IOException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            if (raf.length() < preallocateSize) {
+                raf.setLength(preallocateSize);
+            }
+            // The mapping remains valid once the file is closed.
+            return raf.getChannel().map(MapMode.READ_WRITE, 0, raf.length());
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+    }
+
+    /**
+     * The checksum covers everything in the record after the magic number.
+     */
+    private static int checksum(MappedByteBuffer buffer, int offset, int payloadLength) {
+        ByteBuffer covered = buffer.duplicate();
+        covered.limit(offset + HEADER_SIZE + payloadLength);
+        covered.position(offset + 4);
+        CRC32 crc = new CRC32();
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        final long id;
+        final File file;
+        final MappedByteBuffer buffer;
+        @GuardedBy("lock") int writePosition = 0;
+        // the greatest sequence number (or truncation point) recorded in this segment
+        @GuardedBy("lock") long maxSeq = PaxosAcceptor.NO_LOG_ENTRY;
+
+        Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return the payload of the record at this offset or null if its checksum does not match
+         */
+        byte[] readPayload(int offset) {
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + HEADER_SIZE - 4);
+            int length = record.getInt();
+            byte[] bytes = new byte[length];
+            record.get(bytes);
+            if (record.getInt() != checksum(buffer, offset, length)) {
+                return null;
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final int offset;
+        final long version;
+
+        Location(Segment segment, int offset, long version) {
+            this.segment = segment;
+            this.offset = offset;
+            this.version = version;
+        }
+    }
+}
@@ -25,7 +25,10 @@ import com.palantir.paxos.persistence.ProtobufTest;
 @SuiteClasses({
     ProtobufTest.class,
     PaxosConsensusFastTest.class,
-    PaxosConsensusSlowTest.class
+    PaxosConsensusSlowTest.class,
+    PaxosLeaderLeaseTest.class,
+    SegmentedPaxosStateLogTest.class,
+    PaxosMultiPaxosTest.class
 })
 public class AllLeaderElectionTests {
 }
@@ -46,6 +46,12 @@ public final class PaxosConsensusTestUtils {
 
     public static PaxosTestState setup(int numLeaders,
                                        int quorumSize) {
+        return setup(numLeaders, quorumSize, 0L);
+    }
+
+    public static PaxosTestState setup(int numLeaders,
+                                       int quorumSize,
+                                       long leaderLeaseMs) {
         List<LeaderElectionService> leaders = Lists.newArrayList();
         List<PaxosAcceptor> acceptors = Lists.newArrayList();
         List<PaxosLearner> learners = Lists.newArrayList();
@@ -63,7 +69,7 @@ public final class PaxosConsensusTestUtils {
                     failureToggles.get(i),
                     e));
 
-            PaxosAcceptor acceptor = PaxosAcceptorImpl.newAcceptor(getAcceptorLogDir(i));
+            PaxosAcceptor acceptor = PaxosAcceptorImpl.newAcceptor(getAcceptorLogDir(i), leaderLeaseMs);
             acceptors.add(ToggleableExceptionProxy.newProxyInstance(
                     PaxosAcceptor.class,
                     acceptor,
@@ -85,7 +91,8 @@ public final class PaxosConsensusTestUtils {
                     ImmutableList.<PaxosAcceptor> copyOf(acceptors),
                     ImmutableList.<PaxosLearner> copyOf(learners),
                     executor,
-                    0L, 0L, 0L);
+                    0L, 0L, 0L,
+                    leaderLeaseMs);
             leaders.add(SimulatingFailingServerProxy.newProxyInstance(
                     LeaderElectionService.class,
                     leader,
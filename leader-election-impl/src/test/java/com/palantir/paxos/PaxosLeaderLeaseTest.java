@@ -0,0 +1,87 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.palantir.leader.LeaderElectionService.LeadershipToken;
+import com.palantir.leader.LeaderElectionService.StillLeadingStatus;
+
+public class PaxosLeaderLeaseTest {
+
+    private final int NUM_POTENTIAL_LEADERS = 5;
+    private final int QUORUM_SIZE = 3;
+    private final long LEADER_LEASE_MS = 60000;
+    private PaxosTestState state;
+
+    @Before
+    public void setup() {
+        state = PaxosConsensusTestUtils.setup(NUM_POTENTIAL_LEADERS, QUORUM_SIZE, LEADER_LEASE_MS);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        PaxosConsensusTestUtils.teardown(state);
+    }
+
+    @Test
+    public void leaderWithLeaseDoesNotNeedQuorum() {
+        LeadershipToken t = state.gainLeadership(0);
+        for (int i = 1; i < NUM_POTENTIAL_LEADERS; i++) {
+            state.goDown(i);
+        }
+        assertEquals(
+                "leader should keep leading without quorum while its lease is valid",
+                StillLeadingStatus.LEADING,
+                state.leader(0).isStillLeading(t));
+    }
+
+    @Test
+    public void acceptorsRefuseNewRoundsDuringLease() {
+        state.gainLeadership(0);
+        PaxosAcceptor acceptor = state.acceptor(1);
+        long nextSeq = acceptor.getLatestSequencePreparedOrAccepted() + 1;
+        PaxosPromise promise = acceptor.prepare(nextSeq, new PaxosProposalId(Long.MAX_VALUE, "usurper"));
+        assertFalse("acceptor should not prepare a new round while the leader holds a lease", promise.isSuccessful());
+    }
+
+    @Test
+    public void restartedAcceptorRefusesNewRoundsDuringLease() {
+        LeadershipToken t = state.gainLeadership(0);
+        assertEquals(StillLeadingStatus.LEADING, state.leader(0).isStillLeading(t));
+        long nextSeq = state.learner(0).getGreatestLearnedValue().getRound() + 1;
+
+        PaxosAcceptor restarted = PaxosAcceptorImpl.newAcceptor(
+                PaxosConsensusTestUtils.getAcceptorLogDir(1), LEADER_LEASE_MS);
+        PaxosPromise promise = restarted.prepare(nextSeq, new PaxosProposalId(Long.MAX_VALUE, "usurper"));
+        assertFalse("acceptor should remember a lease it granted before restarting", promise.isSuccessful());
+    }
+
+    @Test
+    public void acceptorsPrepareNewRoundsAfterLease() throws InterruptedException {
+        PaxosAcceptor acceptor = PaxosAcceptorImpl.newAcceptor(PaxosConsensusTestUtils.getAcceptorLogDir(NUM_POTENTIAL_LEADERS), 1);
+        long nextSeq = acceptor.getLatestSequencePreparedOrAccepted() + 1;
+        Thread.sleep(10);
+        PaxosPromise promise = acceptor.prepare(nextSeq, new PaxosProposalId(1, "next-leader"));
+        assertTrue("acceptor should prepare new rounds once the lease has run out", promise.isSuccessful());
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.palantir.common.concurrent.PTExecutors;
+
+public class PaxosMultiPaxosTest {
+
+    private static final String LOG_DIR = "multi-paxos-test/";
+    private static final int NUM_ACCEPTORS = 3;
+    private static final int QUORUM_SIZE = 2;
+
+    private final List<PaxosAcceptor> acceptors = Lists.newArrayList();
+    private final List<PaxosLearner> learners = Lists.newArrayList();
+    private ExecutorService executor;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+        executor = PTExecutors.newCachedThreadPool();
+        for (int i = 0; i < NUM_ACCEPTORS; i++) {
+            acceptors.add(spy(PaxosAcceptorImpl.newAcceptor(LOG_DIR + "acceptor/" + i)));
+            learners.add(PaxosLearnerImpl.newLearner(LOG_DIR + "learner/" + i));
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+    }
+
+    @Test
+    public void testStableProposerPreparesOnce() throws Exception {
+        PaxosProposer proposer = newProposer(0);
+        for (long seq = 0; seq < 10; seq++) {
+            assertArrayEquals(new byte[] { (byte) seq }, proposer.propose(seq, new byte[] { (byte) seq }));
+        }
+        for (PaxosAcceptor acceptor : acceptors) {
+            verify(acceptor, times(1)).prepareRange(anyLong(), any(PaxosProposalId.class));
+            verify(acceptor, never()).prepare(anyLong(), any(PaxosProposalId.class));
+        }
+        assertEquals(9, learners.get(0).getGreatestLearnedValue().getRound());
+    }
+
+    @Test
+    public void testPreemptedProposerFallsBackToPhaseOne() throws Exception {
+        PaxosProposer first = newProposer(0);
+        PaxosProposer second = newProposer(1);
+        first.propose(0, new byte[] { 0 });
+        first.propose(1, new byte[] { 1 });
+
+        byte[] secondValue = proposeWithRetries(second, 5, new byte[] { 2 });
+        assertArrayEquals(new byte[] { 2 }, secondValue);
+
+        // the first proposer has lost its range, but must still agree on what was chosen
+        assertArrayEquals(secondValue, proposeWithRetries(first, 5, new byte[] { 3 }));
+        assertArrayEquals(new byte[] { 6 }, proposeWithRetries(first, 6, new byte[] { 6 }));
+    }
+
+    @Test
+    public void testRangePromiseSurvivesRestart() throws Exception {
+        PaxosProposalId high = new PaxosProposalId(10, "high");
+        PaxosRangePromise promise = acceptors.get(0).prepareRange(3, high);
+        assertTrue(promise.isSuccessful());
+
+        PaxosAcceptor restarted = PaxosAcceptorImpl.newAcceptor(LOG_DIR + "acceptor/0");
+        PaxosProposalId low = new PaxosProposalId(5, "low");
+        assertFalse(restarted.prepare(100, low).isSuccessful());
+        assertFalse(restarted.accept(100, new PaxosProposal(low, new PaxosValue("low", 100, null))).isSuccessful());
+        assertTrue(restarted.prepare(2, low).isSuccessful());
+        assertTrue(restarted.accept(100, new PaxosProposal(high, new PaxosValue("high", 100, null))).isSuccessful());
+    }
+
+    private PaxosProposer newProposer(int i) {
+        return PaxosProposerImpl.newProposer(
+                learners.get(i),
+                ImmutableList.copyOf(acceptors),
+                ImmutableList.copyOf(learners),
+                QUORUM_SIZE,
+                executor,
+                true);
+    }
+
+    private static byte[] proposeWithRetries(PaxosProposer proposer, long seq, byte[] value) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return proposer.propose(seq, value);
+            } catch (PaxosRoundFailureException e) {
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
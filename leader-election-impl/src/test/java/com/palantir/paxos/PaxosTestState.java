@@ -77,6 +77,10 @@ public class PaxosTestState {
         return leaders.get(i);
     }
 
+    public PaxosAcceptor acceptor(int i) {
+        return acceptors.get(i);
+    }
+
     public PaxosLearner learner(int i) {
         return learners.get(i);
     }
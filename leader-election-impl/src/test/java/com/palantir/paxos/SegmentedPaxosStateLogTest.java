@@ -0,0 +1,166 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.palantir.common.concurrent.PTExecutors;
+
+public class SegmentedPaxosStateLogTest {
+
+    private static final String LOG_DIR = "segmented-log-test";
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+    }
+
+    @After
+    public void teardown() throws Exception {
+        FileUtils.deleteDirectory(new File(LOG_DIR));
+    }
+
+    @Test
+    public void testRoundsSurviveReopening() throws Exception {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        assertEquals(PaxosAcceptor.NO_LOG_ENTRY, log.getGreatestLogEntry());
+        for (int seq = 0; seq < 100; seq++) {
+            log.writeRound(seq, new PaxosValue("leader", seq, new byte[] { (byte) seq }));
+        }
+        log.writeRound(7, new PaxosValue("rewritten", 7, null));
+        assertTrue("rounds should span several segments", segmentFiles().length > 1);
+
+        log = newLog();
+        assertEquals(PaxosAcceptor.NO_LOG_ENTRY, log.getLeastLogEntry());
+        assertEquals(99, log.getGreatestLogEntry());
+        assertEquals("leader", read(log, 42).getLeaderUUID());
+        assertEquals("rewritten", read(log, 7).getLeaderUUID());
+        assertNull(log.readRound(100));
+    }
+
+    @Test
+    public void testTruncationDeletesSegmentsAndSurvivesReopening() throws Exception {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        for (int seq = 0; seq < 100; seq++) {
+            log.writeRound(seq, new PaxosValue("leader", seq, null));
+        }
+        int segmentsBefore = segmentFiles().length;
+        log.truncate(89);
+        assertEquals(90, log.getLeastLogEntry());
+        assertNull(log.readRound(50));
+
+        // deletion happens in the background
+        for (int i = 0; i < 100 && segmentFiles().length >= segmentsBefore; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(segmentFiles().length < segmentsBefore);
+
+        log = newLog();
+        assertEquals(90, log.getLeastLogEntry());
+        assertEquals(99, log.getGreatestLogEntry());
+        assertNull(log.readRound(50));
+        assertEquals(95, read(log, 95).getRound());
+
+        log.truncate(1000);
+        assertEquals("the greatest entry is never truncated", 99, log.getLeastLogEntry());
+    }
+
+    @Test
+    public void testTornWriteIsIgnored() throws Exception {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        log.writeRound(0, new PaxosValue("leader", 0, null));
+        log.writeRound(1, new PaxosValue("leader", 1, null));
+
+        // corrupt the payload of the last record
+        File segment = segmentFiles()[0];
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        try {
+            int length = new PaxosValue("leader", 1, null).persistToBytes().length;
+            int firstRecord = 4 + 1 + 8 + 8 + 4 + length + 4;
+            raf.seek(firstRecord + 4 + 1 + 8 + 8 + 4);
+            raf.write(0xff);
+        } finally {
+            raf.close();
+        }
+
+        log = newLog();
+        assertEquals(0, log.getGreatestLogEntry());
+        assertNull(log.readRound(1));
+        log.writeRound(1, new PaxosValue("leader", 1, null));
+        assertEquals(1, newLog().getGreatestLogEntry());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        final SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        ExecutorService executor = PTExecutors.newCachedThreadPool();
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 50; i++) {
+                            long seq = i * 8 + thread;
+                            log.writeRound(seq, new PaxosValue("leader", seq, null));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        assertEquals(399, reopened.getGreatestLogEntry());
+        for (long seq = 0; seq < 400; seq++) {
+            assertEquals(seq, read(reopened, seq).getRound());
+        }
+    }
+
+    private static SegmentedPaxosStateLog<PaxosValue> newLog() {
+        return new SegmentedPaxosStateLog<PaxosValue>(LOG_DIR, SEGMENT_SIZE);
+    }
+
+    private static PaxosValue read(PaxosStateLog<PaxosValue> log, long seq) throws Exception {
+        return PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(seq));
+    }
+
+    private static File[] segmentFiles() {
+        return new File(LOG_DIR).listFiles();
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A {@link LockService} which can also grant blocking lock requests without
+ * holding a thread while they wait. This is the interface a lock server is
+ * exposed through when it serves {@link LongPollLockService}.
+ */
+@Beta public interface AsyncLockService extends LockService {
+    /**
+     * Asynchronous version of {@link #lockWithFullLockResponse(LockClient, LockRequest)}.
+     * <p>
+     * Cancelling the returned future abandons the request and releases any
+     * locks acquired for it so far.
+     */
+    ListenableFuture<LockResponse> lockWithFullLockResponseAsync(LockClient client, LockRequest request);
+}
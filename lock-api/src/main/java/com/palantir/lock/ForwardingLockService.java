@@ -16,6 +16,7 @@
 package com.palantir.lock;
 
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -43,6 +44,12 @@ public abstract class ForwardingLockService extends ForwardingObject implements
         return delegate().lockAndGetHeldLocks(client, request);
     }
 
+    @Override
+    public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests)
+            throws InterruptedException {
+        return delegate().lockBatch(client, requests);
+    }
+
     @Override
     public LockResponse lockWithFullLockResponse(LockClient client, LockRequest request) throws InterruptedException {
         return delegate().lockWithFullLockResponse(client, request);
@@ -58,6 +65,11 @@ public abstract class ForwardingLockService extends ForwardingObject implements
         return delegate().unlockSimple(SimpleHeldLocksToken.fromLockRefreshToken(token));
     }
 
+    @Override
+    public Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens) {
+        return delegate().unlockBatch(tokens);
+    }
+
     @Override
     public boolean unlockSimple(SimpleHeldLocksToken token) {
         return delegate().unlockSimple(token);
@@ -15,6 +15,7 @@
  */
 package com.palantir.lock;
 
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.collect.ForwardingObject;
@@ -36,11 +37,22 @@ public abstract class ForwardingRemoteLockService extends ForwardingObject imple
         return delegate().lockAndGetHeldLocks(client, request);
     }
 
+    @Override
+    public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests)
+            throws InterruptedException {
+        return delegate().lockBatch(client, requests);
+    }
+
     @Override
     public boolean unlock(LockRefreshToken token) {
         return delegate().unlock(token);
     }
 
+    @Override
+    public Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens) {
+        return delegate().unlockBatch(tokens);
+    }
+
     @Override
     public Set<LockRefreshToken> refreshLockRefreshTokens(Iterable<LockRefreshToken> tokens) {
         return delegate().refreshLockRefreshTokens(tokens);
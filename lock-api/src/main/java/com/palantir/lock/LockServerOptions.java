@@ -91,6 +91,16 @@ import com.google.common.base.Objects;
         return Long.SIZE;
     }
 
+    /**
+     * Returns the longest time a single call to {@link LongPollLockService}
+     * is held open before the client is told to poll again. This should be
+     * well below the read timeout of the lock clients. The default value is
+     * 30 seconds.
+     */
+    public TimeDuration getLongPollTimeout() {
+        return SimpleTimeDuration.of(30, TimeUnit.SECONDS);
+    }
+
     @Override public final boolean equals(@Nullable Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof LockServerOptions)) return false;
@@ -100,7 +110,8 @@ import com.google.common.base.Objects;
                 && Objects.equal(getMaxAllowedClockDrift(), other.getMaxAllowedClockDrift())
                 && Objects.equal(getMaxAllowedBlockingDuration(), other.getMaxAllowedBlockingDuration())
                 && Objects.equal(getMaxNormalLockAge(), other.getMaxNormalLockAge())
-                && (getRandomBitCount() == other.getRandomBitCount());
+                && (getRandomBitCount() == other.getRandomBitCount())
+                && Objects.equal(getLongPollTimeout(), other.getLongPollTimeout());
     }
 
     @Override public final int hashCode() {
@@ -109,7 +120,8 @@ import com.google.common.base.Objects;
                 getMaxAllowedClockDrift(),
                 getMaxAllowedBlockingDuration(),
                 getMaxNormalLockAge(),
-                getRandomBitCount());
+                getRandomBitCount(),
+                getLongPollTimeout());
     }
 
     @Override public final String toString() {
@@ -120,6 +132,7 @@ import com.google.common.base.Objects;
                 .add("maxAllowedBlockingDuration", getMaxAllowedBlockingDuration())
                 .add("maxNormalLockAge", getMaxNormalLockAge())
                 .add("randomBitCount", getRandomBitCount())
+                .add("longPollTimeout", getLongPollTimeout())
                 .toString();
     }
 
@@ -141,6 +154,8 @@ import com.google.common.base.Objects;
         private final SimpleTimeDuration maxAllowedBlockingDuration;
         private final SimpleTimeDuration maxNormalLockAge;
         private final int randomBitCount;
+        // Absent from proxies written before long polling was added.
+        @Nullable private final SimpleTimeDuration longPollTimeout;
 
         SerializationProxy(LockServerOptions lockServerOptions) {
             isStandaloneServer = lockServerOptions.isStandaloneServer();
@@ -153,6 +168,8 @@ import com.google.common.base.Objects;
             maxNormalLockAge = SimpleTimeDuration.of(
                     lockServerOptions.getMaxNormalLockAge());
             randomBitCount = lockServerOptions.getRandomBitCount();
+            longPollTimeout = SimpleTimeDuration.of(
+                    lockServerOptions.getLongPollTimeout());
         }
 
         Object readResolve() {
@@ -176,6 +193,9 @@ import com.google.common.base.Objects;
                 @Override public int getRandomBitCount() {
                     return randomBitCount;
                 }
+                @Override public TimeDuration getLongPollTimeout() {
+                    return (longPollTimeout == null) ? super.getLongPollTimeout() : longPollTimeout;
+                }
             };
         }
     }
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock;
+
+import java.io.Serializable;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * The result of a call to {@link LongPollLockService}. If {@link #isDone()} is
+ * <code>false</code> the request is still waiting for its locks and should be
+ * polled again using {@link #getRequestId()}.
+ */
+@Immutable public final class LongPollLockResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String requestId;
+    private final boolean isDone;
+    @Nullable private final HeldLocksToken token;
+
+    @JsonCreator
+    public LongPollLockResponse(@JsonProperty("requestId") String requestId,
+                                @JsonProperty("done") boolean isDone,
+                                @JsonProperty("token") @Nullable HeldLocksToken token) {
+        this.requestId = Preconditions.checkNotNull(requestId);
+        this.isDone = isDone;
+        this.token = token;
+        Preconditions.checkArgument(isDone || token == null, "A pending response cannot hold a token");
+    }
+
+    public static LongPollLockResponse pending(String requestId) {
+        return new LongPollLockResponse(requestId, false, null);
+    }
+
+    public static LongPollLockResponse done(String requestId, @Nullable HeldLocksToken token) {
+        return new LongPollLockResponse(requestId, true, token);
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * @return the token for the acquired locks, or <code>null</code> if the
+     *         request is not done or failed to acquire its locks
+     */
+    @Nullable
+    public HeldLocksToken getToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("requestId", requestId)
+                .add("isDone", isDone)
+                .add("token", token)
+                .toString();
+    }
+}
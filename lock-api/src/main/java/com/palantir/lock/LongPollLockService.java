@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import com.palantir.common.annotation.Idempotent;
+import com.palantir.common.annotation.NonIdempotent;
+
+/**
+ * Long-poll variant of the blocking calls on {@link RemoteLockService}.
+ * <p>
+ * A blocked lock request is parked on the lock server without holding a server
+ * thread. Each call returns once the request has finished or the server's poll
+ * timeout has elapsed, whichever comes first; in the latter case the client
+ * should call {@link #poll(String)} with the returned request id until the
+ * response is done.
+ * <p>
+ * Clients which stop polling have their request cancelled by the server, and
+ * any locks granted to it are released.
+ */
+@Path("/lock-long-poll")
+public interface LongPollLockService {
+    /**
+     * Submits the given lock request, which will be granted with the same
+     * semantics as {@link RemoteLockService#lockAndGetHeldLocks(String, LockRequest)}.
+     */
+    @POST
+    @Path("lock/{client: .*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @NonIdempotent LongPollLockResponse lock(@PathParam("client") String client, LockRequest request);
+
+    /**
+     * Waits for the result of a request previously submitted with
+     * {@link #lock(String, LockRequest)}.
+     */
+    @POST
+    @Path("poll/{requestId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Idempotent LongPollLockResponse poll(@PathParam("requestId") String requestId);
+
+    /**
+     * Cancels the given request, releasing any locks acquired for it.
+     *
+     * @return <code>true</code> if the request was still outstanding
+     */
+    @POST
+    @Path("cancel/{requestId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Idempotent boolean cancel(@PathParam("requestId") String requestId);
+}
@@ -15,6 +15,7 @@
  */
 package com.palantir.lock;
 
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -51,6 +52,20 @@ public interface RemoteLockService {
     @Consumes(MediaType.APPLICATION_JSON)
     HeldLocksToken lockAndGetHeldLocks(@PathParam("client") String client, LockRequest request) throws InterruptedException;
 
+    /**
+     * Submits several independent lock requests in a single call. Each request
+     * is handled as if it had been passed to {@link #lock(String, LockRequest)}
+     * concurrently, and this call returns once all of them have completed.
+     *
+     * @return one entry per request, in order, which is null if that request failed
+     */
+    @POST
+    @Path("lock-batch/{client: .*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    List<LockRefreshToken> lockBatch(@PathParam("client") String client, List<LockRequest> requests)
+            throws InterruptedException;
+
     /**
      * Attempts to release the set of locks represented by the
      * <code>token</code> parameter. For locks which
@@ -68,6 +83,17 @@ public interface RemoteLockService {
     @Consumes(MediaType.APPLICATION_JSON)
     @NonIdempotent boolean unlock(LockRefreshToken token);
 
+    /**
+     * Releases each of the given tokens as if by {@link #unlock(LockRefreshToken)}.
+     *
+     * @return the subset of tokens which were unlocked by this call
+     */
+    @POST
+    @Path("unlock-batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @NonIdempotent Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens);
+
     /**
      * Refreshes the given lock tokens.
      *
@@ -15,6 +15,8 @@
  */
 package com.palantir.lock.client;
 
+import java.util.List;
+
 import com.palantir.lock.BlockingMode;
 import com.palantir.lock.ForwardingRemoteLockService;
 import com.palantir.lock.LockClient;
@@ -51,6 +53,17 @@ public class ClientSplitLockService extends ForwardingRemoteLockService {
         return result;
     }
 
+    @Override
+    public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests)
+            throws InterruptedException {
+        for (LockRequest request : requests) {
+            if (request.getBlockingMode() != BlockingMode.DO_NOT_BLOCK) {
+                return blockingClient.lockBatch(client, requests);
+            }
+        }
+        return nonBlockingClient.lockBatch(client, requests);
+    }
+
     private LockRefreshToken lock(LockClient client, LockRequest request) throws InterruptedException {
         if (request.getBlockingMode() == BlockingMode.DO_NOT_BLOCK) {
             if (client == LockClient.ANONYMOUS) {
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.exception.PalantirRuntimeException;
+import com.palantir.lock.BlockingMode;
+import com.palantir.lock.ForwardingRemoteLockService;
+import com.palantir.lock.LockGroupBehavior;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.RemoteLockService;
+
+/**
+ * Coalesces concurrent {@link #lock(String, LockRequest)} and
+ * {@link #unlock(LockRefreshToken)} calls made within a short window into single
+ * {@link RemoteLockService#lockBatch(String, List)} and
+ * {@link RemoteLockService#unlockBatch(List)} calls, so that many threads
+ * committing at once share one round trip to the lock server.
+ * <p>
+ * The caller which opens a batch sends it straight away if no other batch for
+ * the same client is in flight; otherwise it waits for the window to pass so
+ * that callers arriving in the meantime can join. A batch only returns once
+ * all of its requests have completed, so only {@link BlockingMode#DO_NOT_BLOCK}
+ * requests are ever batched. Other blocking requests are first sent as
+ * non-blocking attempts, and only the ones which fail are retried individually
+ * against the delegate; {@link BlockingMode#BLOCK_INDEFINITELY_THEN_RELEASE}
+ * requests, which are used to wait for other commits, always go straight to
+ * the delegate. This keeps a single contended lock from delaying, or
+ * deadlocking, the rest of its batch.
+ * <p>
+ * If a batch call fails, for example because the lock server predates
+ * {@link RemoteLockService#lockBatch(String, List)}, its requests are sent to
+ * the delegate one at a time instead, and batching is not tried again for a
+ * while.
+ */
+public class CoalescingRemoteLockService extends ForwardingRemoteLockService {
+    private static final Logger log = LoggerFactory.getLogger(CoalescingRemoteLockService.class);
+
+    public static final long DEFAULT_WINDOW_MILLIS = 1;
+
+    private static final long BATCH_RETRY_INTERVAL_MILLIS = 60000;
+
+    private final RemoteLockService delegate;
+    private final long windowMillis;
+    private volatile long batchUnavailableUntilMillis = 0;
+
+    private final Coalescer<LockRequest, LockRefreshToken> lockCoalescer =
+            new Coalescer<LockRequest, LockRefreshToken>() {
+        @Override
+        protected List<LockRefreshToken> execute(String client, List<LockRequest> requests)
+                throws InterruptedException {
+            return delegate.lockBatch(client, requests);
+        }
+
+        @Override
+        protected List<LockRefreshToken> executeIndividually(String client, List<LockRequest> requests)
+                throws InterruptedException {
+            List<LockRefreshToken> tokens = Lists.newArrayListWithCapacity(requests.size());
+            boolean isDone = false;
+            try {
+                for (LockRequest request : requests) {
+                    tokens.add(delegate.lock(client, request));
+                }
+                isDone = true;
+                return tokens;
+            } finally {
+                if (!isDone) {
+                    for (LockRefreshToken token : tokens) {
+                        discard(token);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void discard(LockRefreshToken token) {
+            if (token != null) {
+                delegate.unlock(token);
+            }
+        }
+    };
+
+    private final Coalescer<LockRefreshToken, Boolean> unlockCoalescer =
+            new Coalescer<LockRefreshToken, Boolean>() {
+        @Override
+        protected List<Boolean> execute(String key, List<LockRefreshToken> tokens) {
+            Set<LockRefreshToken> unlocked = delegate.unlockBatch(tokens);
+            List<Boolean> results = Lists.newArrayListWithCapacity(tokens.size());
+            for (LockRefreshToken token : tokens) {
+                results.add(unlocked.contains(token));
+            }
+            return results;
+        }
+
+        @Override
+        protected List<Boolean> executeIndividually(String key, List<LockRefreshToken> tokens) {
+            List<Boolean> results = Lists.newArrayListWithCapacity(tokens.size());
+            for (LockRefreshToken token : tokens) {
+                results.add(delegate.unlock(token));
+            }
+            return results;
+        }
+
+        @Override
+        protected void discard(Boolean result) {
+            // Nothing to release.
+        }
+    };
+
+    public static CoalescingRemoteLockService create(RemoteLockService delegate) {
+        return new CoalescingRemoteLockService(delegate, DEFAULT_WINDOW_MILLIS);
+    }
+
+    public CoalescingRemoteLockService(RemoteLockService delegate, long windowMillis) {
+        Preconditions.checkArgument(windowMillis >= 0, "windowMillis must not be negative");
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected RemoteLockService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public LockRefreshToken lock(String client, LockRequest request) throws InterruptedException {
+        if (request.getLockGroupBehavior() != LockGroupBehavior.LOCK_ALL_OR_NONE) {
+            // Let the delegate reject it.
+            return delegate.lock(client, request);
+        }
+        if (!isBatchAvailable()) {
+            return delegate.lock(client, request);
+        }
+        BlockingMode blockingMode = request.getBlockingMode();
+        if (blockingMode == BlockingMode.DO_NOT_BLOCK) {
+            return lockCoalescer.submit(client, request);
+        }
+        if (blockingMode == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE) {
+            return delegate.lock(client, request);
+        }
+        LockRefreshToken token = lockCoalescer.submit(client, withoutBlocking(request));
+        if (token != null) {
+            return token;
+        }
+        return delegate.lock(client, request);
+    }
+
+    private static LockRequest withoutBlocking(LockRequest request) {
+        LockRequest.Builder builder = LockRequest.builder(request.getLockDescriptors())
+                .doNotBlock()
+                .timeoutAfter(request.getLockTimeout());
+        if (request.getVersionId() != null) {
+            builder.withLockedInVersionId(request.getVersionId());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean unlock(LockRefreshToken token) {
+        if (!isBatchAvailable()) {
+            return delegate.unlock(token);
+        }
+        try {
+            return unlockCoalescer.submit("", token);
+        } catch (InterruptedException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    private boolean isBatchAvailable() {
+        return System.currentTimeMillis() >= batchUnavailableUntilMillis;
+    }
+
+    /**
+     * Groups requests with the same key into batches. The caller which opens a
+     * batch sends it, straight away if no batch with the same key is in flight
+     * and once the window has passed otherwise; everyone else waits for their
+     * result.
+     */
+    private abstract class Coalescer<Q, R> {
+        private final ConcurrentMap<String, Batch<Q, R>> openBatches = Maps.newConcurrentMap();
+        private final Multiset<String> inFlightBatches = ConcurrentHashMultiset.create();
+
+        protected abstract List<R> execute(String key, List<Q> requests) throws InterruptedException;
+
+        /** Sends the requests one at a time, for lock servers which cannot take batches. */
+        protected abstract List<R> executeIndividually(String key, List<Q> requests) throws InterruptedException;
+
+        /** Releases a result whose caller is no longer waiting for it. */
+        protected abstract void discard(R result);
+
+        R submit(String key, Q request) throws InterruptedException {
+            while (true) {
+                Batch<Q, R> batch = openBatches.get(key);
+                if (batch == null) {
+                    Batch<Q, R> newBatch = new Batch<Q, R>();
+                    SettableFuture<R> future = newBatch.add(request);
+                    if (openBatches.putIfAbsent(key, newBatch) == null) {
+                        if (inFlightBatches.count(key) > 0) {
+                            Uninterruptibles.sleepUninterruptibly(windowMillis, TimeUnit.MILLISECONDS);
+                        }
+                        openBatches.remove(key, newBatch);
+                        inFlightBatches.add(key);
+                        try {
+                            send(key, newBatch);
+                        } finally {
+                            inFlightBatches.remove(key);
+                        }
+                        return await(future);
+                    }
+                } else {
+                    SettableFuture<R> future = batch.add(request);
+                    if (future != null) {
+                        return await(future);
+                    }
+                }
+            }
+        }
+
+        private void send(String key, Batch<Q, R> batch) {
+            List<Q> requests = batch.close();
+            List<SettableFuture<R>> futures = batch.futures;
+            try {
+                List<R> results = executeBatchOrIndividually(key, requests);
+                for (int i = 0; i < futures.size(); i++) {
+                    futures.get(i).set(results.get(i));
+                }
+            } catch (Throwable t) { // (authorized)
+                for (SettableFuture<R> future : futures) {
+                    future.setException(t);
+                }
+            }
+        }
+
+        private List<R> executeBatchOrIndividually(String key, List<Q> requests) throws InterruptedException {
+            if (isBatchAvailable()) {
+                try {
+                    return execute(key, requests);
+                } catch (RuntimeException e) {
+                    batchUnavailableUntilMillis = System.currentTimeMillis() + BATCH_RETRY_INTERVAL_MILLIS;
+                    log.warn("Could not send a batch of lock requests; sending lock requests to the "
+                            + "lock server one at a time for the next " + BATCH_RETRY_INTERVAL_MILLIS + " ms", e);
+                }
+            }
+            return executeIndividually(key, requests);
+        }
+
+        private R await(SettableFuture<R> future) throws InterruptedException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Futures.addCallback(future, new FutureCallback<R>() {
+                    @Override
+                    public void onSuccess(R result) {
+                        discard(result);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        // Nothing was acquired.
+                    }
+                });
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    // The thread which sent the batch was interrupted, not this one.
+                    throw new PalantirRuntimeException("The lock batch was interrupted.", e.getCause());
+                }
+                throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    private static final class Batch<Q, R> {
+        @GuardedBy("this") private final List<Q> requests = Lists.newArrayList();
+        @GuardedBy("this") private boolean isClosed = false;
+        final List<SettableFuture<R>> futures = Lists.newArrayList();
+
+        /** Returns null if this batch has already been sent. */
+        synchronized SettableFuture<R> add(Q request) {
+            if (isClosed) {
+                return null;
+            }
+            SettableFuture<R> future = SettableFuture.create();
+            requests.add(request);
+            futures.add(future);
+            return future;
+        }
+
+        synchronized List<Q> close() {
+            isClosed = true;
+            return requests;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.palantir.lock.client;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -95,12 +96,30 @@ public class LockRefreshingRemoteLockService extends ForwardingRemoteLockService
         return ret;
     }
 
+    @Override
+    public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests)
+            throws InterruptedException {
+        List<LockRefreshToken> ret = super.lockBatch(client, requests);
+        for (LockRefreshToken token : ret) {
+            if (token != null) {
+                toRefresh.add(token);
+            }
+        }
+        return ret;
+    }
+
     @Override
     public boolean unlock(LockRefreshToken token) {
         toRefresh.remove(token);
         return super.unlock(token);
     }
 
+    @Override
+    public Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens) {
+        toRefresh.removeAll(tokens);
+        return super.unlockBatch(tokens);
+    }
+
     private void refreshLocks() {
         ImmutableSet<LockRefreshToken> refreshCopy = ImmutableSet.copyOf(toRefresh);
         if (refreshCopy.isEmpty()) {
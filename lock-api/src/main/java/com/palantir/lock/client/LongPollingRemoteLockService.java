@@ -0,0 +1,136 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.palantir.lock.BlockingMode;
+import com.palantir.lock.ForwardingRemoteLockService;
+import com.palantir.lock.HeldLocksToken;
+import com.palantir.lock.LockGroupBehavior;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LongPollLockResponse;
+import com.palantir.lock.LongPollLockService;
+import com.palantir.lock.RemoteLockService;
+
+/**
+ * Sends blocking lock requests through {@link LongPollLockService}, so that
+ * waiting for a contended lock does not hold a request thread on the lock
+ * server. Requests which do not block, and all other calls, go straight to
+ * the delegate.
+ * <p>
+ * If a request cannot be submitted for long polling, for example because the
+ * lock server predates {@link LongPollLockService}, it is sent to the delegate
+ * instead, and long polling is not tried again for a while.
+ */
+public class LongPollingRemoteLockService extends ForwardingRemoteLockService {
+    private static final Logger log = LoggerFactory.getLogger(LongPollingRemoteLockService.class);
+
+    private static final long LONG_POLL_RETRY_INTERVAL_MILLIS = 60000;
+
+    private final RemoteLockService delegate;
+    private final LongPollLockService longPollService;
+    private volatile long longPollUnavailableUntilMillis = 0;
+
+    public LongPollingRemoteLockService(RemoteLockService delegate, LongPollLockService longPollService) {
+        this.delegate = delegate;
+        this.longPollService = longPollService;
+    }
+
+    @Override
+    protected RemoteLockService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public LockRefreshToken lock(String client, LockRequest request) throws InterruptedException {
+        if (request.getBlockingMode() == BlockingMode.DO_NOT_BLOCK) {
+            return delegate.lock(client, request);
+        }
+        Preconditions.checkArgument(request.getLockGroupBehavior() == LockGroupBehavior.LOCK_ALL_OR_NONE,
+                "lock() only supports LockGroupBehavior.LOCK_ALL_OR_NONE. Consider using lockAndGetHeldLocks().");
+        LongPollLockResponse response = trySubmit(client, request);
+        if (response == null) {
+            return delegate.lock(client, request);
+        }
+        HeldLocksToken token = awaitResponse(response);
+        return token == null ? null : token.getLockRefreshToken();
+    }
+
+    @Override
+    public HeldLocksToken lockAndGetHeldLocks(String client, LockRequest request) throws InterruptedException {
+        if (request.getBlockingMode() == BlockingMode.DO_NOT_BLOCK) {
+            return delegate.lockAndGetHeldLocks(client, request);
+        }
+        LongPollLockResponse response = trySubmit(client, request);
+        if (response == null) {
+            return delegate.lockAndGetHeldLocks(client, request);
+        }
+        return awaitResponse(response);
+    }
+
+    /**
+     * Submits the request for long polling, or returns null if that is not
+     * possible and the request should be sent to the delegate.
+     */
+    @Nullable
+    private LongPollLockResponse trySubmit(String client, LockRequest request) {
+        if (System.currentTimeMillis() < longPollUnavailableUntilMillis) {
+            return null;
+        }
+        try {
+            return longPollService.lock(client, request);
+        } catch (RuntimeException e) {
+            longPollUnavailableUntilMillis = System.currentTimeMillis() + LONG_POLL_RETRY_INTERVAL_MILLIS;
+            log.warn("Could not submit a long-poll lock request; sending blocking lock requests "
+                    + "directly to the lock server for the next " + LONG_POLL_RETRY_INTERVAL_MILLIS + " ms", e);
+            return null;
+        }
+    }
+
+    private HeldLocksToken awaitResponse(LongPollLockResponse initialResponse) throws InterruptedException {
+        LongPollLockResponse response = initialResponse;
+        boolean isDone = false;
+        try {
+            while (!response.isDone()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Interrupted while locking.");
+                }
+                response = longPollService.poll(response.getRequestId());
+            }
+            isDone = true;
+            return response.getToken();
+        } finally {
+            if (!isDone) {
+                cancelQuietly(response.getRequestId());
+            }
+        }
+    }
+
+    private void cancelQuietly(String requestId) {
+        try {
+            longPollService.cancel(requestId);
+        } catch (RuntimeException e) {
+            // The server will cancel the request itself once we stop polling.
+            log.warn("Failed to cancel lock request " + requestId, e);
+        }
+    }
+}
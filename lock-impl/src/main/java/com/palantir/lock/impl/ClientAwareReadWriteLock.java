@@ -35,4 +35,20 @@ public interface ClientAwareReadWriteLock {
 
     /** Returns {@code true} iff the lock is in a frozen state. */
     boolean isFrozen();
+
+    /**
+     * Registers a callback which is run once, the next time this lock is
+     * released by any client. The callback is run on the releasing thread, so
+     * it should only hand off work rather than doing it. Waiters registered
+     * this way hold no thread while they wait; they must retry with
+     * {@link KnownClientLock#tryLock()} when woken, and re-register if that
+     * attempt fails.
+     */
+    void addAsyncWaiter(Runnable waiter);
+
+    /**
+     * Removes a callback registered with {@link #addAsyncWaiter(Runnable)}
+     * which has not run yet. Does nothing if it has already run.
+     */
+    void removeAsyncWaiter(Runnable waiter);
 }
@@ -58,6 +58,16 @@ public class LockServerLock implements ClientAwareReadWriteLock {
         return sync.isFrozen();
     }
 
+    @Override
+    public void addAsyncWaiter(Runnable waiter) {
+        sync.addAsyncWaiter(waiter);
+    }
+
+    @Override
+    public void removeAsyncWaiter(Runnable waiter) {
+        sync.removeAsyncWaiter(waiter);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass().getSimpleName())
@@ -132,6 +142,7 @@ public class LockServerLock implements ClientAwareReadWriteLock {
         @Override
         public void unlock() {
             sync.releaseShared(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
@@ -209,11 +220,13 @@ public class LockServerLock implements ClientAwareReadWriteLock {
         @Override
         public void unlock() {
             sync.release(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
         public void unlockAndFreeze() {
             sync.unlockAndFreeze(clientIndex);
+            sync.signalAsyncWaiters();
         }
 
         @Override
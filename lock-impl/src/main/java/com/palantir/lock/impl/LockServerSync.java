@@ -15,6 +15,8 @@
  */
 package com.palantir.lock.impl;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 
 import javax.annotation.Nullable;
@@ -37,6 +39,7 @@ class LockServerSync extends AbstractQueuedSynchronizer {
     private @GuardedBy("this") boolean frozen;
     private @GuardedBy("this") int writeLockHolder = 0;
     private @GuardedBy("this") TIntIntMap readLockHolders;
+    private final Queue<Runnable> asyncWaiters = new ConcurrentLinkedQueue<Runnable>();
 
     public LockServerSync(LockClientIndices clients) {
         this.clients = Preconditions.checkNotNull(clients);
@@ -225,6 +228,22 @@ class LockServerSync extends AbstractQueuedSynchronizer {
         return frozen;
     }
 
+    void addAsyncWaiter(Runnable waiter) {
+        asyncWaiters.add(waiter);
+    }
+
+    void removeAsyncWaiter(Runnable waiter) {
+        asyncWaiters.remove(waiter);
+    }
+
+    // Must be called after every release, outside of the monitor on this object.
+    void signalAsyncWaiters() {
+        Runnable waiter;
+        while ((waiter = asyncWaiters.poll()) != null) {
+            waiter.run();
+        }
+    }
+
     @Override
     public synchronized String toString() {
         return MoreObjects.toStringHelper(getClass().getSimpleName())
@@ -233,6 +252,7 @@ class LockServerSync extends AbstractQueuedSynchronizer {
                 .add("writeClient", writeLockHolder == 0 ? null : clients.fromIndex(writeLockHolder))
                 .add("readClients", clients.fromIndices(getReadClients()))
                 .add("queuedThreads", getQueueLength())
+                .add("asyncWaiters", asyncWaiters.size())
                 .add("isFrozen", frozen)
                 .toString();
     }
@@ -28,17 +28,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -68,11 +69,16 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.collect.TreeMultiset;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.random.SecureRandomPool;
 import com.palantir.common.remoting.ServiceNotAvailableException;
+import com.palantir.lock.AsyncLockService;
 import com.palantir.lock.BlockingMode;
 import com.palantir.lock.ExpiringToken;
 import com.palantir.lock.HeldLocksGrant;
@@ -103,7 +109,7 @@ import com.palantir.util.Pair;
  *
  * @author jtamer
  */
-@ThreadSafe public final class LockServiceImpl implements LockService, RemoteLockService, LockServiceImplMBean, Closeable {
+@ThreadSafe public final class LockServiceImpl implements AsyncLockService, RemoteLockService, LockServiceImplMBean, Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(LockServiceImpl.class);
     private static final Logger requestLogger = LoggerFactory.getLogger("lock.request");
@@ -112,6 +118,19 @@ import com.palantir.util.Pair;
     private final ExecutorService executor = PTExecutors.newCachedThreadPool(
             new NamedThreadFactory(LockServiceImpl.class.getName(), true));
 
+    /**
+     * Executor which resumes asynchronous lock requests when a lock they are
+     * waiting for is released. These tasks never block, so a small fixed pool
+     * serves any number of waiting requests.
+     */
+    private final ExecutorService asyncLockExecutor = PTExecutors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new NamedThreadFactory(LockServiceImpl.class.getName() + ".async", true));
+
+    /** Executor which times out asynchronous lock requests. */
+    private final ScheduledExecutorService asyncLockTimeoutExecutor = PTExecutors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory(LockServiceImpl.class.getName() + ".asyncTimeout", true));
+
     private static final Function<HeldLocksToken, String> TOKEN_TO_ID =
             new Function<HeldLocksToken, String>() {
         @Override
@@ -179,13 +198,13 @@ import com.palantir.util.Pair;
     private final ConcurrentMap<HeldLocksGrant, HeldLocks<HeldLocksGrant>> heldLocksGrantMap =
             new MapMaker().makeMap();
 
-    /** The priority queue of lock tokens waiting to be reaped. */
-    private final BlockingQueue<HeldLocksToken> lockTokenReaperQueue =
-            new PriorityBlockingQueue<HeldLocksToken>(1, ExpiringToken.COMPARATOR);
+    /** The timing wheel of lock tokens waiting to be reaped. */
+    private final TimingWheel<HeldLocksToken> lockTokenReaperWheel =
+            new TimingWheel<HeldLocksToken>(REAPER_TICK_MILLIS, System.currentTimeMillis());
 
-    /** The priority queue of lock grants waiting to be reaped. */
-    private final BlockingQueue<HeldLocksGrant> lockGrantReaperQueue =
-            new PriorityBlockingQueue<HeldLocksGrant>(1, ExpiringToken.COMPARATOR);
+    /** The timing wheel of lock grants waiting to be reaped. */
+    private final TimingWheel<HeldLocksGrant> lockGrantReaperWheel =
+            new TimingWheel<HeldLocksGrant>(REAPER_TICK_MILLIS, System.currentTimeMillis());
 
     /** The mapping from lock client to the set of tokens held by that client. */
     private final SetMultimap<LockClient, HeldLocksToken> lockClientMultimap =
@@ -197,6 +216,9 @@ import com.palantir.util.Pair;
     private final Set<Thread> indefinitelyBlockingThreads =
             Sets.newConcurrentHashSet();
 
+    private final Set<AsyncLockAttempt> pendingAsyncLockAttempts =
+            Sets.newConcurrentHashSet();
+
     private final Multimap<LockClient, Long> versionIdMap = Multimaps.synchronizedMultimap(
             Multimaps.newMultimap(Maps.<LockClient, Collection<Long>>newHashMap(), new Supplier<TreeMultiset<Long>>() {
                 @Override
@@ -208,6 +230,7 @@ import com.palantir.util.Pair;
     private static final AtomicInteger instanceCount = new AtomicInteger();
     private static final int MAX_FAILED_LOCKS_TO_LOG = 20;
     private static final int MAX_LOCKS_TO_LOG = 10000;
+    private static final long REAPER_TICK_MILLIS = 10;
 
     /** Creates a new lock server instance with default options. */
     // TODO (jtamer) read lock server options from a prefs file
@@ -243,14 +266,14 @@ import com.palantir.util.Pair;
             @Override
             public void run() {
                 Thread.currentThread().setName("Held Locks Token Reaper");
-                reapLocks(lockTokenReaperQueue, heldLocksTokenMap);
+                reapLocks(lockTokenReaperWheel, heldLocksTokenMap);
             }
         });
         executor.execute(new Runnable() {
             @Override
             public void run() {
                 Thread.currentThread().setName("Held Locks Grant Reaper");
-                reapLocks(lockGrantReaperQueue, heldLocksGrantMap);
+                reapLocks(lockGrantReaperWheel, heldLocksGrantMap);
             }
         });
     }
@@ -266,7 +289,7 @@ import com.palantir.util.Pair;
                     expirationDateMs, lockDescriptorMap, lockTimeout, versionId);
             HeldLocks<HeldLocksToken> heldLocks = HeldLocks.of(token, heldLocksMap);
             if (heldLocksTokenMap.putIfAbsent(token, heldLocks) == null) {
-                lockTokenReaperQueue.add(token);
+                scheduleReaping(lockTokenReaperWheel, token);
                 if (!client.isAnonymous()) {
                     lockClientMultimap.put(client, token);
                 }
@@ -288,7 +311,7 @@ import com.palantir.util.Pair;
                     expirationDateMs, lockDescriptorMap, lockTimeout, versionId);
             HeldLocks<HeldLocksGrant> newHeldLocks = HeldLocks.of(grant, heldLocksMap);
             if (heldLocksGrantMap.putIfAbsent(grant, newHeldLocks) == null) {
-                lockGrantReaperQueue.add(grant);
+                scheduleReaping(lockGrantReaperWheel, grant);
                 return grant;
             }
             log.error("Lock ID collision! The RANDOM_BIT_COUNT constant must be increased. "
@@ -311,17 +334,60 @@ import com.palantir.util.Pair;
         return result.getToken();
     }
 
+    /**
+     * The requests in a batch are started together through
+     * {@link #lockWithFullLockResponseAsync}, so a blocked request never delays
+     * the others from acquiring their locks, and only the calling thread waits.
+     */
+    @Override
+    public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests) throws InterruptedException {
+        for (LockRequest request : requests) {
+            Preconditions.checkArgument(request.getLockGroupBehavior() == LockGroupBehavior.LOCK_ALL_OR_NONE,
+                    "lockBatch() only supports LockGroupBehavior.LOCK_ALL_OR_NONE.");
+        }
+        LockClient lockClient = LockClient.of(client);
+        List<ListenableFuture<LockResponse>> futures = Lists.newArrayListWithCapacity(requests.size());
+        boolean isSuccessful = false;
+        try {
+            for (LockRequest request : requests) {
+                futures.add(lockWithFullLockResponseAsync(lockClient, request));
+            }
+            List<LockRefreshToken> tokens = Lists.newArrayListWithCapacity(requests.size());
+            for (ListenableFuture<LockResponse> future : futures) {
+                LockResponse response = future.get();
+                tokens.add(response.success() ? response.getLockRefreshToken() : null);
+            }
+            isSuccessful = true;
+            return tokens;
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        } finally {
+            if (!isSuccessful) {
+                for (ListenableFuture<LockResponse> future : futures) {
+                    releaseAsyncLockResponse(future);
+                }
+            }
+        }
+    }
+
+    /** Abandons the given request, releasing its locks if they have already been granted. */
+    private void releaseAsyncLockResponse(ListenableFuture<LockResponse> future) {
+        if (future.cancel(false)) {
+            return;
+        }
+        try {
+            LockResponse response = Futures.getUnchecked(future);
+            if (response.success()) {
+                unlock(response.getToken());
+            }
+        } catch (RuntimeException e) {
+            // The request failed, so it holds no locks.
+        }
+    }
+
     @Override
     public LockResponse lockWithFullLockResponse(LockClient client, LockRequest request) throws InterruptedException {
-        Preconditions.checkNotNull(client);
-        Preconditions.checkArgument(client != INTERNAL_LOCK_GRANT_CLIENT);
-        Preconditions.checkArgument(request.getLockTimeout().compareTo(maxAllowedLockTimeout) <= 0,
-                "Requested lock timeout (%s) is greater than maximum allowed lock timeout (%s)",
-                request.getLockTimeout(), maxAllowedLockTimeout);
-        Preconditions.checkArgument((request.getBlockingMode() != BLOCK_UNTIL_TIMEOUT)
-                || (request.getBlockingDuration().compareTo(maxAllowedBlockingDuration) <= 0),
-                "Requested blocking duration (%s) is greater than maximum allowed blocking duration (%s)",
-                request.getBlockingDuration(), maxAllowedBlockingDuration);
+        checkLockRequest(client, request);
         long startTime = System.currentTimeMillis();
         if (requestLogger.isDebugEnabled()) {
             requestLogger.debug("LockServiceImpl processing lock request {} for requesting thread {}",
@@ -349,76 +415,356 @@ import com.palantir.util.Pair;
             tryLocks(client, request, request.getBlockingMode(), deadline,
                     request.getLockGroupBehavior(), locks, failedLocks);
 
-            if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE) {
-                if (log.isTraceEnabled()) {
-                    log.trace(".lock(" + client + ", " + request + ") returns null");
-                }
-                if (requestLogger.isDebugEnabled()) {
-                    requestLogger.debug("Timed out requesting {} for requesting thread {} after {} ms",
-                            request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+            LockResponse response = createLockResponse(client, request, locks, failedLocks, startTime);
+            if (response.success() && Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while locking.");
+            }
+            return response;
+        } finally {
+            outstandingLockRequestMultimap.remove(client, request);
+            indefinitelyBlockingThreads.remove(Thread.currentThread());
+            releaseUnusedLocks(client, locks);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #lockWithFullLockResponse(LockClient, LockRequest)}.
+     * <p>
+     * A request which cannot be granted immediately is queued on the lock it is
+     * waiting for, and resumes on a lock server thread when that lock is released.
+     * No thread is held while the request is blocked, so the number of outstanding
+     * blocking requests is not bounded by the size of the server thread pool.
+     * <p>
+     * Cancelling the returned future abandons the request and releases any locks
+     * acquired for it so far. If the lock server is shut down, all outstanding
+     * futures fail with {@link ServiceNotAvailableException}.
+     */
+    @Override
+    public ListenableFuture<LockResponse> lockWithFullLockResponseAsync(LockClient client, LockRequest request) {
+        checkLockRequest(client, request);
+        if (isShutDown) {
+            return Futures.immediateFailedFuture(new ServiceNotAvailableException("This lock server is shut down."));
+        }
+        if (request.getBlockingMode() == DO_NOT_BLOCK) {
+            try {
+                return Futures.immediateFuture(lockWithFullLockResponse(client, request));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Futures.immediateFailedFuture(e);
+            } catch (RuntimeException e) {
+                return Futures.immediateFailedFuture(e);
+            }
+        }
+        if (requestLogger.isDebugEnabled()) {
+            requestLogger.debug("LockServiceImpl processing async lock request {} for requesting thread {}",
+                    request, request.getCreatingThreadName());
+        }
+        AsyncLockAttempt attempt = new AsyncLockAttempt(client, request);
+        attempt.start();
+        return attempt.future;
+    }
+
+    /** Returns the number of lock requests which are currently blocked in {@link #lockWithFullLockResponseAsync}. */
+    @Override
+    public int getPendingAsyncLockRequestCount() {
+        return pendingAsyncLockAttempts.size();
+    }
+
+    private void checkLockRequest(LockClient client, LockRequest request) {
+        Preconditions.checkNotNull(client);
+        Preconditions.checkArgument(client != INTERNAL_LOCK_GRANT_CLIENT);
+        Preconditions.checkArgument(request.getLockTimeout().compareTo(maxAllowedLockTimeout) <= 0,
+                "Requested lock timeout (%s) is greater than maximum allowed lock timeout (%s)",
+                request.getLockTimeout(), maxAllowedLockTimeout);
+        Preconditions.checkArgument((request.getBlockingMode() != BLOCK_UNTIL_TIMEOUT)
+                || (request.getBlockingDuration().compareTo(maxAllowedBlockingDuration) <= 0),
+                "Requested blocking duration (%s) is greater than maximum allowed blocking duration (%s)",
+                request.getBlockingDuration(), maxAllowedBlockingDuration);
+    }
+
+    /**
+     * Creates the response for a lock request once every lock has either been
+     * acquired or has failed. On success the locks are handed over to a new
+     * token and {@code locks} is cleared; otherwise the caller remains
+     * responsible for releasing them.
+     */
+    private LockResponse createLockResponse(LockClient client, LockRequest request,
+            Map<ClientAwareReadWriteLock, LockMode> locks, Map<LockDescriptor, LockClient> failedLocks,
+            long startTime) {
+        if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE) {
+            if (log.isTraceEnabled()) {
+                log.trace(".lock(" + client + ", " + request + ") returns null");
+            }
+            if (requestLogger.isDebugEnabled()) {
+                requestLogger.debug("Timed out requesting {} for requesting thread {} after {} ms",
+                        request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+            }
+            return new LockResponse(failedLocks);
+        }
+
+        if (locks.isEmpty() || ((request.getLockGroupBehavior() == LOCK_ALL_OR_NONE)
+                && (locks.size() < request.getLockDescriptors().size()))) {
+            if (log.isTraceEnabled()) {
+                log.trace(".lock(" + client + ", " + request + ") returns null");
+            }
+            if (requestLogger.isDebugEnabled()) {
+                requestLogger.debug("Failed to acquire all locks for {} for requesting thread {} after {} ms",
+                        request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+            }
+            if (requestLogger.isTraceEnabled()) {
+                StringBuilder sb = new StringBuilder("Current holders of the first ").append(
+                        MAX_FAILED_LOCKS_TO_LOG).append(" of ").append(failedLocks.size()).append(
+                        " total failed locks were: [");
+                Iterator<Entry<LockDescriptor, LockClient>> entries = failedLocks.entrySet().iterator();
+                for (int i = 0; i < MAX_FAILED_LOCKS_TO_LOG; i++) {
+                    if (entries.hasNext()) {
+                        Entry<LockDescriptor, LockClient> entry = entries.next();
+                        sb.append(" Lock: ").append(entry.getKey().toString()).append(
+                                ", Holder: ").append(entry.getValue().toString()).append(";");
+                    }
                 }
-                return new LockResponse(failedLocks);
+                sb.append(" ]");
+                requestLogger.trace(sb.toString());
+            }
+            return new LockResponse(null, failedLocks);
+        }
+
+        Builder<LockDescriptor, LockMode> lockDescriptorMap = ImmutableSortedMap.naturalOrder();
+        for (Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
+            lockDescriptorMap.put(entry.getKey().getDescriptor(), entry.getValue());
+        }
+        if (request.getVersionId() != null) {
+            versionIdMap.put(client, request.getVersionId());
+        }
+        HeldLocksToken token = createHeldLocksToken(client, LockCollections.of(lockDescriptorMap.build()), LockCollections.of(locks),
+                request.getLockTimeout(), request.getVersionId());
+        locks.clear();
+        if (log.isTraceEnabled()) {
+            log.trace(".lock(" + client + ", " + request + ") returns " + token);
+        }
+        if (requestLogger.isDebugEnabled()) {
+            requestLogger.debug("Successfully acquired locks {} for requesting thread {} after {} ms",
+                    request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+        }
+        return new LockResponse(token, failedLocks);
+    }
+
+    private void releaseUnusedLocks(LockClient client, Map<ClientAwareReadWriteLock, LockMode> locks) {
+        try {
+            for (Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
+                entry.getKey().get(client, entry.getValue()).unlock();
             }
+            locks.clear();
+        } catch (Throwable e) { // (authorized)
+            log.error("Internal lock server error: state has been corrupted!!", e);
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    /**
+     * The state of a single request made through {@link #lockWithFullLockResponseAsync}.
+     * <p>
+     * Locks are acquired in the same order as the blocking path, holding the
+     * earlier locks while waiting for later ones. Whenever a lock cannot be
+     * acquired, the attempt registers itself as an async waiter on that lock and
+     * returns; it is resumed on {@link #asyncLockExecutor} when the lock is
+     * released, or on {@link #asyncLockTimeoutExecutor} when its blocking
+     * duration runs out.
+     */
+    private final class AsyncLockAttempt {
+        final LockClient client;
+        final LockRequest request;
+        final SettableFuture<LockResponse> future = SettableFuture.create();
+        final long startTime = System.currentTimeMillis();
+        final List<Entry<LockDescriptor, LockMode>> entries;
+        @Nullable final Long deadline;
+        @GuardedBy("this") final Map<ClientAwareReadWriteLock, LockMode> locks = Maps.newLinkedHashMap();
+        @GuardedBy("this") final Map<LockDescriptor, LockClient> failedLocks = Maps.newHashMap();
+        @GuardedBy("this") int index = 0;
+        // Incremented every time the attempt moves on, so that stale wake ups are ignored.
+        @GuardedBy("this") long generation = 0;
+        @GuardedBy("this") boolean isDone = false;
+        @GuardedBy("this") boolean isTimedOut = false;
+        @GuardedBy("this") @Nullable ScheduledFuture<?> timeoutTask;
+        // The lock this attempt is currently queued on, and the waiter it queued there.
+        @GuardedBy("this") @Nullable ClientAwareReadWriteLock waitingLock;
+        @GuardedBy("this") @Nullable Runnable waiter;
+
+        AsyncLockAttempt(LockClient client, LockRequest request) {
+            this.client = client;
+            this.request = request;
+            this.entries = ImmutableList.copyOf(request.getLockDescriptors().entries());
+            this.deadline = (request.getBlockingDuration() == null) ? null
+                    : System.nanoTime() + request.getBlockingDuration().toNanos();
+        }
 
-            if (locks.isEmpty() || ((request.getLockGroupBehavior() == LOCK_ALL_OR_NONE)
-                    && (locks.size() < request.getLockDescriptors().size()))) {
-                if (log.isTraceEnabled()) {
-                    log.trace(".lock(" + client + ", " + request + ") returns null");
+        synchronized void start() {
+            pendingAsyncLockAttempts.add(this);
+            outstandingLockRequestMultimap.put(client, request);
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isCancelled()) {
+                        abandon();
+                    }
                 }
-                if (requestLogger.isDebugEnabled()) {
-                    requestLogger.debug("Failed to acquire all locks for {} for requesting thread {} after {} ms",
-                            request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+            }, MoreExecutors.sameThreadExecutor());
+            try {
+                if (request.getBlockingMode() == BLOCK_UNTIL_TIMEOUT
+                        && request.getLockGroupBehavior() == LOCK_AS_MANY_AS_POSSIBLE) {
+                    tryLocks(client, request, DO_NOT_BLOCK, null, LOCK_AS_MANY_AS_POSSIBLE, locks, failedLocks);
                 }
-                if (requestLogger.isTraceEnabled()) {
-                    StringBuilder sb = new StringBuilder("Current holders of the first ").append(
-                            MAX_FAILED_LOCKS_TO_LOG).append(" of ").append(failedLocks.size()).append(
-                            " total failed locks were: [");
-                    Iterator<Entry<LockDescriptor, LockClient>> entries = failedLocks.entrySet().iterator();
-                    for (int i = 0; i < MAX_FAILED_LOCKS_TO_LOG; i++) {
-                        if (entries.hasNext()) {
-                            Entry<LockDescriptor, LockClient> entry = entries.next();
-                            sb.append(" Lock: ").append(entry.getKey().toString()).append(
-                                    ", Holder: ").append(entry.getValue().toString()).append(";");
+                if (deadline != null) {
+                    timeoutTask = asyncLockTimeoutExecutor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            timeOut();
                         }
-                    }
-                    sb.append(" ]");
-                    requestLogger.trace(sb.toString());
+                    }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
                 }
-                return new LockResponse(null, failedLocks);
+                advance();
+            } catch (Throwable t) {
+                fail(t);
             }
+        }
 
-            Builder<LockDescriptor, LockMode> lockDescriptorMap = ImmutableSortedMap.naturalOrder();
-            for (Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
-                lockDescriptorMap.put(entry.getKey().getDescriptor(), entry.getValue());
+        synchronized void timeOut() {
+            isTimedOut = true;
+            resume(generation);
+        }
+
+        /** Called when the lock this attempt is queued on has been released. */
+        synchronized void wake(long expectedGeneration) {
+            if (!isDone && expectedGeneration == generation) {
+                // The lock has already dropped the waiter which is waking us up.
+                waitingLock = null;
+                waiter = null;
             }
-            if (request.getVersionId() != null) {
-                versionIdMap.put(client, request.getVersionId());
+            resume(expectedGeneration);
+        }
+
+        /** Continues this attempt if it is still waiting in the given generation. */
+        synchronized void resume(long expectedGeneration) {
+            if (isDone || expectedGeneration != generation) {
+                return;
             }
-            HeldLocksToken token = createHeldLocksToken(client, LockCollections.of(lockDescriptorMap.build()), LockCollections.of(locks),
-                    request.getLockTimeout(), request.getVersionId());
-            locks.clear();
-            if (log.isTraceEnabled()) {
-                log.trace(".lock(" + client + ", " + request + ") returns " + token);
+            try {
+                advance();
+            } catch (Throwable t) {
+                fail(t);
             }
-            if (Thread.interrupted()) {
-                throw new InterruptedException("Interrupted while locking.");
+        }
+
+        @GuardedBy("this")
+        private void advance() {
+            while (index < entries.size()) {
+                Entry<LockDescriptor, LockMode> entry = entries.get(index);
+                if (request.getBlockingMode() == BlockingMode.BLOCK_INDEFINITELY_THEN_RELEASE
+                        && !descriptorToLockMap.asMap().containsKey(entry.getKey())) {
+                    index++;
+                    continue;
+                }
+                ClientAwareReadWriteLock lock = descriptorToLockMap.getUnchecked(entry.getKey());
+                if (locks.containsKey(lock)) {
+                    index++;
+                    continue;
+                }
+                @Nullable LockClient currentHolder = lock.get(client, entry.getValue()).tryLock();
+                if (currentHolder == null) {
+                    locks.put(lock, entry.getValue());
+                    index++;
+                    generation++;
+                    removeWaiter();
+                } else if (isTimedOut || (deadline != null && deadline - System.nanoTime() <= 0)) {
+                    failedLocks.put(entry.getKey(), currentHolder);
+                    if (request.getLockGroupBehavior() == LOCK_ALL_OR_NONE) {
+                        break;
+                    }
+                    index++;
+                    generation++;
+                    removeWaiter();
+                } else if (waiter == null) {
+                    // Register before retrying once more, so that a release which
+                    // happens in between cannot be missed.
+                    waitingLock = lock;
+                    waiter = newWaiter(generation);
+                    lock.addAsyncWaiter(waiter);
+                } else {
+                    return;
+                }
             }
-            if (requestLogger.isDebugEnabled()) {
-                requestLogger.debug("Successfully acquired locks {} for requesting thread {} after {} ms",
-                        request, request.getCreatingThreadName(), System.currentTimeMillis() - startTime);
+            complete();
+        }
+
+        /**
+         * Takes this attempt's waiter off the lock it was queued on, so that
+         * abandoned or finished attempts do not pile up on contended locks.
+         */
+        @GuardedBy("this")
+        private void removeWaiter() {
+            if (waiter != null) {
+                waitingLock.removeAsyncWaiter(waiter);
+                waitingLock = null;
+                waiter = null;
             }
-            return new LockResponse(token, failedLocks);
-        } finally {
-            outstandingLockRequestMultimap.remove(client, request);
-            indefinitelyBlockingThreads.remove(Thread.currentThread());
-            try {
-                for (Entry<ClientAwareReadWriteLock, LockMode> entry : locks.entrySet()) {
-                    entry.getKey().get(client, entry.getValue()).unlock();
+        }
+
+        private Runnable newWaiter(final long waitingGeneration) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        asyncLockExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                wake(waitingGeneration);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // Outstanding requests are failed by close().
+                        if (!isShutDown) {
+                            log.error("Could not resume an asynchronous lock request.", e);
+                        }
+                    }
                 }
-            } catch (Throwable e) { // (authorized)
-                log.error("Internal lock server error: state has been corrupted!!", e);
-                throw Throwables.throwUncheckedException(e);
+            };
+        }
+
+        @GuardedBy("this")
+        private void complete() {
+            LockResponse response = createLockResponse(client, request, locks, failedLocks, startTime);
+            finish();
+            if (!future.set(response) && response.success()) {
+                // The request was cancelled concurrently, so nobody will ever use this token.
+                unlock(response.getToken());
+            }
+        }
+
+        synchronized void fail(Throwable t) {
+            if (isDone) {
+                return;
             }
+            finish();
+            future.setException(t);
+        }
+
+        synchronized void abandon() {
+            if (!isDone) {
+                finish();
+            }
+        }
+
+        @GuardedBy("this")
+        private void finish() {
+            isDone = true;
+            generation++;
+            removeWaiter();
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+            }
+            pendingAsyncLockAttempts.remove(this);
+            outstandingLockRequestMultimap.remove(client, request);
+            releaseUnusedLocks(client, locks);
         }
     }
 
@@ -500,6 +846,17 @@ import com.palantir.util.Pair;
         return unlockSimple(SimpleHeldLocksToken.fromLockRefreshToken(token));
     }
 
+    @Override
+    public Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens) {
+        ImmutableSet.Builder<LockRefreshToken> unlocked = ImmutableSet.builder();
+        for (LockRefreshToken token : tokens) {
+            if (unlock(token)) {
+                unlocked.add(token);
+            }
+        }
+        return unlocked.build();
+    }
+
     @Override
     public boolean unlock(HeldLocksToken token) {
         Preconditions.checkNotNull(token);
@@ -538,7 +895,7 @@ import com.palantir.util.Pair;
         LockClient client = heldLocks.realToken.getClient();
         if (client.isAnonymous()) {
             heldLocksTokenMap.put(token, heldLocks);
-            lockTokenReaperQueue.add(token);
+            scheduleReaping(lockTokenReaperWheel, token);
             String errorMessage =
                     "Received .unlockAndFreeze() call for anonymous client with token "
                     + heldLocks.realToken;
@@ -547,7 +904,7 @@ import com.palantir.util.Pair;
         }
         if (heldLocks.locks.hasReadLock()) {
             heldLocksTokenMap.put(token, heldLocks);
-            lockTokenReaperQueue.add(token);
+            scheduleReaping(lockTokenReaperWheel, token);
             String errorMessage = "Received .unlockAndFreeze() call for read locks: "
                     + heldLocks.realToken;
             log.warn(errorMessage);
@@ -760,7 +1117,7 @@ import com.palantir.util.Pair;
         }
         if (isFrozen(heldLocks.locks.getKeys())) {
             heldLocksTokenMap.put(token, heldLocks);
-            lockTokenReaperQueue.add(token);
+            scheduleReaping(lockTokenReaperWheel, token);
             log.warn("Cannot convert to grant because token is frozen: " + token);
             throw new IllegalArgumentException("token is frozen: " + token);
         }
@@ -769,7 +1126,7 @@ import com.palantir.util.Pair;
                     INTERNAL_LOCK_GRANT_CLIENT);
         } catch (IllegalMonitorStateException e) {
             heldLocksTokenMap.put(token, heldLocks);
-            lockTokenReaperQueue.add(token);
+            scheduleReaping(lockTokenReaperWheel, token);
             log.warn("Failure converting " + token + " to grant", e);
             throw e;
         }
@@ -893,41 +1250,35 @@ import com.palantir.util.Pair;
         return versionId;
     }
 
-    private <T extends ExpiringToken> void reapLocks(BlockingQueue<T> queue,
+    private <T extends ExpiringToken> void scheduleReaping(TimingWheel<T> wheel, T token) {
+        wheel.add(token, token.getExpirationDateMs() + maxAllowedClockDrift.toMillis());
+    }
+
+    /**
+     * Expires the tokens in the given wheel one tick at a time. Tokens which
+     * have been refreshed since they were scheduled are put back into the wheel
+     * at their new expiration date, which is O(1).
+     */
+    private <T extends ExpiringToken> void reapLocks(TimingWheel<T> wheel,
             ConcurrentMap<T, HeldLocks<T>> heldLocksMap) {
         while (true) {
             try {
-                T token = null;
+                List<T> expiredTokens;
                 try {
-                    token = queue.take();
-                    long sleepTimeMs = token.getExpirationDateMs() - currentTimeMillis()
-                            + maxAllowedClockDrift.toMillis();
-                    if (sleepTimeMs > 0) {
-                        Thread.sleep(sleepTimeMs);
-                    }
+                    wheel.awaitNotEmpty();
+                    Thread.sleep(wheel.getTickMillis());
+                    expiredTokens = wheel.advance(currentTimeMillis());
                 } catch (InterruptedException e) {
                     if (isShutDown) {
                         break;
                     } else {
                         log.warn("The lock server reaper thread should not be " +
                                 "interrupted if the server is not shutting down.", e);
-                        if (token == null) {
-                            continue;
-                        }
+                        continue;
                     }
                 }
-                @Nullable HeldLocks<T> heldLocks = heldLocksMap.get(token);
-                if (heldLocks == null) {
-                    continue;
-                }
-                T realToken = heldLocks.realToken;
-                if (realToken.getExpirationDateMs() > currentTimeMillis()
-                        - maxAllowedClockDrift.toMillis()) {
-                    queue.add(realToken);
-                } else {
-                    log.warn("Lock token " + realToken
-                            + " was not properly refreshed and is now being reaped.");
-                    unlockInternal(realToken, heldLocksMap);
+                for (T token : expiredTokens) {
+                    reapLockIfExpired(token, wheel, heldLocksMap);
                 }
             } catch (Throwable t) {
                 log.error("Something went wrong while reaping locks. Attempting to continue anyway.", t);
@@ -935,6 +1286,27 @@ import com.palantir.util.Pair;
         }
     }
 
+    private <T extends ExpiringToken> void reapLockIfExpired(T token, TimingWheel<T> wheel,
+            ConcurrentMap<T, HeldLocks<T>> heldLocksMap) {
+        try {
+            @Nullable HeldLocks<T> heldLocks = heldLocksMap.get(token);
+            if (heldLocks == null) {
+                return;
+            }
+            T realToken = heldLocks.realToken;
+            if (realToken.getExpirationDateMs() > currentTimeMillis()
+                    - maxAllowedClockDrift.toMillis()) {
+                scheduleReaping(wheel, realToken);
+            } else {
+                log.warn("Lock token " + realToken
+                        + " was not properly refreshed and is now being reaped.");
+                unlockInternal(realToken, heldLocksMap);
+            }
+        } catch (Throwable t) {
+            log.error("Something went wrong while reaping lock token " + token + ". Attempting to continue anyway.", t);
+        }
+    }
+
     @Override
     public LockServerOptions getLockServerOptions() {
         LockServerOptions options = new LockServerOptions() {
@@ -961,17 +1333,6 @@ import com.palantir.util.Pair;
         return options;
     }
 
-    private <T> List<T> queueToOrderedList(Queue<T> queue) {
-        List<T> list = Lists.newLinkedList();
-        while (!queue.isEmpty()) {
-            list.add(queue.poll());
-        }
-        for (T element : list) {
-            queue.add(element);
-        }
-        return list;
-    }
-
     /**
      * Prints the current state of the lock server to the logs. Useful for
      * debugging.
@@ -988,10 +1349,11 @@ import com.palantir.util.Pair;
         for (Pair<String, ? extends Collection<?>> nameValuePair : ImmutableList.of(
                 Pair.create("descriptorToLockMap", descriptorToLockMap.asMap().entrySet()),
                 Pair.create("outstandingLockRequestMultimap", outstandingLockRequestMultimap.asMap().entrySet()),
+                Pair.create("pendingAsyncLockAttempts", ImmutableList.copyOf(pendingAsyncLockAttempts)),
                 Pair.create("heldLocksTokenMap", heldLocksTokenMap.entrySet()),
                 Pair.create("heldLocksGrantMap", heldLocksGrantMap.entrySet()),
-                Pair.create("lockTokenReaperQueue", queueToOrderedList(lockTokenReaperQueue)),
-                Pair.create("lockGrantReaperQueue", queueToOrderedList(lockGrantReaperQueue)),
+                Pair.create("lockTokenReaperWheel", lockTokenReaperWheel.toList()),
+                Pair.create("lockGrantReaperWheel", lockGrantReaperWheel.toList()),
                 Pair.create("lockClientMultimap", lockClientMultimap.asMap().entrySet()),
                 Pair.create("versionIdMap", versionIdMap.asMap().entrySet()))) {
             Collection<?> elements = nameValuePair.getRhSide();
@@ -1012,7 +1374,10 @@ import com.palantir.util.Pair;
     public void close() {
         isShutDown = true;
         executor.shutdownNow();
+        asyncLockExecutor.shutdownNow();
+        asyncLockTimeoutExecutor.shutdownNow();
         wakeIndefiniteBlockers();
+        failPendingAsyncLockAttempts();
         callOnClose.run();
     }
 
@@ -1022,6 +1387,12 @@ import com.palantir.util.Pair;
         }
     }
 
+    private void failPendingAsyncLockAttempts() {
+        for (AsyncLockAttempt attempt : pendingAsyncLockAttempts) {
+            attempt.fail(new ServiceNotAvailableException("This lock server is shut down."));
+        }
+    }
+
     @Override
     public long currentTimeMillis() {
         return System.currentTimeMillis();
@@ -17,4 +17,6 @@ package com.palantir.lock.impl;
 
 public interface LockServiceImplMBean {
     void logCurrentState();
+
+    int getPendingAsyncLockRequestCount();
 }
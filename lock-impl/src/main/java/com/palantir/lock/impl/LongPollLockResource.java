@@ -0,0 +1,256 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.MediaType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.lock.AsyncLockService;
+import com.palantir.lock.HeldLocksToken;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LockResponse;
+import com.palantir.lock.LockServerOptions;
+import com.palantir.lock.LongPollLockResponse;
+
+/**
+ * Server side of {@link com.palantir.lock.LongPollLockService}.
+ * <p>
+ * Lock requests are handed to {@link AsyncLockService#lockWithFullLockResponseAsync}
+ * and the HTTP request is suspended until the locks are granted or the poll
+ * timeout elapses, so no server thread is held while a request is blocked.
+ * Requests which are neither polled nor cancelled for several poll timeouts are
+ * abandoned, and any locks granted to them are released.
+ * <p>
+ * Responses are sent on a thread of this resource rather than the lock service
+ * thread which granted the locks, so that a slow client cannot hold up the lock
+ * service.
+ * <p>
+ * On a leader-elected lock server the given service should be the same
+ * leadership proxy that serves {@link com.palantir.lock.RemoteLockService}, so
+ * that only the leader grants locks.
+ */
+@Path("/lock-long-poll")
+public class LongPollLockResource implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(LongPollLockResource.class);
+
+    private static final int ABANDONED_REQUEST_POLL_TIMEOUTS = 3;
+
+    private final AsyncLockService lockService;
+    private final long pollTimeoutMillis;
+    private final ConcurrentMap<String, PendingRequest> pendingRequests = Maps.newConcurrentMap();
+    private final ScheduledExecutorService reaper = PTExecutors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory(LongPollLockResource.class.getName() + ".reaper", true));
+    private final ExecutorService responder = PTExecutors.newCachedThreadPool(
+            new NamedThreadFactory(LongPollLockResource.class.getName() + ".responder", true));
+
+    /**
+     * @param options the options of the lock server behind {@code lockService}, which
+     *        give the poll timeout
+     */
+    public LongPollLockResource(AsyncLockService lockService, LockServerOptions options) {
+        this(lockService, options.getLongPollTimeout().toMillis());
+    }
+
+    public LongPollLockResource(AsyncLockService lockService, long pollTimeoutMillis) {
+        this.lockService = lockService;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        reaper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reapAbandonedRequests();
+                } catch (Throwable t) {
+                    log.error("Failed to reap abandoned lock requests", t);
+                }
+            }
+        }, pollTimeoutMillis, pollTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @POST
+    @Path("lock/{client: .*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void lock(@PathParam("client") String client, LockRequest request,
+                     @Suspended AsyncResponse asyncResponse) {
+        String requestId = UUID.randomUUID().toString();
+        ListenableFuture<LockResponse> future =
+                lockService.lockWithFullLockResponseAsync(LockClient.of(client), request);
+        PendingRequest pending = new PendingRequest(requestId, future);
+        pendingRequests.put(requestId, pending);
+        await(requestId, pending, asyncResponse);
+        Futures.addCallback(future, pending, responder);
+    }
+
+    @POST
+    @Path("poll/{requestId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void poll(@PathParam("requestId") String requestId, @Suspended AsyncResponse asyncResponse) {
+        PendingRequest pending = pendingRequests.get(requestId);
+        if (pending == null) {
+            asyncResponse.resume(new NotFoundException("Unknown lock request " + requestId));
+            return;
+        }
+        await(requestId, pending, asyncResponse);
+    }
+
+    @POST
+    @Path("cancel/{requestId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public boolean cancel(@PathParam("requestId") String requestId) {
+        PendingRequest pending = pendingRequests.remove(requestId);
+        if (pending == null) {
+            return false;
+        }
+        pending.release();
+        return true;
+    }
+
+    private void await(final String requestId, final PendingRequest pending, final AsyncResponse asyncResponse) {
+        pending.lastPolledMillis = System.currentTimeMillis();
+        asyncResponse.setTimeoutHandler(new TimeoutHandler() {
+            @Override
+            public void handleTimeout(AsyncResponse response) {
+                response.resume(LongPollLockResponse.pending(requestId));
+            }
+        });
+        asyncResponse.setTimeout(pollTimeoutMillis, TimeUnit.MILLISECONDS);
+        pending.asyncResponse = asyncResponse;
+        if (pending.future.isDone()) {
+            pending.respond();
+        }
+    }
+
+    private void reapAbandonedRequests() {
+        long cutoff = System.currentTimeMillis() - ABANDONED_REQUEST_POLL_TIMEOUTS * pollTimeoutMillis;
+        for (Map.Entry<String, PendingRequest> entry : pendingRequests.entrySet()) {
+            PendingRequest pending = entry.getValue();
+            if (pending.lastPolledMillis < cutoff && pendingRequests.remove(entry.getKey(), pending)) {
+                log.warn("Abandoning lock request {} which has not been polled for {} ms",
+                        entry.getKey(), System.currentTimeMillis() - pending.lastPolledMillis);
+                try {
+                    pending.release();
+                } catch (RuntimeException e) {
+                    // Typically because this server has lost leadership, which releases the locks anyway.
+                    log.warn("Could not release abandoned lock request {}", entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        responder.shutdown();
+        for (String requestId : pendingRequests.keySet()) {
+            cancel(requestId);
+        }
+    }
+
+    /**
+     * A lock request and the poll currently waiting for it.  It is registered once as
+     * the callback of the request's future, and responds to whichever poll is waiting
+     * when the future completes.
+     */
+    private final class PendingRequest implements FutureCallback<LockResponse> {
+        final String requestId;
+        final ListenableFuture<LockResponse> future;
+        volatile long lastPolledMillis;
+        volatile AsyncResponse asyncResponse;
+
+        PendingRequest(String requestId, ListenableFuture<LockResponse> future) {
+            this.requestId = requestId;
+            this.future = future;
+        }
+
+        @Override
+        public void onSuccess(LockResponse result) {
+            respond();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            respond();
+        }
+
+        /**
+         * Sends the result of the completed request to the waiting poll.  Both the
+         * callback and a new poll call this, so a poll which arrives as the request
+         * completes is still answered; resuming an already resumed poll has no effect.
+         * If the poll already timed out, the result is kept for the next poll.
+         */
+        void respond() {
+            AsyncResponse response = asyncResponse;
+            boolean resumed;
+            try {
+                resumed = response.resume(LongPollLockResponse.done(requestId, Futures.getUnchecked(future).getToken()));
+            } catch (UncheckedExecutionException e) {
+                resumed = response.resume(e.getCause());
+            } catch (CancellationException e) {
+                resumed = response.resume(e);
+            }
+            if (resumed) {
+                pendingRequests.remove(requestId, this);
+            }
+        }
+
+        /**
+         * Cancels the request if it is still waiting, or releases its locks if
+         * they were granted but never delivered.
+         */
+        void release() {
+            if (future.cancel(false)) {
+                return;
+            }
+            HeldLocksToken token;
+            try {
+                token = Futures.getUnchecked(future).getToken();
+            } catch (UncheckedExecutionException e) {
+                return;
+            }
+            if (token != null) {
+                lockService.unlock(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * A hierarchical timing wheel which holds elements until their deadline passes.
+ * <p>
+ * Time is divided into ticks of {@code tickMillis}. Level 0 has one bucket per
+ * tick for the next {@value #WHEEL_SIZE} ticks, and every higher level has
+ * buckets {@value #WHEEL_SIZE} times wider than the level below it. Adding an
+ * element is O(1). When the wheel advances, the bucket for the current tick is
+ * expired in bulk, and whenever a lower level wraps around, the next bucket of
+ * the level above is spread over the levels below it.
+ * <p>
+ * Deadlines are only honoured to within one tick, and elements are never
+ * returned before their deadline.
+ */
+@ThreadSafe
+final class TimingWheel<T> {
+    private static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int NUM_LEVELS = (Long.SIZE + WHEEL_BITS - 1) / WHEEL_BITS;
+
+    private final long tickMillis;
+
+    @GuardedBy("this") private final List<Entry<T>>[][] levels;
+    @GuardedBy("this") private long currentTick;
+    @GuardedBy("this") private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long nowMillis) {
+        Preconditions.checkArgument(tickMillis > 0, "tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.levels = new List[NUM_LEVELS][];
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Adds an element which will be returned by {@link #advance(long)} once
+     * {@code deadlineMillis} has passed.
+     */
+    synchronized void add(T element, long deadlineMillis) {
+        // Round up, so that elements never expire early.
+        long deadlineTick = deadlineMillis / tickMillis + (deadlineMillis % tickMillis == 0 ? 0 : 1);
+        addEntry(new Entry<T>(element, Math.max(deadlineTick, currentTick + 1)));
+        if (size++ == 0) {
+            notifyAll();
+        }
+    }
+
+    @GuardedBy("this")
+    private void addEntry(Entry<T> entry) {
+        long deadlineTick = entry.deadlineTick;
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < NUM_LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) (deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+        bucket(level, index).add(entry);
+    }
+
+    @GuardedBy("this")
+    private List<Entry<T>> bucket(int level, int index) {
+        List<Entry<T>>[] buckets = levels[level];
+        if (buckets == null) {
+            buckets = newBuckets();
+            levels[level] = buckets;
+        }
+        List<Entry<T>> bucket = buckets[index];
+        if (bucket == null) {
+            bucket = Lists.newArrayList();
+            buckets[index] = bucket;
+        }
+        return bucket;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<Entry<T>>[] newBuckets() {
+        return new List[WHEEL_SIZE];
+    }
+
+    /**
+     * Advances the wheel to the given time and returns every element whose
+     * deadline has passed.
+     */
+    synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, targetTick);
+            return Collections.emptyList();
+        }
+        List<T> expired = Lists.newArrayList();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(1);
+            List<Entry<T>> bucket = takeBucket(0, (int) currentTick & WHEEL_MASK);
+            if (bucket != null) {
+                for (Entry<T> entry : bucket) {
+                    expired.add(entry.element);
+                }
+            }
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * If every level below {@code level} has just wrapped around, moves the
+     * elements of the current bucket of {@code level} down the wheel.
+     */
+    @GuardedBy("this")
+    private void cascade(int level) {
+        if (level >= NUM_LEVELS
+                || (currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        List<Entry<T>> bucket = takeBucket(level, (int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        if (bucket != null) {
+            for (Entry<T> entry : bucket) {
+                // Every entry in this bucket is due within the span which starts now,
+                // so it always lands in a lower level.
+                addEntry(entry);
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private List<Entry<T>> takeBucket(int level, int index) {
+        List<Entry<T>>[] buckets = levels[level];
+        if (buckets == null) {
+            return null;
+        }
+        List<Entry<T>> bucket = buckets[index];
+        buckets[index] = null;
+        return bucket;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** Blocks until the wheel holds at least one element. */
+    synchronized void awaitNotEmpty() throws InterruptedException {
+        while (size == 0) {
+            wait();
+        }
+    }
+
+    /** Returns every element in the wheel, in no particular order. */
+    synchronized List<T> toList() {
+        List<T> elements = new ArrayList<T>(size);
+        for (List<Entry<T>>[] buckets : levels) {
+            if (buckets != null) {
+                for (List<Entry<T>> bucket : buckets) {
+                    if (bucket != null) {
+                        for (Entry<T> entry : bucket) {
+                            elements.add(entry.element);
+                        }
+                    }
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static final class Entry<T> {
+        final T element;
+        final long deadlineTick;
+
+        Entry(T element, long deadlineTick) {
+            this.element = element;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.lock.ForwardingRemoteLockService;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.RemoteLockService;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.impl.LockServiceImpl;
+
+public class CoalescingRemoteLockServiceTest {
+    private static final String CLIENT = LockClient.ANONYMOUS.getClientId();
+
+    private final ExecutorService executor = PTExecutors.newCachedThreadPool();
+    private final AtomicInteger lockBatchCalls = new AtomicInteger();
+    private LockServiceImpl server;
+    private RemoteLockService lockService;
+
+    @Before public void setUp() {
+        server = LockServiceImpl.create();
+        RemoteLockService countingServer = new ForwardingRemoteLockService() {
+            @Override
+            protected RemoteLockService delegate() {
+                return server;
+            }
+
+            @Override
+            public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests)
+                    throws InterruptedException {
+                lockBatchCalls.incrementAndGet();
+                // Keep each batch in flight for long enough that the next one has to wait for the window.
+                Thread.sleep(20);
+                return super.lockBatch(client, requests);
+            }
+        };
+        lockService = new CoalescingRemoteLockService(countingServer, 50);
+    }
+
+    @After public void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Test public void testConcurrentRequestsShareBatches() throws Exception {
+        int numRequests = 20;
+        List<Future<LockRefreshToken>> futures = Lists.newArrayList();
+        for (int i = 0; i < numRequests; i++) {
+            final LockRequest request = writeLock("lock" + i);
+            futures.add(executor.submit(new Callable<LockRefreshToken>() {
+                @Override
+                public LockRefreshToken call() throws Exception {
+                    return lockService.lock(CLIENT, request);
+                }
+            }));
+        }
+        for (Future<LockRefreshToken> future : futures) {
+            LockRefreshToken token = future.get(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(token);
+            Assert.assertTrue(lockService.unlock(token));
+        }
+        Assert.assertTrue(lockBatchCalls.get() < numRequests);
+    }
+
+    @Test public void testBlockedRequestFallsBackToBlockingLock() throws Exception {
+        final LockRequest request = writeLock("lock");
+        LockRefreshToken held = server.lock(CLIENT, request);
+        Future<LockRefreshToken> future = executor.submit(new Callable<LockRefreshToken>() {
+            @Override
+            public LockRefreshToken call() throws Exception {
+                return lockService.lock(CLIENT, request);
+            }
+        });
+        Thread.sleep(200);
+        Assert.assertFalse(future.isDone());
+        Assert.assertTrue(server.unlock(held));
+        LockRefreshToken token = future.get(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(token);
+        Assert.assertTrue(lockService.unlock(token));
+    }
+
+    @Test public void testLoneRequestIsSentWithoutWaitingForWindow() throws Exception {
+        final RemoteLockService slowWindowService = new CoalescingRemoteLockService(server, TimeUnit.MINUTES.toMillis(10));
+        LockRefreshToken token = executor.submit(new Callable<LockRefreshToken>() {
+            @Override
+            public LockRefreshToken call() throws Exception {
+                return slowWindowService.lock(CLIENT, writeLock("lock"));
+            }
+        }).get(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(token);
+        Assert.assertTrue(server.unlock(token));
+    }
+
+    @Test public void testFallsBackToSingleRequestsWithoutBatchEndpoints() throws Exception {
+        final AtomicInteger batchCalls = new AtomicInteger();
+        RemoteLockService oldServer = new ForwardingRemoteLockService() {
+            @Override
+            protected RemoteLockService delegate() {
+                return server;
+            }
+
+            @Override
+            public List<LockRefreshToken> lockBatch(String client, List<LockRequest> requests) {
+                batchCalls.incrementAndGet();
+                throw new IllegalStateException("404 Not Found");
+            }
+
+            @Override
+            public Set<LockRefreshToken> unlockBatch(List<LockRefreshToken> tokens) {
+                batchCalls.incrementAndGet();
+                throw new IllegalStateException("404 Not Found");
+            }
+        };
+        RemoteLockService fallbackService = new CoalescingRemoteLockService(oldServer, 0);
+        for (int i = 0; i < 3; i++) {
+            LockRefreshToken token = fallbackService.lock(CLIENT, writeLock("lock"));
+            Assert.assertNotNull(token);
+            Assert.assertTrue(fallbackService.unlock(token));
+        }
+        Assert.assertEquals(1, batchCalls.get());
+    }
+
+    @Test public void testWaitForCommitDoesNotBlockBatch() throws Exception {
+        LockRefreshToken held = server.lock(CLIENT, writeLock("lock"));
+        final LockRequest waitRequest = LockRequest.builder(
+                ImmutableSortedMap.of(StringLockDescriptor.of("lock"), LockMode.READ))
+                .lockAndRelease()
+                .build();
+        Future<LockRefreshToken> waiting = executor.submit(new Callable<LockRefreshToken>() {
+            @Override
+            public LockRefreshToken call() throws Exception {
+                return lockService.lock(CLIENT, waitRequest);
+            }
+        });
+        Future<LockRefreshToken> commit = executor.submit(new Callable<LockRefreshToken>() {
+            @Override
+            public LockRefreshToken call() throws Exception {
+                return lockService.lock(CLIENT, writeLock("otherLock"));
+            }
+        });
+        LockRefreshToken token = commit.get(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(token);
+        Assert.assertTrue(lockService.unlock(token));
+        Assert.assertFalse(waiting.isDone());
+
+        Assert.assertTrue(server.unlock(held));
+        waiting.get(10, TimeUnit.SECONDS);
+    }
+
+    private static LockRequest writeLock(String lockName) {
+        return LockRequest.builder(ImmutableSortedMap.of(StringLockDescriptor.of(lockName), LockMode.WRITE)).build();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.LockRefreshToken;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LongPollLockResponse;
+import com.palantir.lock.LongPollLockService;
+import com.palantir.lock.RemoteLockService;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.impl.LockServiceImpl;
+
+public class LongPollingRemoteLockServiceTest {
+    private static final String CLIENT = LockClient.ANONYMOUS.getClientId();
+
+    private final AtomicInteger lockCalls = new AtomicInteger();
+    private final AtomicInteger pollCalls = new AtomicInteger();
+    private LockServiceImpl server;
+
+    @Before public void setUp() {
+        server = LockServiceImpl.create();
+    }
+
+    @After public void tearDown() {
+        server.close();
+    }
+
+    @Test public void testBlockingLockIsLongPolled() throws InterruptedException {
+        RemoteLockService lockService = new LongPollingRemoteLockService(server, new LongPollLockService() {
+            private LockRequest pendingRequest;
+
+            @Override
+            public LongPollLockResponse lock(String client, LockRequest request) {
+                lockCalls.incrementAndGet();
+                pendingRequest = request;
+                return LongPollLockResponse.pending("request");
+            }
+
+            @Override
+            public LongPollLockResponse poll(String requestId) {
+                pollCalls.incrementAndGet();
+                try {
+                    return LongPollLockResponse.done(requestId, server.lockAndGetHeldLocks(CLIENT, pendingRequest));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public boolean cancel(String requestId) {
+                throw new AssertionError("Completed requests should not be cancelled");
+            }
+        });
+        LockRefreshToken token = lockService.lock(CLIENT, request("lock"));
+        Assert.assertNotNull(token);
+        Assert.assertEquals(1, lockCalls.get());
+        Assert.assertEquals(1, pollCalls.get());
+        Assert.assertTrue(server.unlock(token));
+    }
+
+    @Test public void testFallsBackToDelegateWhenLongPollingFails() throws InterruptedException {
+        RemoteLockService lockService = new LongPollingRemoteLockService(server, new LongPollLockService() {
+            @Override
+            public LongPollLockResponse lock(String client, LockRequest request) {
+                lockCalls.incrementAndGet();
+                throw new IllegalStateException("404 Not Found");
+            }
+
+            @Override
+            public LongPollLockResponse poll(String requestId) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public boolean cancel(String requestId) {
+                throw new AssertionError();
+            }
+        });
+        LockRefreshToken first = lockService.lock(CLIENT, request("lock"));
+        Assert.assertNotNull(first);
+        LockRefreshToken second = lockService.lock(CLIENT, request("otherLock"));
+        Assert.assertNotNull(second);
+        // Long polling is not retried straight away.
+        Assert.assertEquals(1, lockCalls.get());
+        Assert.assertTrue(server.unlock(first));
+        Assert.assertTrue(server.unlock(second));
+    }
+
+    private static LockRequest request(String lockName) {
+        return LockRequest.builder(ImmutableSortedMap.of(StringLockDescriptor.of(lockName), LockMode.WRITE)).build();
+    }
+}
@@ -23,6 +23,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -390,6 +391,27 @@ public final class ClientAwareLockTest {
         anonymousWriteLock.unlock();
     }
 
+    /** Tests that removed async waiters are not woken. */
+    @Test public void testRemovedAsyncWaiter() throws InterruptedException {
+        final AtomicInteger wakeUps = new AtomicInteger();
+        Runnable waiter = new Runnable() {
+            @Override
+            public void run() {
+                wakeUps.incrementAndGet();
+            }
+        };
+        readWriteLock.addAsyncWaiter(waiter);
+        readWriteLock.removeAsyncWaiter(waiter);
+        knownClientWriteLock.lock();
+        knownClientWriteLock.unlock();
+        Assert.assertEquals(0, wakeUps.get());
+
+        readWriteLock.addAsyncWaiter(waiter);
+        knownClientWriteLock.lock();
+        knownClientWriteLock.unlock();
+        Assert.assertEquals(1, wakeUps.get());
+    }
+
     /** Tests that our objects have {@code toString()} methods defined. */
     @Test public void testToStrings() {
         Assert.assertEquals("client", client.getClientId());
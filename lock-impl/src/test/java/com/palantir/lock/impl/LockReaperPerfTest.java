@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the cost of keeping a large number of outstanding lock tokens in the
+ * reaper: the timing wheel used by {@link LockServiceImpl} against the priority
+ * queue it replaced. Each simulated second, every token is either refreshed or
+ * left to expire, mirroring clients which refresh their locks periodically.
+ */
+@Ignore
+public final class LockReaperPerfTest {
+    private static final int NUM_TOKENS = 1000000;
+    private static final long LOCK_TIMEOUT_MILLIS = 120000;
+    private static final long REFRESH_PERIOD_MILLIS = 5000;
+    private static final long SIMULATED_MILLIS = 10 * 60 * 1000;
+    private static final long TICK_MILLIS = 10;
+
+    @Test
+    public void testTimingWheel() {
+        Random random = new Random(0);
+        long start = 0;
+        long[] expirations = initialExpirations(random, start);
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(TICK_MILLIS, start);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < NUM_TOKENS; i++) {
+            wheel.add(i, expirations[i]);
+        }
+        long rescheduled = 0;
+        for (long now = start; now < start + SIMULATED_MILLIS; now += TICK_MILLIS) {
+            refresh(expirations, now, random);
+            for (int token : wheel.advance(now)) {
+                wheel.add(token, expirations[token]);
+                rescheduled++;
+            }
+        }
+        report("timing wheel", startNanos, rescheduled);
+    }
+
+    @Test
+    public void testPriorityQueue() {
+        Random random = new Random(0);
+        long start = 0;
+        final long[] expirations = initialExpirations(random, start);
+        PriorityQueue<long[]> queue = new PriorityQueue<long[]>(NUM_TOKENS, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                return Long.compare(o1[1], o2[1]);
+            }
+        });
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < NUM_TOKENS; i++) {
+            queue.add(new long[] {i, expirations[i]});
+        }
+        long rescheduled = 0;
+        for (long now = start; now < start + SIMULATED_MILLIS; now += TICK_MILLIS) {
+            refresh(expirations, now, random);
+            while (!queue.isEmpty() && queue.peek()[1] <= now) {
+                long[] entry = queue.poll();
+                entry[1] = expirations[(int) entry[0]];
+                queue.add(entry);
+                rescheduled++;
+            }
+        }
+        report("priority queue", startNanos, rescheduled);
+    }
+
+    private static long[] initialExpirations(Random random, long start) {
+        long[] expirations = new long[NUM_TOKENS];
+        for (int i = 0; i < NUM_TOKENS; i++) {
+            expirations[i] = start + LOCK_TIMEOUT_MILLIS - random.nextInt((int) REFRESH_PERIOD_MILLIS);
+        }
+        return expirations;
+    }
+
+    /** Refreshes the tokens whose refresh falls in the current tick. */
+    private static void refresh(long[] expirations, long now, Random random) {
+        int tokensPerTick = (int) (NUM_TOKENS * TICK_MILLIS / REFRESH_PERIOD_MILLIS);
+        int first = (int) ((now / TICK_MILLIS * tokensPerTick) % NUM_TOKENS);
+        for (int i = 0; i < tokensPerTick; i++) {
+            expirations[(first + i) % NUM_TOKENS] = now + LOCK_TIMEOUT_MILLIS;
+        }
+    }
+
+    private static void report(String name, long startNanos, long rescheduled) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1000000;
+        System.out.println(name + ": " + NUM_TOKENS + " tokens, " + rescheduled
+                + " reschedules over " + SIMULATED_MILLIS / 1000 + " simulated seconds took "
+                + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.lock.BlockingMode;
+import com.palantir.lock.HeldLocksToken;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LockResponse;
+import com.palantir.lock.SimpleTimeDuration;
+import com.palantir.lock.StringLockDescriptor;
+
+/**
+ * Tests for {@link LockServiceImpl#lockWithFullLockResponseAsync}.
+ */
+public final class LockServiceImplAsyncTest {
+    private final LockClient client = LockClient.of("client");
+    private final LockClient otherClient = LockClient.of("otherClient");
+    private final LockDescriptor lock = StringLockDescriptor.of("lock");
+    private LockServiceImpl lockService;
+
+    @Before public void setUp() {
+        lockService = LockServiceImpl.create();
+    }
+
+    @After public void tearDown() {
+        lockService.close();
+    }
+
+    @Test public void testGrantedWhenReleased() throws Exception {
+        HeldLocksToken held = lockService.lockWithFullLockResponse(otherClient, writeLock().build()).getToken();
+        Assert.assertNotNull(held);
+
+        ListenableFuture<LockResponse> future = lockService.lockWithFullLockResponseAsync(client, writeLock().build());
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(1, lockService.getPendingAsyncLockRequestCount());
+
+        lockService.unlock(held);
+        LockResponse response = future.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(response.success());
+        Assert.assertEquals(0, lockService.getPendingAsyncLockRequestCount());
+        Assert.assertTrue(lockService.unlock(response.getToken()));
+    }
+
+    @Test public void testTimesOut() throws Exception {
+        HeldLocksToken held = lockService.lockWithFullLockResponse(otherClient, writeLock().build()).getToken();
+        LockRequest request = writeLock()
+                .blockForAtMost(SimpleTimeDuration.of(100, TimeUnit.MILLISECONDS))
+                .build();
+        LockResponse response = lockService.lockWithFullLockResponseAsync(client, request).get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(response.success());
+        Assert.assertEquals(0, lockService.getPendingAsyncLockRequestCount());
+        lockService.unlock(held);
+    }
+
+    @Test public void testCancelReleasesLocks() throws Exception {
+        LockDescriptor otherLock = StringLockDescriptor.of("otherLock");
+        HeldLocksToken held = lockService.lockWithFullLockResponse(otherClient,
+                LockRequest.builder(ImmutableSortedMap.of(otherLock, LockMode.WRITE)).build()).getToken();
+        LockRequest request = LockRequest.builder(ImmutableSortedMap.of(
+                lock, LockMode.WRITE,
+                otherLock, LockMode.WRITE)).build();
+        ListenableFuture<LockResponse> future = lockService.lockWithFullLockResponseAsync(client, request);
+        Assert.assertFalse(future.isDone());
+
+        future.cancel(true);
+        Assert.assertEquals(0, lockService.getPendingAsyncLockRequestCount());
+        LockRequest tryLock = writeLock().doNotBlock().build();
+        Assert.assertTrue(lockService.lockWithFullLockResponse(otherClient, tryLock).success());
+        lockService.unlock(held);
+    }
+
+    private LockRequest.Builder writeLock() {
+        return LockRequest.builder(ImmutableSortedMap.of(lock, LockMode.WRITE));
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.palantir.lock.HeldLocksToken;
+import com.palantir.lock.LockClient;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.LockRequest;
+import com.palantir.lock.LongPollLockResponse;
+import com.palantir.lock.StringLockDescriptor;
+
+/**
+ * Tests for {@link LongPollLockResource}.
+ */
+public final class LongPollLockResourceTest {
+    private static final long POLL_TIMEOUT_MILLIS = 50;
+
+    private final LockClient otherClient = LockClient.of("otherClient");
+    private final LockDescriptor lock = StringLockDescriptor.of("lock");
+    private LockServiceImpl lockService;
+    private LongPollLockResource resource;
+
+    @Before public void setUp() {
+        lockService = LockServiceImpl.create();
+        resource = new LongPollLockResource(lockService, POLL_TIMEOUT_MILLIS);
+    }
+
+    @After public void tearDown() {
+        resource.close();
+        lockService.close();
+    }
+
+    @Test public void testUncontendedLockIsGrantedImmediately() {
+        FakeAsyncResponse response = new FakeAsyncResponse();
+        resource.lock("client", writeLock(), response);
+        LongPollLockResponse result = response.getLockResponse();
+        Assert.assertTrue(result.isDone());
+        Assert.assertNotNull(result.getToken());
+        Assert.assertTrue(lockService.unlock(result.getToken()));
+    }
+
+    @Test public void testPollAfterTimeoutReturnsGrantedLock() throws InterruptedException {
+        HeldLocksToken held = lockService.lockAndGetHeldLocks(otherClient.getClientId(), writeLock());
+        FakeAsyncResponse first = new FakeAsyncResponse();
+        resource.lock("client", writeLock(), first);
+        Assert.assertFalse(first.isDone());
+
+        first.timeOut();
+        LongPollLockResponse pending = first.getLockResponse();
+        Assert.assertFalse(pending.isDone());
+
+        lockService.unlock(held);
+        FakeAsyncResponse second = new FakeAsyncResponse();
+        resource.poll(pending.getRequestId(), second);
+        awaitDone(second);
+        LongPollLockResponse result = second.getLockResponse();
+        Assert.assertTrue(result.isDone());
+        Assert.assertNotNull(result.getToken());
+        Assert.assertTrue(lockService.unlock(result.getToken()));
+    }
+
+    @Test public void testGrantIsSentToLatestPollOnResponderThread() throws InterruptedException {
+        HeldLocksToken held = lockService.lockAndGetHeldLocks(otherClient.getClientId(), writeLock());
+        FakeAsyncResponse first = new FakeAsyncResponse();
+        resource.lock("client", writeLock(), first);
+        first.timeOut();
+        String requestId = first.getLockResponse().getRequestId();
+        FakeAsyncResponse second = new FakeAsyncResponse();
+        resource.poll(requestId, second);
+        second.timeOut();
+        FakeAsyncResponse third = new FakeAsyncResponse();
+        resource.poll(requestId, third);
+        Assert.assertFalse(third.isDone());
+
+        lockService.unlock(held);
+        awaitDone(third);
+        LongPollLockResponse result = third.getLockResponse();
+        Assert.assertTrue(result.isDone());
+        Assert.assertTrue(third.resumingThread.getName().contains("responder"));
+        Assert.assertTrue(lockService.unlock(result.getToken()));
+    }
+
+    @Test public void testCancelReleasesRequest() throws InterruptedException {
+        HeldLocksToken held = lockService.lockAndGetHeldLocks(otherClient.getClientId(), writeLock());
+        FakeAsyncResponse response = new FakeAsyncResponse();
+        resource.lock("client", writeLock(), response);
+        response.timeOut();
+        String requestId = response.getLockResponse().getRequestId();
+
+        Assert.assertTrue(resource.cancel(requestId));
+        Assert.assertFalse(resource.cancel(requestId));
+        Assert.assertEquals(0, lockService.getPendingAsyncLockRequestCount());
+        lockService.unlock(held);
+    }
+
+    @Test public void testAbandonedRequestIsExpired() throws InterruptedException {
+        HeldLocksToken held = lockService.lockAndGetHeldLocks(otherClient.getClientId(), writeLock());
+        FakeAsyncResponse response = new FakeAsyncResponse();
+        resource.lock("client", writeLock(), response);
+        response.timeOut();
+        Assert.assertEquals(1, lockService.getPendingAsyncLockRequestCount());
+
+        long deadline = System.currentTimeMillis() + 100 * POLL_TIMEOUT_MILLIS;
+        while (lockService.getPendingAsyncLockRequestCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_TIMEOUT_MILLIS);
+        }
+        Assert.assertEquals(0, lockService.getPendingAsyncLockRequestCount());
+        FakeAsyncResponse poll = new FakeAsyncResponse();
+        resource.poll(response.getLockResponse().getRequestId(), poll);
+        Assert.assertTrue(poll.result instanceof Throwable);
+
+        // The lock must not have been handed to the abandoned request.
+        lockService.unlock(held);
+        Assert.assertNotNull(lockService.lockAndGetHeldLocks(otherClient.getClientId(),
+                LockRequest.builder(ImmutableSortedMap.of(lock, LockMode.WRITE)).doNotBlock().build()));
+    }
+
+    private LockRequest writeLock() {
+        return LockRequest.builder(ImmutableSortedMap.of(lock, LockMode.WRITE)).build();
+    }
+
+    private static void awaitDone(FakeAsyncResponse response) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!response.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    /** Records what the resource resumes it with; timeouts are triggered by the test. */
+    private static final class FakeAsyncResponse implements AsyncResponse {
+        volatile Object result;
+        volatile Thread resumingThread;
+        volatile TimeoutHandler timeoutHandler;
+
+        LongPollLockResponse getLockResponse() {
+            Assert.assertTrue("Expected a response but got " + result, result instanceof LongPollLockResponse);
+            return (LongPollLockResponse) result;
+        }
+
+        void timeOut() {
+            timeoutHandler.handleTimeout(this);
+        }
+
+        @Override
+        public synchronized boolean resume(Object response) {
+            if (result != null) {
+                return false;
+            }
+            resumingThread = Thread.currentThread();
+            result = response;
+            return true;
+        }
+
+        @Override
+        public boolean resume(Throwable response) {
+            return resume((Object) response);
+        }
+
+        @Override
+        public boolean cancel() {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(int retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(Date retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean isSuspended() {
+            return result == null;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return result != null;
+        }
+
+        @Override
+        public boolean setTimeout(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void setTimeoutHandler(TimeoutHandler handler) {
+            timeoutHandler = handler;
+        }
+
+        @Override
+        public Collection<Class<?>> register(Class<?> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Class<?>> register(Object callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
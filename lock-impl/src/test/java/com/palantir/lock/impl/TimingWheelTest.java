@@ -0,0 +1,70 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.impl;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link TimingWheel}.
+ */
+public final class TimingWheelTest {
+
+    @Test public void testExpiresAtDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1000);
+        wheel.add("a", 1050);
+        wheel.add("b", 1055);
+        Assert.assertEquals(2, wheel.size());
+        Assert.assertTrue(wheel.advance(1049).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("a"), wheel.advance(1050));
+        Assert.assertEquals(Lists.newArrayList("b"), wheel.advance(1060));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test public void testPastDeadlinesExpireOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1000);
+        wheel.add("a", 0);
+        Assert.assertEquals(Lists.newArrayList("a"), wheel.advance(1010));
+    }
+
+    @Test public void testNeverExpiresEarlyAcrossLevels() {
+        long tickMillis = 10;
+        long start = 123456789L;
+        TimingWheel<Long> wheel = new TimingWheel<Long>(tickMillis, start);
+        Random random = new Random(0);
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            long deadline = start + (long) (random.nextDouble() * 50000000L);
+            wheel.add(deadline, deadline);
+        }
+        Assert.assertEquals(wheel.size(), wheel.toList().size());
+        int expiredCount = 0;
+        for (long now = start; expiredCount < count; now += 1000 + random.nextInt(100000)) {
+            List<Long> expired = wheel.advance(now);
+            for (long deadline : expired) {
+                Assert.assertTrue(deadline <= now);
+                Assert.assertTrue(deadline > now - 100000 - 1000 - tickMillis);
+            }
+            expiredCount += expired.size();
+        }
+        Assert.assertEquals(0, wheel.size());
+    }
+}
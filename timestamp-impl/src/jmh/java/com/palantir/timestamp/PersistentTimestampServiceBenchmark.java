@@ -0,0 +1,90 @@
+/**
+ * Copyright 2015 Palantir Technologies
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.timestamp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many fresh timestamps per second a {@link PersistentTimestampService} can hand
+ * out as the number of requesting threads grows.  The bound store is in memory so the numbers
+ * reflect contention inside the service rather than the cost of persisting the upper limit.
+ * <p>
+ * Run with {@code ./gradlew :timestamp-impl:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentTimestampServiceBenchmark {
+    private PersistentTimestampService timestampService;
+
+    @Setup
+    public void setup() {
+        timestampService = PersistentTimestampService.create(new InMemoryTimestampBoundStore());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long freshTimestamp1Thread() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long freshTimestamp4Threads() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long freshTimestamp16Threads() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long freshTimestamp64Threads() {
+        return timestampService.getFreshTimestamp();
+    }
+
+    private static class InMemoryTimestampBoundStore implements TimestampBoundStore {
+        private long limit = 0;
+
+        @Override
+        public synchronized long getUpperLimit() {
+            return limit;
+        }
+
+        @Override
+        public synchronized void storeUpperLimit(long newLimit) {
+            limit = newLimit;
+        }
+    }
+}
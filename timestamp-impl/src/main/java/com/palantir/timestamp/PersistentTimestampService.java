@@ -18,6 +18,9 @@ package com.palantir.timestamp;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -31,6 +34,15 @@ import com.palantir.common.remoting.ServiceNotAvailableException;
 import com.palantir.common.time.Clock;
 import com.palantir.exception.PalantirInterruptedException;
 
+/**
+ * Hands out timestamps from a block that has been persisted to the {@link TimestampBoundStore}.
+ * <p>
+ * Requests reserve their range with a single fetch-and-add on the last returned timestamp, so
+ * concurrent callers never retry against each other.  A reservation may run past the current
+ * upper limit, in which case the caller parks until the background allocator has persisted a
+ * limit covering it.  Reserved timestamps are never handed out twice, and a range returned to
+ * one caller is always below any range reserved after it was returned.
+ */
 @ThreadSafe
 public class PersistentTimestampService implements TimestampService {
     private static final Logger log = LoggerFactory.getLogger(PersistentTimestampService.class);
@@ -46,6 +58,8 @@ public class PersistentTimestampService implements TimestampService {
 
     private final ExecutorService executor;
     private final AtomicBoolean isAllocationTaskSubmitted;
+    private final Lock allocationLock = new ReentrantLock();
+    private final Condition allocationFinished = allocationLock.newCondition();
 
     private Clock clock;
     private long lastAllocatedTime;
@@ -131,12 +145,22 @@ public class PersistentTimestampService implements TimestampService {
                         allocationFailure = e;
                     } finally {
                         isAllocationTaskSubmitted.set(false);
+                        signalAllocationFinished();
                     }
                 }
             });
         }
     }
 
+    private void signalAllocationFinished() {
+        allocationLock.lock();
+        try {
+            allocationFinished.signalAll();
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
     private static boolean isAllocationRequired(long lastVal, long upperLimit) {
         return (upperLimit - lastVal) <= ALLOCATION_BUFFER_SIZE / 2;
     }
@@ -156,11 +180,36 @@ public class PersistentTimestampService implements TimestampService {
         if (numTimestampsRequested > MAX_REQUEST_RANGE_SIZE) {
             numTimestampsRequested = MAX_REQUEST_RANGE_SIZE;
         }
+        long lastVal = lastReturnedTimestamp.getAndAdd(numTimestampsRequested);
+        long newVal = lastVal + numTimestampsRequested;
+        long upperLimit = upperLimitToHandOutInclusive.get();
+        if (newVal > upperLimit) {
+            upperLimit = waitForUpperLimit(newVal);
+        }
+        // we allocate new timestamps if we have less than half of our allocation buffer left
+        // or we haven't allocated timestamps in the last sixty seconds. The latter case
+        // exists in order to log errors faster against the class of bugs where your
+        // timestamp limit changed unexpectedly (usually, multiple TS against the same DB)
+        if (isAllocationRequired(newVal, upperLimit) ||
+                lastAllocatedTime + ONE_MINUTE_IN_MILLIS < clock.getTimeMillis()) {
+            submitAllocationTask();
+        }
+        return TimestampRange.createInclusiveRange(lastVal + 1, newVal);
+    }
+
+    /**
+     * Parks the calling thread until the persisted upper limit reaches the given timestamp.
+     * Waiters are woken each time an allocation attempt finishes, successfully or not.
+     */
+    private long waitForUpperLimit(long timestamp) {
         boolean hasLogged = false;
-        while (true) {
-            long upperLimit = upperLimitToHandOutInclusive.get();
-            long lastVal = lastReturnedTimestamp.get();
-            if (lastVal >= upperLimit) {
+        allocationLock.lock();
+        try {
+            while (true) {
+                long upperLimit = upperLimitToHandOutInclusive.get();
+                if (timestamp <= upperLimit) {
+                    return upperLimit;
+                }
                 submitAllocationTask();
                 Throwable possibleFailure = allocationFailure;
                 if (possibleFailure instanceof MultipleRunningTimestampServiceError) {
@@ -172,27 +221,18 @@ public class PersistentTimestampService implements TimestampService {
                     log.error("We haven't gotten enough timestamps from the DB", new RuntimeException());
                     hasLogged = true;
                 }
-                if (Thread.interrupted()) {
+                try {
+                    allocationFinished.await();
+                } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     throw new PalantirInterruptedException("Interrupted while waiting for timestamp allocation.");
                 }
-                continue;
-            }
-            long newVal = Math.min(upperLimit, lastVal + numTimestampsRequested);
-            if (lastReturnedTimestamp.compareAndSet(lastVal, newVal)) {
-                // we allocate new timestamps if we have less than half of our allocation buffer left
-                // or we haven't allocated timestamps in the last sixty seconds. The latter case
-                // exists in order to log errors faster against the class of bugs where your
-                // timestamp limit changed unexpectedly (usually, multiple TS against the same DB)
-                if (isAllocationRequired(newVal, upperLimit) ||
-                        lastAllocatedTime + ONE_MINUTE_IN_MILLIS < clock.getTimeMillis()) {
-                    submitAllocationTask();
-                }
-                return TimestampRange.createInclusiveRange(lastVal + 1, newVal);
             }
+        } finally {
+            allocationLock.unlock();
         }
     }
-    
+
     /**
      * Fast forwards the timestamp to the specified one so that no one can be served fresh timestamps prior
      * to it from now on.
@@ -213,5 +253,6 @@ public class PersistentTimestampService implements TimestampService {
 
         // Prevent ourselves from serving any of the bad (read: pre-fastForward) timestamps
         advanceAtomicLongToValue(lastReturnedTimestamp, timestamp);
+        signalAllocationFinished();
     }
 }
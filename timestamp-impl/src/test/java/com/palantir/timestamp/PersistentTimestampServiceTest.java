@@ -16,8 +16,11 @@
 package com.palantir.timestamp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -28,6 +31,7 @@ import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.palantir.common.concurrent.PTExecutors;
 
 public class PersistentTimestampServiceTest {
@@ -110,4 +114,63 @@ public class PersistentTimestampServiceTest {
 
         m.assertIsSatisfied();
     }
+
+    @Test
+    public void testConcurrentRequestsSpanningAllocations() throws Exception {
+        final TimestampBoundStore store = new TimestampBoundStore() {
+            private long limit = 0;
+
+            @Override
+            public synchronized long getUpperLimit() {
+                return limit;
+            }
+
+            @Override
+            public synchronized void storeUpperLimit(long newLimit) {
+                limit = newLimit;
+            }
+        };
+        final TimestampService tsService = PersistentTimestampService.create(store);
+        final int numThreads = 8;
+        final int numRequests = 1000;
+        final int rangeSize = 500;
+
+        ExecutorService exec = PTExecutors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<List<TimestampRange>>> futures = Lists.newArrayList();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(exec.submit(new Callable<List<TimestampRange>>() {
+                    @Override
+                    public List<TimestampRange> call() {
+                        List<TimestampRange> ranges = Lists.newArrayList();
+                        long last = 0;
+                        for (int j = 0; j < numRequests; j++) {
+                            TimestampRange range = tsService.getFreshTimestamps(rangeSize);
+                            assertTrue(range.getLowerBound() > last);
+                            last = range.getUpperBound();
+                            ranges.add(range);
+                        }
+                        return ranges;
+                    }
+                }));
+            }
+
+            // Every timestamp up to the last one requested is handed out exactly once.
+            boolean[] seen = new boolean[numThreads * numRequests * rangeSize + 1];
+            for (Future<List<TimestampRange>> f : futures) {
+                for (TimestampRange range : f.get(60, TimeUnit.SECONDS)) {
+                    assertTrue(range.getUpperBound() <= store.getUpperLimit());
+                    for (long ts = range.getLowerBound(); ts <= range.getUpperBound(); ts++) {
+                        assertTrue("duplicate timestamp " + ts, !seen[(int) ts]);
+                        seen[(int) ts] = true;
+                    }
+                }
+            }
+            for (int ts = 1; ts < seen.length; ts++) {
+                assertTrue("missing timestamp " + ts, seen[ts]);
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
 }